@@ -0,0 +1,21 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+ * Clase de configuración de la ejecución asíncrona.
+ *
+ * @EnableAsync activa @Async. Los métodos asíncronos se ejecutan en el executor "applicationTaskExecutor"
+ * que registra Spring Boot: con spring.threads.virtual.enabled=true es un SimpleAsyncTaskExecutor que crea
+ * un hilo virtual por tarea; con false, un pool de hilos de plataforma (spring.task.execution.*).
+ *
+ * @EnableScheduling activa @Scheduled (p. ej. el cierre de ventana de ClearingFileJob), sobre el
+ * "taskScheduler" de Spring Boot (tambien con hilos virtuales si estan habilitados).
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfiguration {
+}
@@ -0,0 +1,24 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Java Utilities
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita cuantas llamadas a los metodos anotados (o a todos los metodos de la clase) se ejecutan a la vez.
+ * Las llamadas que exceden el limite esperan hasta hyprbank.bulkhead.&lt;nombre&gt;.max-wait-ms y luego
+ * se rechazan con 503 Service Unavailable (ver {@link BulkheadAspect}).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Bulkhead {
+
+    /**
+     * @return Nombre del compartimento; las anotaciones con el mismo nombre comparten el limite.
+     */
+    String value();
+}
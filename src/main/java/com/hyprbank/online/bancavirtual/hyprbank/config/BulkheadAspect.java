@@ -0,0 +1,134 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de AspectJ
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponseException;
+
+// Importaciones de Java Utilities
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Aplica los limites de concurrencia de @Bulkhead con un semaforo por nombre.
+ *
+ * Configuracion por compartimento (application.properties):
+ * - hyprbank.bulkhead.<nombre>.max-concurrent: llamadas simultaneas permitidas (por defecto 4).
+ * - hyprbank.bulkhead.<nombre>.max-wait-ms: espera maxima por un permiso antes de rechazar (por defecto 0).
+ *
+ * Metricas por compartimento (tag 'name'): hyprbank.bulkhead.active, hyprbank.bulkhead.waiting,
+ * hyprbank.bulkhead.wait (tiempo esperando permiso) y hyprbank.bulkhead.rejected.
+ * Se ejecuta despues de la seguridad de metodos (@PreAuthorize) y por fuera de las transacciones y de
+ * SqlStatementTransactionAspect, para que una llamada rechazada no abra una transaccion.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class BulkheadAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadAspect.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    public BulkheadAspect(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.hyprbank.online.bancavirtual.hyprbank..*) && "
+            + "(@within(com.hyprbank.online.bancavirtual.hyprbank.config.Bulkhead) || "
+            + "@annotation(com.hyprbank.online.bancavirtual.hyprbank.config.Bulkhead))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        Compartment compartment = compartments.computeIfAbsent(bulkheadName(joinPoint), this::newCompartment);
+
+        long start = System.nanoTime();
+        boolean acquired = compartment.permits.tryAcquire(compartment.maxWaitMillis, TimeUnit.MILLISECONDS);
+        compartment.wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            compartment.rejected.increment();
+            logger.warn("Compartimento '{}' lleno ({} llamadas en curso): se rechaza {}.",
+                    compartment.name, compartment.maxConcurrent, joinPoint.getSignature().toShortString());
+            ErrorResponseException rejection = new ErrorResponseException(HttpStatus.SERVICE_UNAVAILABLE);
+            rejection.setDetail("Demasiadas solicitudes de este tipo en curso. Intente de nuevo en unos segundos.");
+            rejection.getHeaders().set("Retry-After", "5");
+            throw rejection;
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            compartment.permits.release();
+        }
+    }
+
+    private static String bulkheadName(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Bulkhead bulkhead = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), Bulkhead.class);
+        if (bulkhead == null) {
+            bulkhead = AnnotatedElementUtils.findMergedAnnotation(signature.getDeclaringType(), Bulkhead.class);
+        }
+        return bulkhead.value();
+    }
+
+    private Compartment newCompartment(String name) {
+        int maxConcurrent = environment.getProperty("hyprbank.bulkhead." + name + ".max-concurrent", Integer.class, 4);
+        long maxWaitMillis = environment.getProperty("hyprbank.bulkhead." + name + ".max-wait-ms", Long.class, 0L);
+        Compartment compartment = new Compartment(name, maxConcurrent, maxWaitMillis, meterRegistry);
+        Gauge.builder("hyprbank.bulkhead.active", compartment.permits, permits -> maxConcurrent - permits.availablePermits())
+                .description("Llamadas en curso dentro del compartimento")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.bulkhead.waiting", compartment.permits, Semaphore::getQueueLength)
+                .description("Llamadas esperando un permiso del compartimento")
+                .tag("name", name)
+                .register(meterRegistry);
+        return compartment;
+    }
+
+    private static final class Compartment {
+        private final String name;
+        private final int maxConcurrent;
+        private final long maxWaitMillis;
+        private final Semaphore permits;
+        private final Timer wait;
+        private final Counter rejected;
+
+        Compartment(String name, int maxConcurrent, long maxWaitMillis, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaitMillis = maxWaitMillis;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.wait = Timer.builder("hyprbank.bulkhead.wait")
+                    .description("Tiempo esperando un permiso del compartimento")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("hyprbank.bulkhead.rejected")
+                    .description("Llamadas rechazadas por compartimento lleno")
+                    .tag("name", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Clase de configuración de la cache de la aplicación.
+ *
+ * @EnableCaching activa las anotaciones @Cacheable/@CacheEvict. El proveedor (Caffeine), los nombres de las
+ * caches y su tamaño máximo se definen en application.properties (spring.cache.*), y Spring Boot registra
+ * automáticamente sus métricas (cache.gets, cache.evictions, ...) en actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+}
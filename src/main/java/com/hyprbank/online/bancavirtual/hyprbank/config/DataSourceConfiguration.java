@@ -0,0 +1,108 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de HikariCP
+import com.zaxxer.hikari.HikariDataSource;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+// Importaciones de Java SQL
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.Map;
+
+/*
+ * Clase de configuración de los DataSource: una base primaria (escrituras) y una replica (lecturas).
+ *
+ * - primaryDataSource: spring.datasource.* y spring.datasource.hikari.* (pool "primary").
+ *   Flyway migra siempre contra este pool.
+ * - replicaDataSource: hyprbank.datasource.replica.* (pool "replica", conexiones de solo lectura).
+ *   Si no se configura una replica, apunta a la misma base que la primaria.
+ * - reportingDataSource: hyprbank.datasource.reporting.* (pool "reporting", solo lectura) para los metodos
+ *   @ReportingWorkload. Sin URL propia usa la de la replica (o la de la primaria).
+ * - dataSource (@Primary, el que usan JPA y JdbcTemplate): LazyConnectionDataSourceProxy sobre
+ *   {@link ReadWriteRoutingDataSource}, que envia las transacciones readOnly a la replica.
+ *
+ * Para probar con dos instancias locales (MySQL o H2) basta con apuntar hyprbank.datasource.replica.url
+ * a la segunda instancia.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("hyprbank.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${hyprbank.datasource.replica.url:}") String url,
+                                              @Value("${hyprbank.datasource.replica.username:}") String username,
+                                              @Value("${hyprbank.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            dataSource.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        }
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("hyprbank.datasource.reporting.hikari")
+    public HikariDataSource reportingDataSource(DataSourceProperties properties,
+                                                @Value("${hyprbank.datasource.reporting.url:${hyprbank.datasource.replica.url:}}") String url,
+                                                @Value("${hyprbank.datasource.reporting.username:${hyprbank.datasource.replica.username:}}") String username,
+                                                @Value("${hyprbank.datasource.reporting.password:${hyprbank.datasource.replica.password:}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            dataSource.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        }
+        dataSource.setPoolName("reporting");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Qualifier("reportingDataSource") DataSource reporting,
+                                 @Value("${hyprbank.datasource.replica.sticky-ms:2000}") long stickyMillis) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(Duration.ofMillis(stickyMillis));
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Route.REPLICA, replica,
+                ReadWriteRoutingDataSource.Route.REPORTING, reporting));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Los valores por defecto evitan abrir una conexion al iniciar solo para leerlos (MySQL/InnoDB)
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+        lazy.setTargetDataSource(routing);
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        lazy.afterPropertiesSet();
+        return lazy;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de JPA
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Verifica al iniciar que existan en MySQL todos los indices declarados con @Index en las entidades.
+ *
+ * Las consultas frecuentes (historial de movimientos, directorio de clientes, reporte de accesos)
+ * dependen de esos indices; sin ellos funcionan, pero con recorridos completos y filesort.
+ * Si falta alguno, la aplicacion no inicia y el mensaje indica cuales faltan, en lugar de
+ * descubrirlo despues por la latencia. Los indices se crean con las migraciones de Flyway.
+ *
+ * Se ejecuta despues de crear todos los singletons (Flyway ya migro) y antes de abrir el puerto HTTP.
+ * Se desactiva con hyprbank.schema.verify-indexes=false.
+ */
+@Component
+@ConditionalOnProperty(name = "hyprbank.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class IndexVerifier implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexVerifier.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IndexVerifier(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, Set<String>> expected = expectedIndexes(entityManagerFactory.getMetamodel().getEntities().stream()
+                .map(EntityType::getJavaType)
+                .collect(Collectors.toList()));
+
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+            String table = entry.getKey();
+            Set<String> existing = jdbcTemplate.queryForList(
+                            "SELECT DISTINCT index_name FROM information_schema.statistics "
+                                    + "WHERE table_schema = DATABASE() AND table_name = ?", String.class, table)
+                    .stream()
+                    .map(name -> name.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            for (String index : entry.getValue()) {
+                if (!existing.contains(index.toLowerCase(Locale.ROOT))) {
+                    missing.add(table + "." + index);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Faltan indices en la base de datos: " + missing
+                    + ". Ejecute las migraciones de Flyway (db/migration) o desactive la verificacion con "
+                    + "hyprbank.schema.verify-indexes=false.");
+        }
+        logger.info("Indices verificados: {} indices en {} tablas.",
+                expected.values().stream().mapToInt(Set::size).sum(), expected.size());
+    }
+
+    /*
+     * Agrupa por tabla los nombres de los @Index declarados en @Table de cada entidad.
+     */
+    static Map<String, Set<String>> expectedIndexes(List<Class<?>> entityClasses) {
+        Map<String, Set<String>> expected = new TreeMap<>();
+        for (Class<?> entityClass : entityClasses) {
+            Table table = entityClass.getAnnotation(Table.class);
+            if (table == null) {
+                continue;
+            }
+            for (Index index : table.indexes()) {
+                expected.computeIfAbsent(table.name(), name -> new TreeSet<>()).add(index.name());
+            }
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,199 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+// Importaciones de Spring Boot Actuator
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Endpoint de actuator /actuator/hyprbank-perf: resumen de rendimiento leido del MeterRegistry en memoria,
+ * sin necesidad de Prometheus ni otro sistema externo.
+ *
+ * Incluye:
+ * - throughput: peticiones HTTP por segundo desde el inicio y desde la lectura anterior del endpoint.
+ * - endpoints: latencia por endpoint (http.server.requests) con p50/p99/p999.
+ * - services: latencia por metodo de los servicios anotados con @Timed("hyprbank.service").
+ * - connectionPool: por pool (primary, replica, reporting), conexiones activas/inactivas de Hikari, hilos
+ *   esperando una conexion y tiempo de espera para obtenerla.
+ * - bulkheads: llamadas en curso, en espera y rechazadas de cada compartimento @Bulkhead.
+ * - allocation: bytes asignados en el heap por segundo (jvm.gc.memory.allocated).
+ *
+ * Los percentiles los calcula Micrometer en el proceso con HdrHistogram sobre una ventana deslizante
+ * (por defecto 2 minutos), por lo que reflejan el comportamiento reciente.
+ */
+@Component
+@Endpoint(id = "hyprbank-perf")
+public class PerformanceEndpoint {
+
+    private static final int MAX_ROWS = 25;
+
+    private final MeterRegistry meterRegistry;
+
+    // Lectura anterior, para calcular tasas en el intervalo entre dos consultas al endpoint
+    private final AtomicReference<Sample> lastSample = new AtomicReference<>(new Sample(System.nanoTime(), 0, 0));
+
+    public PerformanceEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        long now = System.nanoTime();
+        double uptimeSeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+        double requests = totalCount("http.server.requests");
+        double allocatedBytes = counterTotal("jvm.gc.memory.allocated");
+        Sample previous = lastSample.getAndSet(new Sample(now, requests, allocatedBytes));
+        double intervalSeconds = Math.max((now - previous.nanos) / 1e9, 1e-3);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("uptimeSeconds", Math.round(uptimeSeconds));
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("requests", (long) requests);
+        throughput.put("requestsPerSecond", round(requests / Math.max(uptimeSeconds, 1e-3)));
+        throughput.put("requestsPerSecondSinceLastRead", round((requests - previous.requests) / intervalSeconds));
+        throughput.put("secondsSinceLastRead", round(intervalSeconds));
+        summary.put("throughput", throughput);
+
+        summary.put("endpoints", timerRows("http.server.requests", "method", "uri", "status"));
+        summary.put("services", timerRows("hyprbank.service", "class", "method"));
+        summary.put("connectionPool", connectionPool());
+        summary.put("bulkheads", bulkheads());
+
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("allocatedBytes", (long) allocatedBytes);
+        allocation.put("bytesPerSecond", Math.round(allocatedBytes / Math.max(uptimeSeconds, 1e-3)));
+        allocation.put("bytesPerSecondSinceLastRead", Math.round((allocatedBytes - previous.allocatedBytes) / intervalSeconds));
+        summary.put("allocation", allocation);
+        return summary;
+    }
+
+    /*
+     * Una fila por timer (combinacion de tags), ordenadas por cantidad de llamadas.
+     */
+    private List<Map<String, Object>> timerRows(String name, String... tagKeys) {
+        List<Timer> timers = new ArrayList<>(meterRegistry.find(name).timers());
+        timers.sort(Comparator.comparingLong(Timer::count).reversed());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : timers.subList(0, Math.min(MAX_ROWS, timers.size()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String key : tagKeys) {
+                row.put(key, timer.getId().getTag(key));
+            }
+            row.putAll(timerStats(timer));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> timerStats(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.count());
+        stats.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        stats.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put(percentileLabel(percentile.percentile()), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return stats;
+    }
+
+    /*
+     * Estado de cada pool de Hikari (tag 'pool').
+     */
+    private List<Map<String, Object>> connectionPool() {
+        List<Map<String, Object>> pools = new ArrayList<>();
+        for (Gauge active : meterRegistry.find("hikaricp.connections.active").gauges()) {
+            String pool = active.getId().getTag("pool");
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("pool", pool);
+            row.put("active", (long) active.value());
+            row.put("idle", (long) gaugeValue("hikaricp.connections.idle", pool));
+            row.put("pending", (long) gaugeValue("hikaricp.connections.pending", pool));
+            row.put("max", (long) gaugeValue("hikaricp.connections.max", pool));
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+            if (acquire != null) {
+                row.put("acquire", timerStats(acquire));
+            }
+            pools.add(row);
+        }
+        return pools;
+    }
+
+    /*
+     * Estado de cada compartimento @Bulkhead (tag 'name').
+     */
+    private List<Map<String, Object>> bulkheads() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Gauge active : meterRegistry.find("hyprbank.bulkhead.active").gauges()) {
+            String name = active.getId().getTag("name");
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", name);
+            row.put("active", (long) active.value());
+            Gauge waiting = meterRegistry.find("hyprbank.bulkhead.waiting").tag("name", name).gauge();
+            row.put("waiting", waiting != null ? (long) waiting.value() : 0L);
+            Counter rejected = meterRegistry.find("hyprbank.bulkhead.rejected").tag("name", name).counter();
+            row.put("rejected", rejected != null ? (long) rejected.count() : 0L);
+            Timer wait = meterRegistry.find("hyprbank.bulkhead.wait").tag("name", name).timer();
+            if (wait != null) {
+                row.put("wait", timerStats(wait));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private double gaugeValue(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+
+    private double totalCount(String timerName) {
+        return meterRegistry.find(timerName).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private double counterTotal(String name) {
+        double total = 0;
+        for (Meter meter : meterRegistry.find(name).meters()) {
+            if (meter instanceof Counter counter) {
+                total += counter.count();
+            } else if (meter instanceof FunctionCounter counter) {
+                total += counter.count();
+            }
+        }
+        return total;
+    }
+
+    private static String percentileLabel(double percentile) {
+        // 0.5 -> p50, 0.99 -> p99, 0.999 -> p999
+        String digits = String.valueOf(percentile).substring(2);
+        return "p" + (digits.length() == 1 ? digits + "0" : digits) + "Ms";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record Sample(long nanos, double requests, double allocatedBytes) {
+    }
+}
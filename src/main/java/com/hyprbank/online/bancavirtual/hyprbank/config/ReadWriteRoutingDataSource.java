@@ -0,0 +1,140 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Spring Framework
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/*
+ * DataSource que elige el pool segun la transaccion en curso:
+ * - @Transactional(readOnly = true) -> replica (REPLICA).
+ * - cualquier otra transaccion, o sin transaccion -> primaria (PRIMARY).
+ * - lecturas dentro de un metodo @ReportingWorkload -> pool de reportes (REPORTING), con su propio tamaño
+ *   y tiempos de espera, para que un reporte lento no deje sin conexiones a los depositos y transferencias.
+ *
+ * Lectura de las propias escrituras: cuando un usuario confirma una transaccion de escritura, sus
+ * transacciones de solo lectura van a la primaria durante una ventana (hyprbank.datasource.replica.sticky-ms),
+ * para que no vea datos anteriores a su propio deposito o transferencia mientras la replica se pone al dia.
+ * Los demas usuarios siguen leyendo de la replica.
+ *
+ * La decision se toma al obtener la conexion, por eso debe usarse detras de un LazyConnectionDataSourceProxy
+ * (ver DataSourceConfiguration): la conexion real se pide en la primera sentencia, cuando la transaccion
+ * ya esta marcada como de solo lectura.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Pools a los que se puede dirigir una conexion.
+     */
+    public enum Route {
+        PRIMARY, REPLICA, REPORTING
+    }
+
+    // Marca del hilo mientras se ejecuta un metodo @ReportingWorkload (ver ReportingWorkloadAspect)
+    private static final ThreadLocal<Boolean> REPORTING = new ThreadLocal<>();
+
+    // Recurso de TransactionSynchronizationManager que marca que la transaccion ya registra su escritura
+    private static final Object WRITE_MARKER = new Object();
+
+    // Por encima de este numero de usuarios recordados se descartan las marcas vencidas
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long stickyNanos;
+    private final LongSupplier nanoTime;
+    // Usuario -> instante (System.nanoTime) de su ultima transaccion de escritura confirmada
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(Duration stickyWindow) {
+        this(stickyWindow, System::nanoTime);
+    }
+
+    ReadWriteRoutingDataSource(Duration stickyWindow, LongSupplier nanoTime) {
+        this.stickyNanos = stickyWindow.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /*
+     * Marca el hilo actual como carga de reportes.
+     * Devuelve false si ya estaba marcado (llamada anidada), en cuyo caso no debe limpiarse al salir.
+     */
+    static boolean markReporting() {
+        if (REPORTING.get() != null) {
+            return false;
+        }
+        REPORTING.set(Boolean.TRUE);
+        return true;
+    }
+
+    static void clearReporting() {
+        REPORTING.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (REPORTING.get() != null && (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isActualTransactionActive())) {
+            return Route.REPORTING;
+        }
+        String user = currentUser();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return user != null && recentlyWrote(user) ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordWrite(user);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    /*
+     * Registra que el usuario confirmo una escritura ahora.
+     */
+    void recordWrite(String user) {
+        long now = nanoTime.getAsLong();
+        lastWrites.put(user, now);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > stickyNanos);
+        }
+    }
+
+    private boolean recentlyWrote(String user) {
+        Long writtenAt = lastWrites.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (nanoTime.getAsLong() - writtenAt <= stickyNanos) {
+            return true;
+        }
+        lastWrites.remove(user, writtenAt);
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,20 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Java Utilities
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca metodos (o todos los metodos de una clase) que leen grandes volumenes de datos: reportes PDF,
+ * listados completos de movimientos. Sus consultas se ejecutan en el pool "reporting"
+ * (ver {@link ReadWriteRoutingDataSource} y {@link ReportingWorkloadAspect}), para no ocupar
+ * las conexiones de depositos y transferencias.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReportingWorkload {
+}
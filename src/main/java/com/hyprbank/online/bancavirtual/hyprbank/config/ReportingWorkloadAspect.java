@@ -0,0 +1,33 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de AspectJ
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+// Importaciones de Spring Framework
+import org.springframework.stereotype.Component;
+
+/*
+ * Marca el hilo como carga de reportes mientras se ejecuta un metodo @ReportingWorkload.
+ * ReadWriteRoutingDataSource lo consulta al obtener la conexion (en la primera sentencia), por lo que
+ * no importa si este aspecto corre por dentro o por fuera del interceptor de transacciones.
+ */
+@Aspect
+@Component
+public class ReportingWorkloadAspect {
+
+    @Around("within(com.hyprbank.online.bancavirtual.hyprbank..*) && "
+            + "(@within(com.hyprbank.online.bancavirtual.hyprbank.config.ReportingWorkload) || "
+            + "@annotation(com.hyprbank.online.bancavirtual.hyprbank.config.ReportingWorkload))")
+    public Object runAsReporting(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean outermost = ReadWriteRoutingDataSource.markReporting();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (outermost) {
+                ReadWriteRoutingDataSource.clearReporting();
+            }
+        }
+    }
+}
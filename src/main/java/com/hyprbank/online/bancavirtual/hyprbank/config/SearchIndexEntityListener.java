@@ -0,0 +1,106 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+
+// Importaciones de Servicios
+import com.hyprbank.online.bancavirtual.hyprbank.service.CustomerSearchIndex;
+
+// Importaciones de JPA
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.util.function.Consumer;
+
+/*
+ * Listener JPA que mantiene actualizado el indice de busqueda en memoria ({@link CustomerSearchIndex})
+ * cuando se crean, modifican o eliminan usuarios y cuentas.
+ *
+ * Hibernate obtiene este listener del contexto de Spring, por eso puede recibir dependencias.
+ * El indice se pide con ObjectProvider para no crear una dependencia circular con el EntityManagerFactory.
+ *
+ * Los valores se copian al momento del evento y el indice se actualiza solo si la transaccion
+ * se confirma; si se revierte, el indice no cambia.
+ */
+@Component
+public class SearchIndexEntityListener {
+
+    private final ObjectProvider<CustomerSearchIndex> searchIndex;
+
+    public SearchIndexEntityListener(ObjectProvider<CustomerSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof User user) {
+            indexUser(user);
+        } else if (entity instanceof Account account && account.getUser() != null) {
+            Long userId = account.getUser().getId();
+            String accountNumber = account.getAccountNumber();
+            afterCommit(index -> index.onAccountSaved(userId, accountNumber));
+        }
+    }
+
+    /*
+     * Solo los usuarios se reindexan al actualizarse: en las cuentas cambia el saldo,
+     * no el numero, y sus actualizaciones son la ruta critica de las transacciones.
+     */
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof User user) {
+            indexUser(user);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof User user) {
+            Long id = user.getId();
+            afterCommit(index -> index.onUserRemoved(id));
+        } else if (entity instanceof Account account && account.getUser() != null) {
+            Long userId = account.getUser().getId();
+            String accountNumber = account.getAccountNumber();
+            afterCommit(index -> index.onAccountRemoved(userId, accountNumber));
+        }
+    }
+
+    private void indexUser(User user) {
+        Long id = user.getId();
+        String firstName = user.getFirstName();
+        String lastName = user.getLastName();
+        String email = user.getEmail();
+        String dpi = user.getDpi();
+        String nit = user.getNit();
+        afterCommit(index -> index.onUserSaved(id, firstName, lastName, email, dpi, nit));
+    }
+
+    /*
+     * Ejecuta la actualizacion del indice al confirmar la transaccion actual (o de inmediato si no hay una).
+     */
+    private void afterCommit(Consumer<CustomerSearchIndex> action) {
+        CustomerSearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.accept(index);
+                }
+            });
+        } else {
+            action.accept(index);
+        }
+    }
+}
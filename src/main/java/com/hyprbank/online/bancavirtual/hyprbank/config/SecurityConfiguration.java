@@ -98,6 +98,10 @@ public class SecurityConfiguration {
                 // Esto protegerá /api/reports/clients/pdf, /api/reports/movements/pdf, etc.
                 .requestMatchers("/api/reports/**").hasRole("ADMIN")
 
+                // Endpoints de monitoreo (metricas, caches, etc.). El health check queda publico.
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                 // Cualquier otra solicitud no especificada requiere autenticación.
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,222 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java SQL
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Importaciones de Java Utilities
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Envuelve el DataSource de la aplicacion para medir cada sentencia SQL en {@link SqlStatementTracker}.
+ *
+ * Usa proxies dinamicos de JDK sobre DataSource, Connection, Statement y ResultSet (sin dependencias extra):
+ * - execute/executeQuery/executeUpdate/executeBatch: cuenta la sentencia y mide su duracion.
+ * - executeUpdate/executeBatch: suma las filas afectadas.
+ * - ResultSet.next(): suma cada fila leida.
+ * Si no hay ningun ambito abierto en el hilo, el costo es una consulta a un ThreadLocal.
+ *
+ * Solo se envuelve el bean "dataSource" (el que usan JPA y JdbcTemplate), para no contar dos veces las
+ * sentencias si otros DataSource se componen a partir de el. Flyway migra con el pool primario
+ * (@FlywayDataSource en DataSourceConfiguration), sin pasar por este bean: las sentencias de las migraciones
+ * no se cuentan.
+ * unwrap/isWrapperFor se delegan al objeto real, por lo que las metricas de Hikari de actuator
+ * siguen encontrando el HikariDataSource.
+ */
+@Component
+public class SqlStatementDataSourceProxy implements BeanPostProcessor {
+
+    static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN_NAME.equals(beanName) && !isProxied(dataSource)) {
+            return wrap(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Envuelve un DataSource para que sus sentencias se registren en SqlStatementTracker.
+     *
+     * @param dataSource El DataSource real.
+     * @return El DataSource instrumentado.
+     */
+    public static DataSource wrap(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(SqlStatementDataSourceProxy.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new DataSourceHandler(dataSource));
+    }
+
+    static boolean isProxied(Object candidate) {
+        return Proxy.isProxyClass(candidate.getClass())
+                && Proxy.getInvocationHandler(candidate) instanceof DataSourceHandler;
+    }
+
+    /*
+     * Base de los handlers: equals/hashCode por identidad del proxy (Hibernate guarda statements en mapas)
+     * y el resto se delega al objeto real, devolviendo la excepcion original en lugar de InvocationTargetException.
+     */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+        protected final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public final Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals") && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if (method.getName().equals("hashCode") && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            return handle(method, args);
+        }
+
+        protected abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        protected Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private static final class DataSourceHandler extends DelegatingHandler {
+
+        DataSourceHandler(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return Proxy.newProxyInstance(SqlStatementDataSourceProxy.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    private static final class ConnectionHandler extends DelegatingHandler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            if (result instanceof Statement statement) {
+                String sql = (args != null && args.length > 0 && args[0] instanceof String text) ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(SqlStatementDataSourceProxy.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends DelegatingHandler {
+        private final String preparedSql;
+        // SQL agregado con addBatch(String) en Statements simples
+        private final List<String> batchSql = new ArrayList<>();
+
+        StatementHandler(Statement target, String preparedSql) {
+            super(target);
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+                batchSql.add(sql);
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return wrapResultSet(invokeTarget(method, args));
+            }
+            if (!SqlStatementTracker.isActive()) {
+                Object result = invokeTarget(method, args);
+                batchSql.clear();
+                return wrapResultSet(result);
+            }
+
+            String sql = (args != null && args.length > 0 && args[0] instanceof String text) ? text
+                    : preparedSql != null ? preparedSql
+                    : batchSql.isEmpty() ? null : batchSql.get(0);
+            long start = System.nanoTime();
+            Object result = invokeTarget(method, args);
+            long elapsed = System.nanoTime() - start;
+            SqlStatementTracker.recordStatement(sql, elapsed, affectedRows(result));
+            batchSql.clear();
+            return wrapResultSet(result);
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(count, 0);
+            } else if (result instanceof Long count) {
+                return Math.max(count, 0);
+            } else if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0); // SUCCESS_NO_INFO (-2) no aporta filas conocidas
+                }
+                return total;
+            } else if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return 0;
+        }
+
+        private static Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet resultSet && SqlStatementTracker.isActive()) {
+                return Proxy.newProxyInstance(SqlStatementDataSourceProxy.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler extends DelegatingHandler {
+
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlStatementTracker.recordRowRead();
+            }
+            return result;
+        }
+    }
+}
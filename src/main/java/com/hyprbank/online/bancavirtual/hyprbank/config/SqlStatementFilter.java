@@ -0,0 +1,47 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Jakarta Servlet
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Importaciones de Spring Framework
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/*
+ * Abre un ambito de SqlStatementTracker por cada peticion HTTP y publica sus estadisticas al terminar.
+ *
+ * El endpoint se identifica por el patron de la ruta (ej. "GET /api/admin/accounts/number/{accountNumber}")
+ * para que las metricas no crezcan con cada valor distinto. Las peticiones sin SQL (recursos estaticos)
+ * no se publican.
+ */
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    public SqlStatementFilter(SqlStatementMetrics sqlStatementMetrics) {
+        this.sqlStatementMetrics = sqlStatementMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementTracker.Scope scope = SqlStatementTracker.begin(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            if (scope.getStatementCount() > 0) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+                sqlStatementMetrics.publish("request", endpoint, scope, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Micrometer (metricas expuestas por actuator)
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Publica en Micrometer las estadisticas SQL de cada ambito cerrado (peticion HTTP o metodo @Transactional)
+ * y advierte en el log cuando una misma forma de sentencia se repite demasiado (posible N+1).
+ *
+ * Metricas publicadas (ver /actuator/metrics), con tags scope=request|transaction y name=endpoint|metodo:
+ * - hyprbank.sql.statements: sentencias por ambito.
+ * - hyprbank.sql.rows: filas leidas o afectadas por ambito.
+ * - hyprbank.sql.time: tiempo total en JDBC por ambito.
+ * - hyprbank.sql.repeated: ambitos en los que alguna sentencia supero el umbral de repeticiones.
+ */
+@Component
+public class SqlStatementMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public SqlStatementMetrics(MeterRegistry meterRegistry,
+                               @Value("${hyprbank.sql.repeat-threshold:10}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * Registra las estadisticas de un ambito que acaba de cerrarse.
+     *
+     * @param scopeType "request" o "transaction".
+     * @param name Endpoint o metodo (valor del tag 'name').
+     * @param scope El ambito cerrado.
+     * @param warnRepeated Si debe advertir de sentencias repetidas (solo el ambito exterior, para no repetir el aviso).
+     */
+    public void publish(String scopeType, String name, SqlStatementTracker.Scope scope, boolean warnRepeated) {
+        DistributionSummary.builder("hyprbank.sql.statements")
+                .description("Sentencias SQL ejecutadas por peticion o transaccion")
+                .tags("scope", scopeType, "name", name)
+                .register(meterRegistry)
+                .record(scope.getStatementCount());
+        DistributionSummary.builder("hyprbank.sql.rows")
+                .description("Filas leidas o afectadas por peticion o transaccion")
+                .tags("scope", scopeType, "name", name)
+                .register(meterRegistry)
+                .record(scope.getRowCount());
+        Timer.builder("hyprbank.sql.time")
+                .description("Tiempo total en JDBC por peticion o transaccion")
+                .tags("scope", scopeType, "name", name)
+                .register(meterRegistry)
+                .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (!warnRepeated) {
+            return;
+        }
+        boolean repeated = false;
+        for (Map.Entry<String, Integer> shape : scope.getShapes().entrySet()) {
+            if (shape.getValue() > repeatThreshold) {
+                repeated = true;
+                logger.warn("Posible N+1 en {} '{}': la misma sentencia se ejecuto {} veces: {}",
+                        scopeType, name, shape.getValue(), shape.getKey());
+            }
+        }
+        if (repeated) {
+            Counter.builder("hyprbank.sql.repeated")
+                    .description("Peticiones o transacciones con sentencias repetidas mas veces que el umbral (posible N+1)")
+                    .tags("scope", scopeType, "name", name)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de Java Utilities
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+ * Registro por hilo de las sentencias SQL ejecutadas (lo alimenta {@link SqlStatementDataSourceProxy}).
+ *
+ * Un "ambito" (Scope) acumula sentencias, filas y tiempo de JDBC mientras esta abierto. Los ambitos se
+ * anidan: una peticion HTTP abre uno (SqlStatementFilter), cada metodo @Transactional otro
+ * (SqlStatementTransactionAspect), y cada sentencia se cuenta en todos los ambitos abiertos del hilo.
+ * Las pruebas abren sus propios ambitos para verificar cuantas consultas ejecuta un metodo.
+ *
+ * Las sentencias se agrupan por "forma": el SQL con los literales reemplazados por '?', de modo que
+ * la misma consulta con distintos parametros cuenta como repetida (patron N+1).
+ */
+public final class SqlStatementTracker {
+
+    // Formas distintas que guarda cada ambito; el resto solo suma a los totales
+    private static final int MAX_SHAPES_PER_SCOPE = 500;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Sin valor inicial: los hilos sin ambitos abiertos (la mayoria) no reservan nada
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private SqlStatementTracker() {
+    }
+
+    /**
+     * Abre un ambito en el hilo actual. Debe cerrarse (try-with-resources) en el mismo hilo.
+     *
+     * @param name Nombre del ambito (endpoint, metodo o prueba).
+     * @return El ambito abierto.
+     */
+    public static Scope begin(String name) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope(name, scopes.isEmpty());
+        scopes.push(scope);
+        return scope;
+    }
+
+    /**
+     * @return {@code true} si hay algun ambito abierto en el hilo actual.
+     */
+    public static boolean isActive() {
+        return SCOPES.get() != null;
+    }
+
+    /*
+     * Registra una sentencia ejecutada en todos los ambitos abiertos del hilo.
+     */
+    static void recordStatement(String sql, long nanos, long affectedRows) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        StatementKind kind = StatementKind.of(shape);
+        for (Scope scope : scopes) {
+            scope.onStatement(shape, kind, nanos, affectedRows);
+        }
+    }
+
+    /*
+     * Registra una fila leida de un ResultSet en todos los ambitos abiertos del hilo.
+     */
+    static void recordRowRead() {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes != null) {
+            for (Scope scope : scopes) {
+                scope.rows++;
+            }
+        }
+    }
+
+    /*
+     * Normaliza una sentencia a su forma: sin literales, listas IN colapsadas y espacios simples.
+     */
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "<desconocida>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tipo de sentencia segun su primera palabra.
+     */
+    public enum StatementKind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static StatementKind of(String shape) {
+            if (shape.startsWith("select") || shape.startsWith("with")) {
+                return SELECT;
+            } else if (shape.startsWith("insert")) {
+                return INSERT;
+            } else if (shape.startsWith("update")) {
+                return UPDATE;
+            } else if (shape.startsWith("delete")) {
+                return DELETE;
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * Estadisticas SQL acumuladas mientras el ambito esta abierto.
+     * Solo lo modifica el hilo que lo abrio.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final boolean outermost;
+        private final long[] countsByKind = new long[StatementKind.values().length];
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private long statements;
+        private long rows;
+        private long nanos;
+        private boolean closed;
+
+        private Scope(String name, boolean outermost) {
+            this.name = name;
+            this.outermost = outermost;
+        }
+
+        private void onStatement(String shape, StatementKind kind, long elapsedNanos, long affectedRows) {
+            statements++;
+            countsByKind[kind.ordinal()]++;
+            nanos += elapsedNanos;
+            rows += affectedRows;
+            if (shapes.containsKey(shape) || shapes.size() < MAX_SHAPES_PER_SCOPE) {
+                shapes.merge(shape, 1, Integer::sum);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return {@code true} si no habia otro ambito abierto al abrir este.
+         */
+        public boolean isOutermost() {
+            return outermost;
+        }
+
+        public long getStatementCount() {
+            return statements;
+        }
+
+        public long getCount(StatementKind kind) {
+            return countsByKind[kind.ordinal()];
+        }
+
+        public long getSelectCount() {
+            return getCount(StatementKind.SELECT);
+        }
+
+        /**
+         * @return Filas leidas de ResultSets mas filas afectadas por INSERT/UPDATE/DELETE.
+         */
+        public long getRowCount() {
+            return rows;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Cuantas veces se ejecuto cada forma de sentencia, en orden de primera ejecucion.
+         */
+        public Map<String, Integer> getShapes() {
+            return shapes;
+        }
+
+        /**
+         * @return Resumen legible de las sentencias, de la mas repetida a la menos repetida.
+         */
+        public String describe() {
+            return shapes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.joining(System.lineSeparator()));
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes != null) {
+                scopes.remove(this);
+                if (scopes.isEmpty()) {
+                    SCOPES.remove();
+                }
+            }
+        }
+    }
+}
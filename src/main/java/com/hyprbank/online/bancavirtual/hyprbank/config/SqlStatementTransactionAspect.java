@@ -0,0 +1,45 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+// Importaciones de AspectJ
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+// Importaciones de Spring Framework
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/*
+ * Abre un ambito de SqlStatementTracker alrededor de cada metodo @Transactional de la aplicacion.
+ *
+ * Se ejecuta por fuera del interceptor de transacciones (mayor precedencia), por lo que tambien cuenta
+ * los INSERT/UPDATE en lote que Hibernate envia al confirmar. El nombre del ambito es "Clase.metodo".
+ * Solo advierte de sentencias repetidas cuando no hay una peticion HTTP alrededor (tareas en segundo plano);
+ * dentro de una peticion ya lo hace SqlStatementFilter.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class SqlStatementTransactionAspect {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    public SqlStatementTransactionAspect(SqlStatementMetrics sqlStatementMetrics) {
+        this.sqlStatementMetrics = sqlStatementMetrics;
+    }
+
+    @Around("within(com.hyprbank.online.bancavirtual.hyprbank..*) && "
+            + "(@within(org.springframework.transaction.annotation.Transactional) || "
+            + "@annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object trackTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        SqlStatementTracker.Scope scope = SqlStatementTracker.begin(name);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            scope.close();
+            sqlStatementMetrics.publish("transaction", name, scope, scope.isOutermost());
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.hyprbank.online.bancavirtual.hyprbank.controller;
 
 import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountDTO;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.BalanceAsOfDTO;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.service.AccountService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.BalanceSnapshotService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.ShardedBalances;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,11 +33,19 @@ public class AccountController {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AccountService accountService;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final ShardedBalances shardedBalances;
 
     @Autowired
-    public AccountController(AccountRepository accountRepository, UserRepository userRepository) {
+    public AccountController(AccountRepository accountRepository, UserRepository userRepository,
+                             AccountService accountService, BalanceSnapshotService balanceSnapshotService,
+                             ShardedBalances shardedBalances) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.accountService = accountService;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.shardedBalances = shardedBalances;
     }
 
     /**
@@ -77,12 +93,10 @@ public class AccountController {
      */
     @GetMapping("/number/{accountNumber}") // Nuevo endpoint para buscar por número de cuenta
     public ResponseEntity<AccountDTO> getAccountByNumber(@PathVariable String accountNumber) {
-        Optional<Account> accountOptional = accountRepository.findByAccountNumber(accountNumber);
+        // AccountService descarta numeros inexistentes con el filtro de Bloom y usa la cache de cuentas
+        AccountDTO accountDTO = accountService.findByAccountNumber(accountNumber);
 
-        if (accountOptional.isPresent()) {
-            Account account = accountOptional.get();
-            // Mapear la entidad Account a un AccountDTO para la respuesta
-            AccountDTO accountDTO = convertToDto(account);
+        if (accountDTO != null) {
             return ResponseEntity.ok(accountDTO);
         } else {
             // Si la cuenta no se encuentra, devuelve un 404 Not Found
@@ -90,6 +104,40 @@ public class AccountController {
         }
     }
 
+    /**
+     * Endpoint para consultar el saldo de una cuenta a una fecha y hora (ej. ?asOf=2025-03-03T23:59:59).
+     * El cliente solo puede consultar sus propias cuentas; el administrador, cualquiera.
+     *
+     * @param accountNumber El número de cuenta.
+     * @param asOf Fecha y hora de la consulta (ISO-8601).
+     * @param userDetails Objeto UserDetails inyectado por Spring Security.
+     * @return ResponseEntity con el {@link BalanceAsOfDTO}, 404 si la cuenta no existe o no es del usuario,
+     * o 400 si la cuenta no existia a esa fecha.
+     */
+    @GetMapping("/number/{accountNumber}/balance")
+    public ResponseEntity<?> getBalanceAsOf(@PathVariable String accountNumber,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+                                            @AuthenticationPrincipal UserDetails userDetails) {
+        boolean admin = userDetails.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        Optional<Account> account;
+        if (admin) {
+            account = accountRepository.findByAccountNumber(accountNumber);
+        } else {
+            User user = userRepository.findByEmail(userDetails.getUsername())
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado para el email: " + userDetails.getUsername()));
+            account = accountRepository.findByAccountNumberAndUser(accountNumber, user);
+        }
+        if (account.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(balanceSnapshotService.balanceAsOf(account.get().getId(), accountNumber, asOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Método auxiliar para convertir una entidad Account a un AccountDTO.
      *
@@ -101,7 +149,7 @@ public class AccountController {
         dto.setId(account.getId());
         dto.setAccountNumber(account.getAccountNumber());
         dto.setAccountType(account.getAccountType());
-        dto.setBalance(account.getBalance());
+        dto.setBalance(shardedBalances.balanceOf(account)); // Incluye las filas de un saldo repartido
         dto.setStatus(account.getStatus());
         dto.setCreationDate(account.getCreationDate());
         if (account.getUser() != null) {
@@ -5,15 +5,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.ui.Model;
 import com.hyprbank.online.bancavirtual.hyprbank.service.UserService;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.UserPageDTO;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.List;
-
 @Controller
 public class AdminController {
 
+    // Cantidad de clientes que se envian con la vista; el resto se pide a /api/admin/users
+    private static final int FIRST_PAGE_SIZE = 50;
+
     private final UserService userService;
 
     @Autowired
@@ -33,8 +35,10 @@ public class AdminController {
             model.addAttribute("userLastName", adminUser.getLastName());
         }
 
-        List<User> allUsers = userService.listUsers();
-        model.addAttribute("users", allUsers);
+        UserPageDTO firstPage = userService.searchUsers(null, null, "name", null, FIRST_PAGE_SIZE);
+        model.addAttribute("users", firstPage.getUsers());
+        model.addAttribute("nextUsersCursor", firstPage.getNextCursor());
+        model.addAttribute("totalUsers", userService.countUsers());
 
         return "Admin"; // Devuelve el nombre de la plantilla Thymeleaf "Admin.html"
     }
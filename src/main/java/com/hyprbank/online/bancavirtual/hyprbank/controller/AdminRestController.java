@@ -1,17 +1,46 @@
 package com.hyprbank.online.bancavirtual.hyprbank.controller;
 
+import com.hyprbank.online.bancavirtual.hyprbank.config.Bulkhead;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.AdminMovementDTO;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountDTO; // Si necesitas un DTO para Account
+import com.hyprbank.online.bancavirtual.hyprbank.dto.UserPageDTO;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.CustomerSearchHit;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.GenericResponse;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.SettlementImportResult;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.InterestAccrualResult;
 import com.hyprbank.online.bancavirtual.hyprbank.service.AdminMovementService;
 import com.hyprbank.online.bancavirtual.hyprbank.service.AccountService; // Si tienes un servicio para buscar cuentas por número
+import com.hyprbank.online.bancavirtual.hyprbank.service.UserService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.CustomerSearchIndex;
+import com.hyprbank.online.bancavirtual.hyprbank.service.HibernateCacheService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.SettlementImportService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.ClusterMembership;
+import com.hyprbank.online.bancavirtual.hyprbank.service.JobLeaseService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.InterestAccrualJob;
+import com.hyprbank.online.bancavirtual.hyprbank.service.LedgerReconciliationJob;
+import com.hyprbank.online.bancavirtual.hyprbank.service.MovementChainVerifier;
+import com.hyprbank.online.bancavirtual.hyprbank.service.ShardedBalances;
+import com.hyprbank.online.bancavirtual.hyprbank.service.OutboundTransferService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize; // Para seguridad a nivel de método
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin") // Prefijo para todas las APIs de admin
@@ -19,14 +48,177 @@ public class AdminRestController {
 
     private final AdminMovementService adminMovementService;
     private final AccountService accountService; // Asume que tienes un AccountService para buscar cuentas
+    private final UserService userService;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final HibernateCacheService hibernateCacheService;
+    private final SettlementImportService settlementImportService;
+    private final ClusterMembership clusterMembership;
+    private final JobLeaseService jobLeaseService;
+    private final InterestAccrualJob interestAccrualJob;
+    private final LedgerReconciliationJob ledgerReconciliationJob;
+    private final MovementChainVerifier movementChainVerifier;
+    private final ShardedBalances shardedBalances;
+    private final OutboundTransferService outboundTransferService;
 
-    public AdminRestController(AdminMovementService adminMovementService, AccountService accountService) {
+    public AdminRestController(AdminMovementService adminMovementService, AccountService accountService,
+                               UserService userService, CustomerSearchIndex customerSearchIndex,
+                               HibernateCacheService hibernateCacheService, SettlementImportService settlementImportService,
+                               ClusterMembership clusterMembership, JobLeaseService jobLeaseService,
+                               InterestAccrualJob interestAccrualJob, LedgerReconciliationJob ledgerReconciliationJob,
+                               MovementChainVerifier movementChainVerifier, ShardedBalances shardedBalances,
+                               OutboundTransferService outboundTransferService) {
         this.adminMovementService = adminMovementService;
         this.accountService = accountService;
+        this.userService = userService;
+        this.customerSearchIndex = customerSearchIndex;
+        this.hibernateCacheService = hibernateCacheService;
+        this.settlementImportService = settlementImportService;
+        this.clusterMembership = clusterMembership;
+        this.jobLeaseService = jobLeaseService;
+        this.interestAccrualJob = interestAccrualJob;
+        this.ledgerReconciliationJob = ledgerReconciliationJob;
+        this.movementChainVerifier = movementChainVerifier;
+        this.shardedBalances = shardedBalances;
+        this.outboundTransferService = outboundTransferService;
+    }
+
+    // Nodos vivos y leases de los trabajos en segundo plano (que nodo ejecuta cada trabajo y con que token)
+    @GetMapping("/cluster")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> describeCluster() {
+        return ResponseEntity.ok(Map.of(
+                "node", clusterMembership.getNodeId(),
+                "liveNodes", clusterMembership.liveNodes(),
+                "leases", jobLeaseService.describe()));
+    }
+
+    // Aciertos, fallos y entradas de la cache de segundo nivel y de consultas de Hibernate, por region
+    @GetMapping("/cache/hibernate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> describeHibernateCache() {
+        return ResponseEntity.ok(hibernateCacheService.describe());
+    }
+
+    // Vacia una region (?region=hyprbank.roles) o toda la cache, p. ej. despues de cambiar roles directamente en MySQL
+    @DeleteMapping("/cache/hibernate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GenericResponse> evictHibernateCache(@RequestParam(required = false) String region) {
+        try {
+            hibernateCacheService.evict(region);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new GenericResponse(false, e.getMessage()));
+        }
+        return ResponseEntity.ok(new GenericResponse(true, region == null || region.isBlank()
+                ? "Cache de Hibernate vaciada." : "Region " + region + " vaciada."));
+    }
+
+    // Importa un archivo de liquidacion de un banco corresponsal y devuelve el resumen con las diferencias encontradas.
+    // El archivo se copia a disco (no a memoria) antes de mapearlo; el limite de tamaño es spring.servlet.multipart.*
+    @PostMapping("/settlements/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importSettlementFile(@RequestParam("file") MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("hyprbank-settlement-", ".txt");
+        try {
+            file.transferTo(upload);
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : upload.getFileName().toString();
+            SettlementImportResult result = settlementImportService.importFile(upload, name);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new GenericResponse(false, e.getMessage()));
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    // Resultado confirmado con el banco destino de una transferencia externa UNKNOWN (sin respuesta tras todos sus
+    // intentos): settled=true con la referencia del banco, o settled=false con el motivo (se devuelve el monto)
+    @PostMapping("/interbank/transfers/{id}/resolve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GenericResponse> resolveUnknownTransfer(@PathVariable Long id, @RequestParam boolean settled,
+                                                                  @RequestParam String detail) {
+        try {
+            outboundTransferService.resolveUnknown(id, settled, detail);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new GenericResponse(false, e.getMessage()));
+        }
+        return ResponseEntity.ok(new GenericResponse(true, settled
+                ? "Transferencia externa " + id + " marcada como liquidada."
+                : "Transferencia externa " + id + " rechazada; el monto se devolvio a la cuenta de origen."));
+    }
+
+    // Devenga (o reanuda) los intereses de un dia en las particiones de este nodo, p. ej. si el cierre nocturno fallo.
+    // Responde con las cuentas procesadas y cuentas/s para dimensionar la ventana nocturna
+    @PostMapping("/interest/accrue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InterestAccrualResult> accrueInterest(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(interestAccrualJob.accrue(date));
+    }
+
+    // Concilia los saldos contra la suma de movimientos de cada cuenta (solo lectura, se puede ejecutar en linea).
+    // 409 si la conciliacion ya se esta ejecutando en otro nodo
+    @PostMapping("/reconciliation/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runReconciliation() {
+        return ledgerReconciliationJob.run()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new GenericResponse(false, "La conciliacion ya se esta ejecutando en otro nodo.")));
+    }
+
+    // Verifica la cadena de hashes de los movimientos: incremental (desde el ultimo punto verificado de cada cuenta)
+    // o completa con full=true. 409 si la verificacion ya se esta ejecutando en otro nodo
+    @PostMapping("/movements/chain/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> verifyMovementChain(@RequestParam(defaultValue = "false") boolean full) {
+        return movementChainVerifier.verify(full)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new GenericResponse(false, "La verificacion ya se esta ejecutando en otro nodo.")));
+    }
+
+    // Busqueda rapida (type-ahead) de clientes por nombre, email, DPI, NIT o numero de cuenta, desde el indice en memoria
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CustomerSearchHit>> searchCustomers(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        if (!customerSearchIndex.isReady()) {
+            // El indice aun se esta construyendo; el cliente puede usar /api/admin/users mientras tanto
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+        }
+        return ResponseEntity.ok(customerSearchIndex.search(q, limit));
+    }
+
+    // Reconstruye el indice de busqueda en segundo plano (ej. despues de cargas masivas directas en la base de datos)
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GenericResponse> rebuildSearchIndex() {
+        if (!customerSearchIndex.rebuildAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new GenericResponse(false, "Ya hay una reconstruccion del indice en curso."));
+        }
+        return ResponseEntity.accepted()
+                .body(new GenericResponse(true, "Reconstruccion del indice de busqueda iniciada."));
+    }
+
+    // Directorio de clientes: busqueda por prefijo en el servidor y paginacion por cursor (keyset)
+    @GetMapping("/users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserPageDTO> searchUsers(@RequestParam(required = false) String q,
+                                                   @RequestParam(required = false) String field,
+                                                   @RequestParam(defaultValue = "name") String sort,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(userService.searchUsers(q, field, sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/movements/all")
     @PreAuthorize("hasRole('ADMIN')") // Asegura que solo los ADMIN puedan acceder
+    @Bulkhead("admin-movements") // Listado completo: limite de llamadas simultaneas (hyprbank.bulkhead.admin-movements.*)
     public ResponseEntity<List<AdminMovementDTO>> getAllMovementsForAdmin() {
         List<AdminMovementDTO> movements = adminMovementService.getAllBankMovements();
         return ResponseEntity.ok(movements);
@@ -46,6 +238,24 @@ public class AdminRestController {
         }
     }
 
+    // Saldo repartido para cuentas con muchos creditos por segundo: shards >= 2 lo activa o cambia, 0 lo desactiva
+    @PutMapping("/accounts/number/{accountNumber}/shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GenericResponse> configureShards(@PathVariable String accountNumber, @RequestParam int shards) {
+        AccountDTO account = accountService.findByAccountNumber(accountNumber);
+        if (account == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            shardedBalances.configure(account.getId(), shards);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new GenericResponse(false, e.getMessage()));
+        }
+        return ResponseEntity.ok(new GenericResponse(true, shards == 0
+                ? "Saldo repartido desactivado para la cuenta " + accountNumber + "."
+                : "Saldo de la cuenta " + accountNumber + " repartido en " + shards + " filas."));
+    }
+
     // Puedes añadir más endpoints REST para el admin aquí (ej. para estadísticas del dashboard)
     // @GetMapping("/dashboard-stats")
     // @PreAuthorize("hasRole('ADMIN')")
@@ -1,13 +1,15 @@
 package com.hyprbank.online.bancavirtual.hyprbank.controller;
 
 // Importaciones de Entidades
-import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
 
 // Importaciones de Repositorios
 import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
 
+// Importaciones de Servicios
+import com.hyprbank.online.bancavirtual.hyprbank.service.ShardedBalances;
+
 // Importaciones de DTOs
 import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountDTO;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.DashboardUserDTO; // Importa DashboardUserDTO
@@ -17,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -44,15 +47,18 @@ public class DashboardRestController {
 
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
+    private final ShardedBalances shardedBalances;
 
     /*
      * Constructor para la inyeccion de dependencias.
      * Spring inyectara las instancias de UserRepository y AccountRepository.
      */
     @Autowired
-    public DashboardRestController(UserRepository userRepository, AccountRepository accountRepository) {
+    public DashboardRestController(UserRepository userRepository, AccountRepository accountRepository,
+                                   ShardedBalances shardedBalances) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
+        this.shardedBalances = shardedBalances;
     }
 
     /**
@@ -63,6 +69,7 @@ public class DashboardRestController {
      * o ResponseEntity.notFound() si el usuario no existe.
      */
     @GetMapping("/me")
+    @Transactional(readOnly = true) // Lectura del panel: replica, salvo que el usuario acabe de escribir
     public ResponseEntity<?> getAuthenticatedUserDetails() {
         // Obtener el objeto de autenticacion del contexto de seguridad de Spring.
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -81,7 +88,7 @@ public class DashboardRestController {
         BigDecimal totalBalance = BigDecimal.ZERO;
         if (user.getAccounts() != null && !user.getAccounts().isEmpty()) {
             totalBalance = user.getAccounts().stream()
-                               .map(Account::getBalance)
+                               .map(shardedBalances::balanceOf) // Incluye las filas de un saldo repartido
                                .reduce(BigDecimal.ZERO, BigDecimal::add);
         }
 
@@ -97,7 +104,7 @@ public class DashboardRestController {
                              dto.setId(account.getId());
                              dto.setAccountNumber(account.getAccountNumber());
                              dto.setAccountType(account.getAccountType());
-                             dto.setBalance(account.getBalance());
+                             dto.setBalance(shardedBalances.balanceOf(account));
                              dto.setStatus(account.getStatus());
                              dto.setCreationDate(account.getCreationDate());
                              if (account.getUser() != null) {
@@ -124,6 +131,7 @@ public class DashboardRestController {
      * o ResponseEntity.notFound() si el usuario no existe.
      */
     @GetMapping("/accounts")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getUserAccounts() {
         // Obtener el objeto de autenticacion y el email del usuario.
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -147,7 +155,7 @@ public class DashboardRestController {
                                                dto.setId(account.getId());
                                                dto.setAccountNumber(account.getAccountNumber());
                                                dto.setAccountType(account.getAccountType());
-                                               dto.setBalance(account.getBalance());
+                                               dto.setBalance(shardedBalances.balanceOf(account));
                                                dto.setStatus(account.getStatus());
                                                dto.setCreationDate(account.getCreationDate());
 
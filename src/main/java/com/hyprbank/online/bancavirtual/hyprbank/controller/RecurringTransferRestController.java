@@ -0,0 +1,136 @@
+package com.hyprbank.online.bancavirtual.hyprbank.controller;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+// Importaciones de Servicios
+import com.hyprbank.online.bancavirtual.hyprbank.service.RecurringTransferService;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RecurringTransferDTO;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RecurringTransferRequest;
+
+// Importaciones de Spring Framework y validacion
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+
+// Importaciones de Java Utilities
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Controlador REST para las transferencias programadas y recurrentes del usuario autenticado.
+ *
+ * Las ejecuciones no ocurren aqui: las realiza RecurringTransferScheduler en segundo plano.
+ */
+@RestController
+@RequestMapping("/api/recurring-transfers")
+@CrossOrigin(origins = "http://localhost:8081") // Ajusta este origen si tu frontend no esta en localhost:8081
+public class RecurringTransferRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransferRestController.class);
+
+    private final RecurringTransferService recurringTransferService;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public RecurringTransferRestController(RecurringTransferService recurringTransferService, UserRepository userRepository) {
+        this.recurringTransferService = recurringTransferService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Endpoint para programar una transferencia (una sola vez o recurrente).
+     *
+     * @param request DTO {@link RecurringTransferRequest} con las cuentas, el monto y la periodicidad.
+     * @param result Objeto {@link BindingResult} para capturar errores de validacion.
+     * @param userDetails Usuario autenticado.
+     * @return ResponseEntity con la transferencia programada, o un mensaje de error.
+     */
+    @PostMapping
+    public ResponseEntity<?> create(
+            @Valid @RequestBody RecurringTransferRequest request,
+            BindingResult result,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        if (result.hasErrors()) {
+            List<String> errors = result.getAllErrors().stream()
+                    .map(error -> error.getDefaultMessage())
+                    .collect(Collectors.toList());
+            return ResponseEntity.badRequest().body(Map.of("message", "Errores de validacion en la transferencia programada", "errors", errors));
+        }
+
+        try {
+            RecurringTransfer transfer = recurringTransferService.create(request, currentUser(userDetails).getId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", "Transferencia programada con exito.", "transfer", mapToDTO(transfer)));
+        } catch (IllegalArgumentException e) {
+            logger.error("Error al programar transferencia: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("Error interno del servidor al programar la transferencia: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Error interno del servidor al programar la transferencia: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint para listar las transferencias programadas del usuario autenticado (las mas recientes primero).
+     */
+    @GetMapping
+    public ResponseEntity<List<RecurringTransferDTO>> list(@AuthenticationPrincipal UserDetails userDetails) {
+        List<RecurringTransferDTO> transfers = recurringTransferService.listForUser(currentUser(userDetails).getId()).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(transfers);
+    }
+
+    /**
+     * Endpoint para cancelar una transferencia programada del usuario autenticado.
+     *
+     * @param id ID de la transferencia programada.
+     * @return ResponseEntity con la transferencia cancelada, o 404 si no existe o no es del usuario.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            RecurringTransfer transfer = recurringTransferService.cancel(id, currentUser(userDetails).getId());
+            return ResponseEntity.ok(Map.of("message", "Transferencia programada cancelada.", "transfer", mapToDTO(transfer)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private User currentUser(UserDetails userDetails) {
+        String userEmail = userDetails.getUsername();
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado para el email: " + userEmail));
+    }
+
+    private RecurringTransferDTO mapToDTO(RecurringTransfer transfer) {
+        return new RecurringTransferDTO(transfer.getId(), transfer.getOriginAccountNumber(), transfer.getDestinationAccountNumber(),
+                transfer.getAmount(), transfer.getDescription(), transfer.getFrequency(), transfer.getStartAt(), transfer.getEndAt(),
+                transfer.getNextExecutionAt(), transfer.getStatus(), transfer.getLastExecutionAt(), transfer.getLastError());
+    }
+}
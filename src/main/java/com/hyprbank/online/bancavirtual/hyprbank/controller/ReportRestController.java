@@ -3,6 +3,9 @@ package com.hyprbank.online.bancavirtual.hyprbank.controller;
 // Importaciones de Servicios
 import com.hyprbank.online.bancavirtual.hyprbank.service.ReportService;
 
+// Importaciones de Configuracion
+import com.hyprbank.online.bancavirtual.hyprbank.config.Bulkhead;
+
 // Importaciones de JasperReports
 import net.sf.jasperreports.engine.JRException;
 
@@ -16,6 +19,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 // Importaciones de Java IO
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -33,8 +40,11 @@ import java.io.IOException;
  */
 @RestController
 @RequestMapping("/api/reports")
+@Bulkhead("reports") // Limita los reportes PDF simultaneos (hyprbank.bulkhead.reports.*); el exceso recibe 503
 public class ReportRestController { // Cambiado de ReportRestController a ReportController en versiones anteriores
 
+    private static final Logger logger = LoggerFactory.getLogger(ReportRestController.class);
+
     private final ReportService reportService;
 
     /*
@@ -75,20 +85,20 @@ public class ReportRestController { // Cambiado de ReportRestController a Report
 
         } catch (FileNotFoundException e) {
             // Maneja la excepcion si el archivo .jrxml del reporte no se encuentra.
-            // Imprime la traza para depuración en el servidor
-            e.printStackTrace();
+            // Registra la traza en el log del servidor
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(("Error: Archivo de reporte de acceso de usuarios no encontrado. " + e.getMessage()).getBytes());
         } catch (JRException e) {
             // Maneja la excepcion si hay un error especifico de JasperReports (compilacion, llenado, etc.).
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error al generar el reporte de acceso de usuarios con JasperReports. " + e.getMessage()).getBytes());
         } catch (IOException e) {
             // Maneja la excepcion si ocurre un error de entrada/salida al escribir el PDF.
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error de I/O al generar el PDF de acceso de usuarios. " + e.getMessage()).getBytes());
         } catch (Exception e) {
             // Captura cualquier otra excepcion inesperada y devuelve un mensaje de error generico.
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Ocurrió un error inesperado al generar el reporte de acceso de usuarios. " + e.getMessage()).getBytes());
         }
     }
@@ -117,16 +127,16 @@ public class ReportRestController { // Cambiado de ReportRestController a Report
                     .body(pdfBytes);
 
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(("Error: Plantilla de reporte de clientes no encontrada. " + e.getMessage()).getBytes());
         } catch (JRException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error al generar el reporte de clientes con JasperReports. " + e.getMessage()).getBytes());
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error de I/O al generar el PDF de clientes. " + e.getMessage()).getBytes());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Ocurrió un error inesperado al generar el reporte de clientes. " + e.getMessage()).getBytes());
         }
     }
@@ -155,16 +165,16 @@ public class ReportRestController { // Cambiado de ReportRestController a Report
                     .body(pdfBytes);
 
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(("Error: Plantilla de reporte de movimientos no encontrada. " + e.getMessage()).getBytes());
         } catch (JRException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error al generar el reporte de movimientos con JasperReports. " + e.getMessage()).getBytes());
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Error de I/O al generar el PDF de movimientos. " + e.getMessage()).getBytes());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Error al generar el reporte: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(("Ocurrió un error inesperado al generar el reporte de movimientos. " + e.getMessage()).getBytes());
         }
     }
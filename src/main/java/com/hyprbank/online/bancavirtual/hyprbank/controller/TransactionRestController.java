@@ -9,6 +9,8 @@ import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
 
 // Importaciones de Servicios
 import com.hyprbank.online.bancavirtual.hyprbank.service.TransactionService;
+import com.hyprbank.online.bancavirtual.hyprbank.service.ShardedBalances;
+import com.hyprbank.online.bancavirtual.hyprbank.service.GroupCommitExecutor;
 
 // Importaciones de DTOs
 import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementDTO;
@@ -63,15 +65,22 @@ public class TransactionRestController {
 
     private final TransactionService transactionService;
     private final UserRepository userRepository;
+    private final ShardedBalances shardedBalances;
+    private final GroupCommitExecutor groupCommit;
 
     /*
      * Constructor para la inyeccion de dependencias.
      * Spring inyectara las instancias de TransactionService y UserRepository.
+     * Depositos, retiros y transferencias entre cuentas del banco pasan por GroupCommitExecutor, que los
+     * confirma por lotes si hyprbank.group-commit.enabled=true (si no, los aplica directamente).
      */
     @Autowired
-    public TransactionRestController(TransactionService transactionService, UserRepository userRepository) {
+    public TransactionRestController(TransactionService transactionService, UserRepository userRepository,
+                                     ShardedBalances shardedBalances, GroupCommitExecutor groupCommit) {
         this.transactionService = transactionService;
         this.userRepository = userRepository;
+        this.shardedBalances = shardedBalances;
+        this.groupCommit = groupCommit;
     }
 
     /**
@@ -92,7 +101,7 @@ public class TransactionRestController {
             dto.setAccountId(movement.getAccount().getId());
             dto.setAccountNumber(movement.getAccount().getAccountNumber());
             // Para el DTO de respuesta de movimiento, también necesitamos el balance actual de la cuenta
-            dto.setBalance(movement.getAccount().getBalance()); // Añadir el saldo actual de la cuenta
+            dto.setBalance(shardedBalances.balanceOf(movement.getAccount())); // Añadir el saldo actual de la cuenta (con sus filas si esta repartido)
         } else {
             // Manejo si la cuenta es nula (no deberia ocurrir con movimientos persistidos validos).
             dto.setAccountId(null);
@@ -141,11 +150,11 @@ public class TransactionRestController {
             Movement performedMovement;
             if (isAdmin) {
                 // Si es ADMIN, el deposito se realiza a la cuenta especificada en el request, sin importar el dueño
-                performedMovement = transactionService.performAdminDeposit(request);
+                performedMovement = groupCommit.execute(() -> transactionService.performAdminDeposit(request));
             } else {
                 // Si no es ADMIN, el deposito se realiza a una cuenta que debe pertenecer al usuario autenticado
                 Long userId = authenticatedUser.getId();
-                performedMovement = transactionService.performDeposit(request, userId);
+                performedMovement = groupCommit.execute(() -> transactionService.performDeposit(request, userId));
             }
 
             MovementDTO movementDTO = mapMovementToDTO(performedMovement);
@@ -193,7 +202,7 @@ public class TransactionRestController {
                     .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado para el email: " + userEmail));
             Long userId = user.getId();
 
-            Movement performedMovement = transactionService.performWithdrawal(request, userId);
+            Movement performedMovement = groupCommit.execute(() -> transactionService.performWithdrawal(request, userId));
 
             MovementDTO movementDTO = mapMovementToDTO(performedMovement);
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", "Retiro realizado con exito.", "movement", movementDTO, "balance", movementDTO.getBalance()));
@@ -234,7 +243,7 @@ public class TransactionRestController {
                     .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado para el email: " + userEmail));
             Long userId = user.getId();
 
-            List<Movement> generatedMovements = transactionService.performTransfer(request, userId);
+            List<Movement> generatedMovements = groupCommit.execute(() -> transactionService.performTransfer(request, userId));
 
             List<MovementDTO> movementsDTO = generatedMovements.stream()
                     .map(this::mapMovementToDTO)
@@ -279,7 +288,7 @@ public class TransactionRestController {
                     .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado para el email: " + userEmail));
             Long userId = user.getId();
 
-            List<Movement> generatedMovements = transactionService.performInternalTransferToOtherUser(request, userId);
+            List<Movement> generatedMovements = groupCommit.execute(() -> transactionService.performInternalTransferToOtherUser(request, userId));
 
             List<MovementDTO> movementsDTO = generatedMovements.stream()
                     .map(this::mapMovementToDTO)
@@ -0,0 +1,44 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Value;
+import lombok.With;
+
+/*
+ * Vista inmutable de una cuenta junto con el nombre de su titular.
+ *
+ * Es lo que se guarda en la cache de busquedas por numero de cuenta: al ser inmutable puede compartirse
+ * entre hilos y solicitudes sin copiarla. Se obtiene con una sola consulta (join con 'users'),
+ * por lo que no dispara la carga perezosa del titular.
+ *
+ * @Value de Lombok genera getters, constructor con todos los argumentos, equals(), hashCode() y toString(),
+ * y marca todos los campos como private final.
+ */
+@Value
+public class AccountSnapshot {
+    Long id;
+    String accountNumber;
+    String accountType;
+    @With // Copia con el saldo total de una cuenta con saldo repartido (ShardedBalances)
+    BigDecimal balance;
+    String status;
+    LocalDateTime creationDate;
+
+    // Informacion del titular de la cuenta
+    Long userId;
+    String userName;
+    String userLastName;
+
+    /**
+     * Crea un {@link AccountDTO} nuevo (mutable) a partir de esta vista, para devolverlo en la API
+     * sin exponer el objeto compartido de la cache.
+     *
+     * @return Un AccountDTO con los mismos datos.
+     */
+    public AccountDTO toDto() {
+        return new AccountDTO(id, accountNumber, accountType, balance, status, creationDate, userId, userName, userLastName);
+    }
+}
@@ -0,0 +1,30 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO (Data Transfer Object) para el directorio de clientes del administrador.
+ *
+ * Contiene solo los campos que muestra la tabla de clientes en Admin.html,
+ * sin exponer la contraseña ni las relaciones de la entidad User.
+ *
+ * Utilizaremos Lombok para generar automaticamente getters, setters, toString(), equals() y hashCode() para todos los campos.
+ */
+
+@Data // Anotacion lombok que genera automaticamente getters, setters, toString(), equals() y hashCode()
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class AdminUserDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String dpi;
+    private String nit;
+    private String phoneNumber;
+    private boolean enabled;
+}
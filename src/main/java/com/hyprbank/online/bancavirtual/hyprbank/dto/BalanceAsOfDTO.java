@@ -0,0 +1,24 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO con el saldo de una cuenta a una fecha y hora, y de donde se obtuvo.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class BalanceAsOfDTO {
+    private String accountNumber;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private LocalDate snapshotDate; // Cierre diario usado como base (null: se calculo desde el saldo actual)
+    private long movementsApplied; // Movimientos sumados o restados a la base
+}
@@ -0,0 +1,32 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO con el resultado de verificar la cadena de hashes de los movimientos. Todas las cadenas rotas quedan en
+ * movement_chain_checkpoints (broken_seq); 'sampleBreaks' solo trae las primeras.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class ChainVerificationResult {
+    private boolean full; // true: desde el primer movimiento de cada cuenta; false: desde el ultimo punto verificado
+    private long accounts; // Cuentas con movimientos nuevos (o todas, si es completa)
+    private long movements; // Movimientos verificados
+    private long brokenAccounts;
+    private long elapsedMillis;
+    private List<ChainBreak> sampleBreaks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChainBreak {
+        private long accountId;
+        private long brokenSeq; // Primera posicion de la cadena que no coincide (o que falta)
+    }
+}
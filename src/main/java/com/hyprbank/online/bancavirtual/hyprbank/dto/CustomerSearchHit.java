@@ -0,0 +1,31 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/*
+ * DTO (Data Transfer Object) con un resultado de la busqueda rapida (type-ahead) de clientes.
+ *
+ * Se arma a partir del indice en memoria, por lo que solo contiene los campos indexados
+ * y los numeros de cuenta del cliente.
+ *
+ * Utilizaremos Lombok para generar automaticamente getters, setters, toString(), equals() y hashCode() para todos los campos.
+ */
+
+@Data // Anotacion lombok que genera automaticamente getters, setters, toString(), equals() y hashCode()
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class CustomerSearchHit {
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String dpi;
+    private String nit;
+    private List<String> accountNumbers;
+}
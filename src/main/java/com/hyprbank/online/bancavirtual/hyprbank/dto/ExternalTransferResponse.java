@@ -28,4 +28,6 @@ public class ExternalTransferResponse {
     private BigDecimal newOriginAccountBalance; // Nombre de campo actualizado
     private MovementDTO lastOriginMovement; // Nombre de campo y DTO actualizado
     private List<MovementDTO> recentMovements; // Nombre de campo y DTO actualizado
+    private Long transferId; // ID de la transferencia en la cola de envio al banco destino
+    private String transferStatus; // PENDING al responder; luego SENT, SETTLED, REJECTED o UNKNOWN
 }
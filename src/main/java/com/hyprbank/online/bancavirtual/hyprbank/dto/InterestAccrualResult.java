@@ -0,0 +1,26 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO con el resultado del devengo de intereses de un dia en este nodo (las particiones de otros nodos no
+ * se cuentan aqui; los totales de todos estan en la tabla interest_accrual_runs).
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class InterestAccrualResult {
+    private LocalDate accrualDate;
+    private int partitions; // Particiones procesadas en este nodo
+    private long accounts; // Cuentas devengadas
+    private long interestMovements; // Cuentas con abono (al menos un centavo completo)
+    private BigDecimal postedAmount; // Total abonado
+    private long elapsedMillis;
+    private double accountsPerSecond;
+}
@@ -0,0 +1,25 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Value;
+
+/*
+ * Evento inmutable de un movimiento confirmado, tal como lo reciben los suscriptores del outbox
+ * (ver MovementOutboxRelay). 'eventId' es creciente y unico: sirve para descartar duplicados,
+ * ya que la entrega es al menos una vez.
+ */
+@Value
+public class MovementEvent {
+    Long eventId;
+    Long movementId;
+    Long accountId;
+    Long userId;
+    MovementType type;
+    BigDecimal amount;
+    LocalDateTime createdAt;
+}
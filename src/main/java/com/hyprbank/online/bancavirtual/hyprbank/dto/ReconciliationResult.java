@@ -0,0 +1,37 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO con el resultado de una conciliacion de saldos contra movimientos. Todas las diferencias quedan en la
+ * tabla reconciliation_discrepancies; 'sampleDiscrepancies' solo trae las primeras.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class ReconciliationResult {
+    private Long runId;
+    private long accounts;
+    private long movements;
+    private long discrepancies;
+    private long elapsedMillis;
+    private long millisPerMillionMovements; // Para estimar la duracion con mas movimientos
+    private List<Discrepancy> sampleDiscrepancies;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Discrepancy {
+        private long accountId;
+        private String accountNumber;
+        private BigDecimal balance;
+        private BigDecimal movementNet; // INCOME - EXPENSE
+        private long movementCount;
+    }
+}
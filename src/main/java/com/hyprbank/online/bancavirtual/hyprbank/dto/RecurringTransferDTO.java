@@ -0,0 +1,33 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO de una transferencia programada para mostrarla al cliente.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class RecurringTransferDTO {
+    private Long id;
+    private String originAccountNumber;
+    private String destinationAccountNumber;
+    private BigDecimal amount;
+    private String description;
+    private RecurringTransfer.Frequency frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private LocalDateTime nextExecutionAt; // null si ya no tiene ejecuciones pendientes
+    private RecurringTransfer.Status status;
+    private LocalDateTime lastExecutionAt;
+    private String lastError; // Motivo de la ultima ejecucion fallida u omitida
+}
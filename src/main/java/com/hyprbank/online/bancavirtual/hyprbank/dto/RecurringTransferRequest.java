@@ -0,0 +1,47 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO para programar una transferencia (una sola vez o recurrente) desde una cuenta del usuario
+ * autenticado hacia cualquier cuenta del banco.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class RecurringTransferRequest {
+
+    @NotBlank(message = "El numero de cuenta origen es obligatorio")
+    private String originAccountNumber;
+
+    @NotBlank(message = "El numero de cuenta destino es obligatorio")
+    private String destinationAccountNumber;
+
+    @NotNull(message = "El monto es obligatorio")
+    @DecimalMin(value = "0.01", message = "El monto debe ser mayor a cero")
+    private BigDecimal amount;
+
+    @Size(max = 255, message = "La descripcion no puede exceder los 255 caracteres")
+    private String description;
+
+    @NotNull(message = "La frecuencia es obligatoria")
+    private RecurringTransfer.Frequency frequency;
+
+    @NotNull(message = "La fecha de la primera ejecucion es obligatoria")
+    private LocalDateTime startAt;
+
+    private LocalDateTime endAt; // Opcional: sin ejecuciones despues de esta fecha
+}
@@ -0,0 +1,28 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO con el resultado de importar un archivo de liquidacion de un banco corresponsal.
+ * 'mismatchReport' es el archivo CSV con todas las diferencias; 'sampleMismatches' solo trae las primeras.
+ */
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class SettlementImportResult {
+    private String fileName;
+    private long batchId; // Lote de compensacion indicado en el encabezado del archivo
+    private long records; // Registros R del archivo
+    private long settled; // Transferencias marcadas SETTLED
+    private long rejected; // Transferencias rechazadas (con devolucion del monto)
+    private long alreadyApplied; // Registros repetidos de un archivo ya importado
+    private long mismatches; // Registros que no coinciden con ninguna transferencia enviada
+    private String mismatchReport;
+    private List<String> sampleMismatches;
+    private long elapsedMillis;
+}
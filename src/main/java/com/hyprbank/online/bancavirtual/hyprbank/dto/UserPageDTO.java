@@ -0,0 +1,26 @@
+package com.hyprbank.online.bancavirtual.hyprbank.dto;
+
+import java.util.List;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * DTO (Data Transfer Object) con una pagina del directorio de clientes.
+ *
+ * La paginacion es por "keyset": en lugar de un numero de pagina (OFFSET), el cliente envia
+ * el cursor 'nextCursor' recibido en la respuesta anterior. Cada pagina cuesta lo mismo sin importar
+ * cuantas paginas se hayan recorrido antes.
+ */
+
+@Data // Anotacion lombok que genera automaticamente getters, setters, toString(), equals() y hashCode()
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class UserPageDTO {
+    private List<AdminUserDTO> users; // Clientes de esta pagina
+    private String nextCursor;        // Cursor opaco para pedir la siguiente pagina (null si no hay mas)
+    private boolean hasNext;          // Indica si existen mas resultados
+}
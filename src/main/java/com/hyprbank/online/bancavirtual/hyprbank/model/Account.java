@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.hyprbank.online.bancavirtual.hyprbank.config.SearchIndexEntityListener;
+
 // Importaciones de Lombok (facilitan proceso, usenlas)
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -31,15 +33,22 @@ import lombok.AllArgsConstructor;
  */
 
 @Entity // Indica que esta clase es una entidad JPA y se mapeara a una tabla
-@Table(name = "accounts") // Nombre de la tabla en la base de datos
+@Table(name = "accounts", indexes = { // Nombre de la tabla en la base de datos
+    @Index(name = "idx_accounts_user_id", columnList = "user_id") // Cuentas de un usuario
+})
 @Data // Anotacion lombok que genera automaticamente lo anterior mencionado
 @NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos (OBLIGATORIO PARA JPA)
 @AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+@EntityListeners(SearchIndexEntityListener.class) // Mantiene actualizado el indice de busqueda en memoria
 
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDs por bloques desde 'sequence_blocks' (fila 'accounts'): Hibernate conoce el ID sin ejecutar el INSERT,
+    // por lo que puede agrupar los INSERT en lotes (hibernate.jdbc.batch_size). Ver db/migration/V2__seed_id_block_sequences.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "account_ids")
+    @TableGenerator(name = "account_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "accounts", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 20)
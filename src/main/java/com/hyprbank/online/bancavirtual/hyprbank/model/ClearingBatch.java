@@ -0,0 +1,68 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/*
+ * Entidad JPA que representa un lote de compensacion interbancaria (tabla 'clearing_batches').
+ *
+ * ClearingFileJob asigna al lote, con un solo UPDATE, todas las transferencias externas PENDING de la ventana
+ * (columna outbound_transfers.clearing_batch_id) y despues escribe el archivo de compensacion.
+ */
+@Entity
+@Table(name = "clearing_batches", indexes = {
+    @Index(name = "idx_clearing_batches_status", columnList = "status") // Lotes sin archivo al reiniciar
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClearingBatch {
+
+    @Id
+    // Pocos lotes por dia: IDs de uno en uno, para que los nombres de archivo sean consecutivos
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "clearing_batch_ids")
+    @TableGenerator(name = "clearing_batch_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "clearing_batches", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff; // Cierre de la ventana: entran las transferencias encoladas hasta este momento
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "record_count", nullable = false)
+    private int recordCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column
+    private Long checksum; // CRC32 de los registros de detalle (el mismo que lleva el registro final del archivo)
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "written_at")
+    private LocalDateTime writtenAt;
+
+    /**
+     * Estados de un lote de compensacion.
+     */
+    public enum Status {
+        CLAIMED, // Transferencias asignadas; el archivo aun no esta completo
+        WRITTEN  // Archivo escrito y renombrado a su nombre final
+    }
+}
@@ -3,6 +3,7 @@ package com.hyprbank.online.bancavirtual.hyprbank.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 // Importaciones de Lombok (facilitan proceso, usenlas)
 import lombok.Data;
@@ -31,7 +32,15 @@ import lombok.AllArgsConstructor;
  */
 
 @Entity // Indica que esta clase es una entidad JPA y se mapeara a una tabla
-@Table(name = "movements") // Nombre de la tabla en la base de datos
+@Table(name = "movements", indexes = { // Nombre de la tabla en la base de datos
+    // Historial por cuenta ordenado por fecha, con y sin filtro por tipo (MovementRepository)
+    @Index(name = "idx_movements_account_date", columnList = "account_id, date"),
+    @Index(name = "idx_movements_account_type_date", columnList = "account_id, type, date"),
+    // Cuentas con movimientos en un dia (BalanceSnapshotJob)
+    @Index(name = "idx_movements_date_account", columnList = "date, account_id"),
+    // Cadena de hashes por cuenta (MovementHashChain, MovementChainVerifier)
+    @Index(name = "idx_movements_account_chain", columnList = "account_id, chain_seq", unique = true)
+})
 @Data // Anotacion lombok que genera automaticamente lo anterior mencionado
 @NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos (OBLIGATORIO PARA JPA)
 @AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
@@ -39,7 +48,11 @@ import lombok.AllArgsConstructor;
 public class Movement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDs por bloques desde 'sequence_blocks' (fila 'movements'): Hibernate conoce el ID sin ejecutar el INSERT,
+    // por lo que puede agrupar los INSERT en lotes (hibernate.jdbc.batch_size). Ver db/migration/V2__seed_id_block_sequences.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "movement_ids")
+    @TableGenerator(name = "movement_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "movements", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -59,6 +72,16 @@ public class Movement {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now(); // Hora de registro (saldo a una hora dada); NULL en movimientos antiguos
+
+    // Posicion y hash en la cadena de la cuenta, asignados por MovementHashChain antes de guardar; NULL en movimientos antiguos
+    @Column(name = "chain_seq", updatable = false)
+    private Long chainSeq;
+
+    @Column(name = "chain_hash", columnDefinition = "BINARY(32)", updatable = false)
+    private byte[] chainHash;
+
     /**
      * Enumera los tipos posibles de movimiento bancario.
      * INCOME: Representa un ingreso de dinero (ej. deposito, transferencia recibida).
@@ -0,0 +1,55 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/*
+ * Entidad JPA que representa un registro del outbox de movimientos (tabla 'movement_outbox').
+ *
+ * TransactionServiceImpl escribe uno por cada Movement en la misma transaccion, de modo que el evento
+ * existe si y solo si el movimiento se confirmo. MovementOutboxRelay los publica en orden de ID.
+ * Solo guarda los datos que necesitan los suscriptores (sin descripcion ni relaciones JPA),
+ * para que leer un lote sea una sola consulta por rango de clave primaria.
+ */
+@Entity
+@Table(name = "movement_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovementOutboxEvent {
+
+    @Id
+    // IDs por bloques desde 'sequence_blocks' (fila 'movement_outbox'), para agrupar los INSERT en lotes
+    // junto con los de movements. Ver db/migration/V4__movement_outbox.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "movement_outbox_ids")
+    @TableGenerator(name = "movement_outbox_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "movement_outbox", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "user_id")
+    private Long userId; // Titular de la cuenta
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Movement.MovementType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
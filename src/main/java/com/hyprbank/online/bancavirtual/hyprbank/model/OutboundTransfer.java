@@ -0,0 +1,99 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/*
+ * Entidad JPA que representa una transferencia a otro banco en la cola de salida (tabla 'outbound_transfers').
+ *
+ * TransactionServiceImpl la crea PENDING en la misma transaccion que debita la cuenta;
+ * OutboundTransferDispatcher la envia al {@link com.hyprbank.online.bancavirtual.hyprbank.service.InterbankGateway}.
+ * 'nextAttemptAt' es el siguiente reintento si esta PENDING, o el plazo para recibir respuesta si esta SENT.
+ */
+@Entity
+@Table(name = "outbound_transfers", indexes = {
+    @Index(name = "idx_outbound_transfers_status_next", columnList = "status, next_attempt_at"), // Transferencias vencidas
+    @Index(name = "idx_outbound_transfers_batch", columnList = "clearing_batch_id, id") // Registros de un archivo de compensacion
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboundTransfer {
+
+    @Id
+    // IDs por bloques desde 'sequence_blocks' (fila 'outbound_transfers'). Ver db/migration/V5__outbound_transfers.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbound_transfer_ids")
+    @TableGenerator(name = "outbound_transfer_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "outbound_transfers", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Account account; // Cuenta debitada (a la que se devuelve el monto si se rechaza)
+
+    @Column(name = "destination_name", nullable = false, length = 100)
+    private String destinationName;
+
+    @Column(name = "destination_bank", nullable = false, length = 100)
+    private String destinationBank;
+
+    @Column(name = "destination_account_number", nullable = false, length = 50)
+    private String destinationAccountNumber;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts; // Envios realizados al banco destino
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "external_reference", length = 64)
+    private String externalReference; // Referencia asignada por el banco destino al liquidar
+
+    @Column(name = "clearing_batch_id")
+    private Long clearingBatchId; // Lote de compensacion (solo con hyprbank.interbank.dispatch=clearing)
+
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    /**
+     * Estados de una transferencia saliente.
+     */
+    public enum Status {
+        PENDING,  // En cola o esperando un reintento
+        SENT,     // Enviada al banco destino, sin respuesta aun
+        SETTLED,  // Liquidada por el banco destino
+        REJECTED, // Rechazada; el monto se devolvio a la cuenta de origen
+        UNKNOWN   // Sin respuesta definitiva tras max-attempts envios; el banco destino pudo ejecutarla (revision manual)
+    }
+}
@@ -0,0 +1,32 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * Entidad JPA que guarda hasta que evento del outbox se entrego a cada suscriptor (tabla 'outbox_offsets').
+ * Se actualiza despues de entregar cada lote: si la aplicacion se detiene en medio, el lote se vuelve
+ * a entregar al reiniciar (entrega al menos una vez).
+ */
+@Entity
+@Table(name = "outbox_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxOffset {
+
+    @Id
+    @Column(length = 64)
+    private String subscriber; // Nombre del suscriptor (MovementEventSubscriber.getName())
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,105 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/*
+ * Entidad JPA que representa una transferencia programada o recurrente de un cliente (tabla 'recurring_transfers').
+ *
+ * La ejecucion numero N (contando desde 0) ocurre en startAt + N periodos; 'occurrence' guarda cuantas ya se
+ * resolvieron (ejecutadas, fallidas u omitidas) y 'nextExecutionAt' la fecha de la siguiente (null si termino).
+ * La version (@Version) impide que dos nodos ejecuten la misma ocurrencia: el segundo commit falla y su
+ * transferencia se revierte con el.
+ */
+@Entity
+@Table(name = "recurring_transfers", indexes = {
+    @Index(name = "idx_recurring_transfers_status_next", columnList = "status, next_execution_at"), // Carga de vencidas
+    @Index(name = "idx_recurring_transfers_user", columnList = "user_id") // Ordenes de un cliente
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringTransfer {
+
+    @Id
+    // IDs por bloques desde 'sequence_blocks' (fila 'recurring_transfers'). Ver db/migration/V7__recurring_transfers.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "recurring_transfer_ids")
+    @TableGenerator(name = "recurring_transfer_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "recurring_transfers", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId; // Titular de la cuenta de origen (la transferencia se ejecuta en su nombre)
+
+    @Column(name = "origin_account_number", nullable = false, length = 20)
+    private String originAccountNumber;
+
+    @Column(name = "destination_account_number", nullable = false, length = 20)
+    private String destinationAccountNumber;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt; // Primera ejecucion; las siguientes se calculan desde aqui
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt; // Sin ejecuciones despues de esta fecha (null: sin fin)
+
+    @Column(nullable = false)
+    private int occurrence;
+
+    @Column(name = "next_execution_at")
+    private LocalDateTime nextExecutionAt;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "last_execution_at")
+    private LocalDateTime lastExecutionAt;
+
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    @Column(name = "consecutive_failures", nullable = false)
+    private int consecutiveFailures;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
+
+    /**
+     * Periodicidad de la transferencia.
+     */
+    public enum Frequency {
+        ONCE, DAILY, WEEKLY, MONTHLY
+    }
+
+    /**
+     * Estados de una transferencia programada.
+     */
+    public enum Status {
+        ACTIVE,    // Tiene ejecuciones pendientes
+        CANCELLED, // Cancelada por el cliente
+        COMPLETED, // Sin mas ejecuciones (ONCE ejecutada o fecha final alcanzada)
+        SUSPENDED  // Demasiados fallos seguidos (p. ej. saldo insuficiente); el cliente debe reactivarla
+    }
+}
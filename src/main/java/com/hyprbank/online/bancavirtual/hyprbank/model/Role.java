@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import org.springframework.security.core.GrantedAuthority; // Importante para la integracion con Spring Security
 
 /*
@@ -29,6 +32,9 @@ import org.springframework.security.core.GrantedAuthority; // Importante para la
  * inicial. Es mas apropiado para valores que quieres que siempre esten presentes al instanciar
  * un objeto nuevo EN MEMORIA antes de que tenga datos de la DB. Para logica mas compleja
  * o garantias de persistencia, se podrian usar metodos @PrePersist o logica en el servicio.
+ *
+ * Los roles son pocos y casi nunca cambian, pero se leen con cada usuario: se guardan en la cache de
+ * segundo nivel de Hibernate (region "hyprbank.roles", ver application.conf).
  */
 
 @Entity // Indica que esta clase es una entidad JPA y se mapeara a una tabla
@@ -36,6 +42,8 @@ import org.springframework.security.core.GrantedAuthority; // Importante para la
 @Data // Anotacion lombok para getters, setters, toString, equals, hashCode
 @NoArgsConstructor // Anotacion lombok para el constructor vacio (OBLIGATORIO PARA JPA)
 @AllArgsConstructor // Anotacion lombok para el constructor con todos los argumentos
+@Cacheable // Entidad en la cache de segundo nivel
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hyprbank.roles")
 public class Role implements GrantedAuthority { // Nombre de clase actualizado
 
     @Id
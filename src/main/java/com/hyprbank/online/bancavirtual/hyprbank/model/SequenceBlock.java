@@ -0,0 +1,40 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import jakarta.persistence.*;
+
+// Importaciones de Lombok (facilitan proceso, usenlas)
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/*
+ * Entidad JPA que representa una secuencia con nombre en la base de datos.
+ *
+ * Mapea la tabla 'sequence_blocks'. Cada fila guarda el siguiente valor libre de una secuencia
+ * (ej. "account_numbers"). Los nodos de la aplicacion no piden valores uno por uno:
+ * reservan bloques completos avanzando 'nextValue' dentro de una transaccion corta con bloqueo
+ * de fila, y luego reparten los valores del bloque en memoria.
+ *
+ * Las filas 'movements', 'accounts' y 'user_accesses' las administra Hibernate (@TableGenerator con
+ * optimizador pooled) para los IDs de esas entidades; en ellas 'next_value' es el limite superior
+ * del ultimo bloque entregado, no el siguiente valor libre. Solo la migracion V2 las modifica fuera de Hibernate.
+ *
+ * Utilizaremos Lombok para generar automaticamente getters, setters, toString(), equals() y hashCode() para todos los campos.
+ * El constructor sin argumentos es obligatorio para JPA.
+ */
+
+@Entity // Indica que esta clase es una entidad JPA y se mapeara a una tabla
+@Table(name = "sequence_blocks") // Nombre de la tabla en la base de datos
+@Data // Anotacion lombok que genera automaticamente lo anterior mencionado
+@NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos (OBLIGATORIO PARA JPA)
+@AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos
+
+public class SequenceBlock {
+
+    @Id
+    @Column(name = "sequence_name", length = 64)
+    private String name; // Nombre logico de la secuencia (ej. "account_numbers")
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue; // Primer valor que todavia no ha sido reservado por ningun nodo
+}
@@ -4,10 +4,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hyprbank.online.bancavirtual.hyprbank.config.SearchIndexEntityListener;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -15,22 +18,30 @@ import java.util.List;
 import java.util.ArrayList;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Indices para la busqueda por prefijo y la paginacion por keyset del directorio de clientes.
+    // El email ya tiene su indice UNIQUE.
+    @Index(name = "idx_users_last_first_id", columnList = "last_name, first_name, id"),
+    @Index(name = "idx_users_first_name", columnList = "first_name"),
+    @Index(name = "idx_users_dpi", columnList = "dpi"),
+    @Index(name = "idx_users_nit", columnList = "nit")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "accounts"})
+@EntityListeners(SearchIndexEntityListener.class) // Mantiene actualizado el indice de busqueda en memoria
 public class User implements UserDetails {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(name = "first_name", nullable = false)
     private String firstName;
 
-    @Column(nullable = false)
+    @Column(name = "last_name", nullable = false)
     private String lastName;
 
     @Column(nullable = false, unique = true)
@@ -39,10 +50,10 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String password;
 
-    @Column(nullable = true)
+    @Column(name = "dpi", nullable = true)
     private String dpi;
 
-    @Column(nullable = true)
+    @Column(name = "nit", nullable = true)
     private String nit;
 
     @Column(nullable = true)
@@ -57,12 +68,15 @@ public class User implements UserDetails {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<Account> accounts = new ArrayList<>();
 
+    // Los IDs de los roles de cada usuario se guardan en la cache de segundo nivel (region "hyprbank.user-roles");
+    // junto con la cache de Role, cargar los roles de un usuario ya cargado antes no consulta la base de datos
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
         inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hyprbank.user-roles")
     private Collection<Role> roles;
 
     // --- Métodos de utilidad para la relación bidireccional ---
@@ -24,7 +24,9 @@ import org.hibernate.annotations.OnDeleteAction;
  */
 
 @Entity // Indica que esta clase es una entidad JPA y se mapeara a una tabla
-@Table(name = "user_accesses") // Especifica el nombre de la tabla en la base de datos
+@Table(name = "user_accesses", indexes = { // Especifica el nombre de la tabla en la base de datos
+    @Index(name = "idx_user_accesses_access_date_time", columnList = "access_date_time") // Reporte de accesos por fecha
+})
 @Data // Anotacion lombok que genera automaticamente lo anterior mencionado
 @NoArgsConstructor // Anotacion lombok que genera constructor sin argumentos (OBLIGATORIO PARA JPA)
 @AllArgsConstructor // Anotacion lombok que genera un constructor con todos los argumentos (Util para conveniencia, no para JPA directamente)
@@ -32,7 +34,11 @@ import org.hibernate.annotations.OnDeleteAction;
 public class UserAccess {
 
     @Id // Marca este campo como la clave primaria de la tabla
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Le dice a la base de datos que genere automaticamente el valor del ID (autoincremento)
+    // IDs por bloques desde 'sequence_blocks' (fila 'user_accesses') en lugar de autoincremento,
+    // para que los INSERT de auditoria puedan agruparse en lotes. Ver db/migration/V2__seed_id_block_sequences.sql.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_access_ids")
+    @TableGenerator(name = "user_access_ids", table = "sequence_blocks", pkColumnName = "sequence_name",
+            valueColumnName = "next_value", pkColumnValue = "user_accesses", allocationSize = 50)
     private Long id; // El ID unico para cada registro de acceso
 
     @ManyToOne(fetch = FetchType.LAZY) // Define una relacion de muchos-a-uno: muchos accesos pueden ser de un solo usuario
@@ -2,12 +2,23 @@ package com.hyprbank.online.bancavirtual.hyprbank.repository;
 
 import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountSnapshot;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 /*
  * Interfaz de Repositorio para la entidad Account.
@@ -51,4 +62,49 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * o un Optional vacío si no se encuentra.
      */
     Optional<Account> findByAccountNumberAndUser(String accountNumber, User user);
-}
\ No newline at end of file
+
+    /*
+     * Recorre todos los numeros de cuenta como un flujo (stream) sin cargar entidades.
+     * El fetch size Integer.MIN_VALUE le indica al driver de MySQL que entregue las filas una a una
+     * en lugar de traer todo el resultado a memoria. Debe consumirse dentro de una transaccion
+     * y cerrarse al terminar (try-with-resources).
+     *
+     * @return Un Stream con todos los numeros de cuenta existentes.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select a.accountNumber from Account a")
+    Stream<String> streamAllAccountNumbers();
+
+    /*
+     * Recorre en streaming los pares (id del usuario, numero de cuenta) de todas las cuentas.
+     * Lo usa el indice de busqueda en memoria para asociar cada cuenta con su cliente.
+     *
+     * @return Un Stream de arreglos {userId, accountNumber}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select a.user.id, a.accountNumber from Account a")
+    Stream<Object[]> streamAccountOwners();
+
+    /*
+     * Obtiene la vista inmutable de una cuenta y el nombre de su titular en una sola consulta (left join).
+     * Evita cargar la entidad User de forma perezosa en cada busqueda.
+     *
+     * @param accountNumber El número de la cuenta a buscar.
+     * @return Un Optional con el {@link AccountSnapshot}, o vacío si la cuenta no existe.
+     */
+    @Query("select new com.hyprbank.online.bancavirtual.hyprbank.dto.AccountSnapshot("
+         + "a.id, a.accountNumber, a.accountType, a.balance, a.status, a.creationDate, u.id, u.firstName, u.lastName) "
+         + "from Account a left join a.user u where a.accountNumber = :accountNumber")
+    Optional<AccountSnapshot> findSnapshotByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /*
+     * Suma 'amount' al saldo con un UPDATE relativo (balance = balance + amount), sin leer la entidad: no pisa
+     * los depositos o transferencias que otra transaccion confirme entre la lectura y la escritura.
+     * Debe llamarse dentro de una transaccion.
+     *
+     * @return Filas actualizadas (0 si la cuenta no existe).
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :amount where a.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,20 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.ClearingBatch;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/*
+ * Interfaz de Repositorio para los lotes de compensacion interbancaria.
+ */
+@Repository
+public interface ClearingBatchRepository extends JpaRepository<ClearingBatch, Long> {
+
+    /*
+     * Lotes en un estado, del mas antiguo al mas reciente (CLAIMED: archivos pendientes de escribir).
+     */
+    List<ClearingBatch> findByStatusOrderByIdAsc(ClearingBatch.Status status);
+}
@@ -0,0 +1,44 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.MovementOutboxEvent;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * Interfaz de Repositorio para el outbox de movimientos.
+ * Todas las lecturas son por rango de la clave primaria (id), en orden ascendente.
+ */
+@Repository
+public interface MovementOutboxRepository extends JpaRepository<MovementOutboxEvent, Long> {
+
+    /*
+     * Siguientes eventos despues de un ID (para avanzar el horizonte del relay).
+     */
+    List<MovementOutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /*
+     * Eventos en el rango (afterId, upToId] (para suscriptores atrasados).
+     */
+    List<MovementOutboxEvent> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long afterId, Long upToId, Limit limit);
+
+    @Query("select coalesce(max(e.id), 0) from MovementOutboxEvent e")
+    long findMaxId();
+
+    /*
+     * Borra un lote de eventos ya entregados a todos los suscriptores y mas antiguos que la retencion.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM movement_outbox WHERE id <= :upToId AND created_at < :before ORDER BY id LIMIT :batchSize",
+            nativeQuery = true)
+    int deleteDelivered(@Param("upToId") long upToId, @Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
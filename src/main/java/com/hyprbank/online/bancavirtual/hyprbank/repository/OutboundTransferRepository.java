@@ -0,0 +1,60 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * Interfaz de Repositorio para la cola de transferencias a otros bancos.
+ * Las busquedas por estado usan el indice (status, next_attempt_at).
+ */
+@Repository
+public interface OutboundTransferRepository extends JpaRepository<OutboundTransfer, Long> {
+
+    /*
+     * IDs de las transferencias en un estado cuyo 'nextAttemptAt' ya vencio, de la mas atrasada a la mas reciente.
+     */
+    @Query("select t.id from OutboundTransfer t where t.status = :status and t.nextAttemptAt <= :now order by t.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") OutboundTransfer.Status status, @Param("now") LocalDateTime now, Limit limit);
+
+    /*
+     * Pasa una transferencia de PENDING a SENT si nadie la tomo antes (UPDATE condicional, sin cargar la entidad).
+     * 'deadline' es el plazo para recibir la respuesta del banco destino.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update OutboundTransfer t set t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.SENT, "
+         + "t.attempts = t.attempts + 1, t.nextAttemptAt = :deadline, t.updatedAt = :now, t.version = t.version + 1 "
+         + "where t.id = :id and t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("deadline") LocalDateTime deadline, @Param("now") LocalDateTime now);
+
+    /*
+     * Asigna a un lote de compensacion todas las transferencias PENDING encoladas hasta 'cutoff' y las pasa a SENT,
+     * en un solo UPDATE: una transferencia entra completa en un lote o en ninguno.
+     * 'deadline' es el plazo para recibir la liquidacion del lote.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update OutboundTransfer t set t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.SENT, "
+         + "t.clearingBatchId = :batchId, t.attempts = t.attempts + 1, t.nextAttemptAt = :deadline, t.updatedAt = :now, "
+         + "t.version = t.version + 1 "
+         + "where t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.PENDING and t.nextAttemptAt <= :cutoff")
+    int assignToBatch(@Param("batchId") Long batchId, @Param("cutoff") LocalDateTime cutoff,
+                      @Param("deadline") LocalDateTime deadline, @Param("now") LocalDateTime now);
+
+    /*
+     * Devuelve a PENDING las transferencias SENT cuyo plazo de respuesta vencio (p. ej. la aplicacion se detuvo
+     * mientras esperaba al banco destino). Se reenvian con el mismo ID, que el banco destino usa para no duplicarlas.
+     */
+    @Modifying
+    @Query("update OutboundTransfer t set t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.PENDING, "
+         + "t.nextAttemptAt = :now, t.updatedAt = :now, t.lastError = 'Sin respuesta del banco destino', t.version = t.version + 1 "
+         + "where t.status = com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer.Status.SENT and t.nextAttemptAt < :now")
+    int requeueExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboxOffset;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/*
+ * Interfaz de Repositorio para la posicion de cada suscriptor del outbox.
+ */
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    /*
+     * Avanza la posicion de un suscriptor con un solo UPDATE (sin cargar la entidad).
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxOffset o set o.lastEventId = :lastEventId, o.updatedAt = :updatedAt where o.subscriber = :subscriber")
+    int advance(@Param("subscriber") String subscriber, @Param("lastEventId") long lastEventId,
+                @Param("updatedAt") LocalDateTime updatedAt);
+}
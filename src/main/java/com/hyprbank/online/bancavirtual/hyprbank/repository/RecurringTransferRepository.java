@@ -0,0 +1,33 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * Interfaz de Repositorio para las transferencias programadas y recurrentes.
+ */
+@Repository
+public interface RecurringTransferRepository extends JpaRepository<RecurringTransfer, Long> {
+
+    /*
+     * Pares {id, nextExecutionAt} de las ordenes activas que vencen antes de 'until' (incluidas las atrasadas),
+     * sin cargar entidades. Usa el indice (status, next_execution_at).
+     */
+    @Query("select r.id, r.nextExecutionAt from RecurringTransfer r "
+         + "where r.status = com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer.Status.ACTIVE "
+         + "and r.nextExecutionAt < :until order by r.nextExecutionAt")
+    List<Object[]> findDueBefore(@Param("until") LocalDateTime until, Limit limit);
+
+    List<RecurringTransfer> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Optional<RecurringTransfer> findByIdAndUserId(Long id, Long userId);
+}
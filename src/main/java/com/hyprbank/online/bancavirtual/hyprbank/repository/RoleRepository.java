@@ -1,12 +1,22 @@
 package com.hyprbank.online.bancavirtual.hyprbank.repository;
 
 import com.hyprbank.online.bancavirtual.hyprbank.model.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    // Se llama en cada registro de usuario: el resultado se guarda en la cache de consultas de Hibernate
+    // (region "hyprbank.role-by-name") y se invalida solo cuando cambia la tabla roles
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hyprbank.role-by-name")
+    })
     Optional<Role> findByName(String name);
-}
\ No newline at end of file
+}
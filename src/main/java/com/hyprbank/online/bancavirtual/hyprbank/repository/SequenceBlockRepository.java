@@ -0,0 +1,37 @@
+package com.hyprbank.online.bancavirtual.hyprbank.repository;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.SequenceBlock;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/*
+ * Interfaz de Repositorio para la entidad SequenceBlock.
+ *
+ * Proporciona métodos para interactuar con la base de datos utilizando CRUD.
+ *
+ * @param <SequenceBlock> El tipo de la entidad con la que trabaja este repositorio.
+ * @param <String> El tipo de PK de la entidad SequenceBlock (el nombre de la secuencia).
+ */
+
+@Repository
+public interface SequenceBlockRepository extends JpaRepository<SequenceBlock, String> {
+    /*
+     * Busca una secuencia por su nombre tomando un bloqueo de escritura (SELECT ... FOR UPDATE).
+     * Mientras la transaccion siga abierta ningun otro nodo puede reservar un bloque de la misma secuencia,
+     * por lo que los rangos entregados nunca se solapan.
+     *
+     * @param name El nombre de la secuencia.
+     * @return Un Optional con la secuencia bloqueada, o vacío si la fila aun no existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SequenceBlock s where s.name = :name")
+    Optional<SequenceBlock> findForUpdate(@Param("name") String name);
+}
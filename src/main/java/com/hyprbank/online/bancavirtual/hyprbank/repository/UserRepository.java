@@ -1,10 +1,19 @@
 package com.hyprbank.online.bancavirtual.hyprbank.repository;
 
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /*
  * Interfaz de Repositorio para la entidad User
@@ -16,9 +25,12 @@ import java.util.Optional;
  *
  * @param <User> El tipo de la entidad con la que trabaja este repositorio
  * @param <Long> El tipo de PK de la entidad User (El ID)
+ *
+ * Extiende tambien JpaSpecificationExecutor para construir busquedas dinamicas (directorio de clientes)
+ * y recorrerlas con paginacion por keyset.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     /*
      * Este metodo busca a un usuario por su email utilizando este
      * mismo como el "username" para iniciar sesion
@@ -29,4 +41,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      *
      */
     Optional<User> findByEmail(String email);
+
+    /*
+     * Recorre en streaming los campos buscables de todos los usuarios, sin cargar entidades ni roles.
+     * Lo usa el indice de busqueda en memoria al construirse.
+     *
+     * @return Un Stream de arreglos {id, firstName, lastName, email, dpi, nit}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select u.id, u.firstName, u.lastName, u.email, u.dpi, u.nit from User u")
+    Stream<Object[]> streamSearchRows();
 }
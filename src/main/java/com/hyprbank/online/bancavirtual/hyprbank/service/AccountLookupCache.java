@@ -0,0 +1,109 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountSnapshot;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.util.Collection;
+
+/*
+ * Cache acotada de busquedas de cuentas por numero de cuenta.
+ *
+ * Guarda vistas inmutables ({@link AccountSnapshot}) con el nombre del titular ya resuelto, de modo que las
+ * busquedas repetidas desde las pantallas de usuario y administrador no consultan MySQL.
+ * El tamaño maximo y las estadisticas se configuran en 'spring.cache.caffeine.spec'.
+ *
+ * Invalidacion: los servicios que modifican una cuenta o su titular llaman a {@link #evict(String)}.
+ * La entrada se elimina de inmediato y otra vez al confirmar la transaccion, para que una lectura
+ * concurrente no vuelva a guardar el valor anterior mientras la transaccion sigue abierta.
+ *
+ * Metricas: cache.gets{cache=accountsByNumber,result=hit|miss}, cache.evictions (por tamaño) y
+ * hyprbank.account.cache.invalidations (invalidaciones por escritura).
+ */
+@Component
+public class AccountLookupCache {
+
+    public static final String CACHE_NAME = "accountsByNumber";
+
+    private final AccountRepository accountRepository;
+    private final CacheManager cacheManager;
+    private final ShardedBalances shardedBalances;
+    private final Counter invalidations;
+
+    /*
+     * Constructor para la inyeccion de dependencias.
+     */
+    @Autowired
+    public AccountLookupCache(AccountRepository accountRepository, CacheManager cacheManager, ShardedBalances shardedBalances,
+                              MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.cacheManager = cacheManager;
+        this.shardedBalances = shardedBalances;
+        this.invalidations = Counter.builder("hyprbank.account.cache.invalidations")
+                .description("Entradas de la cache de cuentas invalidadas por escrituras")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca la vista de una cuenta por su numero, usando la cache si ya esta cargada.
+     * Los numeros inexistentes no se guardan (de eso se encarga el filtro de Bloom).
+     *
+     * @param accountNumber El numero de cuenta.
+     * @return El {@link AccountSnapshot} de la cuenta, o {@code null} si no existe.
+     */
+    @Cacheable(cacheNames = CACHE_NAME, unless = "#result == null")
+    public AccountSnapshot find(String accountNumber) {
+        // Con saldo repartido, el saldo incluye sus filas (cada credito invalida la entrada)
+        return shardedBalances.withShards(accountRepository.findSnapshotByAccountNumber(accountNumber).orElse(null));
+    }
+
+    /**
+     * Invalida la entrada de una cuenta modificada (saldo, estado o datos del titular).
+     *
+     * @param accountNumber El numero de la cuenta modificada.
+     */
+    public void evict(String accountNumber) {
+        if (accountNumber == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(accountNumber);
+        invalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(accountNumber);
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalida varias cuentas (por ejemplo, todas las de un titular cuyo nombre cambio).
+     *
+     * @param accountNumbers Los numeros de las cuentas a invalidar.
+     */
+    public void evictAll(Collection<String> accountNumbers) {
+        accountNumbers.forEach(this::evict);
+    }
+}
@@ -0,0 +1,341 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+
+// Importaciones de Micrometer (metricas expuestas por actuator)
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Filtro de Bloom en memoria con todos los numeros de cuenta ('accounts.account_number').
+ *
+ * Un filtro de Bloom responde "definitivamente no existe" o "puede que exista". Las busquedas de numeros
+ * inexistentes (errores de digitacion, sondeos) se contestan sin consultar la base de datos; solo los
+ * "puede que exista" llegan a MySQL.
+ *
+ * Se construye al iniciar la aplicacion con un recorrido en streaming de la tabla y se actualiza cuando
+ * este nodo crea una cuenta. Mientras se construye por primera vez, {@link #mightContain(String)} responde
+ * siempre {@code true} para que las consultas sigan yendo a la base de datos.
+ *
+ * El filtro es local a cada nodo: una cuenta creada en otra instancia de la aplicacion no esta en el.
+ * Las cuentas nuevas siempre reciben un numero de AccountNumberGenerator (12 digitos con digito verificador
+ * de Luhn), asi que un "no esta" solo es definitivo para numeros que no tienen ese formato (errores de
+ * digitacion, numeros antiguos, sondeos): esos no los pudo crear nadie despues de construir el filtro.
+ * Para un numero con formato valido que no esta en el filtro, {@link #mightContain(String)} responde
+ * "puede que exista" y la consulta va a la base de datos. Asi no hay falsos negativos aunque haya varios nodos.
+ *
+ * Las cuentas registradas con {@link #put(String)} en los ultimos minutos se guardan aparte y se vuelven a
+ * insertar al reemplazar el estado en {@link #rebuild()}: la cuenta se registra antes del COMMIT, y el
+ * recorrido (en la replica) puede no verla todavia.
+ *
+ * Metricas publicadas (ver /actuator/metrics):
+ * - hyprbank.account.bloom.fpp: tasa de falsos positivos estimada con la ocupacion actual.
+ * - hyprbank.account.bloom.memory: bytes usados por el arreglo de bits.
+ * - hyprbank.account.bloom.insertions: numeros de cuenta insertados.
+ * - hyprbank.account.bloom.checks{result=definite_miss|maybe|unconfirmed_miss}: consultas respondidas por el
+ *   filtro; unconfirmed_miss son numeros con formato valido que no estan en el filtro y se confirman en la base de datos.
+ * - hyprbank.account.bloom.false.positives: "puede que exista" que la base de datos desmintio.
+ */
+@Component
+public class AccountNumberBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountNumberBloomFilter.class);
+
+    // Tiempo que se conservan las cuentas registradas para volver a insertarlas en un filtro reconstruido
+    private static final Duration RECENT_WINDOW = Duration.ofMinutes(10);
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final double targetFpp;
+    private final long minCapacity;
+
+    // Estado actual del filtro; se reemplaza completo al reconstruir.
+    private volatile BitState state;
+    private volatile boolean ready = false;
+
+    // put() toma el bloqueo de lectura y el reemplazo del estado el de escritura: ninguna cuenta queda en un
+    // estado viejo despues del reemplazo. 'recentPuts' (numero, nanoTime) se protege con el bloqueo de escritura
+    // o, desde put(), sincronizando sobre la cola.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Deque<RecentPut> recentPuts = new ArrayDeque<>();
+    private volatile boolean rebuilding = false;
+
+    private final Counter definiteMisses;
+    private final Counter maybeHits;
+    private final Counter unconfirmedMisses;
+    private final Counter falsePositives;
+
+    /*
+     * Constructor para la inyeccion de dependencias.
+     * La tasa de falsos positivos objetivo y la capacidad minima se configuran en application.properties.
+     */
+    @Autowired
+    public AccountNumberBloomFilter(AccountRepository accountRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${hyprbank.account-bloom.fpp:0.01}") double targetFpp,
+                                    @Value("${hyprbank.account-bloom.min-capacity:100000}") long minCapacity) {
+        this.accountRepository = accountRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.targetFpp = targetFpp;
+        this.minCapacity = minCapacity;
+        this.state = new BitState(minCapacity, targetFpp);
+
+        Gauge.builder("hyprbank.account.bloom.fpp", this, AccountNumberBloomFilter::estimatedFalsePositiveRate)
+                .description("Tasa de falsos positivos estimada del filtro de numeros de cuenta")
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.account.bloom.memory", this, filter -> filter.memoryBytes())
+                .baseUnit("bytes")
+                .description("Memoria ocupada por el filtro de numeros de cuenta")
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.account.bloom.insertions", this, filter -> filter.state.insertions.get())
+                .description("Numeros de cuenta insertados en el filtro")
+                .register(meterRegistry);
+        this.definiteMisses = Counter.builder("hyprbank.account.bloom.checks").tag("result", "definite_miss").register(meterRegistry);
+        this.maybeHits = Counter.builder("hyprbank.account.bloom.checks").tag("result", "maybe").register(meterRegistry);
+        this.unconfirmedMisses = Counter.builder("hyprbank.account.bloom.checks").tag("result", "unconfirmed_miss").register(meterRegistry);
+        this.falsePositives = Counter.builder("hyprbank.account.bloom.false.positives").register(meterRegistry);
+    }
+
+    /**
+     * Construye el filtro en segundo plano cuando la aplicacion termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("account-bloom-build").start(this::rebuild);
+    }
+
+    /**
+     * Reconstruye el filtro recorriendo la tabla 'accounts' en streaming. Mientras tanto sigue respondiendo
+     * el estado anterior (si ya estaba listo). Al reemplazarlo se insertan tambien las cuentas registradas
+     * en los ultimos minutos, que el recorrido pudo no ver, por lo que no se pierde ninguna.
+     */
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        rebuilding = true;
+        try {
+            long expected = Math.max(minCapacity, accountRepository.count() * 2);
+            BitState newState = new BitState(expected, targetFpp);
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try (Stream<String> numbers = accountRepository.streamAllAccountNumbers()) {
+                    numbers.forEach(newState::put);
+                }
+            });
+            swapLock.writeLock().lock();
+            try {
+                synchronized (recentPuts) {
+                    recentPuts.forEach(recent -> newState.put(recent.accountNumber()));
+                }
+                state = newState;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            ready = true;
+            logger.info("Filtro de Bloom de cuentas construido: {} numeros, {} KB, fpp estimada {} ({} ms)",
+                    newState.insertions.get(), newState.memoryBytes() / 1024, String.format("%.5f", estimatedFalsePositiveRate()),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Si falla, el filtro queda deshabilitado y todas las consultas van a la base de datos.
+            logger.error("No se pudo construir el filtro de Bloom de cuentas: {}", e.getMessage(), e);
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    /**
+     * Registra un numero de cuenta recien creado.
+     *
+     * @param accountNumber El numero de la nueva cuenta.
+     */
+    public void put(String accountNumber) {
+        if (accountNumber == null) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            state.put(accountNumber);
+            long now = System.nanoTime();
+            synchronized (recentPuts) {
+                recentPuts.addLast(new RecentPut(accountNumber, now));
+                // Durante una reconstruccion no se descarta nada: el recorrido pudo empezar hace mas de la ventana
+                while (!rebuilding && now - recentPuts.peekFirst().nanoTime() > RECENT_WINDOW.toNanos()) {
+                    recentPuts.removeFirst();
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si el numero de cuenta puede existir.
+     * Un resultado {@code false} es definitivo: la cuenta no existe y no es necesario consultar la base de datos.
+     * Los numeros con formato de AccountNumberGenerator que no estan en el filtro responden {@code true}:
+     * otro nodo pudo crearlos despues de construir este filtro.
+     *
+     * @param accountNumber El numero de cuenta a verificar.
+     * @return {@code false} solo si la cuenta definitivamente no existe.
+     */
+    public boolean mightContain(String accountNumber) {
+        if (!ready) {
+            return true;
+        }
+        if (accountNumber != null && state.mightContain(accountNumber)) {
+            maybeHits.increment();
+            return true;
+        }
+        if (AccountNumberGenerator.hasValidCheckDigit(accountNumber)) {
+            unconfirmedMisses.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /*
+     * Indica si el numero esta entre los que conoce este nodo (cuentas existentes al construir el filtro y las
+     * creadas aqui), sin el caso de las cuentas de otros nodos. Lo usa AccountNumberGenerator para saltar
+     * candidatos que coinciden con numeros antiguos: los de otros nodos salen de otros bloques y nunca coinciden.
+     */
+    boolean mightContainKnown(String accountNumber) {
+        return !ready || state.mightContain(accountNumber);
+    }
+
+    /**
+     * Registra que un "puede que exista" resulto no existir en la base de datos.
+     * Alimenta la metrica de falsos positivos observados (no cuenta los numeros que no estaban en el filtro
+     * y solo se confirmaron en la base de datos).
+     *
+     * @param accountNumber El numero de cuenta que no se encontro.
+     */
+    public void recordFalsePositive(String accountNumber) {
+        if (ready && accountNumber != null && state.mightContain(accountNumber)) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * @return {@code true} cuando el filtro ya fue construido y sus respuestas negativas son confiables.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tasa de falsos positivos esperada con la ocupacion actual: (1 - e^(-k*n/m))^k.
+     *
+     * @return La probabilidad estimada de que un numero inexistente pase el filtro.
+     */
+    public double estimatedFalsePositiveRate() {
+        BitState current = state;
+        double exponent = -((double) current.hashCount * current.insertions.get()) / current.bitCount;
+        return Math.pow(1 - Math.exp(exponent), current.hashCount);
+    }
+
+    /**
+     * @return Los bytes ocupados por el arreglo de bits del filtro.
+     */
+    public long memoryBytes() {
+        return state.memoryBytes();
+    }
+
+    private record RecentPut(String accountNumber, long nanoTime) {
+    }
+
+    /*
+     * Arreglo de bits del filtro con su configuracion (m bits, k funciones hash).
+     * Usa AtomicLongArray para permitir inserciones concurrentes sin bloqueos.
+     */
+    private static final class BitState {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong insertions = new AtomicLong();
+
+        BitState(long expectedInsertions, double fpp) {
+            // m = -n ln(p) / (ln 2)^2 ; k = (m / n) ln 2
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String value) {
+            long h1 = hash(value, 0x9E3779B97F4A7C15L);
+            long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(index);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(index, current, current | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value, 0x9E3779B97F4A7C15L);
+            long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long memoryBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        /*
+         * Hash de 64 bits (FNV-1a con semilla + mezcla final de MurmurHash3) sobre los caracteres,
+         * sin crear arreglos de bytes intermedios.
+         */
+        private static long hash(String value, long seed) {
+            long h = 0xCBF29CE484222325L ^ seed;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Componente que genera numeros de cuenta unicos de 12 digitos.
+ *
+ * Formato: 11 digitos de cuerpo + 1 digito verificador (algoritmo de Luhn).
+ * El cuerpo sale de la secuencia "account_numbers" de {@link SequenceBlockService}: cada nodo reserva
+ * un bloque de valores y los entrega desde memoria, por lo que generar un numero no requiere
+ * consultar si ya existe en la tabla 'accounts'. Dos nodos nunca reciben el mismo bloque.
+ *
+ * Los numeros antiguos (generados al azar) podrian coincidir con el nuevo rango: cuando el
+ * {@link AccountNumberBloomFilter} ya esta listo, los candidatos que "pueden existir" se saltan sin consultar
+ * la base de datos. La restriccion UNIQUE de 'accounts.account_number' sigue siendo la ultima garantia.
+ */
+@Component
+public class AccountNumberGenerator {
+
+    static final String SEQUENCE_NAME = "account_numbers";
+
+    // Desplazamiento para que el cuerpo tenga siempre 11 digitos (10000000000 .. 99999999999).
+    private static final long BODY_OFFSET = 10_000_000_000L;
+    private static final long BODY_MAX = 99_999_999_999L;
+
+    private final SequenceBlockService sequenceBlockService;
+    private final AccountNumberBloomFilter accountNumberBloomFilter;
+    private final int blockSize;
+
+    // Bloque actual reservado por este nodo: [nextValue, blockEnd)
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextValue;
+    private long blockEnd;
+
+    /*
+     * Constructor para la inyeccion de dependencias.
+     * El tamaño del bloque se configura con 'hyprbank.account-number.block-size'.
+     */
+    @Autowired
+    public AccountNumberGenerator(SequenceBlockService sequenceBlockService,
+                                  AccountNumberBloomFilter accountNumberBloomFilter,
+                                  @Value("${hyprbank.account-number.block-size:100}") int blockSize) {
+        this.sequenceBlockService = sequenceBlockService;
+        this.accountNumberBloomFilter = accountNumberBloomFilter;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Entrega el siguiente numero de cuenta disponible para este nodo.
+     * Solo accede a la base de datos cuando el bloque en memoria se agota.
+     *
+     * @return Un numero de cuenta de 12 digitos con digito verificador.
+     * @throws IllegalStateException Si la secuencia supero el rango de 11 digitos.
+     */
+    public String nextAccountNumber() {
+        String candidate;
+        do {
+            candidate = nextCandidate();
+            // Un falso positivo del filtro solo desperdicia un valor de la secuencia.
+        } while (accountNumberBloomFilter.isReady() && accountNumberBloomFilter.mightContainKnown(candidate));
+        return candidate;
+    }
+
+    /*
+     * Toma el siguiente valor del bloque en memoria (reservando otro bloque si se agoto)
+     * y lo convierte en un numero de cuenta con digito verificador.
+     */
+    private String nextCandidate() {
+        long value;
+        lock.lock();
+        try {
+            if (nextValue >= blockEnd) {
+                long start = sequenceBlockService.reserveBlock(SEQUENCE_NAME, blockSize);
+                nextValue = start;
+                blockEnd = start + blockSize;
+            }
+            value = nextValue++;
+        } finally {
+            lock.unlock();
+        }
+
+        long body = BODY_OFFSET + value;
+        if (body > BODY_MAX) {
+            throw new IllegalStateException("La secuencia de numeros de cuenta se ha agotado.");
+        }
+        String bodyDigits = Long.toString(body);
+        return bodyDigits + luhnCheckDigit(bodyDigits);
+    }
+
+    /**
+     * Verifica si un numero de cuenta generado por este componente tiene un digito verificador valido.
+     * Util para descartar errores de digitacion sin consultar la base de datos.
+     *
+     * @param accountNumber El numero de cuenta completo (cuerpo + digito verificador).
+     * @return {@code true} si el numero es de 12 digitos y su digito verificador es correcto.
+     */
+    public static boolean hasValidCheckDigit(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != 12) {
+            return false;
+        }
+        for (int i = 0; i < accountNumber.length(); i++) {
+            if (!Character.isDigit(accountNumber.charAt(i))) {
+                return false;
+            }
+        }
+        String body = accountNumber.substring(0, 11);
+        return luhnCheckDigit(body) == accountNumber.charAt(11) - '0';
+    }
+
+    /*
+     * Calcula el digito verificador de Luhn para una cadena de digitos.
+     * Se duplica cada segundo digito empezando por el de la derecha.
+     */
+    static int luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubleIt) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+            doubleIt = !doubleIt;
+        }
+        return (10 - (sum % 10)) % 10;
+    }
+}
@@ -1,47 +1,33 @@
 package com.hyprbank.online.bancavirtual.hyprbank.service;
 
 import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountDTO;
-import com.hyprbank.online.bancavirtual.hyprbank.model.Account; // Asume que tienes esta entidad
-import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository; // Asume que tienes este repositorio
+import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountSnapshot;
 import com.hyprbank.online.bancavirtual.hyprbank.service.AccountService;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
-    private final AccountRepository accountRepository;
+    private final AccountLookupCache accountLookupCache;
+    private final AccountNumberBloomFilter accountNumberBloomFilter;
 
-    public AccountServiceImpl(AccountRepository accountRepository) {
-        this.accountRepository = accountRepository;
+    public AccountServiceImpl(AccountLookupCache accountLookupCache, AccountNumberBloomFilter accountNumberBloomFilter) {
+        this.accountLookupCache = accountLookupCache;
+        this.accountNumberBloomFilter = accountNumberBloomFilter;
     }
 
     @Override
     public AccountDTO findByAccountNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber)
-                .map(account -> {
-                    String userName = null;
-                    String userLastName = null;
-                    Long userId = null; // Inicializar userId
-
-                    // Asegúrate de que la entidad User esté cargada si la relación es LAZY
-                    if (account.getUser() != null) {
-                        userId = account.getUser().getId(); // Obtener el ID del usuario
-                        userName = account.getUser().getFirstName();
-                        userLastName = account.getUser().getLastName();
-                    }
-
-                    return new AccountDTO(
-                        account.getId(),
-                        account.getAccountNumber(),
-                        account.getAccountType(), // Asume que AccountType es un Enum
-                        account.getBalance(),
-                        account.getStatus(), // Asume que Status es un Enum
-                        account.getCreationDate(), // Usar el campo creationDate de la entidad
-                        userId, // Pasar el userId
-                        userName,
-                        userLastName
-                    );
-                })
-                .orElse(null); // Retorna null si no se encuentra la cuenta
+        // Si el filtro de Bloom dice que no existe, no hace falta consultar la base de datos
+        if (!accountNumberBloomFilter.mightContain(accountNumber)) {
+            return null;
+        }
+        // La cache guarda vistas inmutables con el titular ya resuelto (una sola consulta con join)
+        AccountSnapshot snapshot = accountLookupCache.find(accountNumber);
+        if (snapshot == null) {
+            accountNumberBloomFilter.recordFalsePositive(accountNumber);
+            return null; // Retorna null si no se encuentra la cuenta
+        }
+        return snapshot.toDto(); // Copia nueva para que nadie modifique la entrada compartida
     }
-}
\ No newline at end of file
+}
@@ -6,12 +6,16 @@ import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.service.AdminMovementService;
+import com.hyprbank.online.bancavirtual.hyprbank.config.ReportingWorkload;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true) // Solo consultas
+@ReportingWorkload // Lista todos los movimientos del banco: pool "reporting", separado de las transacciones
 public class AdminMovementServiceImpl implements AdminMovementService {
 
     private final MovementRepository movementRepository;
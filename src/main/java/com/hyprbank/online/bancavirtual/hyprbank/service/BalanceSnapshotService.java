@@ -0,0 +1,242 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.BalanceAsOfDTO;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Saldos al cierre de cada dia (tabla 'account_balance_snapshots') y saldo de una cuenta a cualquier fecha y hora.
+ *
+ * Cierre diario (hyprbank.snapshots.cron, en un solo nodo):
+ * - Recorre por el indice (date, account_id) las cuentas con movimientos ese dia y, en bloques, escribe su saldo
+ *   al cierre con INSERT en lote: saldo actual menos los movimientos de los dias siguientes (pocos, porque corre
+ *   justo despues de medianoche). Si se interrumpe, la siguiente llamada continua despues del ultimo bloque
+ *   confirmado; al terminar el dia se borra su punto de control, asi que repetir un dia ya cerrado vuelve a
+ *   calcular y sobrescribe todas sus fotos.
+ * - Una sola vez por cuenta escribe ademas una foto inicial (cuentas nuevas y las existentes al activar el
+ *   cierre), siguiendo un punto de control por ID de cuenta.
+ *
+ * Saldo a una fecha y hora T: la foto mas reciente de un dia anterior a T mas los movimientos desde esa foto
+ * hasta T. Con el cierre al dia, eso es a lo sumo un dia de movimientos sin importar la antiguedad de la cuenta.
+ * Sin foto anterior, se parte del saldo actual y se restan los movimientos posteriores a T. Los movimientos
+ * anteriores a la columna created_at solo tienen fecha: se cuentan como registrados al inicio de su dia.
+ */
+@Service
+public class BalanceSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+    private static final String JOB_NAME = "balance-snapshots";
+    private static final String DAY_CHECKPOINT = JOB_NAME + ":day:";
+    private static final String SEED_CHECKPOINT = JOB_NAME + ":seed";
+    private static final String SIGNED_AMOUNT = "IF(m.type = 'INCOME', m.amount, -m.amount)";
+
+    /*
+     * Saldo de la cuenta 'a' al cierre de un dia (un parametro: el dia): saldo actual con sus filas repartidas
+     * menos los movimientos de dias posteriores. En una sola sentencia, saldo y movimientos salen de la misma
+     * lectura consistente. Lo usan las fotos de cierre y el devengo de intereses.
+     */
+    static final String END_OF_DAY_BALANCE = "a.balance + " + ShardedBalances.SHARD_SUM
+            + " - COALESCE((SELECT SUM(" + SIGNED_AMOUNT + ") FROM movements m WHERE m.account_id = a.id AND m.date > ?), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobRunner clusterJobRunner;
+    private final BatchCheckpoints batchCheckpoints;
+    private final Timer snapshotTimer;
+    private final int chunkSize;
+
+    public BalanceSnapshotService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ClusterJobRunner clusterJobRunner,
+                                  BatchCheckpoints batchCheckpoints,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${hyprbank.snapshots.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterJobRunner = clusterJobRunner;
+        this.batchCheckpoints = batchCheckpoints;
+        this.snapshotTimer = Timer.builder("hyprbank.snapshots.write")
+                .description("Cierre diario de saldos")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+    }
+
+    /*
+     * Cierre diario: fotos del dia anterior.
+     */
+    @Scheduled(cron = "${hyprbank.snapshots.cron:0 5 0 * * *}")
+    public void snapshotYesterday() {
+        snapshot(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Escribe (o reescribe) las fotos de cierre de un dia, si este nodo obtiene el lease del trabajo.
+     *
+     * @param date Dia a cerrar.
+     * @return Cantidad de fotos escritas en este nodo (0 si el trabajo lo tenia otro nodo).
+     */
+    public long snapshot(LocalDate date) {
+        long start = System.nanoTime();
+        long[] written = new long[1];
+        clusterJobRunner.runSingleton(JOB_NAME, lease -> {
+            String checkpointJob = DAY_CHECKPOINT + date;
+            written[0] += writeChunks(lease, checkpointJob,
+                    "SELECT DISTINCT account_id FROM movements WHERE date = ? AND account_id > ? ORDER BY account_id LIMIT ?",
+                    date, true);
+            if (!lease.isLost()) {
+                batchCheckpoints.clear(checkpointJob); // Dia completo: una nueva llamada lo reescribe entero
+            }
+            written[0] += writeChunks(lease, SEED_CHECKPOINT,
+                    "SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?", date, false);
+            batchCheckpoints.purge(DAY_CHECKPOINT, 30);
+        });
+        long elapsed = System.nanoTime() - start;
+        snapshotTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Cierre de saldos del {}: {} fotos en {} ms.", date, written[0], TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return written[0];
+    }
+
+    /*
+     * Recorre en bloques las cuentas que devuelve 'idQuery' despues del punto de control y escribe su foto.
+     */
+    private long writeChunks(ClusterJobRunner.JobLease lease, String checkpointJob, String idQuery, LocalDate date,
+                             boolean byDate) {
+        long written = 0;
+        long cursor = batchCheckpoints.lastId(checkpointJob, 0, Long.MIN_VALUE);
+        while (!lease.isLost()) {
+            long after = cursor;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                lease.checkHeld();
+                List<Long> chunk = byDate
+                        ? jdbcTemplate.queryForList(idQuery, Long.class, Date.valueOf(date), after, chunkSize)
+                        : jdbcTemplate.queryForList(idQuery, Long.class, after, chunkSize);
+                if (!chunk.isEmpty()) {
+                    writeSnapshots(chunk, date);
+                    batchCheckpoints.save(checkpointJob, 0, chunk.get(chunk.size() - 1));
+                }
+                return chunk;
+            });
+            written += ids.size();
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return written;
+    }
+
+    /*
+     * Saldo al cierre de 'date' de cada cuenta (saldo actual menos los movimientos de dias posteriores), en un
+     * INSERT por lotes que reescribe la foto si ya existia.
+     */
+    private void writeSnapshots(List<Long> accountIds, LocalDate date) {
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        Object[] args = new Object[accountIds.size() + 1];
+        args[0] = Date.valueOf(date);
+        for (int i = 0; i < accountIds.size(); i++) {
+            args[i + 1] = accountIds.get(i);
+        }
+        List<Object[]> rows = jdbcTemplate.query("SELECT a.id, " + END_OF_DAY_BALANCE
+                + " FROM accounts a WHERE a.id IN (" + placeholders + ")",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), args[0], rs.getBigDecimal(2) }, args);
+        jdbcTemplate.batchUpdate("INSERT INTO account_balance_snapshots (account_id, snapshot_date, balance) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE balance = VALUES(balance)", rows);
+    }
+
+    /**
+     * Suma a las fotos ya escritas de 'date' en adelante los abonos fechados 'date' que se registran despues del
+     * cierre (intereses devengados), para que sigan coincidiendo con los movimientos. Dentro de la transaccion
+     * del llamador.
+     *
+     * @param credits Pares {monto, ID de cuenta}.
+     */
+    public void addToSnapshotsFrom(LocalDate date, List<Object[]> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        Date from = Date.valueOf(date);
+        jdbcTemplate.batchUpdate("UPDATE account_balance_snapshots SET balance = balance + ? WHERE account_id = ? AND snapshot_date >= ?",
+                credits.stream().map(credit -> new Object[] { credit[0], credit[1], from }).toList());
+    }
+
+    /**
+     * Saldo de una cuenta a una fecha y hora.
+     *
+     * @param accountId ID de la cuenta.
+     * @param accountNumber Numero de la cuenta (solo para la respuesta).
+     * @param asOf Fecha y hora; si es futura se devuelve el saldo actual.
+     * @return El saldo y la foto usada como base.
+     * @throws IllegalArgumentException Si la cuenta no existe o no existia a esa fecha.
+     */
+    @Transactional(readOnly = true)
+    public BalanceAsOfDTO balanceAsOf(Long accountId, String accountNumber, LocalDateTime asOf) {
+        List<Object[]> accounts = jdbcTemplate.query("SELECT a.balance + " + ShardedBalances.SHARD_SUM
+                + ", a.creation_date FROM accounts a WHERE a.id = ?",
+                (rs, rowNum) -> new Object[] { rs.getBigDecimal(1), rs.getTimestamp(2).toLocalDateTime() }, accountId);
+        if (accounts.isEmpty()) {
+            throw new IllegalArgumentException("Cuenta no encontrada.");
+        }
+        if (asOf.isBefore((LocalDateTime) accounts.get(0)[1])) {
+            throw new IllegalArgumentException("La cuenta " + accountNumber + " no existia el " + asOf + ".");
+        }
+        LocalDate day = asOf.toLocalDate();
+        Timestamp at = Timestamp.valueOf(asOf);
+
+        List<Object[]> snapshots = jdbcTemplate.query("SELECT snapshot_date, balance FROM account_balance_snapshots "
+                + "WHERE account_id = ? AND snapshot_date < ? ORDER BY snapshot_date DESC LIMIT 1",
+                (rs, rowNum) -> new Object[] { rs.getDate(1).toLocalDate(), rs.getBigDecimal(2) }, accountId, Date.valueOf(day));
+        if (!snapshots.isEmpty()) {
+            LocalDate snapshotDate = (LocalDate) snapshots.get(0)[0];
+            Object[] delta = sumMovements("m.date > ? AND m.date <= ? AND (m.date < ? OR m.created_at IS NULL OR m.created_at <= ?)",
+                    accountId, Date.valueOf(snapshotDate), Date.valueOf(day), Date.valueOf(day), at);
+            return new BalanceAsOfDTO(accountNumber, asOf, ((BigDecimal) snapshots.get(0)[1]).add((BigDecimal) delta[0]),
+                    snapshotDate, (Long) delta[1]);
+        }
+
+        // Sin foto anterior (cuenta nueva o cierre aun no ejecutado): hacia atras desde el saldo actual
+        Object[] after = sumMovements("(m.date > ? OR (m.date = ? AND m.created_at > ?))",
+                accountId, Date.valueOf(day), Date.valueOf(day), at);
+        return new BalanceAsOfDTO(accountNumber, asOf, ((BigDecimal) accounts.get(0)[0]).subtract((BigDecimal) after[0]),
+                null, (Long) after[1]);
+    }
+
+    /*
+     * Suma con signo y cantidad de los movimientos de la cuenta que cumplen 'condition' (por el indice
+     * (account_id, date)).
+     */
+    private Object[] sumMovements(String condition, Long accountId, Object... args) {
+        Object[] allArgs = new Object[args.length + 1];
+        allArgs[0] = accountId;
+        System.arraycopy(args, 0, allArgs, 1, args.length);
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + SIGNED_AMOUNT + "), 0), COUNT(*) FROM movements m "
+                + "WHERE m.account_id = ? AND " + condition,
+                (rs, rowNum) -> new Object[] { rs.getBigDecimal(1), rs.getLong(2) }, allArgs);
+    }
+}
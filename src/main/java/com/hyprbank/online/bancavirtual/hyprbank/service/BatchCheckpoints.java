@@ -0,0 +1,53 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.util.List;
+
+/*
+ * Puntos de control de los procesos por lotes (tabla 'batch_checkpoints'): ultimo ID confirmado por trabajo
+ * y particion. {@link #save} debe llamarse dentro de la transaccion del bloque, para que el punto de control
+ * y lo escrito por el bloque se confirmen o reviertan juntos.
+ */
+@Service
+public class BatchCheckpoints {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BatchCheckpoints(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ultimo ID confirmado, o 'initial' si el trabajo aun no guardo ninguno para esa particion.
+     */
+    public long lastId(String jobName, int partition, long initial) {
+        List<Long> lastIds = jdbcTemplate.queryForList("SELECT last_id FROM batch_checkpoints WHERE job_name = ? AND partition_no = ?",
+                Long.class, jobName, partition);
+        return lastIds.isEmpty() ? initial : lastIds.get(0);
+    }
+
+    public void save(String jobName, int partition, long lastId) {
+        jdbcTemplate.update("INSERT INTO batch_checkpoints (job_name, partition_no, last_id, updated_at) VALUES (?, ?, ?, NOW(6)) "
+                + "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id), updated_at = VALUES(updated_at)", jobName, partition, lastId);
+    }
+
+    /**
+     * Borra los puntos de control de un trabajo terminado, para que una nueva ejecucion empiece desde el inicio.
+     */
+    public void clear(String jobName) {
+        jdbcTemplate.update("DELETE FROM batch_checkpoints WHERE job_name = ?", jobName);
+    }
+
+    /**
+     * Borra los puntos de control de trabajos que empiezan con 'prefix' sin cambios en los ultimos 'days' dias
+     * (p. ej. los de dias ya procesados).
+     */
+    public void purge(String prefix, int days) {
+        jdbcTemplate.update("DELETE FROM batch_checkpoints WHERE job_name LIKE ? AND updated_at < TIMESTAMPADD(DAY, ?, NOW(6))",
+                prefix + "%", -days);
+    }
+}
@@ -0,0 +1,212 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.ClearingBatch;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.ClearingBatchRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.OutboundTransferRepository;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Cierre de ventana de compensacion (hyprbank.interbank.dispatch=clearing): en lugar de enviar cada
+ * transferencia externa por separado (OutboundTransferDispatcher), las agrupa en un archivo por ventana.
+ *
+ * En cada cierre (hyprbank.clearing.cron, en un solo nodo por medio de ClusterJobRunner):
+ * 1. Crea un lote y le asigna con un solo UPDATE todas las transferencias PENDING encoladas hasta ese momento,
+ *    que pasan a SENT. Si no hay ninguna, la transaccion se revierte y no queda lote.
+ * 2. Recorre las transferencias del lote en streaming (una fila a la vez desde MySQL, por el indice
+ *    (clearing_batch_id, id)) y las escribe con {@link ClearingFileWriter} en un buffer directo de
+ *    {@link DirectBufferPool} y un FileChannel. La memoria usada no depende de la cantidad de registros.
+ * 3. Escribe el archivo como '.part', lo sincroniza a disco y lo renombra de forma atomica: el banco
+ *    corresponsal nunca ve un archivo a medias. El lote pasa a WRITTEN con la cantidad, el total y el CRC32.
+ *
+ * Si el proceso falla despues del paso 1, el lote queda CLAIMED y su archivo se vuelve a generar completo en
+ * el siguiente cierre (las transferencias ya no estan PENDING, asi que no entran a otro lote).
+ * La liquidacion de cada transferencia llega despues en el archivo de respuesta del banco corresponsal.
+ */
+@Component
+@ConditionalOnProperty(name = "hyprbank.interbank.dispatch", havingValue = "clearing")
+public class ClearingFileJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClearingFileJob.class);
+
+    private static final String DETAIL_QUERY = "SELECT t.id, a.account_number, t.destination_bank, "
+            + "t.destination_account_number, t.destination_name, t.amount, t.description "
+            + "FROM outbound_transfers t JOIN accounts a ON a.id = t.account_id "
+            + "WHERE t.clearing_batch_id = ? ORDER BY t.id";
+
+    private final ClearingBatchRepository clearingBatchRepository;
+    private final OutboundTransferRepository outboundTransferRepository;
+    private final DirectBufferPool directBufferPool;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Timer writeTimer;
+    private final Path directory;
+    private final String bankCode;
+    private final Duration settlementTimeout;
+
+    public ClearingFileJob(ClearingBatchRepository clearingBatchRepository,
+                           OutboundTransferRepository outboundTransferRepository,
+                           DirectBufferPool directBufferPool,
+                           ClusterJobRunner clusterJobRunner,
+                           PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           MeterRegistry meterRegistry,
+                           @Value("${hyprbank.clearing.directory}") String directory,
+                           @Value("${hyprbank.clearing.bank-code:HYPRBANK}") String bankCode,
+                           @Value("${hyprbank.clearing.settlement-timeout-hours:48}") long settlementTimeoutHours) {
+        this.clearingBatchRepository = clearingBatchRepository;
+        this.outboundTransferRepository = outboundTransferRepository;
+        this.directBufferPool = directBufferPool;
+        this.clusterJobRunner = clusterJobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Integer.MIN_VALUE: el driver de MySQL entrega las filas una a una en lugar de cargar todo el resultado
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.writeTimer = Timer.builder("hyprbank.clearing.write")
+                .description("Generacion de archivos de compensacion")
+                .register(meterRegistry);
+        this.directory = Paths.get(directory);
+        this.bankCode = bankCode;
+        this.settlementTimeout = Duration.ofHours(settlementTimeoutHours);
+    }
+
+    /*
+     * Cierre programado: con varias instancias solo un nodo cierra la ventana; en los demas no hace nada
+     * (dos cierres a la vez regenerarian el mismo lote CLAIMED en paralelo).
+     */
+    @Scheduled(cron = "${hyprbank.clearing.cron}")
+    public void scheduledClose() {
+        clusterJobRunner.runSingleton("clearing-window", lease -> closeWindow());
+    }
+
+    /**
+     * Cierra la ventana actual: genera los archivos pendientes de lotes anteriores y el del lote nuevo.
+     *
+     * @return El lote nuevo, o vacio si no habia transferencias pendientes.
+     */
+    public Optional<ClearingBatch> closeWindow() {
+        for (ClearingBatch unfinished : clearingBatchRepository.findByStatusOrderByIdAsc(ClearingBatch.Status.CLAIMED)) {
+            logger.warn("El archivo del lote de compensacion {} no se completo; se vuelve a generar.", unfinished.getId());
+            writeFile(unfinished);
+        }
+        Optional<ClearingBatch> batch = claimWindow(LocalDateTime.now());
+        batch.ifPresent(this::writeFile);
+        return batch;
+    }
+
+    /*
+     * Paso 1: crea el lote y le asigna las transferencias PENDING en una sola transaccion.
+     */
+    private Optional<ClearingBatch> claimWindow(LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            ClearingBatch batch = clearingBatchRepository.save(ClearingBatch.builder()
+                    .status(ClearingBatch.Status.CLAIMED)
+                    .cutoff(cutoff)
+                    .totalAmount(BigDecimal.ZERO)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            int assigned = outboundTransferRepository.assignToBatch(batch.getId(), cutoff,
+                    cutoff.plus(settlementTimeout), LocalDateTime.now());
+            if (assigned == 0) {
+                status.setRollbackOnly();
+                return Optional.empty();
+            }
+            logger.info("Lote de compensacion {}: {} transferencias hasta {}.", batch.getId(), assigned, cutoff);
+            return Optional.of(batch);
+        });
+    }
+
+    /*
+     * Pasos 2 y 3: escribe el archivo del lote y lo marca WRITTEN.
+     */
+    private void writeFile(ClearingBatch batch) {
+        long start = System.nanoTime();
+        String fileName = String.format("CLR_%s_%06d.txt", bankCode, batch.getId());
+        Path target = directory.resolve(fileName);
+        Path part = directory.resolve(fileName + ".part");
+        ByteBuffer buffer = directBufferPool.acquire();
+        ClearingFileWriter writer;
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writer = new ClearingFileWriter(channel, buffer);
+                writer.writeHeader(batch.getId(), bankCode, batch.getCreatedAt());
+                streamDetails(batch.getId(), writer);
+                writer.writeTrailer();
+                channel.force(true);
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el archivo de compensacion " + fileName, e);
+        } finally {
+            directBufferPool.release(buffer);
+        }
+
+        batch.setStatus(ClearingBatch.Status.WRITTEN);
+        batch.setFileName(fileName);
+        batch.setRecordCount(Math.toIntExact(writer.getRecordCount()));
+        batch.setTotalAmount(BigDecimal.valueOf(writer.getTotalCents(), 2));
+        batch.setChecksum(writer.getChecksum());
+        batch.setWrittenAt(LocalDateTime.now());
+        clearingBatchRepository.save(batch);
+        long elapsed = System.nanoTime() - start;
+        writeTimer.record(Duration.ofNanos(elapsed));
+        logger.info("Archivo de compensacion {} escrito: {} registros, total {}, CRC32 {} ({} ms).", fileName,
+                writer.getRecordCount(), batch.getTotalAmount(), Long.toHexString(writer.getChecksum()), elapsed / 1_000_000);
+    }
+
+    /*
+     * Recorre los registros del lote en streaming dentro de una transaccion de lectura en la primaria
+     * (la replica podria no tener aun la asignacion recien confirmada).
+     */
+    private void streamDetails(Long batchId, ClearingFileWriter writer) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> streamingJdbcTemplate.query(DETAIL_QUERY, rs -> {
+                try {
+                    writer.writeDetail(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5), rs.getBigDecimal(6).movePointRight(2).longValueExact(), rs.getString(7));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, batchId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
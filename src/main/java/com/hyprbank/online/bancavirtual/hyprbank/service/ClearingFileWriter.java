@@ -0,0 +1,151 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Java Utilities
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/*
+ * Escribe un archivo de compensacion de ancho fijo en un canal, registro por registro, sobre un solo buffer
+ * (normalmente directo, de DirectBufferPool). Cada registro se codifica byte a byte en el buffer, sin crear
+ * Strings ni arreglos por registro; el buffer se vacia en el canal cuando no cabe el siguiente registro.
+ *
+ * Formato (ISO-8859-1, registros de RECORD_LENGTH bytes incluyendo el salto de linea, numeros con ceros
+ * a la izquierda y textos completados con espacios; los textos mas largos que su campo se truncan):
+ *
+ *   H | lote (18) | codigo de banco (8) | fecha de creacion yyyyMMddHHmmss (14) | version de formato (2)
+ *   D | transferencia (18) | cuenta origen (20) | banco destino (40) | cuenta destino (50)
+ *     | titular destino (60) | monto en centavos (15) | descripcion (80)
+ *   T | cantidad de registros D (10) | suma de montos en centavos (18) | CRC32 de los registros D (10)
+ *
+ * El CRC32 se calcula sobre los bytes de todos los registros D (con su salto de linea), en orden, y permite
+ * al banco corresponsal comprobar que recibio el archivo completo y sin alteraciones.
+ */
+final class ClearingFileWriter {
+
+    static final int RECORD_LENGTH = 300;
+    static final String FORMAT_VERSION = "01";
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private long recordCount;
+    private long totalCents;
+
+    ClearingFileWriter(WritableByteChannel channel, ByteBuffer buffer) {
+        if (buffer.capacity() < RECORD_LENGTH) {
+            throw new IllegalArgumentException("El buffer debe tener al menos " + RECORD_LENGTH + " bytes.");
+        }
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.clear();
+    }
+
+    void writeHeader(long batchId, String bankCode, LocalDateTime createdAt) throws IOException {
+        int start = beginRecord('H');
+        putNumber(batchId, 18);
+        putText(bankCode, 8);
+        putNumber(createdAt.getYear(), 4);
+        putNumber(createdAt.getMonthValue(), 2);
+        putNumber(createdAt.getDayOfMonth(), 2);
+        putNumber(createdAt.getHour(), 2);
+        putNumber(createdAt.getMinute(), 2);
+        putNumber(createdAt.getSecond(), 2);
+        putText(FORMAT_VERSION, 2);
+        endRecord(start);
+    }
+
+    void writeDetail(long transferId, String originAccount, String destinationBank, String destinationAccount,
+                     String destinationName, long amountCents, String description) throws IOException {
+        int start = beginRecord('D');
+        putNumber(transferId, 18);
+        putText(originAccount, 20);
+        putText(destinationBank, 40);
+        putText(destinationAccount, 50);
+        putText(destinationName, 60);
+        putNumber(amountCents, 15);
+        putText(description, 80);
+        endRecord(start);
+        // El registro completo (incluido el salto de linea) entra al CRC, leido directamente del buffer
+        crc.update(buffer.slice(start, RECORD_LENGTH));
+        recordCount++;
+        totalCents += amountCents;
+    }
+
+    /*
+     * Escribe el registro final y vacia el buffer en el canal.
+     */
+    void writeTrailer() throws IOException {
+        int start = beginRecord('T');
+        putNumber(recordCount, 10);
+        putNumber(totalCents, 18);
+        putNumber(crc.getValue(), 10);
+        endRecord(start);
+        flush();
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    long getTotalCents() {
+        return totalCents;
+    }
+
+    long getChecksum() {
+        return crc.getValue();
+    }
+
+    private int beginRecord(char type) throws IOException {
+        if (buffer.remaining() < RECORD_LENGTH) {
+            flush();
+        }
+        int start = buffer.position();
+        buffer.put((byte) type);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        int end = start + RECORD_LENGTH - 1;
+        while (buffer.position() < end) {
+            buffer.put((byte) ' ');
+        }
+        buffer.put((byte) '\n');
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putNumber(long value, int width) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valor negativo en el archivo de compensacion: " + value);
+        }
+        int position = buffer.position();
+        for (int i = width - 1; i >= 0; i--) {
+            buffer.put(position + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        if (value != 0) {
+            throw new IllegalArgumentException("Valor demasiado grande para un campo de " + width + " digitos.");
+        }
+        buffer.position(position + width);
+    }
+
+    private void putText(String text, int width) {
+        int length = text == null ? 0 : Math.min(text.length(), width);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            buffer.put(c < ' ' ? (byte) ' ' : c <= 0xFF ? (byte) c : (byte) '?');
+        }
+        for (int i = length; i < width; i++) {
+            buffer.put((byte) ' ');
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Ejecuta trabajos en segundo plano de forma segura con varias instancias de la aplicacion:
+ *
+ * - {@link #runSingleton}: el trabajo corre en un solo nodo a la vez. El primer nodo que toma el lease del
+ *   trabajo lo ejecuta; los demas lo omiten en ese ciclo.
+ * - {@link #runPartitioned}: una ejecucion (trabajo + clave, p. ej. el dia a procesar) divide el rango de IDs
+ *   de cuenta en hyprbank.cluster.partitions particiones fijas. Cada nodo vivo empieza por las que le tocan
+ *   (particion % nodos == posicion del nodo) y despues toma las pendientes de los demas. Cada particion tiene
+ *   su propio lease, asi que durante un cambio de nodos una particion nunca la procesan dos a la vez.
+ *   Las particiones terminadas se registran por ejecucion ({@link JobRunService}); una particion que falla o
+ *   que queda sin procesar (nodo caido, lease perdido) sigue pendiente con su clave, y el trabajo la retoma
+ *   llamando de nuevo con esa clave (ver {@link #incompleteRuns}). Por eso los trabajos particionados deben
+ *   poder repetirse (puntos de control o escrituras idempotentes).
+ *
+ * Mientras el trabajo corre, un hilo virtual renueva su lease cada tercio de job-lease-ttl-ms (latido).
+ * El trabajo recibe un {@link JobLease} y debe llamar a {@link JobLease#checkHeld()} dentro de cada
+ * transaccion que escribe: si el lease se perdio (pausa larga, base de datos inaccesible), el commit falla
+ * en lugar de escribir con un token viejo.
+ */
+@Service
+public class ClusterJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobRunner.class);
+
+    private static final int RUN_RETENTION_DAYS = 30; // Ejecuciones terminadas que se conservan en job_runs
+
+    private final JobLeaseService jobLeaseService;
+    private final JobRunService jobRunService;
+    private final ClusterMembership clusterMembership;
+    private final Duration leaseTtl;
+    private final int partitions;
+
+    public ClusterJobRunner(JobLeaseService jobLeaseService,
+                            JobRunService jobRunService,
+                            ClusterMembership clusterMembership,
+                            @Value("${hyprbank.cluster.job-lease-ttl-ms:30000}") long leaseTtlMillis,
+                            @Value("${hyprbank.cluster.partitions:16}") int partitions) {
+        this.jobLeaseService = jobLeaseService;
+        this.jobRunService = jobRunService;
+        this.clusterMembership = clusterMembership;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+        this.partitions = partitions;
+    }
+
+    /**
+     * Lease de un trabajo en ejecucion.
+     */
+    public final class JobLease {
+        private final String name;
+        private final long fencingToken;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile boolean lost;
+
+        private JobLease(String name, long fencingToken) {
+            this.name = name;
+            this.fencingToken = fencingToken;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        /**
+         * Indica si el latido ya no pudo renovar el lease; el trabajo deberia detenerse.
+         */
+        public boolean isLost() {
+            return lost;
+        }
+
+        /**
+         * Verifica dentro de la transaccion actual que el lease sigue siendo de este nodo (ver
+         * {@link JobLeaseService#checkHeld}).
+         *
+         * @throws IllegalStateException Si el lease se perdio.
+         */
+        public void checkHeld() {
+            if (lost) {
+                throw new IllegalStateException("El lease " + name + " se perdio durante el trabajo.");
+            }
+            jobLeaseService.checkHeld(name, fencingToken);
+        }
+    }
+
+    /**
+     * Rango de IDs [fromId, toId) de una particion.
+     */
+    public record IdRange(int partition, long fromId, long toId) {
+    }
+
+    /**
+     * Ejecuta 'job' si este nodo obtiene el lease 'name'.
+     *
+     * @return true si el trabajo se ejecuto en este nodo.
+     */
+    public boolean runSingleton(String name, Consumer<JobLease> job) {
+        return runWithLease(name, job);
+    }
+
+    /**
+     * Ejecuta 'job' sobre cada particion pendiente de la ejecucion 'runKey' cuyo lease obtenga este nodo, una a la vez.
+     *
+     * @return Cantidad de particiones procesadas en este nodo.
+     */
+    public int runPartitioned(String name, String runKey, long minId, long maxId, BiConsumer<JobLease, IdRange> job) {
+        return runPartitioned(name, runKey, minId, maxId, 1, job);
+    }
+
+    /**
+     * Igual que {@link #runPartitioned(String, String, long, long, BiConsumer)}, con hasta 'parallelism' particiones
+     * a la vez en hilos virtuales. La primera llamada con 'runKey' (en cualquier nodo) fija el rango [minId, maxId]
+     * y las particiones; las siguientes los reutilizan. Una particion se marca terminada cuando 'job' vuelve sin
+     * error y con el lease vigente; si falla, las demas continuan y la fallida queda pendiente para la proxima
+     * llamada con la misma clave.
+     *
+     * @return Cantidad de particiones procesadas sin error en este nodo.
+     */
+    public int runPartitioned(String name, String runKey, long minId, long maxId, int parallelism,
+                              BiConsumer<JobLease, IdRange> job) {
+        JobRunService.Run run = jobRunService.start(name, runKey, minId, maxId, partitions);
+        if (run.maxId() < run.minId()) {
+            jobRunService.completeRun(name, runKey);
+            return 0;
+        }
+        ClusterMembership.Assignment assignment = clusterMembership.assignment();
+        Set<Integer> completed = jobRunService.completedPartitions(name, runKey);
+        Semaphore permits = new Semaphore(Math.max(parallelism, 1));
+        AtomicInteger processed = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        try {
+            for (int partition : partitionOrder(assignment.index(), assignment.count(), run.partitions())) {
+                IdRange range = partitionRange(run.minId(), run.maxId(), partition, run.partitions());
+                if (range.fromId() >= range.toId() || completed.contains(partition)) {
+                    continue;
+                }
+                permits.acquire();
+                workers.add(Thread.ofVirtual().name(name + "-" + partition).start(() -> {
+                    try {
+                        if (runPartition(name, runKey, range, job)) {
+                            processed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        logger.error("Trabajo {} {}: la particion {} fallo y queda pendiente: {}", name, runKey, partition,
+                                e.getMessage(), e);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Trabajo " + name + " interrumpido.", e);
+        }
+        if (pendingPartitions(run, jobRunService.completedPartitions(name, runKey)).isEmpty()) {
+            jobRunService.completeRun(name, runKey);
+            jobRunService.purge(name, RUN_RETENTION_DAYS);
+        }
+        logger.debug("Trabajo {} {}: {} particiones procesadas en el nodo {} ({} de {} nodos).", name, runKey, processed.get(),
+                clusterMembership.getNodeId(), assignment.index() + 1, assignment.count());
+        return processed.get();
+    }
+
+    /**
+     * Claves de las ejecuciones de 'name' con particiones pendientes, de la mas antigua a la mas reciente. Los
+     * trabajos las vuelven a ejecutar antes de la del ciclo en curso.
+     */
+    public List<String> incompleteRuns(String name) {
+        return jobRunService.incompleteRuns(name);
+    }
+
+    /**
+     * Cantidad de particiones fijas del rango de IDs (hyprbank.cluster.partitions).
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /*
+     * Una particion con su lease. Otro nodo pudo terminarla entre la consulta inicial y la toma del lease: se
+     * vuelve a revisar con el lease tomado. Devuelve true si se proceso en este nodo.
+     */
+    private boolean runPartition(String name, String runKey, IdRange range, BiConsumer<JobLease, IdRange> job) {
+        boolean[] ran = new boolean[1];
+        runWithLease(name + "#" + range.partition(), lease -> {
+            if (jobRunService.isPartitionCompleted(name, runKey, range.partition())) {
+                return;
+            }
+            job.accept(lease, range);
+            if (lease.isLost()) {
+                throw new IllegalStateException("El lease " + lease.getName() + " se perdio antes de terminar la particion.");
+            }
+            jobRunService.completePartition(name, runKey, range.partition(), lease.getName(), lease.getFencingToken());
+            ran[0] = true;
+        });
+        return ran[0];
+    }
+
+    private boolean runWithLease(String name, Consumer<JobLease> job) {
+        OptionalLong token = jobLeaseService.tryAcquire(name, leaseTtl);
+        if (token.isEmpty()) {
+            logger.debug("Trabajo {} omitido: el lease lo tiene otro nodo.", name);
+            return false;
+        }
+        JobLease lease = new JobLease(name, token.getAsLong());
+        Thread heartbeat = Thread.ofVirtual().name("job-lease-" + name).start(() -> renew(lease));
+        try {
+            job.accept(lease);
+            return true;
+        } finally {
+            // Sin interrupt: el latido podria estar en medio de una consulta y el driver cerraria la conexion
+            lease.finished.countDown();
+            try {
+                heartbeat.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jobLeaseService.release(name);
+        }
+    }
+
+    private void renew(JobLease lease) {
+        while (!lease.lost) {
+            try {
+                if (lease.finished.await(leaseTtl.toMillis() / 3, TimeUnit.MILLISECONDS)) {
+                    return; // El trabajo termino
+                }
+                OptionalLong token = jobLeaseService.tryAcquire(lease.name, leaseTtl);
+                if (token.isEmpty() || token.getAsLong() != lease.fencingToken) {
+                    lease.lost = true;
+                    logger.error("Lease {} perdido durante el trabajo (token {}).", lease.name, lease.fencingToken);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo renovar el lease {}: {}", lease.name, e.getMessage());
+            }
+        }
+    }
+
+    /*
+     * Particiones de un nodo: las que cumplen particion % nodos == posicion.
+     */
+    static List<Integer> assignedPartitions(int index, int count, int partitions) {
+        List<Integer> assigned = new ArrayList<>();
+        for (int partition = index; partition < partitions; partition += count) {
+            assigned.add(partition);
+        }
+        return assigned;
+    }
+
+    /*
+     * Orden en que un nodo intenta las particiones: primero las suyas y despues las de los demas nodos, que solo
+     * procesa si siguen pendientes y sin dueño (nodo caido o que aun no empezo).
+     */
+    static List<Integer> partitionOrder(int index, int count, int partitions) {
+        List<Integer> order = assignedPartitions(index, count, partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!order.contains(partition)) {
+                order.add(partition);
+            }
+        }
+        return order;
+    }
+
+    /*
+     * Particiones con IDs que aun no estan en 'completed'.
+     */
+    static List<Integer> pendingPartitions(JobRunService.Run run, Set<Integer> completed) {
+        List<Integer> pending = new ArrayList<>();
+        for (int partition = 0; partition < run.partitions(); partition++) {
+            IdRange range = partitionRange(run.minId(), run.maxId(), partition, run.partitions());
+            if (range.fromId() < range.toId() && !completed.contains(partition)) {
+                pending.add(partition);
+            }
+        }
+        return pending;
+    }
+
+    /*
+     * Rango [fromId, toId) de la particion: [minId, maxId] dividido en partes contiguas de tamaño parecido.
+     */
+    static IdRange partitionRange(long minId, long maxId, int partition, int partitions) {
+        long span = maxId - minId + 1;
+        long from = minId + Math.floorDiv(span * partition, partitions);
+        long to = minId + Math.floorDiv(span * (partition + 1), partitions);
+        return new IdRange(partition, from, to);
+    }
+}
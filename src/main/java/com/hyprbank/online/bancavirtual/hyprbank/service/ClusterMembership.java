@@ -0,0 +1,141 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.List;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Latido de este nodo en la tabla 'cluster_nodes' y lista de nodos vivos (latido mas reciente que node-ttl-ms,
+ * medido con el reloj de MySQL).
+ *
+ * Un hilo virtual actualiza el latido cada heartbeat-ms y vuelve a leer la lista. Al detenerse la aplicacion
+ * el nodo borra su fila para que los demas se repartan su parte sin esperar a que venza. Las filas de nodos
+ * muertos hace mucho se borran de vez en cuando.
+ */
+@Component
+public class ClusterMembership implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final Duration heartbeatInterval;
+    private final Duration nodeTtl;
+
+    private volatile List<String> liveNodes = List.of();
+    private volatile boolean running;
+    private Thread heartbeatThread;
+
+    public ClusterMembership(JdbcTemplate jdbcTemplate,
+                             JobLeaseService jobLeaseService,
+                             @Value("${hyprbank.cluster.heartbeat-ms:5000}") long heartbeatMillis,
+                             @Value("${hyprbank.cluster.node-ttl-ms:15000}") long nodeTtlMillis) {
+        if (nodeTtlMillis <= 2 * heartbeatMillis) {
+            throw new IllegalArgumentException("hyprbank.cluster.node-ttl-ms debe ser mayor que dos latidos.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = jobLeaseService.getNodeId();
+        this.heartbeatInterval = Duration.ofMillis(heartbeatMillis);
+        this.nodeTtl = Duration.ofMillis(nodeTtlMillis);
+    }
+
+    /**
+     * Nodos vivos ordenados por ID (la misma lista en todos los nodos, salvo durante un cambio).
+     */
+    public List<String> liveNodes() {
+        return liveNodes;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Posicion de este nodo entre los vivos y cantidad de nodos vivos.
+     */
+    public Assignment assignment() {
+        List<String> nodes = liveNodes;
+        int index = nodes.indexOf(nodeId);
+        if (index < 0) {
+            // Sin latido registrado todavia (o la base de datos no responde): se trabaja como nodo unico
+            return new Assignment(0, 1);
+        }
+        return new Assignment(index, nodes.size());
+    }
+
+    public record Assignment(int index, int count) {
+    }
+
+    @Override
+    public void start() {
+        heartbeat();
+        running = true;
+        heartbeatThread = Thread.ofVirtual().name("cluster-heartbeat").start(this::run);
+        logger.info("Nodo {} registrado; nodos vivos: {}.", nodeId, liveNodes);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeatThread != null) {
+            heartbeatThread.interrupt();
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM cluster_nodes WHERE node_id = ?", nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo eliminar el nodo {} de cluster_nodes; vencera solo: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Antes que los trabajos que lo usan y despues de que ellos se detengan
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    private void run() {
+        int beats = 0;
+        while (running) {
+            try {
+                Thread.sleep(heartbeatInterval);
+                heartbeat();
+                if (++beats % 100 == 0) {
+                    jdbcTemplate.update("DELETE FROM cluster_nodes WHERE heartbeat_at < TIMESTAMPADD(MICROSECOND, ?, NOW(6))",
+                            -nodeTtl.multipliedBy(10).toNanos() / 1_000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("No se pudo registrar el latido del nodo {}: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat() {
+        jdbcTemplate.update("INSERT INTO cluster_nodes (node_id, started_at, heartbeat_at) VALUES (?, NOW(6), NOW(6)) "
+                + "ON DUPLICATE KEY UPDATE heartbeat_at = NOW(6)", nodeId);
+        List<String> nodes = jdbcTemplate.queryForList("SELECT node_id FROM cluster_nodes "
+                + "WHERE heartbeat_at > TIMESTAMPADD(MICROSECOND, ?, NOW(6)) ORDER BY node_id",
+                String.class, -nodeTtl.toNanos() / 1_000);
+        if (!nodes.equals(liveNodes)) {
+            logger.info("Nodos vivos: {}.", nodes);
+        }
+        liveNodes = List.copyOf(nodes);
+    }
+}
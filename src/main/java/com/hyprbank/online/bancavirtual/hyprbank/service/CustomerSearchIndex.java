@@ -0,0 +1,516 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.CustomerSearchHit;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+// Importaciones de Micrometer (metricas expuestas por actuator)
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Indice de busqueda en memoria para la busqueda rapida (type-ahead) de clientes.
+ *
+ * Guarda un mapa ordenado (ConcurrentSkipListMap) de terminos normalizados -> IDs de usuario.
+ * Los terminos salen del nombre, apellido, email, DPI, NIT y numeros de cuenta de cada cliente,
+ * en minusculas y sin tildes. Una busqueda por prefijo es un recorrido de subMap sobre el mapa,
+ * por lo que se responde sin consultar MySQL.
+ *
+ * Se construye al iniciar la aplicacion y se mantiene al dia con {@code SearchIndexEntityListener}
+ * (cambios en User y Account, aplicados al confirmar la transaccion). Las lecturas no usan bloqueos;
+ * las escrituras se serializan con un ReentrantLock. Durante una reconstruccion los cambios se aplican
+ * al indice actual y se guardan para repetirlos sobre el nuevo antes de reemplazarlo.
+ *
+ * La memoria esta acotada por 'hyprbank.search.max-documents': pasado ese limite no se indexan
+ * mas clientes (se registra una advertencia) y el directorio paginado sigue disponible.
+ *
+ * Metricas publicadas (ver /actuator/metrics):
+ * - hyprbank.search.documents: clientes indexados.
+ * - hyprbank.search.terms: terminos distintos en el indice.
+ * - hyprbank.search.query: duracion de las busquedas.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Limites por consulta para que el tiempo de respuesta no dependa del tamaño del indice
+    private static final int MAX_TERMS_SCANNED = 2_000;
+    private static final int MAX_CANDIDATES = 1_000;
+    public static final int MAX_RESULTS = 50;
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int maxDocuments;
+    private final Timer queryTimer;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private volatile IndexState state = new IndexState();
+    private volatile boolean ready = false;
+
+    // Cambios recibidos durante una reconstruccion (protegido por writeLock; null si no se reconstruye)
+    private List<Consumer<IndexState>> pendingChanges;
+
+    /*
+     * Constructor para la inyeccion de dependencias.
+     * El limite de clientes indexados se configura en application.properties.
+     */
+    @Autowired
+    public CustomerSearchIndex(UserRepository userRepository,
+                               AccountRepository accountRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${hyprbank.search.max-documents:1000000}") int maxDocuments) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.maxDocuments = maxDocuments;
+
+        Gauge.builder("hyprbank.search.documents", this, index -> index.state.documents.size())
+                .description("Clientes en el indice de busqueda en memoria")
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.search.terms", this, index -> index.state.terms.size())
+                .description("Terminos distintos en el indice de busqueda en memoria")
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder("hyprbank.search.query")
+                .description("Duracion de las busquedas en el indice en memoria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Construye el indice en segundo plano cuando la aplicacion termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildAsync();
+    }
+
+    /**
+     * Lanza una reconstruccion en un hilo virtual.
+     *
+     * @return {@code false} si ya hay una reconstruccion en curso.
+     */
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("customer-search-build").start(this::doRebuild);
+        return true;
+    }
+
+    /*
+     * Recorre 'users' y 'accounts' en streaming, arma un indice nuevo y lo reemplaza de forma atomica.
+     */
+    private void doRebuild() {
+        long startNanos = System.nanoTime();
+        IndexState newState = new IndexState();
+        writeLock.lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamSearchRows()) {
+                    rows.forEach(row -> newState.upsertUser((Long) row[0], (String) row[1], (String) row[2],
+                            (String) row[3], (String) row[4], (String) row[5], maxDocuments));
+                }
+                try (Stream<Object[]> rows = accountRepository.streamAccountOwners()) {
+                    rows.forEach(row -> newState.addAccount((Long) row[0], (String) row[1]));
+                }
+            });
+            writeLock.lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(newState));
+                state = newState;
+                ready = true;
+            } finally {
+                pendingChanges = null;
+                writeLock.unlock();
+            }
+            logger.info("Indice de busqueda de clientes construido: {} clientes, {} terminos ({} ms)",
+                    newState.documents.size(), newState.terms.size(), (System.nanoTime() - startNanos) / 1_000_000);
+            if (newState.truncated) {
+                logger.warn("El indice de busqueda alcanzo el limite de {} clientes; los restantes no se indexaron.", maxDocuments);
+            }
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                writeLock.unlock();
+            }
+            // Si falla se conserva el indice anterior (si lo habia).
+            logger.error("No se pudo construir el indice de busqueda de clientes: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Agrega o actualiza un cliente en el indice. Conserva sus numeros de cuenta ya indexados.
+     */
+    public void onUserSaved(Long userId, String firstName, String lastName, String email, String dpi, String nit) {
+        if (userId != null) {
+            apply(s -> s.upsertUser(userId, firstName, lastName, email, dpi, nit, maxDocuments));
+        }
+    }
+
+    /**
+     * Elimina un cliente del indice.
+     */
+    public void onUserRemoved(Long userId) {
+        if (userId != null) {
+            apply(s -> s.removeUser(userId));
+        }
+    }
+
+    /**
+     * Asocia un numero de cuenta a su cliente en el indice.
+     */
+    public void onAccountSaved(Long userId, String accountNumber) {
+        if (userId != null && accountNumber != null) {
+            apply(s -> s.addAccount(userId, accountNumber));
+        }
+    }
+
+    /**
+     * Quita un numero de cuenta del indice.
+     */
+    public void onAccountRemoved(Long userId, String accountNumber) {
+        if (userId != null && accountNumber != null) {
+            apply(s -> s.removeAccount(userId, accountNumber));
+        }
+    }
+
+    /*
+     * Aplica un cambio al indice actual y, si hay una reconstruccion en curso, lo guarda para repetirlo.
+     */
+    private void apply(Consumer<IndexState> change) {
+        writeLock.lock();
+        try {
+            change.accept(state);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Busca clientes cuyo nombre, apellido, email, DPI, NIT o numero de cuenta empiece con cada palabra de la consulta.
+     * Con varias palabras, el cliente debe coincidir con todas (ej. "ana lop").
+     *
+     * @param query Texto escrito por el usuario.
+     * @param limit Cantidad maxima de resultados (hasta {@value #MAX_RESULTS}).
+     * @return Los clientes encontrados, ordenados por apellido y nombre.
+     */
+    public List<CustomerSearchHit> search(String query, int limit) {
+        long startNanos = System.nanoTime();
+        try {
+            List<String> tokens = queryTokens(query);
+            if (tokens.isEmpty()) {
+                return List.of();
+            }
+            IndexState current = state;
+            // La palabra mas larga suele ser la mas selectiva: de ella salen los candidatos.
+            tokens.sort(Comparator.comparingInt(String::length).reversed());
+            Set<Long> candidates = current.idsWithPrefix(tokens.get(0));
+
+            List<Document> matches = new ArrayList<>();
+            for (Long id : candidates) {
+                Document doc = current.documents.get(id);
+                if (doc != null && doc.matchesAll(tokens)) {
+                    matches.add(doc);
+                }
+            }
+            matches.sort(Comparator.comparing((Document d) -> d.sortKey).thenComparing(d -> d.id));
+
+            int max = Math.max(1, Math.min(limit, MAX_RESULTS));
+            List<CustomerSearchHit> hits = new ArrayList<>(Math.min(max, matches.size()));
+            for (Document doc : matches.subList(0, Math.min(max, matches.size()))) {
+                hits.add(doc.toHit());
+            }
+            return hits;
+        } finally {
+            queryTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return {@code true} cuando el indice ya fue construido.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return {@code true} mientras se reconstruye el indice.
+     */
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * @return La cantidad de clientes indexados.
+     */
+    public int documentCount() {
+        return state.documents.size();
+    }
+
+    /**
+     * @return La cantidad de terminos distintos en el indice.
+     */
+    public int termCount() {
+        return state.terms.size();
+    }
+
+    /*
+     * Normaliza texto para indexarlo o buscarlo: sin tildes, en minusculas y sin espacios en los extremos.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /*
+     * Divide la consulta en palabras normalizadas. Las palabras con '@' se conservan completas
+     * (prefijo de email); las demas se compactan a letras y digitos (ej. NIT "1234-5" -> "12345").
+     */
+    static List<String> queryTokens(String query) {
+        List<String> tokens = new ArrayList<>();
+        for (String raw : WHITESPACE.split(normalize(query))) {
+            String token = raw.indexOf('@') >= 0 ? raw : NON_ALPHANUMERIC.matcher(raw).replaceAll("");
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /*
+     * Terminos indexados para un campo: el valor compacto (solo letras y digitos) y cada una de sus partes.
+     */
+    private static void addFieldTerms(Set<String> terms, String value) {
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String compact = NON_ALPHANUMERIC.matcher(normalized).replaceAll("");
+        if (!compact.isEmpty()) {
+            terms.add(compact);
+        }
+        for (String part : NON_ALPHANUMERIC.split(normalized)) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+    }
+
+    /*
+     * Estado completo del indice. Se reemplaza entero al reconstruir.
+     * Las modificaciones ocurren con writeLock tomado (o en el hilo que lo construye antes de publicarlo).
+     */
+    private static final class IndexState {
+        private final ConcurrentSkipListMap<String, Set<Long>> terms = new ConcurrentSkipListMap<>();
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private boolean truncated = false;
+
+        void upsertUser(Long id, String firstName, String lastName, String email, String dpi, String nit, int maxDocuments) {
+            Document existing = documents.get(id);
+            if (existing == null && documents.size() >= maxDocuments) {
+                truncated = true;
+                return;
+            }
+            List<String> accounts = existing != null ? existing.accountNumbers : List.of();
+            replace(existing, new Document(id, firstName, lastName, email, dpi, nit, accounts));
+        }
+
+        void removeUser(Long id) {
+            replace(documents.get(id), null);
+        }
+
+        void addAccount(Long userId, String accountNumber) {
+            Document existing = documents.get(userId);
+            if (existing != null && !existing.accountNumbers.contains(accountNumber)) {
+                List<String> accounts = new ArrayList<>(existing.accountNumbers);
+                accounts.add(accountNumber);
+                replace(existing, existing.withAccounts(accounts));
+            }
+        }
+
+        void removeAccount(Long userId, String accountNumber) {
+            Document existing = documents.get(userId);
+            if (existing != null && existing.accountNumbers.contains(accountNumber)) {
+                List<String> accounts = new ArrayList<>(existing.accountNumbers);
+                accounts.remove(accountNumber);
+                replace(existing, existing.withAccounts(accounts));
+            }
+        }
+
+        /*
+         * Reemplaza un documento actualizando solo los terminos que cambiaron.
+         * El documento nuevo se publica antes de agregar sus terminos y el viejo se quita despues
+         * de retirarlos, para que una busqueda concurrente nunca encuentre un ID sin documento valido.
+         */
+        private void replace(Document oldDoc, Document newDoc) {
+            if (oldDoc == null && newDoc == null) {
+                return;
+            }
+            Long id = newDoc != null ? newDoc.id : oldDoc.id;
+            Set<String> oldTerms = oldDoc != null ? oldDoc.terms : Set.of();
+            Set<String> newTerms = newDoc != null ? newDoc.terms : Set.of();
+
+            if (newDoc != null) {
+                documents.put(id, newDoc);
+            }
+            for (String term : newTerms) {
+                if (!oldTerms.contains(term)) {
+                    terms.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+            }
+            for (String term : oldTerms) {
+                if (!newTerms.contains(term)) {
+                    terms.computeIfPresent(term, (t, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+            }
+            if (newDoc == null) {
+                documents.remove(id);
+            }
+        }
+
+        /*
+         * IDs de los clientes con algun termino que empieza con el prefijo, acotado por
+         * MAX_TERMS_SCANNED terminos y MAX_CANDIDATES clientes.
+         */
+        Set<Long> idsWithPrefix(String prefix) {
+            ConcurrentNavigableMap<String, Set<Long>> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            Set<Long> ids = new LinkedHashSet<>();
+            int scanned = 0;
+            for (Set<Long> termIds : range.values()) {
+                ids.addAll(termIds);
+                if (++scanned >= MAX_TERMS_SCANNED || ids.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+            }
+            return ids;
+        }
+    }
+
+    /*
+     * Cliente indexado (inmutable). Guarda sus terminos para poder retirarlos al actualizarlo.
+     */
+    private static final class Document {
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String email;
+        private final String dpi;
+        private final String nit;
+        private final List<String> accountNumbers;
+        private final Set<String> terms;
+        private final String sortKey;
+
+        Document(Long id, String firstName, String lastName, String email, String dpi, String nit, List<String> accountNumbers) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.dpi = dpi;
+            this.nit = nit;
+            this.accountNumbers = List.copyOf(accountNumbers);
+
+            Set<String> fieldTerms = new LinkedHashSet<>();
+            addFieldTerms(fieldTerms, firstName);
+            addFieldTerms(fieldTerms, lastName);
+            addFieldTerms(fieldTerms, email);
+            addFieldTerms(fieldTerms, dpi);
+            addFieldTerms(fieldTerms, nit);
+            String normalizedEmail = normalize(email);
+            if (!normalizedEmail.isEmpty()) {
+                fieldTerms.add(normalizedEmail); // Email completo, para prefijos con '@'
+            }
+            for (String accountNumber : this.accountNumbers) {
+                addFieldTerms(fieldTerms, accountNumber);
+            }
+            this.terms = Set.copyOf(fieldTerms);
+            this.sortKey = normalize(lastName) + " " + normalize(firstName);
+        }
+
+        Document withAccounts(List<String> accounts) {
+            return new Document(id, firstName, lastName, email, dpi, nit, accounts);
+        }
+
+        boolean matchesAll(List<String> tokens) {
+            for (String token : tokens) {
+                boolean found = false;
+                for (String term : terms) {
+                    if (term.startsWith(token)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        CustomerSearchHit toHit() {
+            return new CustomerSearchHit(id, firstName, lastName, email, dpi, nit, accountNumbers);
+        }
+    }
+}
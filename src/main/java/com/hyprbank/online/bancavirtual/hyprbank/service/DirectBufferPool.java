@@ -0,0 +1,87 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Pool de buffers directos (fuera del heap) de tamaño fijo para leer y escribir archivos con FileChannel.
+ *
+ * Un buffer directo evita la copia intermedia que hace la JVM al escribir un buffer del heap en un canal,
+ * pero reservarlo es caro y solo se libera con el GC; por eso se reutilizan. Como mucho se crean
+ * hyprbank.io.buffers buffers de hyprbank.io.buffer-size bytes: la memoria usada por los procesos de
+ * archivos es constante sin importar su tamaño. Si no hay buffers libres, se espera a que se devuelva uno.
+ */
+@Component
+public class DirectBufferPool {
+
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final BlockingQueue<ByteBuffer> free;
+    private final AtomicInteger created = new AtomicInteger();
+
+    public DirectBufferPool(@Value("${hyprbank.io.buffer-size:262144}") int bufferSize,
+                            @Value("${hyprbank.io.buffers:8}") int maxBuffers,
+                            MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.free = new ArrayBlockingQueue<>(maxBuffers);
+        Gauge.builder("hyprbank.io.buffers.in-use", this, pool -> pool.created.get() - pool.free.size())
+                .description("Buffers directos de archivos en uso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Toma un buffer del pool (limpio, en modo escritura). Debe devolverse con {@link #release(ByteBuffer)}.
+     *
+     * @return Un buffer directo de {@code bufferSize} bytes.
+     * @throws IllegalStateException Si no se libera ningun buffer en 30 segundos.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (created.incrementAndGet() <= maxBuffers) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        created.decrementAndGet();
+        try {
+            buffer = free.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando un buffer de archivos.", e);
+        }
+        if (buffer == null) {
+            throw new IllegalStateException("No hay buffers de archivos disponibles (hyprbank.io.buffers=" + maxBuffers + ").");
+        }
+        return buffer;
+    }
+
+    /**
+     * Devuelve un buffer al pool.
+     *
+     * @param buffer Buffer obtenido con {@link #acquire()}.
+     */
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
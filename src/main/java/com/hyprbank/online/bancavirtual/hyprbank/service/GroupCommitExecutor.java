@@ -0,0 +1,375 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de JPA
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+// Importaciones de Java Utilities
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Modo opcional de "group commit" para las operaciones cortas de TransactionService (depositos, retiros y
+ * transferencias entre cuentas del banco). En el modo normal cada solicitud confirma su propia transaccion
+ * (un COMMIT y una escritura sincronizada del redo log de MySQL por solicitud). En este modo las solicitudes
+ * se encolan y hyprbank.group-commit.committers hilos aplican hasta hyprbank.group-commit.max-batch
+ * operaciones (o las que lleguen en hyprbank.group-commit.max-wait-micros desde la primera) en una sola
+ * transaccion. Cada solicitud espera el COMMIT de su lote y recibe su propio resultado o su propia excepcion.
+ *
+ * Aislamiento entre las operaciones de un lote:
+ * - El lote corre en REPEATABLE READ, donde una lectura normal ve la foto del inicio de la transaccion. Por eso
+ *   las operaciones leen con bloqueo (SELECT ... FOR UPDATE) el saldo que van a escribir (ver
+ *   TransactionServiceImpl#lockForUpdate): asi ven lo confirmado por otros lotes y lo aplicado por las
+ *   operaciones anteriores del mismo lote, y ningun deposito ni retiro pisa a otro.
+ * - No hay savepoints: JpaTransactionManager (HibernateJpaDialect) no soporta la propagacion NESTED, y un
+ *   metodo @Transactional del servicio que falla dentro del lote (se une a su transaccion) la deja marcada
+ *   solo para rollback. Si una operacion falla (saldo insuficiente, cuenta no encontrada...), el lote se
+ *   revierte, esa operacion termina con su excepcion y las demas se aplican de nuevo sin ella en una
+ *   transaccion nueva. Es lo mismo que aplicarlas una tras otra: la operacion fallo sobre lo aplicado por
+ *   las anteriores. Despues de MAX_FAILED_PER_BATCH fallos en un lote, las restantes se aplican cada una en
+ *   su propia transaccion. Cada operacion termina con flush, asi un error de la base de datos se atribuye a
+ *   ella y no al COMMIT.
+ * - Si una operacion deja la transaccion inutilizable (bloqueo mutuo: InnoDB revierte toda la transaccion;
+ *   errores de Hibernate, que la marcan solo para rollback), el lote se revierte y cada operacion se aplica
+ *   de nuevo en su propia transaccion, como en el modo normal.
+ * - Si falla el COMMIT del lote no se sabe si quedo aplicado, asi que no se reintenta: todas sus operaciones
+ *   terminan con ese error.
+ *
+ * Las operaciones de un lote mantienen sus bloqueos de fila hasta el COMMIT; para una cuenta muy concurrida
+ * conviene ademas repartir su saldo (ShardedBalances). Desactivado (por defecto), antes de arrancar o con la
+ * cola llena, execute() aplica la operacion en el hilo que llama.
+ *
+ * Metricas: hyprbank.group-commit.latency (tag mode=group|direct, desde que llega la operacion hasta que
+ * termina, con p50 y p99), hyprbank.group-commit.batch-size, hyprbank.group-commit.retries y
+ * hyprbank.group-commit.queue.
+ */
+@Component
+public class GroupCommitExecutor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    // Operaciones fallidas en un lote antes de dejar de repetirlo: cada fallo cuesta un lote revertido
+    static final int MAX_FAILED_PER_BATCH = 3;
+
+    private final TransactionTemplate batchTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final int committers;
+    private final BlockingQueue<Operation<?>> queue;
+    private final Timer groupLatency;
+    private final Timer directLatency;
+    private final DistributionSummary batchSize;
+    private final Counter retries;
+
+    private final List<Thread> committerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public GroupCommitExecutor(PlatformTransactionManager transactionManager,
+                               EntityManager entityManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${hyprbank.group-commit.enabled:false}") boolean enabled,
+                               @Value("${hyprbank.group-commit.max-batch:64}") int maxBatch,
+                               @Value("${hyprbank.group-commit.max-wait-micros:500}") long maxWaitMicros,
+                               @Value("${hyprbank.group-commit.committers:4}") int committers,
+                               @Value("${hyprbank.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.batchTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.committers = Math.max(1, committers);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.groupLatency = latencyTimer(meterRegistry, "group");
+        this.directLatency = latencyTimer(meterRegistry, "direct");
+        this.batchSize = DistributionSummary.builder("hyprbank.group-commit.batch-size")
+                .description("Operaciones confirmadas en cada transaccion del group commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.retries = Counter.builder("hyprbank.group-commit.retries")
+                .description("Operaciones aplicadas de nuevo porque su lote se revirtio")
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.group-commit.queue", queue, BlockingQueue::size)
+                .description("Operaciones esperando un lote del group commit")
+                .register(meterRegistry);
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("hyprbank.group-commit.latency")
+                .description("Tiempo desde que llega una operacion de TransactionService hasta que termina")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Aplica una operacion de escritura corta de TransactionService. Con el group commit activo, la operacion
+     * se confirma junto con otras en un lote y este metodo espera ese COMMIT; si no, se aplica aqui mismo.
+     * No debe llamarse dentro de una transaccion: la operacion no se uniria a ella.
+     *
+     * @param work Operacion a aplicar (por ejemplo, {@code () -> transactionService.performDeposit(request, userId)}).
+     * @return El resultado de la operacion.
+     * @throws RuntimeException La misma excepcion que lanzo la operacion (o el error del COMMIT de su lote).
+     */
+    public <T> T execute(Supplier<T> work) {
+        long start = System.nanoTime();
+        Operation<T> operation = new Operation<>(work);
+        boolean queued = running && queue.offer(operation);
+        if (queued && !running && queue.remove(operation)) {
+            queued = false; // Se detuvo justo al encolar y ningun hilo la tomo
+        }
+        if (!queued) {
+            // Desactivado, cola llena o deteniendose: se aplica en el hilo que llama, en su propia transaccion
+            try {
+                return work.get();
+            } finally {
+                directLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        try {
+            return operation.result.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            groupLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < committers; i++) {
+            committerThreads.add(Thread.ofVirtual().name("group-commit-" + i).start(this::runCommitter));
+        }
+        logger.info("Group commit activo: {} hilos, hasta {} operaciones o {} us por lote.",
+                committers, maxBatch, TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread thread : committerThreads) {
+            try {
+                thread.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        committerThreads.clear();
+        // Lo que quedo en la cola (llego justo al detener) se aplica una por una
+        for (Operation<?> operation; (operation = queue.poll()) != null; ) {
+            operation.runAlone();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runCommitter() {
+        List<Operation<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Operation<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Se junta lo que haya en la cola y lo que llegue dentro de la espera maxima, hasta max-batch
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Operation<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(Operation::runAlone);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error en el group commit: {}", e.getMessage(), e);
+                batch.forEach(operation -> operation.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /*
+     * Aplica el lote en una transaccion y entrega los resultados despues del COMMIT. Si una operacion falla, el
+     * lote se revierte y se aplica de nuevo sin ella.
+     */
+    private void commit(List<Operation<?>> batch) {
+        batchSize.record(batch.size());
+        List<Operation<?>> pending = new ArrayList<>(batch);
+        for (int failed = 0; !pending.isEmpty(); ) {
+            Attempt attempt = new Attempt();
+            try {
+                batchTemplate.executeWithoutResult(status -> {
+                    applyAll(pending, attempt);
+                    if (attempt.failed != null || attempt.poison != null) {
+                        status.setRollbackOnly();
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (attempt.failed == null && attempt.poison == null) {
+                    logger.error("Fallo el COMMIT de un lote de {} operaciones: {}", pending.size(), e.getMessage(), e);
+                    pending.forEach(operation -> operation.result.completeExceptionally(e));
+                    return;
+                }
+                // Fallo el ROLLBACK: la transaccion no se confirmo, asi que se sigue como si se hubiera revertido
+                logger.warn("Fallo el ROLLBACK de un lote de {} operaciones: {}", pending.size(), e.getMessage());
+            }
+            if (attempt.poison != null) {
+                logger.warn("Se revierte un lote de {} operaciones y se aplican por separado: {}",
+                        pending.size(), attempt.poison.getMessage());
+                retries.increment(pending.size());
+                pending.forEach(Operation::runAlone);
+                return;
+            }
+            if (attempt.failed == null) {
+                pending.forEach(Operation::complete);
+                return;
+            }
+            attempt.failed.complete();
+            pending.remove(attempt.failed);
+            retries.increment(pending.size());
+            if (++failed == MAX_FAILED_PER_BATCH) {
+                pending.forEach(Operation::runAlone);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Aplica las operaciones en orden hasta la primera que falla, que queda en 'attempt'. Las siguientes no se
+     * aplican: la transaccion ya se va a revertir.
+     */
+    private void applyAll(List<Operation<?>> batch, Attempt attempt) {
+        for (Operation<?> operation : batch) {
+            try {
+                operation.apply(entityManager);
+            } catch (RuntimeException e) {
+                if (poisonsTransaction(e)) {
+                    attempt.poison = e;
+                } else {
+                    operation.failure = e;
+                    attempt.failed = operation;
+                }
+                return;
+            }
+        }
+    }
+
+    /*
+     * Errores de la transaccion del lote mas que de la operacion (bloqueo mutuo, errores de Hibernate): no se le
+     * atribuyen a ella, y cada operacion del lote se aplica de nuevo sola.
+     */
+    static boolean poisonsTransaction(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof TransactionException || cause instanceof PessimisticLockingFailureException
+                    || cause instanceof PersistenceException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && "40001".equals(sqlException.getSQLState())) {
+                return true; // Bloqueo mutuo (1213): InnoDB ya revirtio toda la transaccion
+            }
+        }
+        return false;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /*
+     * Resultado de aplicar un lote: la operacion que fallo, o el error que obliga a aplicarlas por separado.
+     */
+    private static final class Attempt {
+        Operation<?> failed;
+        RuntimeException poison;
+    }
+
+    /*
+     * Una operacion encolada. 'value' y 'failure' guardan su resultado dentro del lote hasta el COMMIT.
+     */
+    private static final class Operation<T> {
+        final Supplier<T> work;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        T value;
+        RuntimeException failure;
+
+        Operation(Supplier<T> work) {
+            this.work = work;
+        }
+
+        // Dentro de la transaccion del lote: su metodo @Transactional se une a ella
+        void apply(EntityManager entityManager) {
+            value = work.get();
+            entityManager.flush();
+        }
+
+        void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        // Sola: su metodo @Transactional abre su propia transaccion
+        void runAlone() {
+            try {
+                result.complete(work.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Java Utilities
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/*
+ * Rueda de tiempos con hash (hashed timing wheel) para IDs con fecha de vencimiento en nanosegundos.
+ *
+ * El tiempo se divide en ticks de 'tickNanos'; un ID que vence en el tick T se guarda en la casilla
+ * T % wheelSize junto con T. Avanzar la rueda solo revisa las casillas de los ticks transcurridos, por lo
+ * que programar y vencer cuestan O(1) sin importar cuantas ejecuciones haya cargadas. Los IDs que vencen
+ * dentro de mas de una vuelta comparten casilla con otros y se quedan hasta que llegue su tick.
+ *
+ * No es segura para varios hilos: la usa solo el hilo de RecurringTransferScheduler.
+ */
+final class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final long originNanos;
+    private final int mask;
+    private final Bucket[] buckets;
+    private long currentTick; // Siguiente tick sin procesar
+    private int size;
+
+    HashedTimingWheel(long tickNanos, int wheelSize, long originNanos) {
+        if (tickNanos <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("La rueda requiere ticks positivos y un tamaño potencia de 2: " + wheelSize);
+        }
+        this.tickNanos = tickNanos;
+        this.originNanos = originNanos;
+        this.mask = wheelSize - 1;
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /*
+     * Programa 'id' para el primer tick que empieza en o despues de 'deadlineNanos'. Si ya paso, vence en el
+     * siguiente avance.
+     */
+    void schedule(long id, long deadlineNanos) {
+        long tick = Math.max(Math.floorDiv(deadlineNanos - originNanos + tickNanos - 1, tickNanos), currentTick);
+        buckets[(int) (tick & mask)].add(id, tick);
+        size++;
+    }
+
+    /*
+     * Procesa los ticks transcurridos hasta 'nowNanos' y entrega cada ID vencido a 'expired'. Si paso mas de
+     * una vuelta (p. ej. una pausa larga), cada casilla se revisa una sola vez.
+     */
+    void advance(long nowNanos, LongConsumer expired) {
+        long targetTick = Math.floorDiv(nowNanos - originNanos, tickNanos);
+        if (targetTick < currentTick) {
+            return;
+        }
+        long steps = Math.min(targetTick - currentTick + 1, buckets.length);
+        for (long i = 0; i < steps; i++) {
+            size -= buckets[(int) ((currentTick + i) & mask)].expire(targetTick, expired);
+        }
+        currentTick = targetTick + 1;
+    }
+
+    /*
+     * Descarta todo lo programado (p. ej. al perder el lease).
+     */
+    void clear() {
+        for (Bucket bucket : buckets) {
+            bucket.size = 0;
+        }
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * Casilla con arreglos primitivos de IDs y ticks; al vencer un ID su lugar lo ocupa el ultimo.
+     */
+    private static final class Bucket {
+        private long[] ids = new long[4];
+        private long[] ticks = new long[4];
+        private int size;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                ticks = Arrays.copyOf(ticks, size * 2);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        int expire(long targetTick, LongConsumer expired) {
+            int removed = 0;
+            int i = 0;
+            while (i < size) {
+                if (ticks[i] <= targetTick) {
+                    long id = ids[i];
+                    size--;
+                    ids[i] = ids[size];
+                    ticks[i] = ticks[size];
+                    removed++;
+                    expired.accept(id);
+                } else {
+                    i++;
+                }
+            }
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de JPA e Hibernate
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+// Importaciones de Spring Framework
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Consulta y vaciado de la cache de segundo nivel y de consultas de Hibernate (Role, User.roles,
+ * RoleRepository.findByName; regiones configuradas en application.conf).
+ *
+ * Hibernate invalida las entradas cuando los datos cambian a traves de JPA. Vaciar una region solo hace
+ * falta despues de modificar las tablas directamente en la base de datos (scripts, migraciones).
+ */
+@Service
+public class HibernateCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateCacheService.class);
+
+    private final SessionFactory sessionFactory;
+
+    public HibernateCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Resumen de aciertos, fallos y entradas de la cache, en total y por region.
+     *
+     * @return Mapa con los totales de la cache de segundo nivel y de consultas, y una fila por region.
+     */
+    public Map<String, Object> describe() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("statisticsEnabled", statistics.isStatisticsEnabled());
+
+        Map<String, Object> secondLevel = new LinkedHashMap<>();
+        secondLevel.put("hits", statistics.getSecondLevelCacheHitCount());
+        secondLevel.put("misses", statistics.getSecondLevelCacheMissCount());
+        secondLevel.put("puts", statistics.getSecondLevelCachePutCount());
+        secondLevel.put("hitRatio", hitRatio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        summary.put("secondLevel", secondLevel);
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        queryCache.put("hitRatio", hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        summary.put("queryCache", queryCache);
+
+        List<Map<String, Object>> regions = new ArrayList<>();
+        for (String regionName : regionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("region", regionName);
+            row.put("hits", region.getHitCount());
+            row.put("misses", region.getMissCount());
+            row.put("puts", region.getPutCount());
+            row.put("hitRatio", hitRatio(region.getHitCount(), region.getMissCount()));
+            // -1 si el proveedor no informa el numero de entradas
+            row.put("elementsInMemory", region.getElementCountInMemory());
+            regions.add(row);
+        }
+        summary.put("regions", regions);
+        return summary;
+    }
+
+    /**
+     * Vacia una region de la cache, o todas si no se indica ninguna.
+     *
+     * @param regionName Nombre de la region (ej. "hyprbank.roles"), o {@code null} para todas.
+     * @throws IllegalArgumentException Si la region no existe.
+     */
+    public void evict(String regionName) {
+        if (regionName == null || regionName.isBlank()) {
+            sessionFactory.getCache().evictAllRegions();
+            logger.info("Cache de segundo nivel de Hibernate vaciada (todas las regiones).");
+            return;
+        }
+        if (!regionNames().contains(regionName)) {
+            throw new IllegalArgumentException("Region de cache desconocida: " + regionName);
+        }
+        sessionFactory.getCache().evictRegion(regionName);
+        logger.info("Region '{}' de la cache de segundo nivel de Hibernate vaciada.", regionName);
+    }
+
+    private List<String> regionNames() {
+        return Arrays.stream(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).sorted().toList();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : Math.round(hits * 10000.0 / total) / 10000.0;
+    }
+}
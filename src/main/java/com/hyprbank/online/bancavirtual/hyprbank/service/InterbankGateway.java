@@ -0,0 +1,61 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+/*
+ * Canal hacia la red interbancaria que usa OutboundTransferDispatcher para enviar transferencias externas.
+ *
+ * Por defecto se usa {@link SimulatedInterbankGateway}; una integracion real se agrega como otro bean
+ * que implemente esta interfaz (con hyprbank.interbank.gateway distinto de 'simulated').
+ *
+ * Contrato:
+ * - send() se llama fuera de cualquier transaccion y puede bloquear (se ejecuta en un hilo virtual).
+ * - Una misma transferencia puede enviarse mas de una vez (reintentos, reinicio de la aplicacion);
+ *   la implementacion debe usar su ID como clave de idempotencia.
+ * - Un rechazo definitivo del banco destino se devuelve como Result.rejected(); los errores transitorios
+ *   (tiempo de espera, banco no disponible) se lanzan como {@link InterbankGatewayException} y se reintentan.
+ */
+public interface InterbankGateway {
+
+    /**
+     * Envia una transferencia al banco destino y espera su respuesta.
+     *
+     * @param transfer Transferencia a enviar (ID, banco, cuenta y titular destino, monto y descripcion).
+     * @return El resultado definitivo: liquidada con su referencia, o rechazada con el motivo.
+     * @throws InterbankGatewayException Si no se obtuvo una respuesta definitiva y conviene reintentar.
+     */
+    Result send(OutboundTransfer transfer);
+
+    /**
+     * Respuesta definitiva del banco destino.
+     *
+     * @param settled   {@code true} si la transferencia se liquido.
+     * @param reference Referencia del banco destino (solo si se liquido).
+     * @param reason    Motivo del rechazo (solo si se rechazo).
+     */
+    record Result(boolean settled, String reference, String reason) {
+
+        public static Result settled(String reference) {
+            return new Result(true, reference, null);
+        }
+
+        public static Result rejected(String reason) {
+            return new Result(false, null, reason);
+        }
+    }
+
+    /**
+     * Error transitorio al comunicarse con el banco destino; la transferencia se reintenta.
+     */
+    class InterbankGatewayException extends RuntimeException {
+
+        public InterbankGatewayException(String message) {
+            super(message);
+        }
+
+        public InterbankGatewayException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
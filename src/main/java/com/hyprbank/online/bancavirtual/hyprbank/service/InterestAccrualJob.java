@@ -0,0 +1,322 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.InterestAccrualResult;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Devengo diario de intereses de las cuentas de ahorro (accountType en hyprbank.interest.account-types, status
+ * en hyprbank.interest.account-statuses; las cuentas que abre UserServiceImpl quedan "ACTIVA").
+ *
+ * Calculo (por cuenta y dia, con BigDecimal exacto):
+ *   saldo             = saldo al cierre del dia devengado (el mismo de las fotos de BalanceSnapshotService: saldo
+ *                       actual menos los movimientos de dias posteriores), no el saldo al momento de correr
+ *   interes del dia   = saldo * tasa anual / dias del año (hyprbank.interest.day-count-basis), 10 decimales HALF_EVEN
+ *   devengado         = devengado anterior + interes del dia
+ *   abono             = devengado truncado a centavos (RoundingMode.DOWN): nunca se abona mas de lo devengado
+ *   nuevo devengado   = devengado - abono (la fraccion de centavo se conserva para el dia siguiente)
+ * Un saldo de Q100 al 2.5% devenga Q0.0068 diarios y recibe Q0.01 cada uno o dos dias, en lugar de nada
+ * (redondeo diario hacia abajo) o Q0.01 diario (redondeo hacia arriba).
+ *
+ * Proceso:
+ * - El rango de IDs de cuentas se fija en interest_accrual_runs al iniciar el dia y se divide en las
+ *   particiones de {@link ClusterJobRunner}; cada nodo procesa las suyas con hasta hyprbank.interest.parallelism
+ *   hilos.
+ * - Cada particion avanza en bloques de chunk-size cuentas, cada uno en su transaccion: lee el saldo al cierre
+ *   y lo devengado en una lectura consistente (la particion es de este nodo por su lease), actualiza el saldo
+ *   de forma relativa (balance = balance + abono), guarda los movimientos INCOME fechados el dia devengado con
+ *   sus eventos de outbox, corrige las fotos de cierre ya escritas, suma los totales del dia y guarda el punto
+ *   de control.
+ * - Si el proceso se interrumpe, al reanudar cada particion continua despues de su ultimo bloque confirmado.
+ *   Las particiones que quedan pendientes (fallo, nodo caido, cambio de nodos) siguen registradas con la clave
+ *   de su dia en {@link ClusterJobRunner} y se retoman en el siguiente cierre, antes de devengar el dia nuevo.
+ *   Un dia se puede retomar aunque ya se haya devengado el siguiente: last_accrual_date solo impide devengar
+ *   dos veces la misma cuenta el mismo dia.
+ *
+ * Al terminar registra cuentas por segundo (log, resultado y metrica hyprbank.interest.accrual).
+ */
+@Component
+public class InterestAccrualJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualJob.class);
+
+    private static final String JOB_NAME = "interest-accrual";
+    private static final int ACCRUAL_SCALE = 10;
+    private static final DateTimeFormatter DESCRIPTION_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final MovementRepository movementRepository;
+    private final MovementOutbox movementOutbox;
+    private final MovementHashChain movementHashChain;
+    private final AccountLookupCache accountLookupCache;
+    private final ClusterJobRunner clusterJobRunner;
+    private final BatchCheckpoints batchCheckpoints;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final Timer accrualTimer;
+    private final Counter accountCounter;
+    private final BigDecimal annualRate;
+    private final BigDecimal dayCountBasis;
+    private final List<String> accountTypes;
+    private final List<String> accountStatuses;
+    private final int chunkSize;
+    private final int parallelism;
+    private final String chunkQuery;
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              AccountRepository accountRepository,
+                              MovementRepository movementRepository,
+                              MovementOutbox movementOutbox,
+                              MovementHashChain movementHashChain,
+                              AccountLookupCache accountLookupCache,
+                              ClusterJobRunner clusterJobRunner,
+                              BatchCheckpoints batchCheckpoints,
+                              BalanceSnapshotService balanceSnapshotService,
+                              MeterRegistry meterRegistry,
+                              @Value("${hyprbank.interest.annual-rate:0.025}") BigDecimal annualRate,
+                              @Value("${hyprbank.interest.day-count-basis:365}") int dayCountBasis,
+                              @Value("${hyprbank.interest.account-types:SAVINGS,AHORROS}") List<String> accountTypes,
+                              @Value("${hyprbank.interest.account-statuses:ACTIVA}") List<String> accountStatuses,
+                              @Value("${hyprbank.interest.chunk-size:500}") int chunkSize,
+                              @Value("${hyprbank.interest.parallelism:4}") int parallelism) {
+        if (accountTypes.isEmpty()) {
+            throw new IllegalArgumentException("hyprbank.interest.account-types no puede estar vacio.");
+        }
+        if (accountStatuses.isEmpty()) {
+            throw new IllegalArgumentException("hyprbank.interest.account-statuses no puede estar vacio.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
+        this.movementOutbox = movementOutbox;
+        this.movementHashChain = movementHashChain;
+        this.accountLookupCache = accountLookupCache;
+        this.clusterJobRunner = clusterJobRunner;
+        this.batchCheckpoints = batchCheckpoints;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.accrualTimer = Timer.builder("hyprbank.interest.accrual")
+                .description("Devengo diario de intereses (particiones de este nodo)")
+                .register(meterRegistry);
+        this.accountCounter = Counter.builder("hyprbank.interest.accounts")
+                .description("Cuentas de ahorro devengadas")
+                .register(meterRegistry);
+        this.annualRate = annualRate;
+        this.dayCountBasis = BigDecimal.valueOf(dayCountBasis);
+        this.accountTypes = List.copyOf(accountTypes);
+        this.accountStatuses = List.copyOf(accountStatuses);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        // Saldo al cierre del dia (con las filas de ShardedBalances); sin FOR UPDATE para que saldo y movimientos
+        // salgan de la misma lectura consistente
+        this.chunkQuery = "SELECT a.id, a.account_number, a.user_id, " + BalanceSnapshotService.END_OF_DAY_BALANCE
+                + ", a.accrued_interest FROM accounts a WHERE a.id > ? AND a.id < ? AND a.account_type IN ("
+                + String.join(", ", accountTypes.stream().map(type -> "?").toList())
+                + ") AND a.status IN (" + String.join(", ", accountStatuses.stream().map(status -> "?").toList())
+                + ") AND a.creation_date < ? AND (a.last_accrual_date IS NULL OR a.last_accrual_date <> ?) "
+                + "ORDER BY a.id LIMIT " + chunkSize;
+    }
+
+    /*
+     * Cierre diario: termina primero los dias con particiones pendientes (fallidas o de un nodo que se cayo) y
+     * despues devenga el dia anterior.
+     */
+    @Scheduled(cron = "${hyprbank.interest.cron:0 30 0 * * *}")
+    public void accrueYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (String pending : clusterJobRunner.incompleteRuns(JOB_NAME)) {
+            LocalDate accrualDate = LocalDate.parse(pending);
+            if (accrualDate.isBefore(yesterday)) {
+                logger.warn("Intereses del {}: quedaron particiones pendientes, se retoman.", accrualDate);
+                accrue(accrualDate);
+            }
+        }
+        accrue(yesterday);
+    }
+
+    /**
+     * Devenga los intereses de un dia en las particiones que le tocan a este nodo. Se puede volver a llamar
+     * para el mismo dia (reanudar tras una falla): las cuentas ya devengadas no se tocan.
+     *
+     * @param accrualDate Dia a devengar.
+     * @return Resumen de lo procesado en este nodo.
+     */
+    public InterestAccrualResult accrue(LocalDate accrualDate) {
+        long start = System.nanoTime();
+        long[] range = runRange(accrualDate);
+        String checkpointJob = JOB_NAME + ":" + accrualDate;
+        AtomicLong accounts = new AtomicLong();
+        AtomicLong movements = new AtomicLong();
+        AtomicReference<BigDecimal> posted = new AtomicReference<>(BigDecimal.ZERO);
+
+        int partitions = clusterJobRunner.runPartitioned(JOB_NAME, accrualDate.toString(), range[0], range[1], parallelism, (lease, ids) -> {
+            long cursor = Math.max(ids.fromId() - 1, batchCheckpoints.lastId(checkpointJob, ids.partition(), Long.MIN_VALUE));
+            while (!lease.isLost()) {
+                long from = cursor;
+                Chunk chunk = transactionTemplate.execute(status -> {
+                    lease.checkHeld();
+                    return accrueChunk(accrualDate, checkpointJob, ids.partition(), from, ids.toId());
+                });
+                accounts.addAndGet(chunk.accounts());
+                movements.addAndGet(chunk.movements());
+                posted.accumulateAndGet(chunk.posted(), BigDecimal::add);
+                accountCounter.increment(chunk.accounts());
+                if (chunk.accounts() < chunkSize) {
+                    break;
+                }
+                cursor = chunk.lastId();
+            }
+        });
+
+        long elapsedNanos = System.nanoTime() - start;
+        accrualTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        double perSecond = accounts.get() / Math.max(elapsedNanos / 1e9, 1e-9);
+        logger.info("Intereses del {}: {} cuentas en {} particiones, {} abonos por Q{}, {} ms ({} cuentas/s).",
+                accrualDate, accounts.get(), partitions, movements.get(), posted.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(perSecond));
+        return new InterestAccrualResult(accrualDate, partitions, accounts.get(), movements.get(), posted.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond);
+    }
+
+    private record Chunk(int accounts, long lastId, int movements, BigDecimal posted) {
+    }
+
+    /*
+     * Un bloque de hasta chunk-size cuentas despues de 'afterId', dentro de la transaccion del llamador.
+     */
+    private Chunk accrueChunk(LocalDate accrualDate, String checkpointJob, int partition, long afterId, long toId) {
+        List<Object> args = new ArrayList<>();
+        args.add(Date.valueOf(accrualDate));
+        args.add(afterId);
+        args.add(toId);
+        args.addAll(accountTypes);
+        args.addAll(accountStatuses);
+        args.add(Timestamp.valueOf(accrualDate.plusDays(1).atStartOfDay())); // Cuentas abiertas al cierre del dia
+        args.add(Date.valueOf(accrualDate));
+        List<Object[]> rows = jdbcTemplate.query(chunkQuery, (rs, rowNum) -> new Object[] {
+                rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4), rs.getBigDecimal(5)
+        }, args.toArray());
+        if (rows.isEmpty()) {
+            return new Chunk(0, afterId, 0, BigDecimal.ZERO);
+        }
+
+        String description = "Intereses devengados al " + accrualDate.format(DESCRIPTION_DATE);
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        List<Accrual> accruals = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Accrual accrual = dailyAccrual((BigDecimal) row[3], (BigDecimal) row[4], annualRate, dayCountBasis);
+            accruals.add(accrual);
+            updates.add(new Object[] { accrual.posted(), accrual.remainder(), Date.valueOf(accrualDate), row[0], Date.valueOf(accrualDate) });
+        }
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + ?, accrued_interest = ?, last_accrual_date = ? "
+                + "WHERE id = ? AND (last_accrual_date IS NULL OR last_accrual_date <> ?)", updates);
+
+        List<Movement> credits = new ArrayList<>();
+        List<Long> creditUsers = new ArrayList<>();
+        List<String> creditedNumbers = new ArrayList<>();
+        List<Object[]> snapshotCredits = new ArrayList<>();
+        BigDecimal postedTotal = BigDecimal.ZERO;
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Accrual accrual = accruals.get(i);
+            // 0: la cuenta ya tenia el dia devengado; el abono no se aplico y no lleva movimiento
+            if (updated[i] == 0 || accrual.posted().signum() <= 0) {
+                continue;
+            }
+            Movement credit = new Movement();
+            credit.setAccount(accountRepository.getReferenceById((Long) row[0])); // Sin cargar la cuenta
+            credit.setDate(accrualDate); // Fecha valor: el dia devengado, no el dia en que corre el cierre
+            credit.setDescription(description);
+            credit.setType(MovementType.INCOME);
+            credit.setAmount(accrual.posted());
+            credits.add(credit);
+            creditUsers.add((Long) row[2]);
+            creditedNumbers.add((String) row[1]);
+            snapshotCredits.add(new Object[] { accrual.posted(), row[0] });
+            postedTotal = postedTotal.add(accrual.posted());
+        }
+
+        balanceSnapshotService.addToSnapshotsFrom(accrualDate, snapshotCredits);
+        movementHashChain.link(credits); // Un solo viaje para los eslabones de todo el bloque
+        List<Movement> saved = movementRepository.saveAll(credits);
+        for (int i = 0; i < saved.size(); i++) {
+            movementOutbox.append(saved.get(i), creditUsers.get(i));
+        }
+        creditedNumbers.forEach(accountLookupCache::evict); // El saldo en cache ya no es valido
+
+        long lastId = (Long) rows.get(rows.size() - 1)[0];
+        batchCheckpoints.save(checkpointJob, partition, lastId);
+        jdbcTemplate.update("UPDATE interest_accrual_runs SET accounts = accounts + ?, posted_amount = posted_amount + ?, "
+                + "updated_at = NOW(6) WHERE accrual_date = ?", rows.size(), postedTotal, Date.valueOf(accrualDate));
+        return new Chunk(rows.size(), lastId, credits.size(), postedTotal);
+    }
+
+    /*
+     * Rango de IDs del dia: se fija la primera vez (cualquier nodo) y se reutiliza al reanudar, para que las
+     * particiones y sus puntos de control no cambien aunque se creen cuentas nuevas.
+     */
+    private long[] runRange(LocalDate accrualDate) {
+        jdbcTemplate.update("INSERT IGNORE INTO interest_accrual_runs "
+                + "(accrual_date, min_account_id, max_account_id, started_at, updated_at, accounts, posted_amount) "
+                + "SELECT ?, COALESCE(MIN(id), 0), COALESCE(MAX(id), -1), NOW(6), NOW(6), 0, 0 FROM accounts",
+                Date.valueOf(accrualDate));
+        batchCheckpoints.purge(JOB_NAME + ":", 30);
+        return jdbcTemplate.queryForObject("SELECT min_account_id, max_account_id FROM interest_accrual_runs WHERE accrual_date = ?",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, Date.valueOf(accrualDate));
+    }
+
+    /**
+     * Abono en centavos completos y fraccion devengada pendiente de una cuenta para un dia.
+     */
+    record Accrual(BigDecimal posted, BigDecimal remainder) {
+    }
+
+    static Accrual dailyAccrual(BigDecimal balance, BigDecimal accrued, BigDecimal annualRate, BigDecimal dayCountBasis) {
+        BigDecimal pending = accrued != null ? accrued : BigDecimal.ZERO;
+        if (balance.signum() > 0) {
+            BigDecimal daily = balance.multiply(annualRate).divide(dayCountBasis, ACCRUAL_SCALE, RoundingMode.HALF_EVEN);
+            pending = pending.add(daily);
+        }
+        BigDecimal posted = pending.setScale(2, RoundingMode.DOWN);
+        return new Accrual(posted, pending.subtract(posted).setScale(ACCRUAL_SCALE, RoundingMode.UNNECESSARY));
+    }
+}
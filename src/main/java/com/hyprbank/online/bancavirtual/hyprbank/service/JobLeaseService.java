@@ -0,0 +1,132 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Arrendamientos (leases) en la tabla 'job_leases' para que un trabajo en segundo plano corra en un solo
+ * nodo aunque haya varias instancias de la aplicacion sobre la misma base de datos.
+ *
+ * Un nodo toma o renueva un lease con un UPDATE condicional: solo si ya es suyo o si el anterior vencio.
+ * El vencimiento se calcula con el reloj de MySQL (NOW(6)), asi que no depende de que los relojes de los
+ * nodos coincidan. fencing_token aumenta cada vez que el lease cambia de dueño: quien lo recibe sabe que
+ * cualquier trabajo hecho con un token menor pertenece a un dueño anterior.
+ *
+ * Se usa JdbcTemplate sin transaccion (conexion del pool primario, autocommit): la renovacion no debe
+ * quedar dentro de una transaccion mas larga que la revierta o la retrase. La excepcion es {@link #checkHeld},
+ * que se llama dentro de la transaccion del trabajo para que su commit dependa de seguir siendo dueño.
+ *
+ * El ID del nodo es hyprbank.cluster.node-id si se configura (p. ej. varias instancias en la misma maquina)
+ * o host-pid-aleatorio.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseService.class);
+
+    // MySQL asigna las columnas de izquierda a derecha: fencing_token se evalua con el dueño anterior
+    private static final String ACQUIRE = "UPDATE job_leases SET "
+            + "fencing_token = IF(owner <=> ?, fencing_token, fencing_token + 1), "
+            + "owner = ?, expires_at = TIMESTAMPADD(MICROSECOND, ?, NOW(6)) "
+            + "WHERE name = ? AND (owner = ? OR expires_at < NOW(6))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public JobLeaseService(JdbcTemplate jdbcTemplate, @Value("${hyprbank.cluster.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = !nodeId.isBlank() ? nodeId : hostName() + "-" + ManagementFactory.getRuntimeMXBean().getPid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Toma o renueva el lease 'name' por 'ttl'.
+     *
+     * @param name Nombre del trabajo.
+     * @param ttl Duracion del lease; debe renovarse antes de que venza.
+     * @return El fencing token vigente si este nodo es el dueño, o vacio si lo tiene otro nodo.
+     */
+    public OptionalLong tryAcquire(String name, Duration ttl) {
+        int updated = update(name, ttl);
+        if (updated == 0) {
+            // Primera vez que se usa este nombre: se crea vencido y se vuelve a intentar
+            jdbcTemplate.update("INSERT IGNORE INTO job_leases (name, owner, expires_at, fencing_token) "
+                    + "VALUES (?, NULL, TIMESTAMPADD(SECOND, -1, NOW(6)), 0)", name);
+            updated = update(name, ttl);
+        }
+        if (updated == 0) {
+            return OptionalLong.empty();
+        }
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT fencing_token FROM job_leases WHERE name = ? AND owner = ?", Long.class, name, nodeId);
+        return tokens.isEmpty() ? OptionalLong.empty() : OptionalLong.of(tokens.get(0));
+    }
+
+    /**
+     * Libera el lease si es de este nodo (p. ej. al detener la aplicacion), para que otro lo tome sin esperar.
+     */
+    public void release(String name) {
+        try {
+            jdbcTemplate.update("UPDATE job_leases SET owner = NULL, expires_at = TIMESTAMPADD(SECOND, -1, NOW(6)) "
+                    + "WHERE name = ? AND owner = ?", name, nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo liberar el lease {}; vencera solo: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica, dentro de la transaccion actual, que este nodo sigue siendo dueño del lease con 'fencingToken'.
+     * La fila queda bloqueada en modo compartido hasta el commit: otro nodo no puede tomar el lease mientras
+     * esta transaccion escribe, y si ya lo tomo, la transaccion falla en lugar de escribir con un token viejo.
+     *
+     * @throws IllegalStateException Si el lease vencio o cambio de dueño.
+     */
+    public void checkHeld(String name, long fencingToken) {
+        Integer held = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_leases WHERE name = ? AND owner = ? "
+                + "AND fencing_token = ? AND expires_at > NOW(6) FOR SHARE", Integer.class, name, nodeId, fencingToken);
+        if (held == null || held == 0) {
+            throw new IllegalStateException("El lease " + name + " (token " + fencingToken + ") ya no pertenece al nodo " + nodeId + ".");
+        }
+    }
+
+    /**
+     * Leases vigentes o vencidos, para diagnostico: nombre, dueño, vencimiento y token.
+     */
+    public List<Map<String, Object>> describe() {
+        return jdbcTemplate.queryForList("SELECT name, owner, expires_at, fencing_token, expires_at > NOW(6) AS active "
+                + "FROM job_leases ORDER BY name");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private int update(String name, Duration ttl) {
+        long micros = ttl.toNanos() / 1_000;
+        return jdbcTemplate.update(ACQUIRE, nodeId, nodeId, micros, name, nodeId);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Spring Framework
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Registro de ejecuciones de los trabajos particionados (tablas 'job_runs' y 'job_partition_runs'): que
+ * particiones de cada ejecucion ya terminaron, para que {@link ClusterJobRunner#runPartitioned} vuelva a tomar
+ * solo las que faltan aunque la clave de la ejecucion (p. ej. el dia) ya no sea la del ciclo en curso.
+ *
+ * Igual que {@link JobLeaseService}, usa MySQL directamente y toma los tiempos de su reloj.
+ */
+@Service
+public class JobRunService {
+
+    // Solo inserta si el lease de la particion sigue siendo de este nodo con el mismo token
+    private static final String COMPLETE_PARTITION = "INSERT INTO job_partition_runs "
+            + "(job_name, run_key, partition_no, node_id, completed_at) "
+            + "SELECT ?, ?, ?, owner, NOW(6) FROM job_leases "
+            + "WHERE name = ? AND owner = ? AND fencing_token = ? AND expires_at > NOW(6)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public JobRunService(JdbcTemplate jdbcTemplate, JobLeaseService jobLeaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = jobLeaseService.getNodeId();
+    }
+
+    /**
+     * Rango de IDs y particiones de una ejecucion.
+     */
+    public record Run(long minId, long maxId, int partitions) {
+    }
+
+    /**
+     * Registra la ejecucion si es la primera vez que se ve (cualquier nodo) y devuelve el rango y las particiones
+     * guardados, que pueden ser distintos de los recibidos si la ejecucion ya existia.
+     */
+    public Run start(String jobName, String runKey, long minId, long maxId, int partitions) {
+        jdbcTemplate.update("INSERT IGNORE INTO job_runs (job_name, run_key, min_id, max_id, partitions, started_at) "
+                + "VALUES (?, ?, ?, ?, ?, NOW(6))", jobName, runKey, minId, maxId, partitions);
+        return jdbcTemplate.queryForObject("SELECT min_id, max_id, partitions FROM job_runs WHERE job_name = ? AND run_key = ?",
+                (rs, rowNum) -> new Run(rs.getLong(1), rs.getLong(2), rs.getInt(3)), jobName, runKey);
+    }
+
+    /**
+     * Particiones ya terminadas de la ejecucion.
+     */
+    public Set<Integer> completedPartitions(String jobName, String runKey) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT partition_no FROM job_partition_runs WHERE job_name = ? AND run_key = ?",
+                Integer.class, jobName, runKey));
+    }
+
+    public boolean isPartitionCompleted(String jobName, String runKey, int partition) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_partition_runs "
+                + "WHERE job_name = ? AND run_key = ? AND partition_no = ?", Integer.class, jobName, runKey, partition);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Marca la particion como terminada si este nodo sigue siendo dueño del lease 'leaseName' con 'fencingToken'.
+     *
+     * @throws IllegalStateException Si el lease vencio o cambio de dueño: la particion queda pendiente.
+     */
+    public void completePartition(String jobName, String runKey, int partition, String leaseName, long fencingToken) {
+        int inserted = jdbcTemplate.update(COMPLETE_PARTITION, jobName, runKey, partition, leaseName, nodeId, fencingToken);
+        if (inserted == 0) {
+            throw new IllegalStateException("El lease " + leaseName + " (token " + fencingToken + ") ya no pertenece al nodo "
+                    + nodeId + "; la particion " + partition + " de " + jobName + " " + runKey + " queda pendiente.");
+        }
+    }
+
+    /**
+     * Marca la ejecucion como terminada (todas sus particiones lo estan).
+     */
+    public void completeRun(String jobName, String runKey) {
+        jdbcTemplate.update("UPDATE job_runs SET completed_at = NOW(6) WHERE job_name = ? AND run_key = ? AND completed_at IS NULL",
+                jobName, runKey);
+    }
+
+    /**
+     * Claves de las ejecuciones del trabajo con particiones pendientes, de la mas antigua a la mas reciente.
+     */
+    public List<String> incompleteRuns(String jobName) {
+        return jdbcTemplate.queryForList("SELECT run_key FROM job_runs WHERE job_name = ? AND completed_at IS NULL "
+                + "ORDER BY started_at, run_key", String.class, jobName);
+    }
+
+    /**
+     * Borra las ejecuciones terminadas hace mas de 'days' dias y sus particiones.
+     */
+    public void purge(String jobName, int days) {
+        jdbcTemplate.update("DELETE p FROM job_partition_runs p JOIN job_runs r ON r.job_name = p.job_name AND r.run_key = p.run_key "
+                + "WHERE r.job_name = ? AND r.completed_at < TIMESTAMPADD(DAY, ?, NOW(6))", jobName, -days);
+        jdbcTemplate.update("DELETE FROM job_runs WHERE job_name = ? AND completed_at < TIMESTAMPADD(DAY, ?, NOW(6))",
+                jobName, -days);
+    }
+}
@@ -0,0 +1,244 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ReconciliationResult;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ReconciliationResult.Discrepancy;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Conciliacion del mayor: verifica que el saldo de cada cuenta sea igual a la suma neta de sus movimientos
+ * (INCOME - EXPENSE) y guarda las diferencias en reconciliation_discrepancies.
+ *
+ * - El rango de IDs de cuentas se divide recursivamente (RecursiveTask) en rangos de hasta range-size IDs
+ *   que se procesan en un ForkJoinPool de hyprbank.reconciliation.parallelism hilos.
+ * - Cada rango es una sola consulta en una transaccion de solo lectura: el saldo de las cuentas y la suma de
+ *   sus movimientos (agrupados por cuenta sobre el indice (account_id, date)) salen de la misma vista
+ *   consistente de InnoDB, sin bloqueos. Las transacciones de solo lectura van a la replica si esta
+ *   configurada. Las filas se leen en streaming, sin cargar el rango en memoria.
+ * - Se ejecuta en un solo nodo (ClusterJobRunner). Al terminar registra la ejecucion con sus tiempos,
+ *   incluido el tiempo por millon de movimientos para estimar la duracion cuando la tabla crezca, en una
+ *   transaccion que verifica el lease: si otro nodo tomo el trabajo mientras tanto, no se registra.
+ */
+@Component
+public class LedgerReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerReconciliationJob.class);
+
+    private static final int SAMPLE_DISCREPANCIES = 20;
+
+    // El saldo incluye las filas de las cuentas con saldo repartido (ShardedBalances)
+    private static final String RANGE_QUERY = "SELECT a.id, a.account_number, a.balance + " + ShardedBalances.SHARD_SUM
+            + ", COALESCE(m.net, 0), COALESCE(m.cnt, 0) "
+            + "FROM accounts a LEFT JOIN (SELECT account_id, SUM(IF(type = 'INCOME', amount, -amount)) AS net, COUNT(*) AS cnt "
+            + "FROM movements WHERE account_id >= ? AND account_id < ? GROUP BY account_id) m ON m.account_id = a.id "
+            + "WHERE a.id >= ? AND a.id < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobRunner clusterJobRunner;
+    private final Timer reconciliationTimer;
+    private final int parallelism;
+    private final long rangeSize;
+    private final int maxRecorded;
+
+    public LedgerReconciliationJob(JdbcTemplate jdbcTemplate,
+                                   DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   ClusterJobRunner clusterJobRunner,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${hyprbank.reconciliation.parallelism:4}") int parallelism,
+                                   @Value("${hyprbank.reconciliation.range-size:5000}") long rangeSize,
+                                   @Value("${hyprbank.reconciliation.max-recorded:10000}") int maxRecorded) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE: el driver de MySQL entrega las filas una a una en lugar de cargar todo el resultado
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterJobRunner = clusterJobRunner;
+        this.reconciliationTimer = Timer.builder("hyprbank.reconciliation.run")
+                .description("Conciliacion de saldos contra movimientos")
+                .register(meterRegistry);
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.maxRecorded = maxRecorded;
+    }
+
+    @Scheduled(cron = "${hyprbank.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Concilia todas las cuentas, si este nodo obtiene el lease del trabajo.
+     *
+     * @return El resultado, o vacio si la conciliacion la esta ejecutando otro nodo.
+     */
+    public Optional<ReconciliationResult> run() {
+        ReconciliationResult[] result = new ReconciliationResult[1];
+        clusterJobRunner.runSingleton("ledger-reconciliation", lease -> result[0] = reconcile(lease));
+        return Optional.ofNullable(result[0]);
+    }
+
+    private ReconciliationResult reconcile(ClusterJobRunner.JobLease lease) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long[] bounds = jdbcTemplate.queryForObject("SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), -1) FROM accounts",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) });
+
+        Totals totals;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            totals = pool.invoke(new RangeTask(bounds[0], bounds[1] + 1));
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        reconciliationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long perMillion = totals.movements == 0 ? 0 : elapsedMillis * 1_000_000 / totals.movements;
+        Long runId = transactionTemplate.execute(status -> {
+            lease.checkHeld();
+            return record(startedAt, totals, elapsedMillis, perMillion);
+        });
+
+        if (totals.discrepancyCount > 0) {
+            logger.warn("Conciliacion {}: {} cuentas con saldo distinto a sus movimientos (de {}).", runId,
+                    totals.discrepancyCount, totals.accounts);
+        }
+        logger.info("Conciliacion {}: {} cuentas, {} movimientos en {} ms ({} ms por millon de movimientos).", runId,
+                totals.accounts, totals.movements, elapsedMillis, perMillion);
+        return new ReconciliationResult(runId, totals.accounts, totals.movements, totals.discrepancyCount, elapsedMillis,
+                perMillion, totals.discrepancies.subList(0, Math.min(SAMPLE_DISCREPANCIES, totals.discrepancies.size())));
+    }
+
+    /*
+     * Totales de un rango; las diferencias guardadas se limitan a max-recorded (el conteo es completo).
+     */
+    private final class Totals {
+        private long accounts;
+        private long movements;
+        private long discrepancyCount;
+        private final List<Discrepancy> discrepancies = new ArrayList<>();
+
+        private Totals merge(Totals other) {
+            accounts += other.accounts;
+            movements += other.movements;
+            discrepancyCount += other.discrepancyCount;
+            for (Discrepancy discrepancy : other.discrepancies) {
+                if (discrepancies.size() >= maxRecorded) {
+                    break;
+                }
+                discrepancies.add(discrepancy);
+            }
+            return this;
+        }
+    }
+
+    /*
+     * Rango de IDs [fromId, toId): se divide en dos mientras supere range-size.
+     */
+    private final class RangeTask extends RecursiveTask<Totals> {
+        private final long fromId;
+        private final long toId;
+
+        private RangeTask(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (toId - fromId <= rangeSize) {
+                return reconcileRange(fromId, toId);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, middle);
+            left.fork();
+            Totals right = new RangeTask(middle, toId).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private Totals reconcileRange(long fromId, long toId) {
+        Totals totals = new Totals();
+        if (fromId >= toId) {
+            return totals;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(RANGE_QUERY, rs -> {
+            long movementCount = rs.getLong(5);
+            totals.accounts++;
+            totals.movements += movementCount;
+            if (rs.getBigDecimal(3).compareTo(rs.getBigDecimal(4)) != 0) {
+                totals.discrepancyCount++;
+                if (totals.discrepancies.size() < maxRecorded) {
+                    totals.discrepancies.add(new Discrepancy(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3),
+                            rs.getBigDecimal(4), movementCount));
+                }
+            }
+        }, fromId, toId, fromId, toId));
+        return totals;
+    }
+
+    /*
+     * Guarda la ejecucion y sus diferencias, dentro de la transaccion de escritura del llamador (en la primaria).
+     */
+    private Long record(LocalDateTime startedAt, Totals totals, long elapsedMillis, long perMillion) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO reconciliation_runs (started_at, finished_at, "
+                    + "accounts, movements, discrepancies, elapsed_ms, ms_per_million_movements) VALUES (?, NOW(6), ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setTimestamp(1, Timestamp.valueOf(startedAt));
+            statement.setLong(2, totals.accounts);
+            statement.setLong(3, totals.movements);
+            statement.setLong(4, totals.discrepancyCount);
+            statement.setLong(5, elapsedMillis);
+            statement.setLong(6, perMillion);
+            return statement;
+        }, keyHolder);
+        Long runId = keyHolder.getKey().longValue();
+        List<Object[]> rows = new ArrayList<>(totals.discrepancies.size());
+        for (Discrepancy discrepancy : totals.discrepancies) {
+            rows.add(new Object[] { runId, discrepancy.getAccountId(), discrepancy.getAccountNumber(), discrepancy.getBalance(),
+                    discrepancy.getMovementNet(), discrepancy.getMovementCount() });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reconciliation_discrepancies (run_id, account_id, account_number, balance, "
+                + "movement_net, movement_count) VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return runId;
+    }
+}
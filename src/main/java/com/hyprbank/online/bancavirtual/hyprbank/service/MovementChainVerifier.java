@@ -0,0 +1,241 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ChainVerificationResult;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ChainVerificationResult.ChainBreak;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import javax.sql.DataSource;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Verifica la cadena de hashes de los movimientos (MovementHashChain) de forma incremental.
+ *
+ * - Por cada cuenta, movement_chain_checkpoints guarda hasta que posicion se verifico y el hash en ese punto.
+ *   La verificacion solo recorre las cuentas con movimientos nuevos y, en cada una, solo los movimientos
+ *   posteriores al punto verificado, recalculando los hashes desde el hash guardado.
+ * - Las cuentas se leen por paginas de page-size y cada pagina se verifica en paralelo, una cuenta por tarea
+ *   (hyprbank.chain.parallelism hilos, cada uno con una conexion de solo lectura: la replica si existe).
+ * - Si una posicion no coincide, o falta, se guarda en broken_seq y la cuenta deja de verificarse hasta
+ *   una verificacion completa ({@code full}), que recorre todas las cadenas desde el primer movimiento.
+ *   La completa tambien detecta ediciones de movimientos ya verificados que no tocaron los hashes.
+ */
+@Component
+public class MovementChainVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovementChainVerifier.class);
+
+    private static final String JOB_NAME = "movement-chain-verifier";
+    private static final int SAMPLE_BREAKS = 20;
+
+    private static final String PENDING_QUERY = "SELECT a.id, a.chain_seq, COALESCE(c.verified_seq, 0), c.verified_hash "
+            + "FROM accounts a LEFT JOIN movement_chain_checkpoints c ON c.account_id = a.id "
+            + "WHERE a.id > ? AND a.chain_seq > COALESCE(c.verified_seq, 0) AND c.broken_seq IS NULL ORDER BY a.id LIMIT ?";
+    private static final String ALL_QUERY = "SELECT a.id, a.chain_seq, 0, NULL FROM accounts a "
+            + "WHERE a.id > ? AND a.chain_seq > 0 ORDER BY a.id LIMIT ?";
+    private static final String MOVEMENTS_QUERY = "SELECT chain_seq, chain_hash, date, type, amount, description, created_at "
+            + "FROM movements WHERE account_id = ? AND chain_seq > ? AND chain_seq <= ? ORDER BY chain_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ClusterJobRunner clusterJobRunner;
+    private final Timer verifyTimer;
+    private final Counter brokenCounter;
+    private final int parallelism;
+    private final int pageSize;
+
+    public MovementChainVerifier(JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ClusterJobRunner clusterJobRunner,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${hyprbank.chain.parallelism:4}") int parallelism,
+                                 @Value("${hyprbank.chain.page-size:1000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE: el driver de MySQL entrega las filas una a una (cuentas con historial largo)
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clusterJobRunner = clusterJobRunner;
+        this.verifyTimer = Timer.builder("hyprbank.movements.chain.verify")
+                .description("Verificacion de la cadena de hashes de movimientos")
+                .register(meterRegistry);
+        this.brokenCounter = Counter.builder("hyprbank.movements.chain.broken")
+                .description("Cuentas con la cadena de hashes rota")
+                .register(meterRegistry);
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(cron = "${hyprbank.chain.verify-cron:0 30 * * * *}")
+    public void scheduledVerify() {
+        verify(false);
+    }
+
+    /**
+     * Verifica las cadenas, si este nodo obtiene el lease del trabajo.
+     *
+     * @param full true para recorrer todas las cadenas desde el primer movimiento (y volver a verificar las rotas).
+     * @return El resultado, o vacio si la verificacion la esta ejecutando otro nodo.
+     */
+    public Optional<ChainVerificationResult> verify(boolean full) {
+        ChainVerificationResult[] result = new ChainVerificationResult[1];
+        clusterJobRunner.runSingleton(JOB_NAME, lease -> result[0] = verify(full, lease));
+        return Optional.ofNullable(result[0]);
+    }
+
+    private record Pending(long accountId, long headSeq, long verifiedSeq, byte[] verifiedHash) {
+    }
+
+    /*
+     * Resultado de una cuenta: hasta donde coincide la cadena y, si se rompe, la primera posicion que no coincide.
+     */
+    private static final class Outcome {
+        private final long accountId;
+        private long verifiedSeq;
+        private byte[] verifiedHash;
+        private Long brokenSeq;
+        private long movements;
+
+        private Outcome(Pending pending) {
+            this.accountId = pending.accountId();
+            this.verifiedSeq = pending.verifiedSeq();
+            this.verifiedHash = pending.verifiedHash();
+        }
+    }
+
+    private ChainVerificationResult verify(boolean full, ClusterJobRunner.JobLease lease) {
+        long start = System.nanoTime();
+        long accounts = 0;
+        long movements = 0;
+        long broken = 0;
+        List<ChainBreak> sample = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            long afterId = 0;
+            while (!lease.isLost()) {
+                long fromId = afterId;
+                List<Pending> page = readOnlyTransaction.execute(status -> jdbcTemplate.query(full ? ALL_QUERY : PENDING_QUERY,
+                        (rs, rowNum) -> new Pending(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBytes(4)), fromId, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<Callable<Outcome>> tasks = new ArrayList<>(page.size());
+                for (Pending pending : page) {
+                    tasks.add(() -> verifyAccount(pending));
+                }
+                List<Outcome> outcomes = new ArrayList<>(page.size());
+                for (Future<Outcome> future : pool.invokeAll(tasks)) {
+                    outcomes.add(future.get());
+                }
+
+                List<Object[]> rows = new ArrayList<>(outcomes.size());
+                for (Outcome outcome : outcomes) {
+                    rows.add(new Object[] { outcome.accountId, outcome.verifiedSeq, outcome.verifiedHash, outcome.brokenSeq });
+                    movements += outcome.movements;
+                    if (outcome.brokenSeq != null) {
+                        broken++;
+                        logger.error("Cadena de movimientos rota en la cuenta {}: la posicion {} no coincide con su hash o falta.",
+                                outcome.accountId, outcome.brokenSeq);
+                        if (sample.size() < SAMPLE_BREAKS) {
+                            sample.add(new ChainBreak(outcome.accountId, outcome.brokenSeq));
+                        }
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    lease.checkHeld();
+                    jdbcTemplate.batchUpdate("INSERT INTO movement_chain_checkpoints (account_id, verified_seq, verified_hash, "
+                            + "broken_seq, updated_at) VALUES (?, ?, ?, ?, NOW(6)) ON DUPLICATE KEY UPDATE verified_seq = VALUES(verified_seq), "
+                            + "verified_hash = VALUES(verified_hash), broken_seq = VALUES(broken_seq), updated_at = VALUES(updated_at)", rows);
+                });
+                accounts += page.size();
+                afterId = page.get(page.size() - 1).accountId();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificacion de la cadena de movimientos interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al verificar la cadena de movimientos: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        verifyTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        brokenCounter.increment(broken);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        logger.info("Verificacion {} de la cadena de movimientos: {} cuentas, {} movimientos, {} cadenas rotas en {} ms.",
+                full ? "completa" : "incremental", accounts, movements, broken, elapsedMillis);
+        return new ChainVerificationResult(full, accounts, movements, broken, elapsedMillis, sample);
+    }
+
+    /*
+     * Recalcula los hashes de una cuenta desde su punto verificado hasta la posicion leida en accounts.
+     * Los movimientos y el ultimo eslabon se guardan en la misma transaccion, asi que cualquier lectura que
+     * vea la posicion N tambien ve los movimientos hasta N.
+     */
+    private Outcome verifyAccount(Pending pending) {
+        return readOnlyTransaction.execute(status -> {
+            Outcome outcome = new Outcome(pending);
+            streamingJdbcTemplate.query(MOVEMENTS_QUERY, rs -> {
+                if (outcome.brokenSeq != null) {
+                    return; // El resto de la cadena ya no se puede verificar; el streaming obliga a leer las filas
+                }
+                long seq = rs.getLong(1);
+                if (seq != outcome.verifiedSeq + 1) {
+                    outcome.brokenSeq = outcome.verifiedSeq + 1; // Movimiento borrado
+                    return;
+                }
+                Timestamp createdAt = rs.getTimestamp(7);
+                byte[] expected = MovementHashChain.hash(outcome.verifiedHash, pending.accountId(), seq, rs.getDate(3).toLocalDate(),
+                        MovementType.valueOf(rs.getString(4)), rs.getBigDecimal(5), rs.getString(6),
+                        createdAt == null ? null : createdAt.toLocalDateTime());
+                if (!MessageDigest.isEqual(expected, rs.getBytes(2))) {
+                    outcome.brokenSeq = seq;
+                    return;
+                }
+                outcome.verifiedSeq = seq;
+                outcome.verifiedHash = expected;
+                outcome.movements++;
+            }, pending.accountId(), pending.verifiedSeq(), pending.headSeq());
+            if (outcome.brokenSeq == null && outcome.verifiedSeq < pending.headSeq()) {
+                outcome.brokenSeq = outcome.verifiedSeq + 1; // Faltan los ultimos movimientos
+            }
+            return outcome;
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementEvent;
+
+// Importaciones de Java Utilities
+import java.util.List;
+
+/*
+ * Suscriptor en proceso de los movimientos confirmados (outbox de movimientos).
+ *
+ * Cada bean que implementa esta interfaz recibe, en orden de eventId, todos los movimientos confirmados
+ * a partir de su posicion guardada en 'outbox_offsets'. La entrega es al menos una vez: si onEvents lanza una
+ * excepcion, o la aplicacion se detiene antes de guardar la posicion, el mismo lote se vuelve a entregar.
+ * Un evento cuya transaccion confirma despues de que el relay paso su ID llega mas tarde, en un lote aparte.
+ * El relay corre en un solo nodo a la vez: los suscriptores de los demas nodos no reciben eventos.
+ */
+public interface MovementEventSubscriber {
+
+    /**
+     * @return Nombre unico y estable del suscriptor (clave de su posicion en 'outbox_offsets', maximo 64 caracteres).
+     */
+    String getName();
+
+    /**
+     * Procesa un lote de eventos. Se llama siempre desde el hilo del relay.
+     *
+     * @param events Eventos en orden ascendente de eventId.
+     */
+    void onEvents(List<MovementEvent> events);
+
+    /**
+     * @return {@code true} si, la primera vez que se registra, debe recibir los eventos que aun conserva el outbox;
+     * {@code false} para empezar desde el ultimo evento existente.
+     */
+    default boolean startFromBeginning() {
+        return false;
+    }
+}
@@ -0,0 +1,237 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Importaciones de Java Utilities
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cadena de hashes de los movimientos de cada cuenta, para detectar ediciones del historial.
+ *
+ * Cada movimiento nuevo recibe la siguiente posicion (chain_seq) de la cadena de su cuenta y
+ * chain_hash = SHA-256(hash del movimiento anterior de la cuenta + contenido del movimiento). El ultimo
+ * eslabon de cada cuenta esta en accounts.chain_seq/chain_hash y se lee con FOR UPDATE en la transaccion
+ * del movimiento: dos movimientos de la misma cuenta se encadenan uno despues del otro, nunca en paralelo.
+ *
+ * {@link #link} debe llamarse dentro de la transaccion que guarda los movimientos, ANTES de guardarlos
+ * (las columnas no se actualizan despues del INSERT). Los movimientos de cuentas repartidas (ShardedBalances)
+ * se guardan sin encadenar ({@link #defer}) y la compactacion los encadena despues ({@link #linkPending}).
+ *
+ * Costo por operacion (no por movimiento): dos viajes a la base de datos, el SELECT ... FOR UPDATE de los
+ * ultimos eslabones de todas sus cuentas y un UPDATE en lote de accounts. El hash (SHA-256) es lo de menos.
+ * Lo que pesa es el bloqueo: la fila de la cuenta queda bloqueada desde el encadenamiento hasta el commit,
+ * asi que los movimientos de una misma cuenta se registran de a uno. Es la misma fila que bloquea la
+ * actualizacion del saldo, por lo que el encadenamiento solo adelanta ese bloqueo; las cuentas con muchos
+ * creditos concurrentes deben usar saldo repartido. Metricas: hyprbank.movements.chain.hash (por movimiento)
+ * y hyprbank.movements.chain.link (por llamada, incluye la espera del bloqueo); MovementHashChainBenchmarkTests
+ * las compara con el deposito completo.
+ */
+@Service
+public class MovementHashChain {
+
+    static final int HASH_LENGTH = 32;
+    static final byte[] GENESIS = new byte[HASH_LENGTH]; // "Hash anterior" del primer movimiento de cada cuenta
+
+    // MessageDigest no es thread-safe y crearlo en cada movimiento cuesta mas que el propio hash
+    private static final ThreadLocal<Hasher> HASHERS = ThreadLocal.withInitial(Hasher::new);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer hashTimer;
+    private final Timer linkTimer;
+
+    public MovementHashChain(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hashTimer = Timer.builder("hyprbank.movements.chain.hash")
+                .description("Calculo del hash de encadenamiento, por movimiento")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.linkTimer = Timer.builder("hyprbank.movements.chain.link")
+                .description("Encadenamiento de movimientos incluyendo el bloqueo y la actualizacion del ultimo eslabon")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Asigna posicion y hash a un movimiento nuevo (aun sin guardar).
+     */
+    public void link(Movement movement) {
+        link(Collections.singletonList(movement));
+    }
+
+    /**
+     * Asigna posicion y hash a movimientos nuevos (aun sin guardar), en el orden de la lista. Las cuentas se
+     * bloquean en orden de ID para que dos llamadas con las mismas cuentas no se bloqueen mutuamente.
+     */
+    public void link(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (Movement movement : movements) {
+            accountIds.add(movement.getAccount().getId());
+        }
+        Map<Long, Head> heads = new HashMap<>();
+        jdbcTemplate.query("SELECT id, chain_seq, chain_hash FROM accounts WHERE id IN ("
+                + String.join(", ", Collections.nCopies(accountIds.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                    heads.put(rs.getLong(1), new Head(rs.getLong(2), rs.getBytes(3)));
+                }, accountIds.toArray());
+
+        long hashStart = System.nanoTime();
+        Hasher hasher = HASHERS.get();
+        for (Movement movement : movements) {
+            Long accountId = movement.getAccount().getId();
+            Head head = heads.get(accountId);
+            if (head == null) {
+                throw new IllegalArgumentException("Cuenta no encontrada para encadenar el movimiento: " + accountId);
+            }
+            // DECIMAL(19, 2) y DATETIME(6): el valor hasheado debe ser el mismo que se guarda y se lee despues
+            movement.setAmount(movement.getAmount().setScale(2, RoundingMode.HALF_UP));
+            if (movement.getCreatedAt() != null) {
+                movement.setCreatedAt(movement.getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+            }
+            head.seq++;
+            head.hash = hasher.hash(head.hash, accountId, head.seq, movement.getDate(), movement.getType(),
+                    movement.getAmount(), movement.getDescription(), movement.getCreatedAt());
+            movement.setChainSeq(head.seq);
+            movement.setChainHash(head.hash);
+        }
+        hashTimer.record((System.nanoTime() - hashStart) / movements.size(), TimeUnit.NANOSECONDS);
+
+        List<Object[]> updates = new ArrayList<>(heads.size());
+        heads.forEach((accountId, head) -> updates.add(new Object[] { head.seq, head.hash, accountId }));
+        jdbcTemplate.batchUpdate("UPDATE accounts SET chain_seq = ?, chain_hash = ? WHERE id = ?", updates);
+        linkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Deja un movimiento ya guardado para encadenarlo despues con {@link #linkPending} (cuentas repartidas, ver
+     * ShardedBalances: encadenarlo ahora bloquearia la fila de la cuenta). Dentro de la transaccion del movimiento.
+     */
+    public void defer(Movement saved) {
+        jdbcTemplate.update("INSERT INTO movement_chain_pending (account_id, movement_id) VALUES (?, ?)",
+                saved.getAccount().getId(), saved.getId());
+    }
+
+    /**
+     * Encadena, en orden de ID, hasta 'limit' movimientos pendientes de una cuenta. Bloquea la fila de la cuenta;
+     * debe llamarse dentro de una transaccion.
+     *
+     * @return Cantidad de movimientos encadenados.
+     */
+    public int linkPending(long accountId, int limit) {
+        Head head = jdbcTemplate.queryForObject("SELECT chain_seq, chain_hash FROM accounts WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> new Head(rs.getLong(1), rs.getBytes(2)), accountId);
+        // Lectura sin bloqueo: solo esta compactacion (serializada por el bloqueo de la cuenta) borra pendientes
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> done = new ArrayList<>();
+        Hasher hasher = HASHERS.get();
+        jdbcTemplate.query("SELECT m.id, m.date, m.type, m.amount, m.description, m.created_at FROM movement_chain_pending p "
+                + "JOIN movements m ON m.id = p.movement_id WHERE p.account_id = ? ORDER BY p.movement_id LIMIT ?", rs -> {
+                    Timestamp createdAt = rs.getTimestamp(6);
+                    head.seq++;
+                    head.hash = hasher.hash(head.hash, accountId, head.seq, rs.getDate(2).toLocalDate(),
+                            MovementType.valueOf(rs.getString(3)), rs.getBigDecimal(4), rs.getString(5),
+                            createdAt == null ? null : createdAt.toLocalDateTime());
+                    updates.add(new Object[] { head.seq, head.hash, rs.getLong(1) });
+                    done.add(new Object[] { accountId, rs.getLong(1) });
+                }, accountId, limit);
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE movements SET chain_seq = ?, chain_hash = ? WHERE id = ?", updates);
+        jdbcTemplate.batchUpdate("DELETE FROM movement_chain_pending WHERE account_id = ? AND movement_id = ?", done);
+        jdbcTemplate.update("UPDATE accounts SET chain_seq = ?, chain_hash = ? WHERE id = ?", head.seq, head.hash, accountId);
+        return updates.size();
+    }
+
+    private static final class Head {
+        private long seq;
+        private byte[] hash;
+
+        private Head(long seq, byte[] hash) {
+            this.seq = seq;
+            this.hash = hash;
+        }
+    }
+
+    /*
+     * Calcula el hash de un eslabon. Lo usan el encadenamiento y MovementChainVerifier, siempre con el
+     * Hasher del hilo actual.
+     */
+    static byte[] hash(byte[] previous, long accountId, long seq, LocalDate date, MovementType type, BigDecimal amount,
+                       String description, LocalDateTime createdAt) {
+        return HASHERS.get().hash(previous, accountId, seq, date, type, amount, description, createdAt);
+    }
+
+    /*
+     * SHA-256 sobre una codificacion fija de los campos: hash anterior, cuenta, posicion, fecha (dia epoch),
+     * tipo, monto en centavos, descripcion UTF-8 y hora de registro en microsegundos. Los campos de largo
+     * variable llevan su largo delante, para que no se puedan mover bytes de un campo a otro.
+     */
+    static final class Hasher {
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(2048);
+
+        Hasher() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 no esta disponible en esta JVM.", e);
+            }
+        }
+
+        byte[] hash(byte[] previous, long accountId, long seq, LocalDate date, MovementType type, BigDecimal amount,
+                    String description, LocalDateTime createdAt) {
+            buffer.clear();
+            buffer.put(previous == null ? GENESIS : previous);
+            buffer.putLong(accountId);
+            buffer.putLong(seq);
+            buffer.putLong(date.toEpochDay());
+            buffer.put((byte) type.name().charAt(0)); // I/E
+            putBytes(amount.setScale(2).unscaledValue().toByteArray());
+            putBytes(description == null ? null : description.getBytes(StandardCharsets.UTF_8));
+            buffer.putLong(createdAt == null ? Long.MIN_VALUE
+                    : createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + createdAt.getNano() / 1_000);
+            digest.update(buffer.array(), 0, buffer.position());
+            return digest.digest();
+        }
+
+        private void putBytes(byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs y Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementEvent;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.util.List;
+
+/*
+ * Suscriptor del outbox que agrega los movimientos confirmados en metricas para los tableros:
+ * hyprbank.movements.committed (cantidad) y hyprbank.movements.amount (monto), con tag 'type' (INCOME/EXPENSE).
+ * Ignora los eventos repetidos (entrega al menos una vez) comparando el eventId con el ultimo procesado.
+ */
+@Component
+public class MovementMetricsSubscriber implements MovementEventSubscriber {
+
+    private final Counter incomeCount;
+    private final Counter expenseCount;
+    private final Counter incomeAmount;
+    private final Counter expenseAmount;
+    private long lastEventId;
+
+    public MovementMetricsSubscriber(MeterRegistry meterRegistry) {
+        this.incomeCount = Counter.builder("hyprbank.movements.committed").tag("type", "INCOME").register(meterRegistry);
+        this.expenseCount = Counter.builder("hyprbank.movements.committed").tag("type", "EXPENSE").register(meterRegistry);
+        this.incomeAmount = Counter.builder("hyprbank.movements.amount").tag("type", "INCOME").register(meterRegistry);
+        this.expenseAmount = Counter.builder("hyprbank.movements.amount").tag("type", "EXPENSE").register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "movement-metrics";
+    }
+
+    @Override
+    public void onEvents(List<MovementEvent> events) {
+        for (MovementEvent event : events) {
+            if (event.getEventId() <= lastEventId) {
+                continue;
+            }
+            lastEventId = event.getEventId();
+            boolean income = event.getType() == MovementType.INCOME;
+            (income ? incomeCount : expenseCount).increment();
+            (income ? incomeAmount : expenseAmount).increment(event.getAmount().doubleValue());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.MovementOutboxEvent;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementOutboxRepository;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.time.LocalDateTime;
+
+/*
+ * Escribe el registro de outbox de cada movimiento, en la transaccion que guarda el movimiento.
+ * Al confirmar la transaccion despierta al relay para que publique sin esperar al siguiente sondeo.
+ */
+@Component
+public class MovementOutbox {
+
+    // Recurso de TransactionSynchronizationManager: un solo aviso al relay por transaccion
+    private static final Object WAKE_UP_MARKER = new Object();
+
+    private final MovementOutboxRepository movementOutboxRepository;
+    private final MovementOutboxRelay movementOutboxRelay;
+
+    @Autowired
+    public MovementOutbox(MovementOutboxRepository movementOutboxRepository, MovementOutboxRelay movementOutboxRelay) {
+        this.movementOutboxRepository = movementOutboxRepository;
+        this.movementOutboxRelay = movementOutboxRelay;
+    }
+
+    /**
+     * Agrega el evento del movimiento al outbox. Debe llamarse dentro de la transaccion que guarda el movimiento.
+     *
+     * @param movement Movimiento ya guardado (con ID).
+     */
+    public void append(Movement movement) {
+        append(movement, movement.getAccount().getUser() != null ? movement.getAccount().getUser().getId() : null);
+    }
+
+    /**
+     * Igual que {@link #append(Movement)}, con el titular ya conocido: no inicializa la cuenta del movimiento
+     * (los procesos por lotes usan referencias sin cargar y leen el titular en su propia consulta).
+     *
+     * @param movement Movimiento ya guardado (con ID).
+     * @param userId ID del titular de la cuenta.
+     */
+    public void append(Movement movement, Long userId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("El outbox de movimientos solo se escribe dentro de una transaccion.");
+        }
+        movementOutboxRepository.save(MovementOutboxEvent.builder()
+                .movementId(movement.getId())
+                .accountId(movement.getAccount().getId())
+                .userId(userId)
+                .type(movement.getType())
+                .amount(movement.getAmount())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        if (!TransactionSynchronizationManager.hasResource(WAKE_UP_MARKER)) {
+            TransactionSynchronizationManager.bindResource(WAKE_UP_MARKER, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    movementOutboxRelay.wakeUp();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WAKE_UP_MARKER);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de DTOs y Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementEvent;
+import com.hyprbank.online.bancavirtual.hyprbank.model.MovementOutboxEvent;
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboxOffset;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementOutboxRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.OutboxOffsetRepository;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Publica los eventos del outbox de movimientos ('movement_outbox') a los suscriptores en proceso
+ * ({@link MovementEventSubscriber}), en orden de ID, por lotes y con una posicion por suscriptor.
+ *
+ * Funcionamiento (un solo hilo, en un solo nodo a la vez):
+ * 1. Lee los siguientes eventos despues del "horizonte" (ultimo ID publicable) por rango de clave primaria.
+ * 2. Avanza el horizonte solo sobre IDs consecutivos. Un hueco puede ser una transaccion que tomo su ID
+ *    pero aun no confirma; se espera hasta hyprbank.outbox.gap-grace-ms y luego el horizonte lo pasa, pero el
+ *    rango queda en 'outbox_gaps'.
+ * 3. Entrega a cada suscriptor los eventos entre su posicion y el horizonte. Los suscriptores al dia reciben
+ *    el lote recien leido sin otra consulta; los atrasados leen su propio rango. La posicion se guarda despues
+ *    de entregar (al menos una vez). Si un suscriptor falla, se reintenta con espera exponencial sin
+ *    detener a los demas.
+ * 4. Cada segundo vuelve a consultar los huecos pendientes. Los IDs salen de bloques por nodo y las
+ *    transacciones no confirman en orden de ID, asi que un evento puede aparecer despues de que el horizonte
+ *    paso su ID: se entrega entonces, en un lote aparte, a los suscriptores que ya pasaron ese ID. Un hueco
+ *    se deja de revisar cuando ya no le quedan IDs o despues de hyprbank.outbox.gap-rescan-minutes (IDs de
+ *    transacciones revertidas o de bloques que no se usaron).
+ * 5. Cada minuto borra los eventos ya entregados a todos, mas antiguos que hyprbank.outbox.retention-hours y
+ *    anteriores al primer hueco pendiente.
+ *
+ * Las posiciones de los suscriptores son globales, asi que el relay corre con el lease "movement-outbox-relay"
+ * de {@link ClusterJobRunner#runSingleton}: los demas nodos esperan y lo toman si el dueño se detiene o pierde
+ * el lease. Al tomarlo, el nodo vuelve a leer las posiciones y los huecos de la base de datos, y cada posicion
+ * o hueco se guarda con {@link ClusterJobRunner.JobLease#checkHeld()} en la misma transaccion.
+ *
+ * Se despierta al confirmar una transaccion con movimientos (MovementOutbox) y, si no, sondea cada
+ * hyprbank.outbox.poll-ms.
+ *
+ * Metricas: hyprbank.outbox.delivered, hyprbank.outbox.failures y hyprbank.outbox.lag (tag 'subscriber'),
+ * hyprbank.outbox.gaps.skipped, hyprbank.outbox.gaps.late y hyprbank.outbox.gaps.expired.
+ */
+@Component
+public class MovementOutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovementOutboxRelay.class);
+
+    private static final String JOB_NAME = "movement-outbox-relay";
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration RESCAN_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration STANDBY_INTERVAL = Duration.ofSeconds(1);
+    private static final int CLEANUP_BATCH = 5_000;
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final MovementOutboxRepository movementOutboxRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final ObjectProvider<MovementEventSubscriber> subscriberProvider;
+    private final ClusterJobRunner clusterJobRunner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long pollMillis;
+    private final Duration retention;
+    private final Duration gapRescan;
+    private final GapTracker gapTracker;
+    private final Counter gapsSkipped;
+    private final Counter gapsLate;
+    private final Counter gapsExpired;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final List<SubscriberState> subscribers = new ArrayList<>();
+    private volatile boolean running;
+    private Thread relayThread;
+
+    // Solo los modifica el hilo del relay (horizon es volatile porque lo leen las metricas)
+    private volatile long horizon;
+    private final NavigableMap<Long, OpenGap> openGaps = new TreeMap<>();
+    private long lastCleanupNanos = System.nanoTime();
+    private long lastRescanNanos = System.nanoTime();
+
+    public MovementOutboxRelay(MovementOutboxRepository movementOutboxRepository,
+                               OutboxOffsetRepository outboxOffsetRepository,
+                               ObjectProvider<MovementEventSubscriber> subscriberProvider,
+                               ClusterJobRunner clusterJobRunner,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${hyprbank.outbox.batch-size:500}") int batchSize,
+                               @Value("${hyprbank.outbox.poll-ms:250}") long pollMillis,
+                               @Value("${hyprbank.outbox.gap-grace-ms:5000}") long gapGraceMillis,
+                               @Value("${hyprbank.outbox.gap-rescan-minutes:60}") long gapRescanMinutes,
+                               @Value("${hyprbank.outbox.retention-hours:24}") long retentionHours) {
+        this.movementOutboxRepository = movementOutboxRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.subscriberProvider = subscriberProvider;
+        this.clusterJobRunner = clusterJobRunner;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.retention = Duration.ofHours(retentionHours);
+        this.gapRescan = Duration.ofMinutes(gapRescanMinutes);
+        this.gapTracker = new GapTracker(Duration.ofMillis(gapGraceMillis).toNanos());
+        this.gapsSkipped = Counter.builder("hyprbank.outbox.gaps.skipped")
+                .description("IDs del outbox que el horizonte paso sin evento tras el periodo de gracia")
+                .register(meterRegistry);
+        this.gapsLate = Counter.builder("hyprbank.outbox.gaps.late")
+                .description("Eventos del outbox que aparecieron en un hueco ya pasado y se entregaron tarde")
+                .register(meterRegistry);
+        this.gapsExpired = Counter.builder("hyprbank.outbox.gaps.expired")
+                .description("IDs de huecos del outbox que se dejaron de revisar sin que apareciera su evento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pide al relay que revise el outbox ahora (se llama al confirmar una transaccion con movimientos).
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        for (MovementEventSubscriber subscriber : subscriberProvider.orderedStream().toList()) {
+            subscribers.add(new SubscriberState(subscriber, meterRegistry));
+        }
+        Gauge.builder("hyprbank.outbox.horizon", this, relay -> relay.horizon)
+                .description("Ultimo ID del outbox publicable (sin huecos pendientes)")
+                .register(meterRegistry);
+
+        running = true;
+        relayThread = Thread.ofVirtual().name("movement-outbox-relay").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+        if (relayThread != null) {
+            try {
+                relayThread.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /*
+     * Intenta tomar el lease del relay; si lo tiene otro nodo (o hubo un error), vuelve a intentar mas tarde.
+     */
+    private void run() {
+        while (running) {
+            try {
+                clusterJobRunner.runSingleton(JOB_NAME, this::relayWhileHeld);
+            } catch (RuntimeException e) {
+                logger.error("Error en el relay del outbox de movimientos: {}", e.getMessage(), e);
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(Math.max(STANDBY_INTERVAL.toMillis(), pollMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /*
+     * Publica mientras este nodo tenga el lease. Un error termina el ciclo y libera el lease: al volver a
+     * tomarlo, el estado se lee otra vez de la base de datos.
+     */
+    private void relayWhileHeld(ClusterJobRunner.JobLease lease) {
+        resume(lease);
+        logger.info("Relay del outbox de movimientos iniciado en este nodo desde el evento {} con {} suscriptores y {} huecos pendientes.",
+                horizon, subscribers.size(), openGaps.size());
+        while (running && !lease.isLost()) {
+            int delivered = relayOnce(lease);
+            if (!openGaps.isEmpty() && System.nanoTime() - lastRescanNanos > RESCAN_INTERVAL.toNanos()) {
+                lastRescanNanos = System.nanoTime();
+                rescanGaps(lease);
+            }
+            if (System.nanoTime() - lastCleanupNanos > CLEANUP_INTERVAL.toNanos()) {
+                lastCleanupNanos = System.nanoTime();
+                cleanUp();
+            }
+            if (delivered < batchSize) {
+                // Nada pendiente (o menos de un lote): esperar un aviso o el siguiente sondeo
+                try {
+                    wakeUps.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                    return;
+                }
+                wakeUps.drainPermits();
+            }
+        }
+        if (lease.isLost()) {
+            logger.warn("El relay del outbox de movimientos perdio su lease; otro nodo continua desde las posiciones guardadas.");
+        }
+    }
+
+    /*
+     * Lee de la base de datos la posicion de cada suscriptor (creandola si es nuevo) y los huecos pendientes.
+     */
+    private void resume(ClusterJobRunner.JobLease lease) {
+        long maxId = movementOutboxRepository.findMaxId();
+        long minOffset = maxId;
+        for (SubscriberState state : subscribers) {
+            OutboxOffset offset = outboxOffsetRepository.findById(state.name)
+                    .orElseGet(() -> transactionTemplate.execute(status -> {
+                        lease.checkHeld();
+                        return outboxOffsetRepository.save(new OutboxOffset(state.name,
+                                state.subscriber.startFromBeginning() ? 0L : maxId, LocalDateTime.now()));
+                    }));
+            state.offset = offset.getLastEventId();
+            state.retryAtNanos = 0;
+            state.retryDelay = Duration.ZERO;
+            minOffset = Math.min(minOffset, state.offset);
+        }
+        horizon = minOffset;
+        gapTracker.reset();
+        openGaps.clear();
+        jdbcTemplate.query("SELECT from_id, to_id, first_seen_at FROM outbox_gaps", row -> {
+            OpenGap gap = new OpenGap(new GapTracker.Gap(row.getLong(1), row.getLong(2)),
+                    row.getTimestamp(3).toLocalDateTime());
+            openGaps.put(gap.gap().fromId(), gap);
+        });
+    }
+
+    /*
+     * Un ciclo: avanza el horizonte y entrega a cada suscriptor. Devuelve el mayor lote entregado.
+     */
+    int relayOnce(ClusterJobRunner.JobLease lease) {
+        long previousHorizon = horizon;
+        List<MovementOutboxEvent> fresh = movementOutboxRepository.findByIdGreaterThanOrderByIdAsc(horizon, Limit.of(batchSize));
+        long[] ids = fresh.stream().mapToLong(MovementOutboxEvent::getId).toArray();
+        GapTracker.Advance advance = gapTracker.advance(horizon, ids, System.nanoTime());
+        if (!advance.skipped().isEmpty()) {
+            recordGaps(lease, advance.skipped());
+        }
+        List<MovementEvent> ready = fresh.subList(0, advance.count()).stream().map(MovementOutboxRelay::toEvent).toList();
+        if (!ready.isEmpty()) {
+            horizon = ready.get(ready.size() - 1).getEventId();
+        }
+
+        int largestBatch = 0;
+        long now = System.nanoTime();
+        for (SubscriberState subscriber : subscribers) {
+            if (subscriber.offset >= horizon || now < subscriber.retryAtNanos) {
+                continue;
+            }
+            List<MovementEvent> batch = subscriber.offset == previousHorizon ? ready
+                    : movementOutboxRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                            subscriber.offset, horizon, Limit.of(batchSize)).stream().map(MovementOutboxRelay::toEvent).toList();
+            if (deliver(lease, subscriber, batch)) {
+                largestBatch = Math.max(largestBatch, batch.size());
+            }
+        }
+        return largestBatch;
+    }
+
+    private boolean deliver(ClusterJobRunner.JobLease lease, SubscriberState subscriber, List<MovementEvent> events) {
+        if (events.isEmpty()) {
+            return false;
+        }
+        try {
+            subscriber.subscriber.onEvents(Collections.unmodifiableList(events));
+        } catch (RuntimeException e) {
+            recordFailure(subscriber, events, e);
+            return false;
+        }
+        long last = events.get(events.size() - 1).getEventId();
+        transactionTemplate.executeWithoutResult(status -> {
+            lease.checkHeld();
+            outboxOffsetRepository.advance(subscriber.name, last, LocalDateTime.now());
+        });
+        subscriber.offset = last;
+        subscriber.retryDelay = Duration.ZERO;
+        subscriber.delivered.increment(events.size());
+        return true;
+    }
+
+    private void recordFailure(SubscriberState subscriber, List<MovementEvent> events, RuntimeException e) {
+        subscriber.failures.increment();
+        subscriber.retryDelay = subscriber.retryDelay.isZero() ? Duration.ofMillis(Math.max(pollMillis, 100))
+                : min(subscriber.retryDelay.multipliedBy(2), MAX_RETRY_DELAY);
+        subscriber.retryAtNanos = System.nanoTime() + subscriber.retryDelay.toNanos();
+        logger.warn("El suscriptor '{}' fallo con los eventos {}..{}; se reintenta en {} ms: {}",
+                subscriber.name, events.get(0).getEventId(), events.get(events.size() - 1).getEventId(),
+                subscriber.retryDelay.toMillis(), e.getMessage());
+    }
+
+    /*
+     * Guarda los huecos que el horizonte acaba de pasar, antes de que alguna posicion los pase.
+     */
+    private void recordGaps(ClusterJobRunner.JobLease lease, List<GapTracker.Gap> gaps) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            lease.checkHeld();
+            for (GapTracker.Gap gap : gaps) {
+                jdbcTemplate.update("INSERT IGNORE INTO outbox_gaps (from_id, to_id, first_seen_at) VALUES (?, ?, ?)",
+                        gap.fromId(), gap.toId(), Timestamp.valueOf(now));
+            }
+        });
+        long skipped = 0;
+        for (GapTracker.Gap gap : gaps) {
+            openGaps.putIfAbsent(gap.fromId(), new OpenGap(gap, now));
+            skipped += gap.size();
+        }
+        gapsSkipped.increment(skipped);
+        logger.warn("Outbox: {} IDs sin evento despues de {}; se siguen revisando por si su transaccion confirma tarde.",
+                skipped, gaps.get(0).fromId() - 1);
+    }
+
+    /*
+     * Vuelve a consultar cada hueco pendiente: entrega los eventos que aparecieron y quita los huecos vencidos.
+     * Si un suscriptor falla, el hueco se conserva y se vuelve a entregar completo (al menos una vez).
+     */
+    private void rescanGaps(ClusterJobRunner.JobLease lease) {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(gapRescan);
+        for (OpenGap open : List.copyOf(openGaps.values())) {
+            GapTracker.Gap gap = open.gap();
+            if (open.firstSeenAt().isBefore(expiredBefore)) {
+                replaceGap(lease, open, List.of());
+                gapsExpired.increment(gap.size());
+                logger.warn("Outbox: los IDs {}..{} no tuvieron evento en {} minutos; se dan por vacios.",
+                        gap.fromId(), gap.toId(), gapRescan.toMinutes());
+                continue;
+            }
+            List<MovementEvent> late = movementOutboxRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                    gap.fromId() - 1, gap.toId(), Limit.of(batchSize)).stream().map(MovementOutboxRelay::toEvent).toList();
+            if (late.isEmpty() || !deliverLate(late)) {
+                continue;
+            }
+            replaceGap(lease, open, gap.without(late.stream().mapToLong(MovementEvent::getEventId).toArray()));
+            gapsLate.increment(late.size());
+            logger.info("Outbox: {} eventos del hueco {}..{} confirmaron tarde y se entregaron.",
+                    late.size(), gap.fromId(), gap.toId());
+        }
+    }
+
+    /*
+     * Entrega eventos tardios a los suscriptores cuya posicion ya los paso; los demas los leeran en su rango.
+     */
+    private boolean deliverLate(List<MovementEvent> late) {
+        long now = System.nanoTime();
+        for (SubscriberState subscriber : subscribers) {
+            List<MovementEvent> owed = late.stream().filter(event -> event.getEventId() <= subscriber.offset).toList();
+            if (owed.isEmpty()) {
+                continue;
+            }
+            if (now < subscriber.retryAtNanos) {
+                return false;
+            }
+            try {
+                subscriber.subscriber.onEvents(owed);
+            } catch (RuntimeException e) {
+                recordFailure(subscriber, owed, e);
+                return false;
+            }
+            subscriber.delivered.increment(owed.size());
+        }
+        return true;
+    }
+
+    /*
+     * Reemplaza un hueco por lo que queda de el (nada si vencio o ya aparecieron todos sus IDs).
+     */
+    private void replaceGap(ClusterJobRunner.JobLease lease, OpenGap open, List<GapTracker.Gap> remaining) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lease.checkHeld();
+            jdbcTemplate.update("DELETE FROM outbox_gaps WHERE from_id = ?", open.gap().fromId());
+            for (GapTracker.Gap gap : remaining) {
+                jdbcTemplate.update("INSERT INTO outbox_gaps (from_id, to_id, first_seen_at) VALUES (?, ?, ?)",
+                        gap.fromId(), gap.toId(), Timestamp.valueOf(open.firstSeenAt()));
+            }
+        });
+        openGaps.remove(open.gap().fromId());
+        for (GapTracker.Gap gap : remaining) {
+            openGaps.put(gap.fromId(), new OpenGap(gap, open.firstSeenAt()));
+        }
+    }
+
+    /*
+     * Borra por lotes los eventos que ya recibieron todos los suscriptores y que superan la retencion.
+     * No pasa del primer hueco pendiente: sus eventos tardios aun no se entregan.
+     */
+    private void cleanUp() {
+        long upTo = subscribers.stream().mapToLong(subscriber -> subscriber.offset).min().orElse(horizon);
+        if (!openGaps.isEmpty()) {
+            upTo = Math.min(upTo, openGaps.firstKey() - 1);
+        }
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = movementOutboxRepository.deleteDelivered(upTo, before, CLEANUP_BATCH);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH && running);
+        if (total > 0) {
+            logger.info("Outbox: {} eventos entregados borrados.", total);
+        }
+    }
+
+    private static MovementEvent toEvent(MovementOutboxEvent event) {
+        return new MovementEvent(event.getId(), event.getMovementId(), event.getAccountId(), event.getUserId(),
+                event.getType(), event.getAmount(), event.getCreatedAt());
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /*
+     * Hueco pendiente y cuando se vio por primera vez (para su vencimiento).
+     */
+    private record OpenGap(GapTracker.Gap gap, LocalDateTime firstSeenAt) {
+    }
+
+    /*
+     * Estado de entrega de un suscriptor (solo lo modifica el hilo del relay).
+     */
+    private final class SubscriberState {
+        private final MovementEventSubscriber subscriber;
+        private final String name;
+        private final Counter delivered;
+        private final Counter failures;
+        private volatile long offset;
+        private long retryAtNanos;
+        private Duration retryDelay = Duration.ZERO;
+
+        SubscriberState(MovementEventSubscriber subscriber, MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.name = subscriber.getName();
+            this.delivered = Counter.builder("hyprbank.outbox.delivered").tag("subscriber", name)
+                    .description("Eventos del outbox entregados").register(meterRegistry);
+            this.failures = Counter.builder("hyprbank.outbox.failures").tag("subscriber", name)
+                    .description("Lotes del outbox que el suscriptor no pudo procesar").register(meterRegistry);
+            Gauge.builder("hyprbank.outbox.lag", this, state -> Math.max(0, horizon - state.offset))
+                    .tag("subscriber", name)
+                    .description("IDs del outbox publicables que el suscriptor aun no recibe")
+                    .register(meterRegistry);
+        }
+    }
+
+    /*
+     * Decide cuantos de los IDs leidos despues del horizonte se pueden publicar ya.
+     * Los IDs deben ser consecutivos; ante un hueco espera el periodo de gracia (medido desde que lo vio
+     * por primera vez) y luego lo pasa, devolviendo el rango pasado para que se siga revisando.
+     */
+    static final class GapTracker {
+
+        /*
+         * Rango de IDs [fromId, toId] sin evento.
+         */
+        record Gap(long fromId, long toId) {
+
+            long size() {
+                return toId - fromId + 1;
+            }
+
+            /*
+             * Lo que queda del hueco sin los IDs que ya aparecieron ('ids' en orden ascendente, dentro del hueco).
+             */
+            List<Gap> without(long[] ids) {
+                List<Gap> remaining = new ArrayList<>();
+                long from = fromId;
+                for (long id : ids) {
+                    if (id > from) {
+                        remaining.add(new Gap(from, id - 1));
+                    }
+                    from = id + 1;
+                }
+                if (from <= toId) {
+                    remaining.add(new Gap(from, toId));
+                }
+                return remaining;
+            }
+        }
+
+        record Advance(int count, List<Gap> skipped) {
+
+            long skippedIds() {
+                return skipped.stream().mapToLong(Gap::size).sum();
+            }
+        }
+
+        private final long graceNanos;
+        private long waitingFor = -1; // Primer ID del hueco que se esta esperando
+        private long waitingSince;
+
+        GapTracker(long graceNanos) {
+            this.graceNanos = graceNanos;
+        }
+
+        Advance advance(long horizon, long[] ids, long nowNanos) {
+            long expected = horizon + 1;
+            int count = 0;
+            List<Gap> skipped = new ArrayList<>();
+            for (long id : ids) {
+                if (id != expected) {
+                    if (waitingFor != expected) {
+                        waitingFor = expected;
+                        waitingSince = nowNanos;
+                    }
+                    if (nowNanos - waitingSince < graceNanos) {
+                        break;
+                    }
+                    skipped.add(new Gap(expected, id - 1));
+                    waitingFor = -1;
+                }
+                count++;
+                expected = id + 1;
+            }
+            return new Advance(count, skipped);
+        }
+
+        /*
+         * Olvida el hueco que se estaba esperando (al retomar el relay desde las posiciones guardadas).
+         */
+        void reset() {
+            waitingFor = -1;
+        }
+    }
+}
@@ -14,16 +14,23 @@ import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
 // Importaciones de DTOs
 import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementDTO;
 
+// Importaciones de Micrometer (latencia por metodo, ver /actuator/hyprbank-perf)
+import io.micrometer.core.annotation.Timed;
+
 // Importaciones de Spring Framework
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.PageRequest; // Importar PageRequest
 import org.springframework.data.domain.Pageable; // Importar Pageable
 
 // Importaciones de Java Utilities
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.Comparator; // Para ordenar la lista final
 
@@ -36,21 +43,26 @@ import java.util.Comparator; // Para ordenar la lista final
  * La anotacion @Service indica que esta clase es un componente de servicio de Spring.
  */
 @Service
+@Timed(value = "hyprbank.service", percentiles = {0.5, 0.99, 0.999}) // Latencia de cada metodo publico (tags class/method)
+@Transactional(readOnly = true) // Solo consultas: se ejecutan en la replica (ver ReadWriteRoutingDataSource)
 public class MovementService {
 
     private final MovementRepository movementRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final ShardedBalances shardedBalances;
 
     /*
      * Constructor para la inyeccion de dependencias.
-     * Spring inyectara las instancias de MovementRepository, AccountRepository y UserRepository.
+     * Spring inyectara las instancias de MovementRepository, AccountRepository, UserRepository y ShardedBalances.
      */
     @Autowired
-    public MovementService(MovementRepository movementRepository, AccountRepository accountRepository, UserRepository userRepository) {
+    public MovementService(MovementRepository movementRepository, AccountRepository accountRepository, UserRepository userRepository,
+                           ShardedBalances shardedBalances) {
         this.movementRepository = movementRepository;
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.shardedBalances = shardedBalances;
     }
 
     /**
@@ -110,9 +122,15 @@ public class MovementService {
                 .limit(limit != null && limit > 0 ? limit : Long.MAX_VALUE) // Aplicar el límite final después de recopilar y ordenar
                 .collect(Collectors.toList());
 
+        // Saldo total de cada cuenta (con sus filas si esta repartido), una vez por cuenta y no por movimiento
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Account account : userAccounts) {
+            balances.put(account.getId(), shardedBalances.balanceOf(account));
+        }
+
         // Convertir las entidades Movement a objetos MovementDTO para la capa de presentacion.
         return movements.stream()
-                .map(this::convertToDto)
+                .map(movement -> convertToDto(movement, balances))
                 .collect(Collectors.toList());
     }
 
@@ -121,9 +139,10 @@ public class MovementService {
      * Este metodo se encarga de mapear los campos relevantes de la entidad al DTO.
      *
      * @param movement La entidad Movement a convertir.
+     * @param balances Saldo total de cada cuenta del usuario, por ID de cuenta.
      * @return El MovementDTO resultante con los datos mapeados.
      */
-    private MovementDTO convertToDto(Movement movement) {
+    private MovementDTO convertToDto(Movement movement, Map<Long, BigDecimal> balances) {
         MovementDTO dto = new MovementDTO();
         dto.setId(movement.getId());
         dto.setAccountId(movement.getAccount().getId());
@@ -132,8 +151,8 @@ public class MovementService {
         dto.setDescription(movement.getDescription());
         dto.setType(movement.getType());
         dto.setAmount(movement.getAmount());
-        // Asegúrate de que el DTO también tenga el balance si lo necesitas en el frontend
-        dto.setBalance(movement.getAccount().getBalance());
+        // Saldo actual de la cuenta, incluidas sus filas si el saldo esta repartido
+        dto.setBalance(balances.get(movement.getAccount().getId()));
         return dto;
     }
 }
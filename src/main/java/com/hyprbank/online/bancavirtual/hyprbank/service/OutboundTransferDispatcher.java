@@ -0,0 +1,361 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Envia al {@link InterbankGateway} las transferencias externas encoladas por processExternalTransfer,
+ * fuera de la peticion HTTP: la latencia del banco destino no afecta al cliente ni ocupa conexiones.
+ *
+ * Funcionamiento:
+ * - Un hilo virtual busca las transferencias PENDING vencidas y lanza un hilo virtual por cada una,
+ *   con hasta hyprbank.interbank.max-concurrent envios simultaneos (Semaphore).
+ * - Cada envio toma la transferencia (PENDING -> SENT), llama al banco sin transaccion abierta y registra
+ *   el resultado: SETTLED, REJECTED (con devolucion del monto) o, si el error es transitorio, PENDING con
+ *   espera exponencial con jitter (retry-base-ms, hasta retry-max-ms). Tras max-attempts envios sin respuesta
+ *   definitiva la transferencia pasa a UNKNOWN para revision manual, sin devolver el monto: un tiempo de
+ *   espera no dice si el banco destino la ejecuto. Solo un rechazo del banco devuelve el monto.
+ * - Un cortocircuito (CircuitBreaker) deja de enviar tras circuit.failure-threshold errores transitorios
+ *   seguidos y vuelve a probar con un solo envio despues de circuit.open-ms. Mientras esta abierto las
+ *   transferencias esperan en PENDING sin gastar intentos.
+ * - Las transferencias SENT sin respuesta despues de response-timeout-ms vuelven a PENDING (p. ej. si la
+ *   aplicacion se detuvo esperando al banco); el gateway es idempotente por ID.
+ *
+ * Se despierta al confirmar una transferencia (OutboundTransferService.enqueue) y, si no, sondea cada
+ * hyprbank.interbank.poll-ms. Supone una sola instancia de la aplicacion por base de datos.
+ * Con hyprbank.interbank.dispatch=clearing no se crea: las transferencias se envian por lotes (ClearingFileJob).
+ *
+ * Metricas: hyprbank.interbank.send (tag outcome=settled|rejected|failed), hyprbank.interbank.in-flight,
+ * hyprbank.interbank.circuit.state (0 cerrado, 1 semiabierto, 2 abierto).
+ */
+@Component
+@ConditionalOnProperty(name = "hyprbank.interbank.dispatch", havingValue = "gateway", matchIfMissing = true)
+public class OutboundTransferDispatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundTransferDispatcher.class);
+
+    private static final Duration REQUEUE_INTERVAL = Duration.ofSeconds(30);
+
+    private final OutboundTransferService outboundTransferService;
+    private final InterbankGateway interbankGateway;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrent;
+    private final int maxAttempts;
+    private final long pollMillis;
+    private final Duration retryBase;
+    private final Duration retryMax;
+    private final Duration responseTimeout;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore inFlight;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread pollerThread;
+    private long lastRequeueNanos;
+
+    public OutboundTransferDispatcher(OutboundTransferService outboundTransferService,
+                                      InterbankGateway interbankGateway,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${hyprbank.interbank.max-concurrent:32}") int maxConcurrent,
+                                      @Value("${hyprbank.interbank.max-attempts:8}") int maxAttempts,
+                                      @Value("${hyprbank.interbank.poll-ms:500}") long pollMillis,
+                                      @Value("${hyprbank.interbank.retry-base-ms:1000}") long retryBaseMillis,
+                                      @Value("${hyprbank.interbank.retry-max-ms:300000}") long retryMaxMillis,
+                                      @Value("${hyprbank.interbank.response-timeout-ms:120000}") long responseTimeoutMillis,
+                                      @Value("${hyprbank.interbank.circuit.failure-threshold:5}") int failureThreshold,
+                                      @Value("${hyprbank.interbank.circuit.open-ms:10000}") long openMillis) {
+        this.outboundTransferService = outboundTransferService;
+        this.interbankGateway = interbankGateway;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.maxAttempts = maxAttempts;
+        this.pollMillis = pollMillis;
+        this.retryBase = Duration.ofMillis(retryBaseMillis);
+        this.retryMax = Duration.ofMillis(retryMaxMillis);
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMillis);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMillis).toNanos(), System::nanoTime);
+        this.inFlight = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Pide al despachador que busque transferencias ahora (se llama al confirmar una transferencia encolada).
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        int requeued = outboundTransferService.requeueExpired();
+        if (requeued > 0) {
+            logger.warn("{} transferencias externas sin respuesta vuelven a la cola.", requeued);
+        }
+        lastRequeueNanos = System.nanoTime();
+        Gauge.builder("hyprbank.interbank.in-flight", inFlight, permits -> maxConcurrent - permits.availablePermits())
+                .description("Transferencias externas esperando respuesta del banco destino")
+                .register(meterRegistry);
+        Gauge.builder("hyprbank.interbank.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Cortocircuito hacia el banco destino: 0 cerrado, 1 semiabierto, 2 abierto")
+                .register(meterRegistry);
+
+        running = true;
+        pollerThread = Thread.ofVirtual().name("outbound-transfer-dispatcher").start(this::run);
+        logger.info("Despachador de transferencias externas iniciado ({} envios simultaneos, gateway {}).",
+                maxConcurrent, interbankGateway.getClass().getSimpleName());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+        if (pollerThread != null) {
+            try {
+                pollerThread.join(Duration.ofSeconds(10));
+                // Esperar los envios en curso; los que no terminen vuelven a PENDING al vencer su plazo
+                if (inFlight.tryAcquire(maxConcurrent, 10, TimeUnit.SECONDS)) {
+                    inFlight.release(maxConcurrent);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (System.nanoTime() - lastRequeueNanos > REQUEUE_INTERVAL.toNanos()) {
+                    lastRequeueNanos = System.nanoTime();
+                    int requeued = outboundTransferService.requeueExpired();
+                    if (requeued > 0) {
+                        logger.warn("{} transferencias externas sin respuesta vuelven a la cola.", requeued);
+                    }
+                }
+                boolean moreDue = dispatchDue();
+                if (!moreDue) {
+                    wakeUps.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error en el despachador de transferencias externas: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(Math.max(pollMillis, 1_000));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /*
+     * Lanza los envios de las transferencias vencidas. Devuelve true si conviene buscar de nuevo sin esperar
+     * (se leyo un lote completo y el cortocircuito sigue cerrado).
+     */
+    private boolean dispatchDue() throws InterruptedException {
+        if (!circuitBreaker.isCallPermitted()) {
+            return false;
+        }
+        List<Long> ids = outboundTransferService.findDueIds(maxConcurrent);
+        for (Long id : ids) {
+            inFlight.acquire();
+            // En semiabierto solo pasa un envio de prueba; el resto espera al siguiente ciclo
+            if (!running || !circuitBreaker.tryAcquirePermission()) {
+                inFlight.release();
+                return false;
+            }
+            Optional<OutboundTransfer> claimed = outboundTransferService.claim(id, responseTimeout);
+            if (claimed.isEmpty()) {
+                circuitBreaker.releasePermission();
+                inFlight.release();
+                continue;
+            }
+            Thread.ofVirtual().name("outbound-transfer-" + id).start(() -> {
+                try {
+                    send(claimed.get());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        return ids.size() == maxConcurrent && circuitBreaker.state() == CircuitBreaker.State.CLOSED;
+    }
+
+    /*
+     * Un envio: llama al banco destino y registra el resultado en una transaccion corta.
+     */
+    private void send(OutboundTransfer transfer) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            InterbankGateway.Result result = interbankGateway.send(transfer);
+            circuitBreaker.onSuccess();
+            if (result.settled()) {
+                outboundTransferService.settle(transfer.getId(), result.reference());
+                outcome = "settled";
+            } else {
+                outboundTransferService.reject(transfer.getId(), result.reason());
+                outcome = "rejected";
+            }
+        } catch (InterbankGateway.InterbankGatewayException e) {
+            circuitBreaker.onFailure();
+            outcome = "failed";
+            retryOrGiveUp(transfer, e.getMessage());
+        } catch (RuntimeException e) {
+            // Error inesperado (gateway o base de datos): se trata como transitorio
+            circuitBreaker.releasePermission();
+            outcome = "failed";
+            logger.error("Error al enviar la transferencia externa {}: {}", transfer.getId(), e.getMessage(), e);
+            try {
+                retryOrGiveUp(transfer, e.getMessage());
+            } catch (RuntimeException again) {
+                logger.error("No se pudo reprogramar la transferencia externa {}; se reintentara al vencer su plazo.",
+                        transfer.getId(), again);
+            }
+        }
+        Timer.builder("hyprbank.interbank.send")
+                .tag("outcome", outcome)
+                .description("Envios de transferencias externas al banco destino")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void retryOrGiveUp(OutboundTransfer transfer, String error) {
+        if (transfer.getAttempts() >= maxAttempts) {
+            outboundTransferService.markUnknown(transfer.getId(),
+                    "Sin respuesta del banco destino despues de " + transfer.getAttempts() + " intentos: " + error);
+            return;
+        }
+        Duration delay = backoff(transfer.getAttempts(), retryBase, retryMax, ThreadLocalRandom.current().nextDouble());
+        logger.info("Transferencia externa {}: intento {} fallido ({}); se reintenta en {} ms.",
+                transfer.getId(), transfer.getAttempts(), error, delay.toMillis());
+        outboundTransferService.retryLater(transfer.getId(), error, delay);
+    }
+
+    /*
+     * Espera exponencial con jitter: entre la mitad y el total de base * 2^(intentos - 1), sin pasar de max.
+     * El jitter evita que las transferencias que fallaron juntas se reintenten todas al mismo tiempo.
+     */
+    static Duration backoff(int attempts, Duration base, Duration max, double random) {
+        long exponential = base.toMillis() << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exponential, max.toMillis());
+        return Duration.ofMillis(capped / 2 + (long) (capped / 2.0 * random));
+    }
+
+    /*
+     * Cortocircuito de tres estados con contador de fallas consecutivas:
+     * CLOSED (se envia normalmente) -> OPEN tras 'failureThreshold' fallas -> HALF_OPEN al pasar 'openNanos',
+     * donde un solo envio de prueba decide si se cierra (exito) o se vuelve a abrir (falla).
+     */
+    static final class CircuitBreaker {
+
+        enum State { CLOSED, HALF_OPEN, OPEN }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final LongSupplier nanoTime;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        CircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoTime) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openNanos;
+            this.nanoTime = nanoTime;
+        }
+
+        synchronized State state() {
+            if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            return state;
+        }
+
+        /*
+         * Indica si hoy se podria enviar algo (sin reservar el envio de prueba).
+         */
+        synchronized boolean isCallPermitted() {
+            State current = state();
+            return current == State.CLOSED || (current == State.HALF_OPEN && !trialInFlight);
+        }
+
+        /*
+         * Reserva un envio. En semiabierto solo se concede uno hasta conocer su resultado.
+         */
+        synchronized boolean tryAcquirePermission() {
+            State current = state();
+            if (current == State.CLOSED) {
+                return true;
+            }
+            if (current == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return true;
+            }
+            return false;
+        }
+
+        /*
+         * Libera un envio reservado que no llego al banco destino (no cuenta como exito ni como falla).
+         */
+        synchronized void releasePermission() {
+            if (state == State.HALF_OPEN) {
+                trialInFlight = false;
+            }
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                logger.info("Cortocircuito hacia el banco destino cerrado.");
+            }
+            state = State.CLOSED;
+            trialInFlight = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = nanoTime.getAsLong();
+                trialInFlight = false;
+                logger.warn("Cortocircuito hacia el banco destino abierto tras {} fallas seguidas.", consecutiveFailures);
+            }
+        }
+    }
+}
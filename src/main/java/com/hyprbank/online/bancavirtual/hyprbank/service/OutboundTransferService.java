@@ -0,0 +1,312 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.OutboundTransferRepository;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ExternalTransferRequest;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Cambios de estado de la cola de transferencias a otros bancos, cada uno en su propia transaccion corta.
+ *
+ * PENDING -> SENT (claim) -> SETTLED (settle) | REJECTED (reject, devuelve el monto) | PENDING (retryLater)
+ *                          | UNKNOWN (markUnknown, sin devolucion) -> SETTLED | REJECTED (resolveUnknown).
+ * Las llamadas al banco destino no ocurren aqui: las hace OutboundTransferDispatcher entre claim y el
+ * resultado, sin transaccion ni conexion abiertas.
+ *
+ * El monto solo se devuelve ante un rechazo definitivo del banco destino. Si no hubo respuesta (tiempo de
+ * espera), el banco pudo haber ejecutado la transferencia: queda UNKNOWN hasta que un administrador confirme
+ * el resultado con el banco.
+ */
+@Service
+public class OutboundTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundTransferService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    // Recurso de TransactionSynchronizationManager: un solo aviso al despachador por transaccion
+    private static final Object WAKE_UP_MARKER = new Object();
+
+    private final OutboundTransferRepository outboundTransferRepository;
+    private final AccountRepository accountRepository;
+    private final MovementRepository movementRepository;
+    private final MovementOutbox movementOutbox;
+    private final AccountLookupCache accountLookupCache;
+    private final MovementHashChain movementHashChain;
+    private final ShardedBalances shardedBalances;
+    // El despachador depende de este servicio; se resuelve al usarlo para no crear un ciclo
+    private final ObjectProvider<OutboundTransferDispatcher> dispatcherProvider;
+
+    @Autowired
+    public OutboundTransferService(OutboundTransferRepository outboundTransferRepository, AccountRepository accountRepository,
+                                   MovementRepository movementRepository, MovementOutbox movementOutbox,
+                                   AccountLookupCache accountLookupCache, MovementHashChain movementHashChain,
+                                   ShardedBalances shardedBalances,
+                                   ObjectProvider<OutboundTransferDispatcher> dispatcherProvider) {
+        this.outboundTransferRepository = outboundTransferRepository;
+        this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
+        this.movementOutbox = movementOutbox;
+        this.accountLookupCache = accountLookupCache;
+        this.movementHashChain = movementHashChain;
+        this.shardedBalances = shardedBalances;
+        this.dispatcherProvider = dispatcherProvider;
+    }
+
+    /**
+     * Agrega a la cola una transferencia externa ya debitada. Debe llamarse dentro de la transaccion que
+     * debita la cuenta: si se revierte, la transferencia tampoco existe. Al confirmar despierta al despachador.
+     *
+     * @param account Cuenta de origen (ya debitada).
+     * @param request Datos de la transferencia.
+     * @return La transferencia PENDING guardada.
+     */
+    public OutboundTransfer enqueue(Account account, ExternalTransferRequest request) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Las transferencias externas solo se encolan dentro de una transaccion.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OutboundTransfer transfer = outboundTransferRepository.save(OutboundTransfer.builder()
+                .account(account)
+                .destinationName(request.getDestinationName())
+                .destinationBank(request.getDestinationBank())
+                .destinationAccountNumber(request.getDestinationAccountNumber())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(OutboundTransfer.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        if (!TransactionSynchronizationManager.hasResource(WAKE_UP_MARKER)) {
+            TransactionSynchronizationManager.bindResource(WAKE_UP_MARKER, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcherProvider.ifAvailable(OutboundTransferDispatcher::wakeUp);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WAKE_UP_MARKER);
+                }
+            });
+        }
+        return transfer;
+    }
+
+    /**
+     * @param limit Maximo de IDs a devolver.
+     * @return IDs de las transferencias PENDING listas para enviarse, de la mas atrasada a la mas reciente.
+     */
+    @Transactional // En la primaria: la replica podria no tener aun las transferencias recien encoladas
+    public List<Long> findDueIds(int limit) {
+        return outboundTransferRepository.findDueIds(OutboundTransfer.Status.PENDING, LocalDateTime.now(), Limit.of(limit));
+    }
+
+    /**
+     * Toma una transferencia PENDING para enviarla (pasa a SENT y cuenta el intento).
+     *
+     * @param id              ID de la transferencia.
+     * @param responseTimeout Plazo para recibir la respuesta; vencido, la transferencia vuelve a PENDING.
+     * @return La transferencia tomada, o vacio si ya no estaba PENDING.
+     */
+    @Transactional
+    public Optional<OutboundTransfer> claim(Long id, Duration responseTimeout) {
+        LocalDateTime now = LocalDateTime.now();
+        if (outboundTransferRepository.claim(id, now.plus(responseTimeout), now) == 0) {
+            return Optional.empty();
+        }
+        return outboundTransferRepository.findById(id);
+    }
+
+    /**
+     * Marca como liquidada una transferencia enviada.
+     *
+     * @param id        ID de la transferencia.
+     * @param reference Referencia del banco destino.
+     */
+    @Transactional
+    public void settle(Long id, String reference) {
+        OutboundTransfer transfer = sentTransfer(id);
+        if (transfer == null) {
+            return;
+        }
+        markSettled(transfer, reference);
+    }
+
+    /**
+     * Marca como rechazada una transferencia enviada y devuelve el monto a la cuenta de origen,
+     * con un movimiento de ingreso, en la misma transaccion. Solo para rechazos definitivos del banco destino.
+     *
+     * @param id     ID de la transferencia.
+     * @param reason Motivo del rechazo.
+     */
+    @Transactional
+    public void reject(Long id, String reason) {
+        OutboundTransfer transfer = sentTransfer(id);
+        if (transfer == null) {
+            return;
+        }
+        markRejected(transfer, reason);
+    }
+
+    /**
+     * Deja para revision manual una transferencia enviada sin respuesta definitiva tras todos sus intentos.
+     * No devuelve el monto: el banco destino pudo haberla ejecutado.
+     *
+     * @param id    ID de la transferencia.
+     * @param error Ultimo error del envio.
+     */
+    @Transactional
+    public void markUnknown(Long id, String error) {
+        OutboundTransfer transfer = sentTransfer(id);
+        if (transfer == null) {
+            return;
+        }
+        transfer.setStatus(OutboundTransfer.Status.UNKNOWN);
+        transfer.setLastError(truncate(error));
+        transfer.setUpdatedAt(LocalDateTime.now());
+        logger.error("Transferencia externa {} sin respuesta definitiva despues de {} intentos ({}); queda UNKNOWN "
+                + "para revision manual, sin devolver el monto.", id, transfer.getAttempts(), error);
+    }
+
+    /**
+     * Registra el resultado, confirmado con el banco destino, de una transferencia UNKNOWN.
+     *
+     * @param id       ID de la transferencia.
+     * @param settled  {@code true} si el banco destino la ejecuto; {@code false} si no (se devuelve el monto).
+     * @param detail   Referencia del banco destino si se ejecuto, o motivo si no.
+     * @throws IllegalArgumentException Si la transferencia no existe o no esta UNKNOWN.
+     */
+    @Transactional
+    public void resolveUnknown(Long id, boolean settled, String detail) {
+        OutboundTransfer transfer = outboundTransferRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Transferencia externa no encontrada: " + id));
+        if (transfer.getStatus() != OutboundTransfer.Status.UNKNOWN) {
+            throw new IllegalArgumentException("La transferencia externa " + id + " no esta UNKNOWN (" + transfer.getStatus() + ").");
+        }
+        if (settled) {
+            markSettled(transfer, detail);
+        } else {
+            markRejected(transfer, "Revision manual: " + detail);
+        }
+    }
+
+    private void markSettled(OutboundTransfer transfer, String reference) {
+        transfer.setStatus(OutboundTransfer.Status.SETTLED);
+        transfer.setExternalReference(reference);
+        transfer.setLastError(null);
+        transfer.setUpdatedAt(LocalDateTime.now());
+        logger.info("Transferencia externa {} liquidada (referencia {}).", transfer.getId(), reference);
+    }
+
+    private void markRejected(OutboundTransfer transfer, String reason) {
+        transfer.setStatus(OutboundTransfer.Status.REJECTED);
+        transfer.setLastError(truncate(reason));
+        transfer.setUpdatedAt(LocalDateTime.now());
+
+        // Suma relativa en la base de datos: un deposito o transferencia concurrente no se pierde
+        Account account = transfer.getAccount();
+        if (!shardedBalances.credit(account, transfer.getAmount())) {
+            accountRepository.addToBalance(account.getId(), transfer.getAmount());
+        }
+        accountLookupCache.evict(account.getAccountNumber()); // El saldo en cache ya no es valido
+
+        Movement refund = new Movement();
+        refund.setAccount(account);
+        refund.setDate(LocalDate.now());
+        refund.setDescription(truncate(String.format("Devolucion de transferencia rechazada por %s (Cuenta: %s). Motivo: %s",
+                transfer.getDestinationBank(), transfer.getDestinationAccountNumber(), reason)));
+        refund.setType(MovementType.INCOME);
+        refund.setAmount(transfer.getAmount());
+        boolean deferChain = shardedBalances.isSharded(account.getId());
+        if (!deferChain) {
+            movementHashChain.link(refund);
+        }
+        refund = movementRepository.save(refund);
+        if (deferChain) {
+            movementHashChain.defer(refund);
+        }
+        movementOutbox.append(refund);
+        logger.warn("Transferencia externa {} rechazada: {}. Se devolvieron {} a la cuenta {}.",
+                transfer.getId(), reason, transfer.getAmount(), account.getAccountNumber());
+    }
+
+    /**
+     * Devuelve a PENDING una transferencia enviada que fallo de forma transitoria.
+     *
+     * @param id    ID de la transferencia.
+     * @param error Descripcion del error.
+     * @param delay Espera antes del siguiente intento.
+     */
+    @Transactional
+    public void retryLater(Long id, String error, Duration delay) {
+        OutboundTransfer transfer = sentTransfer(id);
+        if (transfer == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transfer.setStatus(OutboundTransfer.Status.PENDING);
+        transfer.setLastError(truncate(error));
+        transfer.setNextAttemptAt(now.plus(delay));
+        transfer.setUpdatedAt(now);
+    }
+
+    /**
+     * Devuelve a PENDING las transferencias SENT cuyo plazo de respuesta vencio.
+     *
+     * @return Cantidad de transferencias reencoladas.
+     */
+    @Transactional
+    public int requeueExpired() {
+        return outboundTransferRepository.requeueExpired(LocalDateTime.now());
+    }
+
+    /*
+     * Carga una transferencia que debe estar SENT; si ya se resolvio (o se reencolo por vencida), no hace nada.
+     */
+    private OutboundTransfer sentTransfer(Long id) {
+        OutboundTransfer transfer = outboundTransferRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Transferencia externa no encontrada: " + id));
+        if (transfer.getStatus() != OutboundTransfer.Status.SENT) {
+            logger.warn("La transferencia externa {} ya no esta SENT ({}); se ignora el resultado.", id, transfer.getStatus());
+            return null;
+        }
+        return transfer;
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+}
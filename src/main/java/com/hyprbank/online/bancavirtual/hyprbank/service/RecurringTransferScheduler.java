@@ -0,0 +1,365 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Ejecuta las transferencias programadas sin consultar la tabla cada segundo.
+ *
+ * Funcionamiento (un hilo virtual, solo en el nodo que tiene el lease "recurring-transfers"):
+ * - Cada load-interval-ms renueva el lease y carga con una consulta por indice las ordenes activas que vencen
+ *   antes de ahora + 2 * load-interval-ms (incluidas las atrasadas) en una {@link HashedTimingWheel}.
+ * - Cada tick-ms avanza la rueda; las ordenes vencidas en ese tick forman un lote que se ejecuta en hilos
+ *   virtuales, con hasta max-parallel a la vez. El siguiente tick espera a que termine el lote.
+ * - Si la siguiente ocurrencia cae dentro del horizonte ya cargado se vuelve a poner en la rueda; si no, la
+ *   encuentra una carga posterior. Las altas nuevas llegan por {@link #offer}.
+ *
+ * Tras un reinicio, la primera carga encuentra las ordenes atrasadas (next_execution_at en el pasado) y
+ * RecurringTransferService las ejecuta o las omite segun hyprbank.recurring.catch-up-hours.
+ * Mientras corre un lote, un hilo virtual renueva el lease cada tercio de lease-ttl-ms (un lote largo no lo deja
+ * vencer) y, si no puede, el lote no inicia mas ocurrencias. Cada ocurrencia verifica el lease con su fencing
+ * token dentro de su transaccion (RecurringTransferService), asi que un nodo que lo perdio no confirma nada.
+ * Si el lease se pierde, la rueda se vacia y el nodo deja de ejecutar; la version de la entidad evita ademas que
+ * dos nodos ejecuten la misma ocurrencia.
+ *
+ * Metricas: hyprbank.recurring.executions (tag outcome=executed|failed|error), hyprbank.recurring.scheduled.
+ */
+@Component
+public class RecurringTransferScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransferScheduler.class);
+
+    static final String LEASE_NAME = "recurring-transfers";
+
+    private final RecurringTransferService recurringTransferService;
+    private final JobLeaseService jobLeaseService;
+    private final MeterRegistry meterRegistry;
+    private final long tickNanos;
+    private final int wheelSize;
+    private final Duration loadInterval;
+    private final Duration leaseTtl;
+    private final int maxParallel;
+    private final int loadLimit;
+
+    // Altas confirmadas por otros hilos; el hilo del programador las pasa a la rueda
+    private final ConcurrentLinkedQueue<Offer> offers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduledCount = new AtomicInteger();
+    // Solo los usa el hilo del programador
+    private final Set<Long> scheduled = new HashSet<>();
+    private HashedTimingWheel wheel;
+    private LocalDateTime loadedUntil;
+    private long nextLoadNanos;
+    private long fencingToken = -1;
+
+    private volatile boolean running;
+    private Thread tickerThread;
+
+    private record Offer(long id, LocalDateTime executionAt) {
+    }
+
+    public RecurringTransferScheduler(RecurringTransferService recurringTransferService,
+                                      JobLeaseService jobLeaseService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${hyprbank.recurring.tick-ms:1000}") long tickMillis,
+                                      @Value("${hyprbank.recurring.wheel-size:512}") int wheelSize,
+                                      @Value("${hyprbank.recurring.load-interval-ms:15000}") long loadIntervalMillis,
+                                      @Value("${hyprbank.recurring.lease-ttl-ms:45000}") long leaseTtlMillis,
+                                      @Value("${hyprbank.recurring.max-parallel:8}") int maxParallel,
+                                      @Value("${hyprbank.recurring.load-limit:10000}") int loadLimit) {
+        if (leaseTtlMillis <= loadIntervalMillis) {
+            throw new IllegalArgumentException("hyprbank.recurring.lease-ttl-ms debe ser mayor que load-interval-ms.");
+        }
+        this.recurringTransferService = recurringTransferService;
+        this.jobLeaseService = jobLeaseService;
+        this.meterRegistry = meterRegistry;
+        this.tickNanos = Duration.ofMillis(tickMillis).toNanos();
+        this.wheelSize = wheelSize;
+        this.loadInterval = Duration.ofMillis(loadIntervalMillis);
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+        this.maxParallel = maxParallel;
+        this.loadLimit = loadLimit;
+    }
+
+    /**
+     * Recibe una orden recien creada. Si vence dentro del horizonte ya cargado se agrega a la rueda en el
+     * siguiente tick; si no, la encuentra una carga posterior.
+     */
+    public void offer(long id, LocalDateTime executionAt) {
+        offers.add(new Offer(id, executionAt));
+    }
+
+    @Override
+    public void start() {
+        wheel = new HashedTimingWheel(tickNanos, wheelSize, System.nanoTime());
+        Gauge.builder("hyprbank.recurring.scheduled", scheduledCount, AtomicInteger::get)
+                .description("Ejecuciones de transferencias programadas cargadas en la rueda de tiempos")
+                .register(meterRegistry);
+        running = true;
+        tickerThread = Thread.ofVirtual().name("recurring-transfer-scheduler").start(this::run);
+        logger.info("Programador de transferencias recurrentes iniciado en el nodo {} (tick {} ms, carga cada {} s).",
+                jobLeaseService.getNodeId(), Duration.ofNanos(tickNanos).toMillis(), loadInterval.toSeconds());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (tickerThread != null) {
+            tickerThread.interrupt();
+            try {
+                tickerThread.join(Duration.ofSeconds(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fencingToken >= 0) {
+            jobLeaseService.release(LEASE_NAME);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            try {
+                long now = System.nanoTime();
+                if (now - nextLoadNanos >= 0) {
+                    nextLoadNanos = now + loadInterval.toNanos();
+                    renewLeaseAndLoad();
+                }
+                if (fencingToken >= 0) {
+                    acceptOffers();
+                    List<Long> due = new ArrayList<>();
+                    wheel.advance(System.nanoTime(), due::add);
+                    if (!due.isEmpty()) {
+                        executeBatch(due);
+                    }
+                } else {
+                    offers.clear(); // Las carga el nodo que tenga el lease
+                }
+                nextTick += tickNanos;
+                long sleep = nextTick - System.nanoTime();
+                if (sleep > 0) {
+                    Thread.sleep(Duration.ofNanos(sleep));
+                } else {
+                    nextTick = System.nanoTime(); // Lote largo: no se acumulan ticks atrasados
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error en el programador de transferencias recurrentes: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(Duration.ofSeconds(5));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /*
+     * Renueva el lease y, si se tiene, carga las ordenes que vencen antes del nuevo horizonte.
+     */
+    private void renewLeaseAndLoad() {
+        OptionalLong token;
+        try {
+            token = jobLeaseService.tryAcquire(LEASE_NAME, leaseTtl);
+        } catch (RuntimeException e) {
+            logger.error("No se pudo renovar el lease {}: {}", LEASE_NAME, e.getMessage());
+            token = OptionalLong.empty();
+        }
+        if (token.isEmpty()) {
+            if (fencingToken >= 0) {
+                dropLease();
+            }
+            return;
+        }
+        if (token.getAsLong() != fencingToken) {
+            logger.info("Lease {} tomado por el nodo {} (token {}).", LEASE_NAME, jobLeaseService.getNodeId(), token.getAsLong());
+            fencingToken = token.getAsLong();
+        }
+
+        LocalDateTime until = LocalDateTime.now().plus(loadInterval.multipliedBy(2));
+        int loaded = 0;
+        for (Object[] row : recurringTransferService.findDueBefore(until, loadLimit)) {
+            if (schedule((Long) row[0], (LocalDateTime) row[1])) {
+                loaded++;
+            }
+        }
+        loadedUntil = until;
+        if (loaded > 0) {
+            logger.debug("{} ejecuciones de transferencias recurrentes cargadas hasta {}.", loaded, until);
+        }
+    }
+
+    private void dropLease() {
+        logger.warn("Lease {} perdido; este nodo deja de ejecutar transferencias recurrentes.", LEASE_NAME);
+        fencingToken = -1;
+        wheel.clear();
+        scheduled.clear();
+        scheduledCount.set(0);
+    }
+
+    private void acceptOffers() {
+        Offer offer;
+        while ((offer = offers.poll()) != null) {
+            if (loadedUntil != null && offer.executionAt().isBefore(loadedUntil)) {
+                schedule(offer.id(), offer.executionAt());
+            }
+        }
+    }
+
+    /*
+     * Agrega una ejecucion a la rueda si no esta ya cargada.
+     */
+    private boolean schedule(long id, LocalDateTime executionAt) {
+        if (!scheduled.add(id)) {
+            return false;
+        }
+        long delay = Duration.between(LocalDateTime.now(), executionAt).toNanos();
+        wheel.schedule(id, System.nanoTime() + Math.max(delay, 0));
+        scheduledCount.set(scheduled.size());
+        return true;
+    }
+
+    /*
+     * Ejecuta un lote de ordenes vencidas con hasta max-parallel a la vez y espera a que termine, renovando el
+     * lease mientras tanto. Si se pierde, las ocurrencias que faltan no se inician.
+     */
+    private void executeBatch(List<Long> ids) throws InterruptedException {
+        long token = fencingToken;
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean lost = new AtomicBoolean();
+        Thread heartbeat = Thread.ofVirtual().name("recurring-transfer-lease").start(() -> renewDuringBatch(token, finished, lost));
+        Semaphore permits = new Semaphore(maxParallel);
+        ConcurrentLinkedQueue<Offer> next = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>(ids.size());
+        try {
+            for (Long id : ids) {
+                permits.acquire();
+                if (lost.get()) {
+                    permits.release();
+                    break;
+                }
+                threads.add(Thread.ofVirtual().name("recurring-transfer-" + id).start(() -> {
+                    try {
+                        LocalDateTime nextExecution = execute(id, token);
+                        if (nextExecution != null) {
+                            next.add(new Offer(id, nextExecution));
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            finished.countDown();
+            heartbeat.join();
+        }
+        if (lost.get()) {
+            dropLease();
+            return;
+        }
+        ids.forEach(scheduled::remove);
+        for (Offer offer : next) {
+            if (loadedUntil != null && offer.executionAt().isBefore(loadedUntil)) {
+                schedule(offer.id(), offer.executionAt());
+            }
+        }
+        scheduledCount.set(scheduled.size());
+    }
+
+    /*
+     * Renueva el lease cada tercio de su duracion hasta que termine el lote; si otro nodo lo tomo, marca 'lost'.
+     */
+    private void renewDuringBatch(long token, CountDownLatch finished, AtomicBoolean lost) {
+        while (!lost.get()) {
+            try {
+                if (finished.await(leaseTtl.toMillis() / 3, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                OptionalLong renewed = jobLeaseService.tryAcquire(LEASE_NAME, leaseTtl);
+                if (renewed.isEmpty() || renewed.getAsLong() != token) {
+                    lost.set(true);
+                    logger.error("Lease {} perdido durante un lote (token {}); no se inician mas ocurrencias.", LEASE_NAME, token);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo renovar el lease {} durante el lote: {}", LEASE_NAME, e.getMessage());
+            }
+        }
+    }
+
+    private LocalDateTime execute(long id, long token) {
+        try {
+            LocalDateTime next = recurringTransferService.executeOccurrence(id, token);
+            count("executed");
+            return next;
+        } catch (IllegalArgumentException e) {
+            // Error de negocio (saldo insuficiente, cuenta cerrada): la ocurrencia se da por fallida
+            count("failed");
+            logger.info("Transferencia programada {} no realizada: {}", id, e.getMessage());
+            try {
+                return recurringTransferService.recordFailure(id, e.getMessage(), token);
+            } catch (RuntimeException again) {
+                logger.error("No se pudo registrar la falla de la transferencia programada {}: {}", id, again.getMessage());
+                return null;
+            }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Otro nodo (o una cancelacion) cambio la orden al mismo tiempo; su estado actual llega en la siguiente carga
+            count("error");
+            logger.info("Transferencia programada {} modificada por otra transaccion; se omite en este nodo.", id);
+            return null;
+        } catch (RuntimeException e) {
+            // Error tecnico: la ocurrencia no avanzo y se vuelve a cargar en la siguiente carga
+            count("error");
+            logger.error("Error al ejecutar la transferencia programada {}: {}", id, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("hyprbank.recurring.executions")
+                .tag("outcome", outcome)
+                .description("Ejecuciones de transferencias programadas")
+                .register(meterRegistry)
+                .increment();
+    }
+}
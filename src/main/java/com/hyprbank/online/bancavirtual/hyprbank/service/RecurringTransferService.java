@@ -0,0 +1,273 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.RecurringTransferRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RecurringTransferRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.TransferRequest;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Importaciones de Java Utilities
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Alta, consulta y ejecucion de transferencias programadas y recurrentes.
+ *
+ * Cada ejecucion es una transaccion: la transferencia (performInternalTransferToOtherUser, la misma logica
+ * que usa el cliente) y el avance de 'occurrence' se confirman juntos. Si dos nodos ejecutan la misma
+ * ocurrencia, la version de la entidad hace fallar al segundo y su transferencia se revierte. Ademas, cada
+ * ejecucion verifica en su transaccion el lease del programador con su fencing token
+ * ({@link JobLeaseService#checkHeld}): un nodo que perdio el lease no confirma ninguna ocurrencia.
+ *
+ * Ocurrencias atrasadas (la aplicacion estuvo detenida): se ejecutan una por una si vencieron dentro de las
+ * ultimas hyprbank.recurring.catch-up-hours; las anteriores se omiten y se deja constancia en 'lastError'.
+ */
+@Service
+public class RecurringTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransferService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final RecurringTransferRepository recurringTransferRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final TransactionService transactionService;
+    private final JobLeaseService jobLeaseService;
+    // El programador depende de este servicio; se resuelve al usarlo para no crear un ciclo
+    private final ObjectProvider<RecurringTransferScheduler> schedulerProvider;
+    private final Duration catchUp;
+    private final int maxFailures;
+
+    public RecurringTransferService(RecurringTransferRepository recurringTransferRepository,
+                                    AccountRepository accountRepository,
+                                    UserRepository userRepository,
+                                    TransactionService transactionService,
+                                    JobLeaseService jobLeaseService,
+                                    ObjectProvider<RecurringTransferScheduler> schedulerProvider,
+                                    @Value("${hyprbank.recurring.catch-up-hours:72}") long catchUpHours,
+                                    @Value("${hyprbank.recurring.max-failures:3}") int maxFailures) {
+        this.recurringTransferRepository = recurringTransferRepository;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.transactionService = transactionService;
+        this.jobLeaseService = jobLeaseService;
+        this.schedulerProvider = schedulerProvider;
+        this.catchUp = Duration.ofHours(catchUpHours);
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Programa una transferencia desde una cuenta del usuario. Al confirmar avisa al programador, por si la
+     * primera ejecucion cae antes de su siguiente carga.
+     *
+     * @param request Datos de la transferencia y su periodicidad.
+     * @param userId ID del usuario dueño de la cuenta de origen.
+     * @return La transferencia programada.
+     * @throws IllegalArgumentException Si alguna cuenta no existe, la de origen no es del usuario o las fechas no son validas.
+     */
+    @Transactional
+    public RecurringTransfer create(RecurringTransferRequest request, Long userId) {
+        if (request.getOriginAccountNumber().equals(request.getDestinationAccountNumber())) {
+            throw new IllegalArgumentException("Las cuentas de origen y destino no pueden ser la misma.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (request.getStartAt().isBefore(now.minusMinutes(1))) {
+            throw new IllegalArgumentException("La primera ejecucion no puede estar en el pasado.");
+        }
+        if (request.getEndAt() != null && request.getEndAt().isBefore(request.getStartAt())) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la primera ejecucion.");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
+        accountRepository.findByAccountNumberAndUser(request.getOriginAccountNumber(), user)
+                .orElseThrow(() -> new IllegalArgumentException("Cuenta de origen no encontrada o no pertenece al usuario autenticado."));
+        accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
+                .orElseThrow(() -> new IllegalArgumentException("Cuenta de destino no encontrada en el sistema."));
+
+        RecurringTransfer transfer = recurringTransferRepository.save(RecurringTransfer.builder()
+                .userId(userId)
+                .originAccountNumber(request.getOriginAccountNumber())
+                .destinationAccountNumber(request.getDestinationAccountNumber())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .frequency(request.getFrequency())
+                .startAt(request.getStartAt())
+                .endAt(request.getEndAt())
+                .occurrence(0)
+                .nextExecutionAt(request.getStartAt())
+                .status(RecurringTransfer.Status.ACTIVE)
+                .consecutiveFailures(0)
+                .createdAt(now)
+                .build());
+        logger.info("Transferencia programada {} creada: {} -> {} ({}), primera ejecucion {}.", transfer.getId(),
+                transfer.getOriginAccountNumber(), transfer.getDestinationAccountNumber(), transfer.getFrequency(), transfer.getStartAt());
+
+        long id = transfer.getId();
+        LocalDateTime first = transfer.getNextExecutionAt();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedulerProvider.ifAvailable(scheduler -> scheduler.offer(id, first));
+            }
+        });
+        return transfer;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringTransfer> listForUser(Long userId) {
+        return recurringTransferRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    /**
+     * Cancela una transferencia programada del usuario. Una ejecucion ya cargada en el programador no se
+     * realiza: al ejecutarla se vuelve a leer el estado.
+     *
+     * @throws IllegalArgumentException Si no existe o no pertenece al usuario.
+     */
+    @Transactional
+    public RecurringTransfer cancel(Long id, Long userId) {
+        RecurringTransfer transfer = recurringTransferRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Transferencia programada no encontrada."));
+        if (transfer.getStatus() == RecurringTransfer.Status.ACTIVE || transfer.getStatus() == RecurringTransfer.Status.SUSPENDED) {
+            transfer.setStatus(RecurringTransfer.Status.CANCELLED);
+            transfer.setNextExecutionAt(null);
+        }
+        return transfer;
+    }
+
+    /**
+     * Pares {id, nextExecutionAt} de las ordenes activas que vencen antes de 'until'.
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> findDueBefore(LocalDateTime until, int limit) {
+        return recurringTransferRepository.findDueBefore(until, Limit.of(limit));
+    }
+
+    /**
+     * Ejecuta la ocurrencia pendiente de una transferencia programada, si sigue activa y ya vencio.
+     * Los errores de negocio (saldo insuficiente, cuenta inexistente) se propagan y revierten todo; el
+     * llamador los registra con {@link #recordFailure}.
+     *
+     * @param id           ID de la transferencia programada.
+     * @param fencingToken Token del lease del programador con el que se ejecuta.
+     * @return La siguiente fecha de ejecucion, o null si ya no tiene ejecuciones pendientes.
+     * @throws IllegalStateException Si este nodo ya no tiene el lease con ese token (no se ejecuta nada).
+     */
+    @Transactional
+    public LocalDateTime executeOccurrence(Long id, long fencingToken) {
+        // Bloquea la fila del lease en modo compartido hasta el commit: otro nodo no lo toma a mitad de la ejecucion
+        jobLeaseService.checkHeld(RecurringTransferScheduler.LEASE_NAME, fencingToken);
+        RecurringTransfer transfer = recurringTransferRepository.findById(id).orElse(null);
+        if (transfer == null || transfer.getStatus() != RecurringTransfer.Status.ACTIVE || transfer.getNextExecutionAt() == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (transfer.getNextExecutionAt().isAfter(now)) {
+            return transfer.getNextExecutionAt(); // Cargada antes de tiempo (p. ej. reloj ajustado); se reprograma
+        }
+
+        LocalDateTime oldest = now.minus(catchUp);
+        if (transfer.getNextExecutionAt().isBefore(oldest)) {
+            int skipped = 0;
+            while (transfer.getNextExecutionAt() != null && transfer.getNextExecutionAt().isBefore(oldest)) {
+                advance(transfer);
+                skipped++;
+            }
+            transfer.setLastError(skipped + " ejecuciones omitidas por vencer hace mas de " + catchUp.toHours() + " horas.");
+            logger.warn("Transferencia programada {}: {} ejecuciones atrasadas omitidas.", id, skipped);
+            return transfer.getNextExecutionAt();
+        }
+
+        TransferRequest request = new TransferRequest(transfer.getOriginAccountNumber(),
+                transfer.getDestinationAccountNumber(), transfer.getAmount(), transfer.getDescription());
+        transactionService.performInternalTransferToOtherUser(request, transfer.getUserId());
+
+        transfer.setLastExecutionAt(now);
+        transfer.setLastError(null);
+        transfer.setConsecutiveFailures(0);
+        advance(transfer);
+        logger.info("Transferencia programada {} ejecutada (ocurrencia {}). Siguiente: {}.", id,
+                transfer.getOccurrence(), transfer.getNextExecutionAt());
+        return transfer.getNextExecutionAt();
+    }
+
+    /**
+     * Registra una ejecucion fallida en su propia transaccion: la ocurrencia se da por resuelta (no se
+     * reintenta) y tras hyprbank.recurring.max-failures fallas seguidas la orden se suspende.
+     *
+     * @return La siguiente fecha de ejecucion, o null si ya no tiene ejecuciones pendientes.
+     * @throws IllegalStateException Si este nodo ya no tiene el lease con 'fencingToken'.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public LocalDateTime recordFailure(Long id, String error, long fencingToken) {
+        jobLeaseService.checkHeld(RecurringTransferScheduler.LEASE_NAME, fencingToken);
+        RecurringTransfer transfer = recurringTransferRepository.findById(id).orElse(null);
+        if (transfer == null || transfer.getStatus() != RecurringTransfer.Status.ACTIVE) {
+            return null;
+        }
+        transfer.setLastExecutionAt(LocalDateTime.now());
+        transfer.setLastError(truncate(error));
+        transfer.setConsecutiveFailures(transfer.getConsecutiveFailures() + 1);
+        advance(transfer);
+        if (transfer.getConsecutiveFailures() >= maxFailures && transfer.getStatus() == RecurringTransfer.Status.ACTIVE) {
+            transfer.setStatus(RecurringTransfer.Status.SUSPENDED);
+            transfer.setNextExecutionAt(null);
+            logger.warn("Transferencia programada {} suspendida tras {} fallas seguidas: {}", id, maxFailures, error);
+        }
+        return transfer.getNextExecutionAt();
+    }
+
+    /*
+     * Pasa a la siguiente ocurrencia o termina la orden si no quedan.
+     */
+    private static void advance(RecurringTransfer transfer) {
+        transfer.setOccurrence(transfer.getOccurrence() + 1);
+        LocalDateTime next = occurrence(transfer.getStartAt(), transfer.getFrequency(), transfer.getOccurrence());
+        if (next == null || (transfer.getEndAt() != null && next.isAfter(transfer.getEndAt()))) {
+            transfer.setStatus(RecurringTransfer.Status.COMPLETED);
+            transfer.setNextExecutionAt(null);
+        } else {
+            transfer.setNextExecutionAt(next);
+        }
+    }
+
+    /*
+     * Fecha de la ocurrencia 'n' (desde 0), calculada siempre desde la primera: una orden mensual del dia 31
+     * cae el 30 de abril y vuelve al 31 en mayo, en lugar de quedarse en el 30 para siempre.
+     */
+    static LocalDateTime occurrence(LocalDateTime startAt, RecurringTransfer.Frequency frequency, int n) {
+        return switch (frequency) {
+            case ONCE -> n == 0 ? startAt : null;
+            case DAILY -> startAt.plusDays(n);
+            case WEEKLY -> startAt.plusWeeks(n);
+            case MONTHLY -> startAt.plusMonths(n);
+        };
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+}
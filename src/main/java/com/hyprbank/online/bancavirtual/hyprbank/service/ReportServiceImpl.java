@@ -16,6 +16,9 @@ import com.hyprbank.online.bancavirtual.hyprbank.repository.UserAccessRepository
 import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository; // ¡Añadido!
 import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository; // ¡Añadido!
 
+// Importaciones de Configuracion
+import com.hyprbank.online.bancavirtual.hyprbank.config.ReportingWorkload;
+
 
 // Importaciones de JasperReports
 import net.sf.jasperreports.engine.JRException;
@@ -29,9 +32,13 @@ import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
 
+// Importaciones de Micrometer (latencia por metodo, ver /actuator/hyprbank-perf)
+import io.micrometer.core.annotation.Timed;
+
 // Importaciones de Spring Framework
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ResourceUtils; // Aunque se recomienda getResourceAsStream, mantenemos si lo usas
 
 // Importaciones de Java Utilities e IO
@@ -44,6 +51,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors; // Para usar Streams API
 
 /*
@@ -55,12 +63,19 @@ import java.util.stream.Collectors; // Para usar Streams API
  * @Service indica que esta clase es un componente de servicio de Spring.
  */
 @Service
+@Timed(value = "hyprbank.service", percentiles = {0.5, 0.99, 0.999}) // Latencia de cada metodo publico (tags class/method)
+@Transactional(readOnly = true) // Solo consultas
+@ReportingWorkload // Lecturas completas de tablas: pool "reporting", separado de las transacciones
 public class ReportServiceImpl implements ReportService {
 
     private final UserAccessRepository userAccessRepository;
     private final UserRepository userRepository; // Correcto: inyectamos UserRepository
     private final MovementRepository movementRepository; // Correcto: inyectamos MovementRepository
 
+    // Reportes compilados por ruta del JRXML. Compilar es costoso (genera y compila clases Java)
+    // y el resultado no cambia mientras la aplicacion corre.
+    private final Map<String, JasperReport> compiledReports = new ConcurrentHashMap<>();
+
 
     /*
      * Constructor para la inyeccion de dependencias.
@@ -94,13 +109,8 @@ public class ReportServiceImpl implements ReportService {
      */
     @Override
     public byte[] generateUserAccessReportPdf() throws FileNotFoundException, JRException, IOException {
-        // Usamos getClass().getResourceAsStream() para mayor robustez en entornos empaquetados (JAR)
-        InputStream reportStream = getClass().getResourceAsStream("/reports/reporte_accesos_usuarios.jrxml");
-        if (reportStream == null) {
-            throw new FileNotFoundException("Reporte JRXML de acceso de usuarios no encontrado en classpath: /reports/user_access_report.jrxml");
-        }
-
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
+        // El reporte se compila una sola vez y se reutiliza (ver compiledReport)
+        JasperReport jasperReport = compiledReport("/reports/reporte_accesos_usuarios.jrxml");
 
         List<UserAccess> accesses = userAccessRepository.findAll();
 
@@ -166,12 +176,8 @@ public class ReportServiceImpl implements ReportService {
 
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(clients);
 
-        // 2. Cargar y compilar el archivo JRXML del reporte de clientes
-        InputStream reportStream = getClass().getResourceAsStream("/reports/clients_report.jrxml");
-        if (reportStream == null) {
-            throw new FileNotFoundException("Reporte JRXML de clientes no encontrado en classpath: /reports/client_report.jrxml");
-        }
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
+        // 2. Obtener el reporte de clientes compilado (se compila solo la primera vez)
+        JasperReport jasperReport = compiledReport("/reports/clients_report.jrxml");
 
         // 3. Parámetros del reporte
         Map<String, Object> parameters = new HashMap<>();
@@ -233,12 +239,8 @@ public class ReportServiceImpl implements ReportService {
 
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(movements);
 
-        // 2. Cargar y compilar el archivo JRXML del reporte de movimientos
-        InputStream reportStream = getClass().getResourceAsStream("/reports/transactions_report.jrxml");
-        if (reportStream == null) {
-            throw new FileNotFoundException("Reporte JRXML de movimientos no encontrado en classpath: /reports/transactions_report.jrxml");
-        }
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
+        // 2. Obtener el reporte de movimientos compilado (se compila solo la primera vez)
+        JasperReport jasperReport = compiledReport("/reports/transactions_report.jrxml");
 
         // 3. Parámetros del reporte
         Map<String, Object> parameters = new HashMap<>();
@@ -256,4 +258,25 @@ public class ReportServiceImpl implements ReportService {
 
         return baos.toByteArray();
     }
-}
\ No newline at end of file
+
+    /*
+     * Devuelve el reporte compilado, compilandolo la primera vez.
+     * La compilacion se hace fuera de cualquier bloqueo (no con computeIfAbsent) para no retener el hilo
+     * que la espera: si dos peticiones compilan a la vez, ambas terminan y se conserva el primer resultado.
+     */
+    private JasperReport compiledReport(String path) throws FileNotFoundException, JRException, IOException {
+        JasperReport report = compiledReports.get(path);
+        if (report != null) {
+            return report;
+        }
+        // Usamos getClass().getResourceAsStream() para mayor robustez en entornos empaquetados (JAR)
+        try (InputStream reportStream = getClass().getResourceAsStream(path)) {
+            if (reportStream == null) {
+                throw new FileNotFoundException("Reporte JRXML no encontrado en classpath: " + path);
+            }
+            report = JasperCompileManager.compileReport(reportStream);
+        }
+        JasperReport existing = compiledReports.putIfAbsent(path, report);
+        return existing != null ? existing : report;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.SequenceBlock;
+
+// Importaciones de Repositorios
+import com.hyprbank.online.bancavirtual.hyprbank.repository.SequenceBlockRepository;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * Servicio que reserva bloques de valores de una secuencia almacenada en la tabla 'sequence_blocks'.
+ *
+ * Cada reserva se ejecuta en su propia transaccion (REQUIRES_NEW) para que el bloqueo de la fila
+ * dure solo lo necesario para avanzar el contador, aunque el llamador este dentro de una transaccion larga.
+ * Asi varios nodos pueden compartir la misma secuencia sin entregar nunca el mismo valor.
+ */
+@Service
+public class SequenceBlockService {
+
+    private final SequenceBlockRepository sequenceBlockRepository;
+    private final TransactionTemplate requiresNewTemplate;
+
+    /*
+     * Constructor para la inyeccion de dependencias.
+     * Spring inyectara el repositorio y el administrador de transacciones.
+     */
+    @Autowired
+    public SequenceBlockService(SequenceBlockRepository sequenceBlockRepository, PlatformTransactionManager transactionManager) {
+        this.sequenceBlockRepository = sequenceBlockRepository;
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserva un bloque de valores consecutivos de la secuencia indicada.
+     * Si la fila de la secuencia no existe se crea empezando en 1.
+     *
+     * @param sequenceName El nombre de la secuencia.
+     * @param blockSize La cantidad de valores a reservar.
+     * @return El primer valor del bloque; el bloque es [inicio, inicio + blockSize).
+     */
+    public long reserveBlock(String sequenceName, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser mayor que cero.");
+        }
+        try {
+            return requiresNewTemplate.execute(status -> doReserve(sequenceName, blockSize));
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo creo la fila de la secuencia al mismo tiempo; ahora ya existe y basta con reintentar.
+            return requiresNewTemplate.execute(status -> doReserve(sequenceName, blockSize));
+        }
+    }
+
+    /*
+     * Bloquea (o crea) la fila de la secuencia y avanza su contador.
+     * El UPDATE se emite al confirmar la transaccion gracias al dirty checking de JPA.
+     */
+    private long doReserve(String sequenceName, int blockSize) {
+        SequenceBlock block = sequenceBlockRepository.findForUpdate(sequenceName)
+                .orElseGet(() -> sequenceBlockRepository.saveAndFlush(new SequenceBlock(sequenceName, 1L)));
+        long start = block.getNextValue();
+        block.setNextValue(start + blockSize);
+        return start;
+    }
+}
@@ -0,0 +1,195 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Java Utilities
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/*
+ * Lee un archivo de liquidacion de un banco corresponsal mapeandolo en memoria (FileChannel.map), sin
+ * crear un String por linea: los campos numericos se leen directamente de los bytes mapeados y los textos
+ * solo se convierten a String cuando se piden.
+ *
+ * Formato (ISO-8859-1, registros de RECORD_LENGTH bytes incluyendo el salto de linea, como el archivo
+ * de compensacion que genera ClearingFileWriter):
+ *
+ *   H | lote (18) | codigo de banco (8) | fecha yyyyMMddHHmmss (14) | version de formato (2)
+ *   R | transferencia (18) | resultado S=liquidada, R=rechazada (1) | monto en centavos (15)
+ *     | referencia del corresponsal (30) | motivo del rechazo (80)
+ *   T | cantidad de registros R (10) | suma de montos en centavos (18) | CRC32 de los registros R (10)
+ *
+ * El archivo se recorre por ventanas de WINDOW_RECORDS registros (un mapeo por ventana), por lo que
+ * el espacio de direcciones usado no depende del tamaño del archivo.
+ */
+final class SettlementFileReader {
+
+    static final int RECORD_LENGTH = 300;
+    static final byte SETTLED = 'S';
+    static final byte REJECTED = 'R';
+
+    private static final int WINDOW_RECORDS = 1 << 18; // ~75 MB por mapeo
+
+    private static final int ID_OFFSET = 1;
+    private static final int RESULT_OFFSET = 19;
+    private static final int AMOUNT_OFFSET = 20;
+    private static final int REFERENCE_OFFSET = 35;
+    private static final int REFERENCE_LENGTH = 30;
+    private static final int REASON_OFFSET = 65;
+    private static final int REASON_LENGTH = 80;
+
+    private final FileChannel channel;
+    private final long recordCount; // Incluye encabezado y registro final
+
+    SettlementFileReader(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size % RECORD_LENGTH != 0 || size < 2L * RECORD_LENGTH) {
+            throw new IllegalArgumentException("Archivo de liquidacion invalido: " + size
+                    + " bytes no es un multiplo de registros de " + RECORD_LENGTH + " bytes con encabezado y cierre.");
+        }
+        this.channel = channel;
+        this.recordCount = size / RECORD_LENGTH;
+    }
+
+    /**
+     * Datos del encabezado y del registro final, ya verificados contra los registros R.
+     */
+    record Summary(long batchId, long records, long totalCents, long checksum) {
+    }
+
+    /*
+     * Vista reutilizable de un registro R sobre el buffer mapeado. Solo es valida dentro de onRecord.
+     */
+    static final class Record {
+        private MappedByteBuffer buffer;
+        private int offset;
+
+        long transferId() {
+            return number(buffer, offset + ID_OFFSET, 18);
+        }
+
+        byte result() {
+            return buffer.get(offset + RESULT_OFFSET);
+        }
+
+        long amountCents() {
+            return number(buffer, offset + AMOUNT_OFFSET, 15);
+        }
+
+        String reference() {
+            return text(buffer, offset + REFERENCE_OFFSET, REFERENCE_LENGTH);
+        }
+
+        String reason() {
+            return text(buffer, offset + REASON_OFFSET, REASON_LENGTH);
+        }
+    }
+
+    interface RecordHandler {
+        void onRecord(Record record) throws IOException;
+    }
+
+    /*
+     * Primera pasada: valida la estructura y compara el registro final con la cantidad, la suma y el CRC32
+     * de los registros R. Si algo no coincide, el archivo se rechaza completo antes de aplicar nada.
+     */
+    Summary verify() throws IOException {
+        CRC32 crc = new CRC32();
+        long[] totals = new long[2]; // cantidad, suma
+        long[] header = new long[1];
+        long[] trailer = new long[3];
+        scan((buffer, offset, index) -> {
+            byte type = buffer.get(offset);
+            if (buffer.get(offset + RECORD_LENGTH - 1) != '\n') {
+                throw new IllegalArgumentException("Registro " + (index + 1) + " sin salto de linea al final.");
+            }
+            if (index == 0) {
+                expectType(type, 'H', index);
+                header[0] = number(buffer, offset + 1, 18);
+            } else if (index == recordCount - 1) {
+                expectType(type, 'T', index);
+                trailer[0] = number(buffer, offset + 1, 10);
+                trailer[1] = number(buffer, offset + 11, 18);
+                trailer[2] = number(buffer, offset + 29, 10);
+            } else {
+                expectType(type, 'R', index);
+                byte result = buffer.get(offset + RESULT_OFFSET);
+                if (result != SETTLED && result != REJECTED) {
+                    throw new IllegalArgumentException("Registro " + (index + 1) + ": resultado desconocido '" + (char) result + "'.");
+                }
+                crc.update(buffer.slice(offset, RECORD_LENGTH));
+                totals[0]++;
+                totals[1] += number(buffer, offset + AMOUNT_OFFSET, 15);
+            }
+        });
+        if (trailer[0] != totals[0] || trailer[1] != totals[1] || trailer[2] != crc.getValue()) {
+            throw new IllegalArgumentException(String.format(
+                    "El registro final no coincide con el contenido: cantidad %d/%d, total %d/%d, CRC32 %d/%d.",
+                    trailer[0], totals[0], trailer[1], totals[1], trailer[2], crc.getValue()));
+        }
+        return new Summary(header[0], totals[0], totals[1], crc.getValue());
+    }
+
+    /*
+     * Segunda pasada: entrega cada registro R al handler, siempre con la misma instancia de Record.
+     */
+    void forEachRecord(RecordHandler handler) throws IOException {
+        Record record = new Record();
+        scan((buffer, offset, index) -> {
+            if (index == 0 || index == recordCount - 1) {
+                return;
+            }
+            record.buffer = buffer;
+            record.offset = offset;
+            handler.onRecord(record);
+        });
+    }
+
+    private interface Visitor {
+        void visit(MappedByteBuffer buffer, int offset, long index) throws IOException;
+    }
+
+    private void scan(Visitor visitor) throws IOException {
+        for (long first = 0; first < recordCount; first += WINDOW_RECORDS) {
+            int records = (int) Math.min(WINDOW_RECORDS, recordCount - first);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, first * RECORD_LENGTH,
+                    (long) records * RECORD_LENGTH);
+            for (int i = 0; i < records; i++) {
+                visitor.visit(window, i * RECORD_LENGTH, first + i);
+            }
+        }
+    }
+
+    private static void expectType(byte type, char expected, long index) {
+        if (type != expected) {
+            throw new IllegalArgumentException("Registro " + (index + 1) + ": se esperaba tipo '" + expected
+                    + "' y se encontro '" + (char) type + "'.");
+        }
+    }
+
+    /*
+     * Convierte digitos ASCII con ceros a la izquierda a long, sin crear objetos.
+     */
+    static long number(MappedByteBuffer buffer, int offset, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            int digit = buffer.get(offset + i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Campo numerico invalido en la posicion " + (offset + i) + " de la ventana.");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String text(MappedByteBuffer buffer, int offset, int width) {
+        int end = offset + width;
+        while (end > offset && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        byte[] bytes = new byte[end - offset];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
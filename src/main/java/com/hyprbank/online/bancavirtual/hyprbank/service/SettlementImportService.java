@@ -0,0 +1,439 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.SettlementImportResult;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Importa los archivos de liquidacion de los bancos corresponsales y aplica su resultado a las transferencias
+ * externas enviadas (SENT), ya sea por lote de compensacion (ClearingFileJob) o individualmente, y a las que
+ * quedaron UNKNOWN (sin respuesta definitiva del banco destino), que esperan justamente esta confirmacion.
+ *
+ * 1. {@link SettlementFileReader} verifica el archivo completo (estructura, cantidad, total y CRC32 del registro
+ *    final) mapeandolo en memoria. Un archivo invalido se rechaza sin aplicar nada.
+ * 2. Se recorre de nuevo por bloques de hyprbank.settlement.chunk-size registros. Por cada bloque se cargan
+ *    con una sola consulta (id IN ...) las transferencias referidas en un indice hash de claves long
+ *    (TransferIndex, sin objetos por entrada) y se comparan ID, estado y monto.
+ * 3. Las liquidaciones del bloque se aplican con un UPDATE en lote JDBC (rewriteBatchedStatements) en una
+ *    transaccion por bloque. Los rechazos, poco frecuentes, pasan por OutboundTransferService.reject para
+ *    devolver el monto con su movimiento y su evento de outbox. Las UNKNOWN, tambien poco frecuentes, se
+ *    resuelven con OutboundTransferService.resolveUnknown (liquidada, o rechazada con devolucion del monto).
+ * 4. Los registros que no coinciden (referencia desconocida, monto distinto, estado inesperado) se escriben
+ *    en un reporte CSV de diferencias y no se aplican. Un registro ya aplicado (archivo importado dos veces)
+ *    solo se cuenta.
+ *
+ * Los archivos llegan por POST /api/admin/settlements/import o se dejan en hyprbank.settlement.inbox,
+ * que se revisa cada hyprbank.settlement.poll-ms (los importados pasan a processed/, los invalidos a failed/).
+ */
+@Service
+public class SettlementImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementImportService.class);
+
+    private static final int SAMPLE_MISMATCHES = 20;
+
+    private static final String SETTLE_SQL = "UPDATE outbound_transfers SET status = 'SETTLED', external_reference = ?, "
+            + "last_error = NULL, updated_at = ?, version = version + 1 WHERE id = ? AND status = 'SENT'";
+
+    private static final OutboundTransfer.Status[] STATUSES = OutboundTransfer.Status.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboundTransferService outboundTransferService;
+    private final ClusterJobRunner clusterJobRunner;
+    private final int chunkSize;
+    private final Path reportDirectory;
+    private final Path inbox;
+    private final Timer importTimer;
+    private final Counter mismatchCounter;
+    private final String fullChunkQuery;
+
+    public SettlementImportService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   OutboundTransferService outboundTransferService,
+                                   ClusterJobRunner clusterJobRunner,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${hyprbank.settlement.chunk-size:5000}") int chunkSize,
+                                   @Value("${hyprbank.settlement.report-directory}") String reportDirectory,
+                                   @Value("${hyprbank.settlement.inbox}") String inbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboundTransferService = outboundTransferService;
+        this.clusterJobRunner = clusterJobRunner;
+        this.chunkSize = chunkSize;
+        this.reportDirectory = Paths.get(reportDirectory);
+        this.inbox = Paths.get(inbox);
+        this.importTimer = Timer.builder("hyprbank.settlement.import")
+                .description("Importacion de archivos de liquidacion")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("hyprbank.settlement.mismatches")
+                .description("Registros de liquidacion que no coinciden con una transferencia enviada")
+                .register(meterRegistry);
+        this.fullChunkQuery = chunkQuery(chunkSize);
+    }
+
+    /**
+     * Importa un archivo de liquidacion.
+     *
+     * @param file     Archivo a importar.
+     * @param fileName Nombre original (para el reporte de diferencias).
+     * @return El resumen de la importacion.
+     * @throws IllegalArgumentException Si el archivo no tiene el formato esperado o su registro final no coincide.
+     * @throws IOException              Si no se puede leer el archivo o escribir el reporte.
+     */
+    public SettlementImportResult importFile(Path file, String fileName) throws IOException {
+        long start = System.nanoTime();
+        String safeName = Paths.get(fileName).getFileName().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             MismatchReport report = new MismatchReport(reportDirectory.resolve(safeName + ".mismatches.csv"))) {
+            SettlementFileReader reader = new SettlementFileReader(channel);
+            SettlementFileReader.Summary summary = reader.verify();
+
+            Chunk chunk = new Chunk(chunkSize);
+            SettlementImportResult result = new SettlementImportResult();
+            result.setFileName(safeName);
+            result.setBatchId(summary.batchId());
+            result.setRecords(summary.records());
+            reader.forEachRecord(record -> {
+                chunk.add(record);
+                if (chunk.size == chunkSize) {
+                    apply(chunk, result, report);
+                }
+            });
+            if (chunk.size > 0) {
+                apply(chunk, result, report);
+            }
+
+            result.setMismatches(report.count);
+            result.setMismatchReport(report.count > 0 ? report.path.toString() : null);
+            result.setSampleMismatches(Collections.unmodifiableList(report.sample));
+            long elapsed = System.nanoTime() - start;
+            result.setElapsedMillis(elapsed / 1_000_000);
+            importTimer.record(Duration.ofNanos(elapsed));
+            mismatchCounter.increment(report.count);
+            logger.info("Liquidacion {} (lote {}): {} registros, {} liquidadas, {} rechazadas, {} ya aplicadas, "
+                            + "{} diferencias en {} ms.", safeName, summary.batchId(), summary.records(), result.getSettled(),
+                    result.getRejected(), result.getAlreadyApplied(), report.count, result.getElapsedMillis());
+            return result;
+        }
+    }
+
+    /**
+     * Importa los archivos '*.txt' que haya en la carpeta de entrada, del mas antiguo al mas reciente por nombre.
+     */
+    @Scheduled(fixedDelayString = "${hyprbank.settlement.poll-ms:30000}")
+    public void importInbox() {
+        // Con varias instancias y una carpeta compartida, solo un nodo la revisa a la vez
+        clusterJobRunner.runSingleton("settlement-inbox", lease -> importInboxFiles());
+    }
+
+    private void importInboxFiles() {
+        if (!Files.isDirectory(inbox)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inbox, "*.txt")) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            logger.error("No se pudo leer la carpeta de liquidaciones {}: {}", inbox, e.getMessage());
+            return;
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String target = "processed";
+            try {
+                importFile(file, file.getFileName().toString());
+            } catch (IllegalArgumentException | IOException e) {
+                target = "failed";
+                logger.error("Archivo de liquidacion {} rechazado: {}", file.getFileName(), e.getMessage());
+            }
+            try {
+                Path directory = Files.createDirectories(inbox.resolve(target));
+                Files.move(file, directory.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                logger.error("No se pudo mover {} a {}/: {}", file.getFileName(), target, e.getMessage());
+                return; // Evita reimportarlo en bucle; se reintenta en el siguiente ciclo
+            }
+        }
+    }
+
+    /*
+     * Compara un bloque con las transferencias de la base de datos y aplica los resultados que coinciden.
+     */
+    private void apply(Chunk chunk, SettlementImportResult result, MismatchReport report) throws IOException {
+        List<Integer> settle = new ArrayList<>();
+        List<Integer> reject = new ArrayList<>();
+        List<Integer> unknown = new ArrayList<>();
+        int[] settledRows = transactionTemplate.execute(status -> {
+            loadIndex(chunk);
+            for (int i = 0; i < chunk.size; i++) {
+                int slot = chunk.index.find(chunk.ids[i]);
+                String problem = null;
+                if (slot < 0) {
+                    problem = "Referencia desconocida";
+                } else if (chunk.index.amounts[slot] != chunk.amounts[i]) {
+                    problem = "Monto distinto (enviado " + chunk.index.amounts[slot] + ")";
+                } else {
+                    OutboundTransfer.Status current = STATUSES[chunk.index.statuses[slot]];
+                    boolean settled = chunk.results[i] == SettlementFileReader.SETTLED;
+                    if (current == OutboundTransfer.Status.SENT) {
+                        (settled ? settle : reject).add(i);
+                    } else if (current == OutboundTransfer.Status.UNKNOWN) {
+                        unknown.add(i);
+                    } else if ((current == OutboundTransfer.Status.SETTLED && settled)
+                            || (current == OutboundTransfer.Status.REJECTED && !settled)) {
+                        result.setAlreadyApplied(result.getAlreadyApplied() + 1);
+                    } else {
+                        problem = "Estado inesperado " + current;
+                    }
+                }
+                if (problem != null) {
+                    chunk.problems[i] = problem;
+                }
+            }
+            if (settle.isEmpty()) {
+                return new int[0];
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            return jdbcTemplate.batchUpdate(SETTLE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int record = settle.get(i);
+                    ps.setString(1, chunk.references[record]);
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, chunk.ids[record]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return settle.size();
+                }
+            });
+        });
+
+        for (int rows : settledRows) {
+            if (rows != 0) { // SUCCESS_NO_INFO (-2) cuenta como aplicada
+                result.setSettled(result.getSettled() + 1);
+            }
+        }
+        for (int record : reject) {
+            outboundTransferService.reject(chunk.ids[record], "Rechazada por el corresponsal: " + chunk.reasons[record]);
+            result.setRejected(result.getRejected() + 1);
+        }
+        for (int record : unknown) {
+            boolean settled = chunk.results[record] == SettlementFileReader.SETTLED;
+            try {
+                outboundTransferService.resolveUnknown(chunk.ids[record], settled,
+                        settled ? chunk.references[record] : "Rechazada por el corresponsal: " + chunk.reasons[record]);
+            } catch (IllegalArgumentException | OptimisticLockingFailureException e) {
+                // Resuelta a la vez por un administrador: ya no esta UNKNOWN
+                chunk.problems[record] = "No se pudo resolver la transferencia UNKNOWN: " + e.getMessage();
+                continue;
+            }
+            if (settled) {
+                result.setSettled(result.getSettled() + 1);
+            } else {
+                result.setRejected(result.getRejected() + 1);
+            }
+        }
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.problems[i] != null) {
+                report.add(chunk.ids[i], chunk.results[i], chunk.amounts[i], chunk.problems[i]);
+            }
+        }
+        chunk.reset();
+    }
+
+    /*
+     * Carga en el indice hash las transferencias referidas por el bloque (una consulta por bloque).
+     */
+    private void loadIndex(Chunk chunk) {
+        chunk.index.clear();
+        String sql = chunk.size == chunkSize ? fullChunkQuery : chunkQuery(chunk.size);
+        jdbcTemplate.query(sql, ps -> {
+            for (int i = 0; i < chunk.size; i++) {
+                ps.setLong(i + 1, chunk.ids[i]);
+            }
+        }, rs -> {
+            chunk.index.put(rs.getLong(1), OutboundTransfer.Status.valueOf(rs.getString(2)).ordinal(),
+                    rs.getBigDecimal(3).movePointRight(2).longValueExact());
+        });
+    }
+
+    private static String chunkQuery(int size) {
+        return "SELECT id, status, amount FROM outbound_transfers WHERE id IN ("
+                + String.join(",", Collections.nCopies(size, "?")) + ")";
+    }
+
+    /*
+     * Registros de un bloque en arreglos paralelos, reutilizados entre bloques.
+     */
+    private static final class Chunk {
+        private final long[] ids;
+        private final byte[] results;
+        private final long[] amounts;
+        private final String[] references;
+        private final String[] reasons;
+        private final String[] problems;
+        private final TransferIndex index;
+        private int size;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            results = new byte[capacity];
+            amounts = new long[capacity];
+            references = new String[capacity];
+            reasons = new String[capacity];
+            problems = new String[capacity];
+            index = new TransferIndex(capacity);
+        }
+
+        void add(SettlementFileReader.Record record) {
+            ids[size] = record.transferId();
+            results[size] = record.result();
+            amounts[size] = record.amountCents();
+            // Solo se crean Strings para el dato que se va a guardar
+            if (results[size] == SettlementFileReader.SETTLED) {
+                references[size] = record.reference();
+            } else {
+                reasons[size] = record.reason();
+            }
+            size++;
+        }
+
+        void reset() {
+            Arrays.fill(references, 0, size, null);
+            Arrays.fill(reasons, 0, size, null);
+            Arrays.fill(problems, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /*
+     * Tabla hash de direccionamiento abierto (sondeo lineal) de ID de transferencia a estado y monto en centavos.
+     * Usa arreglos primitivos: sin objetos Long ni entradas por transferencia. El ID 0 marca una posicion libre.
+     */
+    static final class TransferIndex {
+        private final long[] keys;
+        private final byte[] statuses;
+        private final long[] amounts;
+        private final int mask;
+
+        TransferIndex(int capacity) {
+            int size = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1; // Potencia de 2, carga <= 0.5
+            keys = new long[size];
+            statuses = new byte[size];
+            amounts = new long[size];
+            mask = size - 1;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0L);
+        }
+
+        void put(long id, int status, long amountCents) {
+            int slot = slot(id);
+            while (keys[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            statuses[slot] = (byte) status;
+            amounts[slot] = amountCents;
+        }
+
+        int find(long id) {
+            int slot = slot(id);
+            while (keys[slot] != 0) {
+                if (keys[slot] == id) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L; // Dispersion de Fibonacci: IDs consecutivos quedan separados
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+
+    /*
+     * Reporte CSV de diferencias; el archivo solo se crea si hay alguna.
+     */
+    private static final class MismatchReport implements AutoCloseable {
+        private final Path path;
+        private final List<String> sample = new ArrayList<>();
+        private BufferedWriter writer;
+        private long count;
+
+        MismatchReport(Path path) {
+            this.path = path;
+        }
+
+        void add(long transferId, byte result, long amountCents, String problem) throws IOException {
+            if (writer == null) {
+                Files.createDirectories(path.getParent());
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                writer.write("transfer_id,result,amount_cents,problem");
+                writer.newLine();
+            }
+            String line = transferId + "," + (char) result + "," + amountCents + "," + problem;
+            writer.write(line);
+            writer.newLine();
+            if (sample.size() < SAMPLE_MISMATCHES) {
+                sample.add(line);
+            }
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
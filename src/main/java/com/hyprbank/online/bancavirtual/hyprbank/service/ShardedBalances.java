@@ -0,0 +1,244 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+
+// Importaciones de DTOs
+import com.hyprbank.online.bancavirtual.hyprbank.dto.AccountSnapshot;
+
+// Importaciones de Micrometer
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Importaciones de Java Utilities
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Saldo repartido para cuentas con muchos creditos por segundo (cuenta recaudadora del banco, comercios,
+ * destinos frecuentes de performAdminDeposit). Se activa por cuenta con {@link #configure}.
+ *
+ * - Credito: suma en una de las N filas de account_balance_shards, elegida por hash del hilo, sin tocar la
+ *   fila de accounts. Los creditos concurrentes se reparten entre N bloqueos en lugar de esperar uno solo.
+ *   El movimiento se guarda sin encadenar (MovementHashChain#defer), porque encadenarlo bloquearia la cuenta.
+ * - Saldo: accounts.balance mas la suma de sus filas, leidos en una sola consulta ({@link #SHARD_SUM}).
+ * - Debito: bloquea la fila de accounts y, si su saldo no alcanza, pasa antes las filas repartidas a
+ *   accounts.balance. Los debitos de estas cuentas son poco frecuentes; no se reparten.
+ * - Compactacion (cada compaction-interval-ms, en un solo nodo a la vez con el lease
+ *   'sharded-balance-compaction' de {@link ClusterJobRunner}): por cada cuenta con filas distintas de 0 o
+ *   movimientos sin encadenar, en una transaccion que bloquea la cuenta, pasa las filas a accounts.balance
+ *   y encadena los movimientos pendientes. El saldo total no cambia.
+ *
+ * Las cuentas repartidas se leen de sharded_accounts en cada ciclo de compactacion, en todos los nodos
+ * (tengan o no el lease): un nodo puede tardar hasta un intervalo en ver un cambio. Ambos casos son correctos (un credito en la fila principal o en una fila
+ * repartida suman al mismo saldo), y la compactacion vacia tambien las filas de cuentas ya desactivadas.
+ */
+@Service
+public class ShardedBalances {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedBalances.class);
+
+    /**
+     * Suma de las filas repartidas de la cuenta con alias 'a', para agregar a a.balance en consultas SQL.
+     */
+    public static final String SHARD_SUM = "(SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s WHERE s.account_id = a.id)";
+
+    static final int MAX_SHARDS = 64;
+
+    private static final String COMPACTION_JOB = "sharded-balance-compaction";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovementHashChain movementHashChain;
+    private final ClusterJobRunner clusterJobRunner;
+    private final Counter creditCounter;
+    private final Timer compactionTimer;
+    private final int compactionBatch;
+
+    // Cuenta -> cantidad de filas; se reemplaza completo en cada lectura de sharded_accounts
+    private volatile Map<Long, Integer> shardCounts = Collections.emptyMap();
+
+    public ShardedBalances(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MovementHashChain movementHashChain,
+                           ClusterJobRunner clusterJobRunner,
+                           MeterRegistry meterRegistry,
+                           @Value("${hyprbank.sharding.compaction-batch:5000}") int compactionBatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.movementHashChain = movementHashChain;
+        this.clusterJobRunner = clusterJobRunner;
+        this.creditCounter = Counter.builder("hyprbank.sharding.credits")
+                .description("Creditos a cuentas con saldo repartido")
+                .register(meterRegistry);
+        this.compactionTimer = Timer.builder("hyprbank.sharding.compaction")
+                .description("Compactacion de saldos repartidos")
+                .register(meterRegistry);
+        this.compactionBatch = compactionBatch;
+    }
+
+    public boolean isSharded(Long accountId) {
+        return accountId != null && shardCounts.containsKey(accountId);
+    }
+
+    /**
+     * Acredita en una fila repartida si la cuenta tiene saldo repartido. Dentro de la transaccion del credito.
+     *
+     * @return true si se acredito; false si la cuenta no esta repartida (el llamador actualiza accounts.balance).
+     */
+    public boolean credit(Account account, BigDecimal amount) {
+        Integer shards = shardCounts.get(account.getId());
+        if (shards == null) {
+            return false;
+        }
+        int updated = jdbcTemplate.update("UPDATE account_balance_shards SET balance = balance + ? WHERE account_id = ? AND shard_no = ?",
+                amount, account.getId(), shardFor(Thread.currentThread().threadId(), shards));
+        if (updated == 0) {
+            return false; // Filas aun no creadas (configuracion cambiando): se acredita en la fila principal
+        }
+        creditCounter.increment();
+        return true;
+    }
+
+    /**
+     * Antes de debitar una cuenta repartida: bloquea su fila, la vuelve a leer y, si no alcanza para 'amount',
+     * le pasa las filas repartidas. Deja en la entidad el saldo leido con bloqueo, sobre el que el llamador
+     * valida y resta. No hace nada con cuentas no repartidas.
+     */
+    public void prepareDebit(Account account, BigDecimal amount) {
+        if (!isSharded(account.getId())) {
+            return;
+        }
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ? FOR UPDATE",
+                BigDecimal.class, account.getId());
+        if (balance.compareTo(amount) < 0) {
+            balance = balance.add(fold(account.getId()));
+        }
+        account.setBalance(balance);
+    }
+
+    /**
+     * Saldo total de la cuenta: el de la entidad si no esta repartida; si lo esta, accounts.balance mas sus
+     * filas, leidos juntos de la base de datos.
+     */
+    public BigDecimal balanceOf(Account account) {
+        if (!isSharded(account.getId())) {
+            return account.getBalance();
+        }
+        return jdbcTemplate.queryForObject("SELECT a.balance + " + SHARD_SUM + " FROM accounts a WHERE a.id = ?",
+                BigDecimal.class, account.getId());
+    }
+
+    /**
+     * La vista con el saldo total, si la cuenta esta repartida.
+     */
+    public AccountSnapshot withShards(AccountSnapshot snapshot) {
+        if (snapshot == null || !isSharded(snapshot.getId())) {
+            return snapshot;
+        }
+        return snapshot.withBalance(jdbcTemplate.queryForObject("SELECT a.balance + " + SHARD_SUM + " FROM accounts a WHERE a.id = ?",
+                BigDecimal.class, snapshot.getId()));
+    }
+
+    /**
+     * Activa (shards > 1), cambia o desactiva (shards = 0) el saldo repartido de una cuenta. Las filas que
+     * sobran no se borran: la compactacion las vacia.
+     *
+     * @throws IllegalArgumentException Si la cantidad no esta entre 0 y MAX_SHARDS (1 no tiene sentido).
+     */
+    public void configure(Long accountId, int shards) {
+        if (shards < 0 || shards == 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("La cantidad de filas debe ser 0 (desactivar) o estar entre 2 y " + MAX_SHARDS + ".");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (shards == 0) {
+                jdbcTemplate.update("DELETE FROM sharded_accounts WHERE account_id = ?", accountId);
+                return;
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                jdbcTemplate.update("INSERT IGNORE INTO account_balance_shards (account_id, shard_no, balance) VALUES (?, ?, 0)",
+                        accountId, shard);
+            }
+            jdbcTemplate.update("INSERT INTO sharded_accounts (account_id, shards, updated_at) VALUES (?, ?, NOW(6)) "
+                    + "ON DUPLICATE KEY UPDATE shards = VALUES(shards), updated_at = VALUES(updated_at)", accountId, shards);
+        });
+        refresh();
+        logger.info("Saldo repartido de la cuenta {}: {} filas.", accountId, shards);
+    }
+
+    @Scheduled(fixedDelayString = "${hyprbank.sharding.compaction-interval-ms:1000}")
+    public void compact() {
+        refresh();
+        clusterJobRunner.runSingleton(COMPACTION_JOB, this::compactWhileHeld);
+    }
+
+    private void compactWhileHeld(ClusterJobRunner.JobLease lease) {
+        Set<Long> accounts = new LinkedHashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT account_id FROM account_balance_shards WHERE balance <> 0", Long.class));
+        accounts.addAll(jdbcTemplate.queryForList("SELECT DISTINCT account_id FROM movement_chain_pending", Long.class));
+        if (accounts.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Long accountId : accounts) {
+            if (lease.isLost()) {
+                break; // Otro nodo puede tomar el lease: sigue el en el proximo ciclo
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                lease.checkHeld();
+                jdbcTemplate.queryForObject("SELECT id FROM accounts WHERE id = ? FOR UPDATE", Long.class, accountId);
+                fold(accountId);
+                movementHashChain.linkPending(accountId, compactionBatch);
+            });
+        }
+        compactionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * Pasa las filas repartidas de la cuenta a accounts.balance. La fila de la cuenta ya debe estar bloqueada.
+     */
+    private BigDecimal fold(Long accountId) {
+        BigDecimal total = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(balance), 0) FROM account_balance_shards "
+                + "WHERE account_id = ? FOR UPDATE", BigDecimal.class, accountId);
+        if (total.signum() != 0) {
+            jdbcTemplate.update("UPDATE account_balance_shards SET balance = 0 WHERE account_id = ?", accountId);
+            jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", total, accountId);
+        }
+        return total;
+    }
+
+    private void refresh() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT account_id, shards FROM sharded_accounts", rs -> {
+            counts.put(rs.getLong(1), rs.getInt(2));
+        });
+        shardCounts = Collections.unmodifiableMap(counts);
+    }
+
+    /*
+     * Fila para un credito: hash del hilo (con hilos virtuales, uno por peticion), para que las peticiones
+     * concurrentes caigan en filas distintas.
+     */
+    static int shardFor(long threadId, int shards) {
+        long hash = threadId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (hash ^ (hash >>> 32)), shards);
+    }
+}
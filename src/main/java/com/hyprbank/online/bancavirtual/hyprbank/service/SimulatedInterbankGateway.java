@@ -0,0 +1,74 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+// Importaciones de Entidades
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+// Importaciones de Spring Framework
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Importaciones de Java Utilities
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * InterbankGateway local, sin red: simula la latencia y las fallas de un banco destino para pruebas de carga.
+ *
+ * Cada envio espera hyprbank.interbank.simulated.latency-ms (+/- jitter-ms) y luego:
+ * - con probabilidad failure-rate lanza un error transitorio (se reintenta),
+ * - con probabilidad reject-rate rechaza la transferencia (se devuelve el monto),
+ * - en otro caso la liquida con una referencia "SIM-<id>".
+ * Como un banco real, es idempotente por ID: reenviar una transferencia ya resuelta devuelve el mismo resultado.
+ */
+@Component
+@ConditionalOnProperty(name = "hyprbank.interbank.gateway", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedInterbankGateway implements InterbankGateway {
+
+    // Resultados ya entregados, por ID de transferencia (solo crece durante la ejecucion; es un simulador)
+    private final Map<Long, Result> results = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double failureRate;
+    private final double rejectRate;
+
+    public SimulatedInterbankGateway(@Value("${hyprbank.interbank.simulated.latency-ms:200}") long latencyMillis,
+                                     @Value("${hyprbank.interbank.simulated.jitter-ms:100}") long jitterMillis,
+                                     @Value("${hyprbank.interbank.simulated.failure-rate:0.05}") double failureRate,
+                                     @Value("${hyprbank.interbank.simulated.reject-rate:0.01}") double rejectRate) {
+        if (failureRate < 0 || rejectRate < 0 || failureRate + rejectRate > 1) {
+            throw new IllegalArgumentException("Las tasas de falla y rechazo del banco simulado deben sumar entre 0 y 1.");
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.failureRate = failureRate;
+        this.rejectRate = rejectRate;
+    }
+
+    @Override
+    public Result send(OutboundTransfer transfer) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = Math.max(0, latencyMillis + (jitterMillis > 0 ? random.nextLong(-jitterMillis, jitterMillis + 1) : 0));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterbankGatewayException("Envio interrumpido", e);
+        }
+
+        Result previous = results.get(transfer.getId());
+        if (previous != null) {
+            return previous;
+        }
+        double roll = random.nextDouble();
+        if (roll < failureRate) {
+            throw new InterbankGatewayException("Banco destino no disponible (simulado)");
+        }
+        Result result = roll < failureRate + rejectRate
+                ? Result.rejected("Cuenta destino inexistente o bloqueada (simulado)")
+                : Result.settled("SIM-" + transfer.getId());
+        Result stored = results.putIfAbsent(transfer.getId(), result);
+        return stored != null ? stored : result;
+    }
+}
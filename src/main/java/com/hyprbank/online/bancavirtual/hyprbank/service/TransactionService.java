@@ -77,6 +77,7 @@ public interface TransactionService {
 
     /**
      * Procesa una transferencia a una cuenta externa (a un tercero).
+     * Debita la cuenta y encola el envio al banco destino (PENDING); el envio ocurre despues, de forma asincrona.
      *
      * @param request El DTO con los detalles de la transferencia externa.
      * @param userId El ID del usuario que realiza la transferencia.
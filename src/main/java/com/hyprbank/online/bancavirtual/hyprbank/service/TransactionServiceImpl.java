@@ -4,6 +4,7 @@ package com.hyprbank.online.bancavirtual.hyprbank.service;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
 
 // Importaciones de Repositorios
@@ -18,6 +19,9 @@ import com.hyprbank.online.bancavirtual.hyprbank.dto.TransferRequest;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.ExternalTransferRequest;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.ExternalTransferResponse;
 
+// Importaciones de Micrometer (latencia por metodo, ver /actuator/hyprbank-perf)
+import io.micrometer.core.annotation.Timed;
+
 // Importaciones de Spring Framework
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,10 +29,15 @@ import org.springframework.transaction.annotation.Transactional; // Para gestion
 import org.springframework.data.domain.PageRequest; // AGREGADO: Importar PageRequest
 import org.springframework.data.domain.Pageable; // AGREGADO: Importar Pageable
 
+// Importaciones de JPA
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
 // Importaciones de Java Utilities
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,6 +55,7 @@ import org.slf4j.LoggerFactory;
  * La anotacion @Transactional asegura que los metodos se ejecuten dentro de una transaccion de base de datos.
  */
 @Service
+@Timed(value = "hyprbank.service", percentiles = {0.5, 0.99, 0.999}) // Latencia de cada metodo publico (tags class/method)
 public class TransactionServiceImpl implements TransactionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
@@ -53,16 +63,110 @@ public class TransactionServiceImpl implements TransactionService {
     private final AccountRepository accountRepository;
     private final MovementRepository movementRepository;
     private final UserRepository userRepository; // Inyectar UserRepository
+    private final AccountNumberBloomFilter accountNumberBloomFilter;
+    private final AccountLookupCache accountLookupCache;
+    private final MovementOutbox movementOutbox;
+    private final OutboundTransferService outboundTransferService;
+    private final MovementHashChain movementHashChain;
+    private final ShardedBalances shardedBalances;
+    private final EntityManager entityManager;
 
     /*
      * Constructor para la inyeccion de dependencias.
      * Spring inyectara las instancias de AccountRepository y MovementRepository.
      */
     @Autowired
-    public TransactionServiceImpl(AccountRepository accountRepository, MovementRepository movementRepository, UserRepository userRepository) {
+    public TransactionServiceImpl(AccountRepository accountRepository, MovementRepository movementRepository, UserRepository userRepository,
+                                  AccountNumberBloomFilter accountNumberBloomFilter, AccountLookupCache accountLookupCache,
+                                  MovementOutbox movementOutbox, OutboundTransferService outboundTransferService,
+                                  MovementHashChain movementHashChain, ShardedBalances shardedBalances,
+                                  EntityManager entityManager) {
         this.accountRepository = accountRepository;
         this.movementRepository = movementRepository;
         this.userRepository = userRepository;
+        this.accountNumberBloomFilter = accountNumberBloomFilter;
+        this.accountLookupCache = accountLookupCache;
+        this.movementOutbox = movementOutbox;
+        this.outboundTransferService = outboundTransferService;
+        this.movementHashChain = movementHashChain;
+        this.shardedBalances = shardedBalances;
+        this.entityManager = entityManager;
+    }
+
+    /*
+     * Guarda el movimiento y su evento en el outbox de movimientos, en la misma transaccion:
+     * los suscriptores (MovementEventSubscriber) reciben el evento solo si el movimiento se confirma.
+     */
+    private Movement saveMovement(Movement movement) {
+        return saveMovements(movement).get(0);
+    }
+
+    /*
+     * Igual que saveMovement para varios movimientos de la misma operacion. Antes de guardarlos se encadenan
+     * al historial de su cuenta (MovementHashChain), todos juntos: las cuentas se bloquean en orden de ID y
+     * dos transferencias en sentidos opuestos no se bloquean mutuamente. Los de cuentas con saldo repartido
+     * se encadenan despues (MovementHashChain#defer).
+     */
+    private List<Movement> saveMovements(Movement... movements) {
+        List<Movement> chained = new ArrayList<>(movements.length);
+        for (Movement movement : movements) {
+            if (!shardedBalances.isSharded(movement.getAccount().getId())) {
+                chained.add(movement);
+            }
+        }
+        movementHashChain.link(chained);
+        List<Movement> saved = new ArrayList<>(movements.length);
+        for (Movement movement : movements) {
+            Movement persisted = movementRepository.save(movement);
+            if (persisted.getChainSeq() == null) {
+                movementHashChain.defer(persisted); // Saldo repartido: se encadena en la compactacion, sin bloquear la cuenta
+            }
+            movementOutbox.append(persisted);
+            saved.add(persisted);
+        }
+        return saved;
+    }
+
+    /*
+     * Bloquea las filas de las cuentas cuyo saldo se va a leer para escribirlo (SELECT ... FOR UPDATE) y recarga
+     * la entidad con esa lectura. Sin el bloqueo, dos operaciones concurrentes (o dos del mismo lote de
+     * GroupCommitExecutor) leen el mismo saldo en REPEATABLE READ y la segunda pisa a la primera: depositos
+     * perdidos o retiros sobre un saldo que ya no existe. Las cuentas se bloquean en orden de ID, como en
+     * MovementHashChain#link, y las que esta transaccion ya bloqueo no se vuelven a leer.
+     */
+    private void lockForUpdate(Account... accounts) {
+        List<Account> ordered = new ArrayList<>(List.of(accounts));
+        ordered.sort(Comparator.comparing(Account::getId));
+        for (Account account : ordered) {
+            if (entityManager.getLockMode(account) != LockModeType.PESSIMISTIC_WRITE) {
+                entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+            }
+        }
+    }
+
+    /*
+     * Bloquea las cuentas de una transferencia. El destino con saldo repartido no se bloquea: el credito va a
+     * una de sus filas repartidas.
+     */
+    private void lockForTransfer(Account originAccount, Account destinationAccount) {
+        if (shardedBalances.isSharded(destinationAccount.getId())) {
+            lockForUpdate(originAccount);
+        } else {
+            lockForUpdate(originAccount, destinationAccount);
+        }
+    }
+
+    /*
+     * Acredita el monto a la cuenta: en una de sus filas si tiene saldo repartido (ShardedBalances), sin bloquear
+     * la fila de la cuenta; si no, en su saldo, leido con bloqueo.
+     */
+    private void credit(Account account, BigDecimal amount) {
+        if (!shardedBalances.credit(account, amount)) {
+            lockForUpdate(account);
+            account.setBalance(account.getBalance().add(amount));
+            accountRepository.save(account);
+        }
+        accountLookupCache.evict(account.getAccountNumber()); // El saldo en cache ya no es valido
     }
 
     /**
@@ -82,7 +186,7 @@ public class TransactionServiceImpl implements TransactionService {
         if (movement.getAccount() != null) {
             dto.setAccountId(movement.getAccount().getId());
             dto.setAccountNumber(movement.getAccount().getAccountNumber());
-            dto.setBalance(movement.getAccount().getBalance()); // AHORA MovementDTO tiene 'balance'
+            dto.setBalance(shardedBalances.balanceOf(movement.getAccount())); // Incluye las filas de un saldo repartido
         } else {
             dto.setAccountId(null);
             dto.setAccountNumber("Unknown Account");
@@ -116,8 +220,7 @@ public class TransactionServiceImpl implements TransactionService {
                 .orElseThrow(() -> new IllegalArgumentException("Cuenta no encontrada o no pertenece al usuario."));
 
         // Actualizar el saldo de la cuenta
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        accountRepository.save(account);
+        credit(account, request.getAmount());
         logger.debug("Saldo de cuenta {} actualizado a {}", account.getAccountNumber(), account.getBalance());
 
         // Registrar el movimiento
@@ -127,7 +230,7 @@ public class TransactionServiceImpl implements TransactionService {
         movement.setDescription(request.getDescription() != null && !request.getDescription().isEmpty() ? request.getDescription() : "Deposito en cuenta");
         movement.setType(MovementType.INCOME);
         movement.setAmount(request.getAmount());
-        movement = movementRepository.save(movement);
+        movement = saveMovement(movement);
         logger.info("Deposito de {} en cuenta {} registrado. Nuevo saldo: {}", request.getAmount(), account.getAccountNumber(), account.getBalance());
         return movement;
     }
@@ -149,8 +252,7 @@ public class TransactionServiceImpl implements TransactionService {
                 .orElseThrow(() -> new IllegalArgumentException("Cuenta no encontrada con número: " + request.getAccountNumber()));
 
         // Actualizar el saldo de la cuenta
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        accountRepository.save(account);
+        credit(account, request.getAmount());
         logger.debug("ADMIN: Saldo de cuenta {} actualizado a {}", account.getAccountNumber(), account.getBalance());
 
         // Registrar el movimiento
@@ -160,7 +262,7 @@ public class TransactionServiceImpl implements TransactionService {
         movement.setDescription(request.getDescription() != null && !request.getDescription().isEmpty() ? request.getDescription() : "Deposito por Administrador");
         movement.setType(MovementType.INCOME);
         movement.setAmount(request.getAmount());
-        movement = movementRepository.save(movement);
+        movement = saveMovement(movement);
         logger.info("ADMIN: Deposito de {} en cuenta {} registrado. Nuevo saldo: {}", request.getAmount(), account.getAccountNumber(), account.getBalance());
         return movement;
     }
@@ -180,6 +282,9 @@ public class TransactionServiceImpl implements TransactionService {
         Account account = accountRepository.findByAccountNumberAndUser(request.getAccountNumber(), userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado.")))
                 .orElseThrow(() -> new IllegalArgumentException("Cuenta no encontrada o no pertenece al usuario."));
 
+        lockForUpdate(account); // El saldo que se valida y se resta es el leido con bloqueo
+        shardedBalances.prepareDebit(account, request.getAmount()); // Saldo repartido: saldo leido con bloqueo
+
         // Validar saldo suficiente
         if (account.getBalance().compareTo(request.getAmount()) < 0) {
             throw new IllegalArgumentException("Saldo insuficiente en la cuenta " + request.getAccountNumber());
@@ -188,6 +293,7 @@ public class TransactionServiceImpl implements TransactionService {
         // Actualizar el saldo
         account.setBalance(account.getBalance().subtract(request.getAmount()));
         accountRepository.save(account);
+        accountLookupCache.evict(account.getAccountNumber()); // El saldo en cache ya no es valido
         logger.debug("Saldo de cuenta {} actualizado a {}", account.getAccountNumber(), account.getBalance());
 
 
@@ -198,7 +304,7 @@ public class TransactionServiceImpl implements TransactionService {
         movement.setDescription(request.getDescription() != null && !request.getDescription().isEmpty() ? request.getDescription() : "Retiro de cuenta");
         movement.setType(MovementType.EXPENSE);
         movement.setAmount(request.getAmount());
-        movement = movementRepository.save(movement);
+        movement = saveMovement(movement);
         logger.info("Retiro de {} de cuenta {} registrado. Nuevo saldo: {}", request.getAmount(), account.getAccountNumber(), account.getBalance());
         return movement;
     }
@@ -228,6 +334,9 @@ public class TransactionServiceImpl implements TransactionService {
         Account destinationAccount = accountRepository.findByAccountNumberAndUser(request.getDestinationAccountNumber(), currentUser)
                 .orElseThrow(() -> new IllegalArgumentException("Cuenta de destino no encontrada o no pertenece al usuario."));
 
+        lockForTransfer(originAccount, destinationAccount); // Saldos leidos con bloqueo, en orden de ID
+        shardedBalances.prepareDebit(originAccount, request.getAmount()); // Saldo repartido: saldo leido con bloqueo
+
         // Validar saldo suficiente en la cuenta de origen
         if (originAccount.getBalance().compareTo(request.getAmount()) < 0) {
             throw new IllegalArgumentException("Saldo insuficiente en la cuenta de origen " + request.getOriginAccountNumber());
@@ -235,10 +344,9 @@ public class TransactionServiceImpl implements TransactionService {
 
         // Actualizar saldos
         originAccount.setBalance(originAccount.getBalance().subtract(request.getAmount()));
-        destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
-
         accountRepository.save(originAccount);
-        accountRepository.save(destinationAccount);
+        accountLookupCache.evict(originAccount.getAccountNumber()); // El saldo en cache ya no es valido
+        credit(destinationAccount, request.getAmount());
         logger.debug("Saldos de cuentas actualizados. Origen: {}, Destino: {}", originAccount.getAccountNumber(), destinationAccount.getAccountNumber());
 
 
@@ -256,8 +364,6 @@ public class TransactionServiceImpl implements TransactionService {
         );
         expenseMovement.setType(MovementType.EXPENSE);
         expenseMovement.setAmount(request.getAmount());
-        movements.add(movementRepository.save(expenseMovement));
-        logger.debug("Movimiento de egreso registrado: {}", expenseMovement.getId());
 
 
         // Registrar movimiento de ingreso en cuenta destino
@@ -272,7 +378,8 @@ public class TransactionServiceImpl implements TransactionService {
         );
         incomeMovement.setType(MovementType.INCOME);
         incomeMovement.setAmount(request.getAmount());
-        movements.add(movementRepository.save(incomeMovement));
+        movements.addAll(saveMovements(expenseMovement, incomeMovement));
+        logger.debug("Movimiento de egreso registrado: {}", expenseMovement.getId());
         logger.info("Transferencia interna de {} de cuenta {} a cuenta {} registrada. Nuevo saldo origen: {}, nuevo saldo destino: {}",
                 request.getAmount(), originAccount.getAccountNumber(), destinationAccount.getAccountNumber(), originAccount.getBalance(), destinationAccount.getBalance());
 
@@ -296,6 +403,11 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalArgumentException("Las cuentas de origen y destino no pueden ser la misma para una transferencia.");
         }
 
+        // 0. Descartar numeros de destino inexistentes (errores de digitacion) sin consultar la base de datos
+        if (!accountNumberBloomFilter.mightContain(request.getDestinationAccountNumber())) {
+            throw new IllegalArgumentException("Cuenta de destino no encontrada en el sistema.");
+        }
+
         // 1. Validar Cuenta de Origen (debe pertenecer al usuario autenticado)
         User currentUser = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario de origen no encontrado."));
@@ -305,7 +417,13 @@ public class TransactionServiceImpl implements TransactionService {
 
         // 2. Validar Cuenta de Destino (solo debe existir en el sistema, no necesariamente pertenecer al usuario autenticado)
         Account destinationAccount = accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
-                .orElseThrow(() -> new IllegalArgumentException("Cuenta de destino no encontrada en el sistema."));
+                .orElseThrow(() -> {
+                    accountNumberBloomFilter.recordFalsePositive(request.getDestinationAccountNumber());
+                    return new IllegalArgumentException("Cuenta de destino no encontrada en el sistema.");
+                });
+
+        lockForTransfer(originAccount, destinationAccount); // Saldos leidos con bloqueo, en orden de ID
+        shardedBalances.prepareDebit(originAccount, request.getAmount()); // Saldo repartido: saldo leido con bloqueo
 
         // 3. Validar saldo suficiente en la cuenta de origen
         if (originAccount.getBalance().compareTo(request.getAmount()) < 0) {
@@ -314,10 +432,9 @@ public class TransactionServiceImpl implements TransactionService {
 
         // 4. Actualizar saldos
         originAccount.setBalance(originAccount.getBalance().subtract(request.getAmount()));
-        destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
-
         accountRepository.save(originAccount);
-        accountRepository.save(destinationAccount);
+        accountLookupCache.evict(originAccount.getAccountNumber()); // El saldo en cache ya no es valido
+        credit(destinationAccount, request.getAmount());
         logger.debug("Transferencia entre usuarios: Saldos actualizados. Origen: {}, Destino: {}", originAccount.getAccountNumber(), destinationAccount.getAccountNumber());
 
         List<Movement> movements = new ArrayList<>();
@@ -333,9 +450,6 @@ public class TransactionServiceImpl implements TransactionService {
         );
         expenseMovement.setType(MovementType.EXPENSE);
         expenseMovement.setAmount(request.getAmount());
-        movements.add(movementRepository.save(expenseMovement));
-        logger.info("Transferencia enviada de {} a {} ({}). Monto: {}. Nuevo saldo origen: {}",
-            originAccount.getAccountNumber(), destinationAccount.getAccountNumber(), destinationAccount.getUser().getEmail(), request.getAmount(), originAccount.getBalance());
 
         // 6. Registrar movimiento de ingreso en cuenta destino (para el usuario que recibe)
         Movement incomeMovement = new Movement();
@@ -348,7 +462,9 @@ public class TransactionServiceImpl implements TransactionService {
         );
         incomeMovement.setType(MovementType.INCOME);
         incomeMovement.setAmount(request.getAmount());
-        movements.add(movementRepository.save(incomeMovement));
+        movements.addAll(saveMovements(expenseMovement, incomeMovement));
+        logger.info("Transferencia enviada de {} a {} ({}). Monto: {}. Nuevo saldo origen: {}",
+            originAccount.getAccountNumber(), destinationAccount.getAccountNumber(), destinationAccount.getUser().getEmail(), request.getAmount(), originAccount.getBalance());
         logger.info("Transferencia recibida en {} de {} ({}). Monto: {}. Nuevo saldo destino: {}",
             destinationAccount.getAccountNumber(), originAccount.getAccountNumber(), originAccount.getUser().getEmail(), request.getAmount(), destinationAccount.getBalance());
 
@@ -358,6 +474,7 @@ public class TransactionServiceImpl implements TransactionService {
 
     /**
      * Procesa una transferencia a una cuenta externa (a un tercero).
+     * Debita la cuenta y encola el envio al banco destino (PENDING); el envio ocurre despues, de forma asincrona.
      *
      * @param request El DTO de solicitud de transferencia externa.
      * @param userId El ID del usuario que realiza la transferencia.
@@ -373,6 +490,9 @@ public class TransactionServiceImpl implements TransactionService {
         Account originAccount = accountRepository.findByAccountNumberAndUser(request.getOriginAccountNumber(), userOrigin)
                 .orElseThrow(() -> new IllegalArgumentException("Cuenta de origen no encontrada o no pertenece al usuario."));
 
+        lockForUpdate(originAccount); // El saldo que se valida y se resta es el leido con bloqueo
+        shardedBalances.prepareDebit(originAccount, request.getAmount()); // Saldo repartido: saldo leido con bloqueo
+
         // Validar saldo suficiente
         if (originAccount.getBalance().compareTo(request.getAmount()) < 0) {
             throw new IllegalArgumentException("Saldo insuficiente en la cuenta de origen " + request.getOriginAccountNumber());
@@ -380,7 +500,9 @@ public class TransactionServiceImpl implements TransactionService {
 
         // Actualizar saldo de la cuenta de origen
         originAccount.setBalance(originAccount.getBalance().subtract(request.getAmount()));
-        accountRepository.save(originAccount);
+        // Se escribe ya: si el saldo esta repartido, la respuesta lo lee de la base de datos (ShardedBalances#balanceOf)
+        accountRepository.saveAndFlush(originAccount);
+        accountLookupCache.evict(originAccount.getAccountNumber()); // El saldo en cache ya no es valido
         logger.debug("Saldo de cuenta origen {} actualizado a {}", originAccount.getAccountNumber(), originAccount.getBalance());
 
 
@@ -395,33 +517,21 @@ public class TransactionServiceImpl implements TransactionService {
                 request.getDescription() != null && !request.getDescription().isEmpty() ? "Motivo: " + request.getDescription() : ""));
         expense.setType(MovementType.EXPENSE);
         expense.setAmount(request.getAmount());
-        expense = movementRepository.save(expense);
+        expense = saveMovement(expense);
         logger.debug("Movimiento de egreso registrado: {}", expense.getId());
 
 
-        // Simular el ingreso en la cuenta destino externa (no se persiste en nuestra DB)
-        // Podrias anadir logica para interactuar con un servicio externo o API aqui.
-        // Por ahora, solo registramos el movimiento de ingreso "logico" para el reporte.
-        // NOTA: Este movimiento 'income' se registra en la cuenta de ORIGEN para fines de auditoría del remitente,
-        // pero su tipo es INCOME para reflejar la naturaleza de la transacción externa.
-        // Para evitar confusión en el historial del remitente, la descripción es clave.
-        Movement income = new Movement();
-        income.setAccount(originAccount); // Asociamos al mismo origen para que aparezca en su historial
-        income.setDate(LocalDate.now());
-        String senderName = userOrigin.getFirstName() + " " + userOrigin.getLastName();
-        income.setDescription(String.format("Confirmación de transferencia recibida por %s (Cuenta: %s). %s",
-                request.getDestinationName(),
-                request.getDestinationAccountNumber(),
-                request.getDescription() != null && !request.getDescription().isEmpty() ? "Motivo: " + request.getDescription() : ""));
-        income.setType(MovementType.INCOME); // Se mantiene como INCOME para reflejar que el dinero "salió" de nuestro sistema hacia otro banco
-        income.setAmount(request.getAmount()); // El monto es el mismo que se envió
-        income = movementRepository.save(income); // Guardar para fines de auditoria/historial del remitente
-        logger.debug("Movimiento de ingreso simulado registrado: {}", income.getId());
+        // Encolar el envio al banco destino en la misma transaccion: OutboundTransferDispatcher lo envia
+        // despues del commit, fuera de esta peticion. Si el banco destino la rechaza, el monto se devuelve.
+        OutboundTransfer outboundTransfer = outboundTransferService.enqueue(originAccount, request);
+        logger.debug("Transferencia externa encolada: {}", outboundTransfer.getId());
 
 
         ExternalTransferResponse responseDTO = new ExternalTransferResponse();
-        responseDTO.setMessage("Transferencia externa realizada con exito.");
-        responseDTO.setNewOriginAccountBalance(originAccount.getBalance());
+        responseDTO.setMessage("Transferencia externa enviada a procesar.");
+        responseDTO.setTransferId(outboundTransfer.getId());
+        responseDTO.setTransferStatus(outboundTransfer.getStatus().name());
+        responseDTO.setNewOriginAccountBalance(shardedBalances.balanceOf(originAccount));
 
         responseDTO.setLastOriginMovement(mapMovementToDTO(expense));
 
@@ -432,7 +542,7 @@ public class TransactionServiceImpl implements TransactionService {
                 .map(this::mapMovementToDTO)
                 .collect(Collectors.toList())
         );
-        logger.info("Transferencia externa completada con exito entre {} y {}. Nuevo saldo origen: {}", request.getOriginAccountNumber(), request.getDestinationAccountNumber(), originAccount.getBalance());
+        logger.info("Transferencia externa encolada entre {} y {}. Nuevo saldo origen: {}", request.getOriginAccountNumber(), request.getDestinationAccountNumber(), responseDTO.getNewOriginAccountBalance());
         return responseDTO;
     }
 }
@@ -2,6 +2,7 @@ package com.hyprbank.online.bancavirtual.hyprbank.service;
 
 import com.hyprbank.online.bancavirtual.hyprbank.dto.RegistrationRequest;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.UserUpdateRequest; // Importar el nuevo DTO
+import com.hyprbank.online.bancavirtual.hyprbank.dto.UserPageDTO;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -36,6 +37,27 @@ public interface UserService extends UserDetailsService {
      */
     List<User> listUsers();
 
+    /**
+     * Busca clientes para el directorio del administrador con paginacion por keyset.
+     * La busqueda es por prefijo (nombre, apellido, email, DPI o NIT) para aprovechar los indices.
+     *
+     * @param search Texto a buscar como prefijo (opcional; si es un numero tambien busca por ID).
+     * @param field Limita la busqueda a un campo: firstName, lastName, email, dpi o nit (opcional).
+     * @param sort Orden: "name" (apellido, nombre), "email" o "id" (opcional, por defecto "name").
+     * @param cursor Cursor devuelto por la pagina anterior (opcional; null para la primera pagina).
+     * @param size Cantidad maxima de clientes por pagina.
+     * @return Un {@link UserPageDTO} con los clientes y el cursor de la siguiente pagina.
+     * @throws IllegalArgumentException Si el cursor o el orden no son validos.
+     */
+    UserPageDTO searchUsers(String search, String field, String sort, String cursor, int size);
+
+    /**
+     * Cuenta el total de usuarios registrados sin cargarlos en memoria.
+     *
+     * @return La cantidad de usuarios.
+     */
+    long countUsers();
+
     /**
      * Busca un usuario por su direccion de correo electronico (email).
      * Este metodo es fundamental para la autenticacion de usuarios.
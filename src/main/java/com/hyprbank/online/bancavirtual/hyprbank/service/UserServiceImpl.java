@@ -2,6 +2,8 @@ package com.hyprbank.online.bancavirtual.hyprbank.service;
 
 import com.hyprbank.online.bancavirtual.hyprbank.dto.RegistrationRequest;
 import com.hyprbank.online.bancavirtual.hyprbank.dto.UserUpdateRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.AdminUserDTO;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.UserPageDTO;
 import com.hyprbank.online.bancavirtual.hyprbank.model.User;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Role;
 import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
@@ -9,7 +11,15 @@ import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
 import com.hyprbank.online.bancavirtual.hyprbank.repository.RoleRepository;
 
+// Importaciones de Micrometer (latencia por metodo, ver /actuator/hyprbank-perf)
+import io.micrometer.core.annotation.Timed;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,17 +29,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.Predicate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Arrays;
-import java.util.Random;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
+// Importaciones de Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /*
  * Implementacion de la interfaz {@link UserService}.
  *
@@ -39,12 +57,23 @@ import java.util.stream.Collectors;
  * así como la actualización y eliminación de usuarios.
  */
 @Service
+@Timed(value = "hyprbank.service", percentiles = {0.5, 0.99, 0.999}) // Latencia de cada metodo publico (tags class/method)
 public class UserServiceImpl implements UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+
+    // Campos donde se busca por prefijo en el directorio de clientes (todos tienen indice)
+    private static final List<String> SEARCH_FIELDS = List.of("firstName", "lastName", "email", "dpi", "nit");
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_SEPARATOR = "\u001F";
+
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
     private final RoleRepository roleRepository;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AccountNumberBloomFilter accountNumberBloomFilter;
+    private final AccountLookupCache accountLookupCache;
 
     /*
      * Constructor para inyección de dependencias.
@@ -52,11 +81,17 @@ public class UserServiceImpl implements UserService {
      */
     @Autowired
     public UserServiceImpl(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder,
-                           AccountRepository accountRepository, RoleRepository roleRepository) {
+                           AccountRepository accountRepository, RoleRepository roleRepository,
+                           AccountNumberGenerator accountNumberGenerator,
+                           AccountNumberBloomFilter accountNumberBloomFilter,
+                           AccountLookupCache accountLookupCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
         this.roleRepository = roleRepository;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.accountNumberBloomFilter = accountNumberBloomFilter;
+        this.accountLookupCache = accountLookupCache;
     }
 
     /**
@@ -101,21 +136,13 @@ public class UserServiceImpl implements UserService {
         newAccount.setAccountType("AHORROS");
         newAccount.setStatus("ACTIVA");
 
-        String generatedAccountNumber;
-        Random random = new Random();
-        int accountNumberLength = 12;
-
-        do {
-            StringBuilder sb = new StringBuilder(accountNumberLength);
-            for (int i = 0; i < accountNumberLength; i++) {
-                sb.append(random.nextInt(10));
-            }
-            generatedAccountNumber = sb.toString();
-        } while (accountRepository.findByAccountNumber(generatedAccountNumber).isPresent());
+        // El numero sale de un bloque reservado en memoria: no hace falta consultar si ya existe.
+        String generatedAccountNumber = accountNumberGenerator.nextAccountNumber();
 
         newAccount.setAccountNumber(generatedAccountNumber);
         savedUser.addAccount(newAccount);
         accountRepository.save(newAccount);
+        accountNumberBloomFilter.put(generatedAccountNumber); // Las busquedas de este numero ya no se descartan
 
         return savedUser;
     }
@@ -143,6 +170,136 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Cuenta el total de usuarios registrados sin cargarlos en memoria.
+     *
+     * @return La cantidad de usuarios.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countUsers() {
+        return userRepository.count();
+    }
+
+    /**
+     * Busca clientes para el directorio del administrador con paginacion por keyset.
+     *
+     * La consulta usa predicados de prefijo (LIKE 'texto%') que MySQL resuelve con los indices de 'users'
+     * (la collation por defecto ya ignora mayusculas), y continua desde los valores del ultimo registro
+     * de la pagina anterior en lugar de usar OFFSET.
+     *
+     * @param search Texto a buscar como prefijo (opcional).
+     * @param field Campo al que se limita la busqueda (opcional).
+     * @param sort Orden: "name", "email" o "id".
+     * @param cursor Cursor de la pagina anterior (opcional).
+     * @param size Tamaño de pagina (se limita a {@value #MAX_PAGE_SIZE}).
+     * @return La pagina de clientes y el cursor siguiente.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageDTO searchUsers(String search, String field, String sort, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<String> sortKeys = resolveSortKeys(sort);
+        Sort order = Sort.by(sortKeys.toArray(new String[0]));
+        ScrollPosition position = (cursor == null || cursor.isBlank()) ? ScrollPosition.keyset() : decodeCursor(cursor, sortKeys);
+
+        Window<User> window = userRepository.findBy(buildSearchSpecification(search, field),
+                query -> query.sortBy(order).limit(pageSize).scroll(position));
+
+        List<AdminUserDTO> users = window.getContent().stream()
+                .map(this::toAdminUserDto)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encodeCursor((KeysetScrollPosition) window.positionAt(window.size() - 1), sortKeys);
+        }
+        return new UserPageDTO(users, nextCursor, window.hasNext());
+    }
+
+    /*
+     * Construye el filtro de busqueda: OR de prefijos sobre los campos indexados
+     * y, si el texto es numerico, coincidencia exacta por ID.
+     */
+    private Specification<User> buildSearchSpecification(String search, String field) {
+        return (root, criteriaQuery, cb) -> {
+            if (search == null || search.isBlank()) {
+                return null; // Sin filtro: todos los clientes
+            }
+            String term = search.trim();
+            String prefix = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            List<String> fields = (field != null && SEARCH_FIELDS.contains(field)) ? List.of(field) : SEARCH_FIELDS;
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String f : fields) {
+                predicates.add(cb.like(root.get(f), prefix, '\\'));
+            }
+            if (field == null && term.length() <= 18 && term.chars().allMatch(Character::isDigit)) {
+                predicates.add(cb.equal(root.get("id"), Long.valueOf(term)));
+            }
+            return cb.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /*
+     * Devuelve las propiedades de ordenamiento para cada orden permitido.
+     * Todas terminan en 'id' para que el orden sea total (requisito de la paginacion por keyset).
+     */
+    private List<String> resolveSortKeys(String sort) {
+        if (sort == null || sort.isBlank() || sort.equals("name")) {
+            return List.of("lastName", "firstName", "id");
+        } else if (sort.equals("email")) {
+            return List.of("email", "id");
+        } else if (sort.equals("id")) {
+            return List.of("id");
+        }
+        throw new IllegalArgumentException("Orden no valido: " + sort + ". Use name, email o id.");
+    }
+
+    /*
+     * Codifica los valores del ultimo registro de la pagina como un cursor opaco (Base64 URL-safe).
+     */
+    private String encodeCursor(KeysetScrollPosition position, List<String> sortKeys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sortKeys.size(); i++) {
+            if (i > 0) {
+                sb.append(CURSOR_SEPARATOR);
+            }
+            sb.append(position.getKeys().get(sortKeys.get(i)));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Reconstruye la posicion de keyset a partir de un cursor generado por encodeCursor.
+     */
+    private ScrollPosition decodeCursor(String cursor, List<String> sortKeys) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = decoded.split(CURSOR_SEPARATOR, -1);
+            if (values.length != sortKeys.size()) {
+                throw new IllegalArgumentException("Cursor no valido para el orden solicitado.");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < sortKeys.size(); i++) {
+                String key = sortKeys.get(i);
+                keys.put(key, key.equals("id") ? (Object) Long.valueOf(values[i]) : values[i]);
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException e) {
+            // Incluye NumberFormatException y errores de Base64
+            throw new IllegalArgumentException("Cursor de paginacion no valido.", e);
+        }
+    }
+
+    /*
+     * Convierte la entidad User al DTO del directorio (sin contraseña ni relaciones).
+     */
+    private AdminUserDTO toAdminUserDto(User user) {
+        return new AdminUserDTO(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(),
+                user.getDpi(), user.getNit(), user.getPhoneNumber(), user.isEnabled());
+    }
+
     /**
      * Busca un usuario por su dirección de correo electrónico.
      *
@@ -195,6 +352,9 @@ public class UserServiceImpl implements UserService {
 
         // No actualizamos la contraseña aquí por seguridad; debería ser un proceso separado.
 
+        // El nombre del titular forma parte de las vistas de cuenta en cache
+        evictCachedAccounts(existingUser);
+
         return userRepository.save(existingUser);
     }
 
@@ -207,10 +367,19 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("Usuario no encontrado con ID: " + id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+        evictCachedAccounts(user); // Sus cuentas se eliminan en cascada
+        userRepository.delete(user);
+    }
+
+    /*
+     * Invalida en la cache de busquedas todas las cuentas del usuario indicado.
+     */
+    private void evictCachedAccounts(User user) {
+        if (user.getAccounts() != null) {
+            accountLookupCache.evictAll(user.getAccounts().stream().map(Account::getAccountNumber).collect(Collectors.toList()));
         }
-        userRepository.deleteById(id);
     }
 
 
@@ -232,7 +401,7 @@ public class UserServiceImpl implements UserService {
 
         if (adminOptional.isEmpty()) {
             // Si el admin no existe, lo creamos
-            System.out.println("ℹ️ Usuario administrador 'admin@admin.com' no encontrado. Creándolo...");
+            logger.info("Usuario administrador 'admin@admin.com' no encontrado. Creándolo...");
             // --- Obtener o crear el rol de ADMINISTRADOR (ROLE_ADMIN) ---
             Role adminRole = roleRepository.findByName("ROLE_ADMIN")
                                          .orElseGet(() -> roleRepository.save(new Role(null, "ROLE_ADMIN")));
@@ -251,7 +420,7 @@ public class UserServiceImpl implements UserService {
                     .build();
 
             userRepository.save(admin);
-            System.out.println("✅ Usuario administrador 'admin@admin.com' creado con contraseña 'admin123'.");
+            logger.info("Usuario administrador 'admin@admin.com' creado con la contraseña por defecto.");
         } else {
             // Si el admin ya existe, lo actualizamos para asegurar que esté habilitado y con la contraseña correcta
             admin = adminOptional.get();
@@ -261,7 +430,7 @@ public class UserServiceImpl implements UserService {
             if (!admin.isEnabled()) {
                 admin.setEnabled(true);
                 needsUpdate = true;
-                System.out.println("✅ Usuario administrador 'admin@admin.com' habilitado.");
+                logger.info("Usuario administrador 'admin@admin.com' habilitado.");
             }
 
             // Opcional: Si quieres forzar la actualización de la contraseña cada vez que inicia la app
@@ -275,7 +444,7 @@ public class UserServiceImpl implements UserService {
             if (needsUpdate) {
                 userRepository.save(admin);
             }
-            System.out.println("ℹ️ Usuario administrador 'admin@admin.com' ya existe y está verificado.");
+            logger.info("Usuario administrador 'admin@admin.com' ya existe y está verificado.");
         }
     }
 }
@@ -0,0 +1,17 @@
+-- Saldo al cierre de cada dia por cuenta (BalanceSnapshotJob), solo para las cuentas con movimientos ese dia
+-- (mas una fila inicial por cuenta). El saldo a una fecha se obtiene de la foto anterior mas completa y los
+-- movimientos posteriores a ella, sin recorrer todo el historial. La clave primaria sirve para buscar la foto
+-- mas reciente antes de una fecha.
+CREATE TABLE account_balance_snapshots (
+    account_id BIGINT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (account_id, snapshot_date),
+    CONSTRAINT fk_balance_snapshots_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
+
+-- Hora de registro de cada movimiento (los anteriores quedan NULL: solo se conoce su fecha)
+ALTER TABLE movements ADD COLUMN created_at DATETIME(6) NULL;
+
+-- Cuentas con movimientos en un dia, sin recorrer la tabla completa
+CREATE INDEX idx_movements_date_account ON movements (date, account_id);
@@ -0,0 +1,24 @@
+-- Conciliacion del mayor (LedgerReconciliationJob): cada ejecucion compara accounts.balance con la suma neta de
+-- los movimientos de la cuenta (INCOME - EXPENSE) y guarda las cuentas que no coinciden.
+CREATE TABLE reconciliation_runs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    started_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6) NOT NULL,
+    accounts BIGINT NOT NULL,
+    movements BIGINT NOT NULL,
+    discrepancies BIGINT NOT NULL,
+    elapsed_ms BIGINT NOT NULL,
+    ms_per_million_movements BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE reconciliation_discrepancies (
+    run_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    account_number VARCHAR(20) NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    movement_net DECIMAL(19, 2) NOT NULL,
+    movement_count BIGINT NOT NULL,
+    PRIMARY KEY (run_id, account_id),
+    CONSTRAINT fk_reconciliation_discrepancies_run FOREIGN KEY (run_id) REFERENCES reconciliation_runs (id)
+) ENGINE = InnoDB;
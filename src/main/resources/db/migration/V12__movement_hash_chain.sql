@@ -0,0 +1,28 @@
+-- Cadena de hashes de movimientos por cuenta (MovementHashChain): cada movimiento guarda su posicion en la
+-- cadena de su cuenta y SHA-256(hash anterior + contenido). Editar, borrar o insertar un movimiento en el
+-- historial rompe la cadena desde ese punto. Los movimientos anteriores a esta migracion quedan fuera (NULL).
+-- El indice unico impide ademas que dos transacciones escriban la misma posicion de una cuenta.
+ALTER TABLE movements
+    ADD COLUMN chain_seq BIGINT NULL,
+    ADD COLUMN chain_hash BINARY(32) NULL;
+
+CREATE UNIQUE INDEX idx_movements_account_chain ON movements (account_id, chain_seq);
+
+-- Ultimo eslabon de cada cuenta. Se lee con FOR UPDATE al registrar un movimiento, lo que ordena los
+-- movimientos de una misma cuenta. No se mapean en la entidad Account (los guardados de JPA no deben
+-- sobrescribirlos).
+ALTER TABLE accounts
+    ADD COLUMN chain_seq BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN chain_hash BINARY(32) NULL;
+
+-- Hasta donde se verifico la cadena de cada cuenta (MovementChainVerifier): la siguiente verificacion
+-- continua desde verified_seq/verified_hash. broken_seq es la primera posicion que no coincide.
+CREATE TABLE movement_chain_checkpoints (
+    account_id BIGINT NOT NULL,
+    verified_seq BIGINT NOT NULL,
+    verified_hash BINARY(32) NULL,
+    broken_seq BIGINT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (account_id),
+    CONSTRAINT fk_movement_chain_checkpoints_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
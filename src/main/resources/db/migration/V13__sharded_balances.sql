@@ -0,0 +1,30 @@
+-- Cuentas con saldo repartido (ShardedBalances): cuentas que reciben muchos creditos por segundo (recaudadoras,
+-- comercios). Los creditos a estas cuentas suman en una de 'shards' filas de account_balance_shards en lugar
+-- de bloquear la fila de accounts; el saldo es accounts.balance mas la suma de sus filas. Una compactacion
+-- periodica pasa esas sumas a accounts.balance.
+CREATE TABLE sharded_accounts (
+    account_id BIGINT NOT NULL,
+    shards INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (account_id),
+    CONSTRAINT fk_sharded_accounts_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
+
+-- Las filas se crean al activar la cuenta (el credito es un UPDATE, sin INSERT ... ON DUPLICATE KEY, que
+-- toma bloqueos de rango) y no se borran al reducir o desactivar: la compactacion las deja en 0.
+CREATE TABLE account_balance_shards (
+    account_id BIGINT NOT NULL,
+    shard_no INT NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, shard_no),
+    CONSTRAINT fk_balance_shards_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
+
+-- Movimientos de cuentas repartidas aun sin encadenar (MovementHashChain): encadenarlos al insertarlos
+-- bloquearia la fila de accounts. La compactacion los encadena en orden de ID. Sin claves foraneas para que
+-- la insercion no agregue mas bloqueos sobre las filas padre.
+CREATE TABLE movement_chain_pending (
+    account_id BIGINT NOT NULL,
+    movement_id BIGINT NOT NULL,
+    PRIMARY KEY (account_id, movement_id)
+) ENGINE = InnoDB;
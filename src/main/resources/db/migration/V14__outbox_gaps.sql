@@ -0,0 +1,11 @@
+-- Huecos del outbox de movimientos (MovementOutboxRelay): rangos de IDs que el relay dejo atras tras el periodo
+-- de gracia sin ver su evento. Los IDs salen de bloques por nodo, asi que una transaccion lenta puede confirmar
+-- su evento despues de que el horizonte paso su ID. El relay vuelve a consultar estos rangos y entrega los
+-- eventos que aparecen; un rango se borra cuando ya no le quedan IDs o cuando vence hyprbank.outbox.gap-rescan-minutes.
+-- Se guardan en la base de datos para que el nodo que tome el relay despues de otro siga revisandolos.
+CREATE TABLE outbox_gaps (
+    from_id BIGINT NOT NULL,
+    to_id BIGINT NOT NULL,
+    first_seen_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (from_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,27 @@
+-- Ejecuciones de trabajos particionados (ClusterJobRunner#runPartitioned): una fila por trabajo y clave de
+-- ejecucion (p. ej. el dia devengado) con el rango de IDs y la cantidad de particiones fijados la primera vez,
+-- para que al reanudar las particiones sean las mismas aunque se creen cuentas o cambie la configuracion.
+-- completed_at queda NULL mientras falte alguna particion: los trabajos vuelven a ejecutar esas claves.
+CREATE TABLE job_runs (
+    job_name VARCHAR(64) NOT NULL,
+    run_key VARCHAR(64) NOT NULL,
+    min_id BIGINT NOT NULL,
+    max_id BIGINT NOT NULL,
+    partitions INT NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    completed_at DATETIME(6) NULL,
+    PRIMARY KEY (job_name, run_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_job_runs_pending ON job_runs (job_name, completed_at, started_at);
+
+-- Particiones terminadas de cada ejecucion y el nodo que las termino. Se insertan solo si el nodo sigue siendo
+-- dueño del lease de la particion (fencing token vigente en job_leases).
+CREATE TABLE job_partition_runs (
+    job_name VARCHAR(64) NOT NULL,
+    run_key VARCHAR(64) NOT NULL,
+    partition_no INT NOT NULL,
+    node_id VARCHAR(128) NOT NULL,
+    completed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (job_name, run_key, partition_no)
+) ENGINE = InnoDB;
@@ -0,0 +1,73 @@
+-- Esquema base de HyprBank, equivalente al que generaba spring.jpa.hibernate.ddl-auto=update.
+-- Las bases de datos existentes no ejecutan este script: Flyway las marca como version 1
+-- (spring.flyway.baseline-on-migrate) y solo aplica las migraciones siguientes.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    dpi VARCHAR(255),
+    nit VARCHAR(255),
+    phone_number VARCHAR(255),
+    enabled BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE roles (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+-- IDs por bloques (@TableGenerator) y secuencia de numeros de cuenta
+CREATE TABLE sequence_blocks (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE accounts (
+    id BIGINT NOT NULL,
+    account_number VARCHAR(20) NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    account_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    creation_date DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_accounts_account_number UNIQUE (account_number),
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE movements (
+    id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    type ENUM ('EXPENSE', 'INCOME') NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_movements_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE user_accesses (
+    id BIGINT NOT NULL,
+    user_id BIGINT,
+    access_date_time DATETIME(6) NOT NULL,
+    access_type VARCHAR(50),
+    ip_address VARCHAR(45),
+    attempted_username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_user_accesses_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE SET NULL
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- Prepara las filas de 'sequence_blocks' que usan los @TableGenerator de Movement, Account y UserAccess.
+--
+-- Las bases de datos creadas antes de los IDs por bloques tienen IDs de AUTO_INCREMENT. Con el optimizador
+-- pooled (allocationSize = 50) el primer bloque entregado termina en 'next_value', por lo que dejarlo en
+-- MAX(id) + 50 hace que los nuevos IDs empiecen justo despues del mas alto. GREATEST conserva las filas
+-- que Hibernate ya avanzo. En una base de datos nueva las filas quedan en 50 (IDs desde 1).
+
+-- Las bases de datos anteriores a la secuencia de numeros de cuenta no tienen la tabla (V1 no se ejecuto en ellas)
+CREATE TABLE IF NOT EXISTS sequence_blocks (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+INSERT INTO sequence_blocks (sequence_name, next_value)
+SELECT 'movements', COALESCE(MAX(id), 0) + 50 FROM movements
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+
+INSERT INTO sequence_blocks (sequence_name, next_value)
+SELECT 'accounts', COALESCE(MAX(id), 0) + 50 FROM accounts
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+
+INSERT INTO sequence_blocks (sequence_name, next_value)
+SELECT 'user_accesses', COALESCE(MAX(id), 0) + 50 FROM user_accesses
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
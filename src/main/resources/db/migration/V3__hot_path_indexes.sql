@@ -0,0 +1,67 @@
+-- Indices secundarios para las consultas frecuentes.
+--
+-- MySQL no tiene CREATE INDEX IF NOT EXISTS y algunas bases de datos ya tienen parte de estos indices
+-- (los creo ddl-auto=update a partir de los @Index de las entidades), asi que cada indice se crea
+-- solo si no existe, consultando information_schema.statistics.
+-- IndexVerifier revisa al iniciar que todos los @Index declarados en las entidades existan.
+
+-- Directorio de clientes: orden por (apellido, nombre, id) y busqueda por prefijo
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_users_last_first_id ON users (last_name, first_name, id)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_last_first_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_users_first_name ON users (first_name)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_first_name');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_users_dpi ON users (dpi)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_dpi');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_users_nit ON users (nit)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_nit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Cuentas de un usuario (dashboard, reportes)
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_accounts_user_id ON accounts (user_id)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'accounts' AND index_name = 'idx_accounts_user_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Historial de movimientos: findByAccountId...OrderByDateDesc sin filesort
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_movements_account_date ON movements (account_id, date)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'movements' AND index_name = 'idx_movements_account_date');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Historial filtrado por tipo: findByAccountIdAndType...OrderByDateDesc
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_movements_account_type_date ON movements (account_id, type, date)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'movements' AND index_name = 'idx_movements_account_type_date');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Reporte de accesos por rango de fechas
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_user_accesses_access_date_time ON user_accesses (access_date_time)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'user_accesses' AND index_name = 'idx_user_accesses_access_date_time');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,26 @@
+-- Outbox de movimientos: un registro compacto por cada Movement, escrito en la misma transaccion
+-- (TransactionServiceImpl) y publicado en orden de ID a los suscriptores en proceso por MovementOutboxRelay.
+--
+-- El relay lee siempre por rango de clave primaria (id > ultimo entregado), sin recorrer la tabla.
+-- Los IDs salen de 'sequence_blocks' (fila 'movement_outbox'), igual que los de movements.
+CREATE TABLE movement_outbox (
+    id BIGINT NOT NULL,
+    movement_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    user_id BIGINT NULL,
+    type VARCHAR(10) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Ultimo evento entregado a cada suscriptor (entrega al menos una vez: se actualiza despues de entregar)
+CREATE TABLE outbox_offsets (
+    subscriber VARCHAR(64) NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (subscriber)
+) ENGINE = InnoDB;
+
+INSERT INTO sequence_blocks (sequence_name, next_value) VALUES ('movement_outbox', 50)
+ON DUPLICATE KEY UPDATE next_value = next_value;
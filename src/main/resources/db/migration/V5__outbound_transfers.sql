@@ -0,0 +1,30 @@
+-- Cola de transferencias a otros bancos. processExternalTransfer debita la cuenta y agrega una fila PENDING
+-- en la misma transaccion; OutboundTransferDispatcher las envia al InterbankGateway fuera de la peticion HTTP.
+--
+-- Estados: PENDING (en cola o esperando reintento), SENT (enviada, sin respuesta aun),
+-- SETTLED (liquidada por el banco destino) y REJECTED (rechazada; el monto se devolvio a la cuenta).
+CREATE TABLE outbound_transfers (
+    id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    destination_name VARCHAR(100) NOT NULL,
+    destination_bank VARCHAR(100) NOT NULL,
+    destination_account_number VARCHAR(50) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    description VARCHAR(255) NULL,
+    status VARCHAR(10) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    external_reference VARCHAR(64) NULL,
+    last_error VARCHAR(255) NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_outbound_transfers_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+) ENGINE = InnoDB;
+
+-- El despachador busca las transferencias PENDING cuyo reintento ya vencio, y las SENT sin respuesta
+CREATE INDEX idx_outbound_transfers_status_next ON outbound_transfers (status, next_attempt_at);
+
+INSERT INTO sequence_blocks (sequence_name, next_value) VALUES ('outbound_transfers', 50)
+ON DUPLICATE KEY UPDATE next_value = next_value;
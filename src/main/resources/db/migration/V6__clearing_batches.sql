@@ -0,0 +1,26 @@
+-- Lotes de compensacion: en modo hyprbank.interbank.dispatch=clearing, ClearingFileJob agrupa al cierre de cada
+-- ventana todas las transferencias externas PENDING en un lote y las escribe en un archivo de compensacion.
+--
+-- Estados del lote: CLAIMED (transferencias asignadas, archivo aun no escrito), WRITTEN (archivo completo).
+-- Si la aplicacion se detiene entre ambos pasos, el archivo se vuelve a generar desde la base de datos.
+CREATE TABLE clearing_batches (
+    id BIGINT NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    cutoff DATETIME(6) NOT NULL,
+    file_name VARCHAR(255) NULL,
+    record_count INT NOT NULL,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    checksum BIGINT NULL,
+    created_at DATETIME(6) NOT NULL,
+    written_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_clearing_batches_status ON clearing_batches (status);
+
+-- Lote al que se asigno cada transferencia; el archivo se genera recorriendo (clearing_batch_id, id)
+ALTER TABLE outbound_transfers ADD COLUMN clearing_batch_id BIGINT NULL;
+CREATE INDEX idx_outbound_transfers_batch ON outbound_transfers (clearing_batch_id, id);
+
+INSERT INTO sequence_blocks (sequence_name, next_value) VALUES ('clearing_batches', 1)
+ON DUPLICATE KEY UPDATE next_value = next_value;
@@ -0,0 +1,42 @@
+-- Transferencias programadas y recurrentes (ordenes permanentes: renta, ahorro). RecurringTransferScheduler carga
+-- en una rueda de tiempos en memoria las ejecuciones que vencen en el siguiente horizonte y las ejecuta con la
+-- logica de transferencias existente. 'occurrence' es la cantidad de ejecuciones ya resueltas; la siguiente
+-- fecha se calcula desde 'start_at' (p. ej. el dia 31 de cada mes cae en el ultimo dia de los meses cortos).
+CREATE TABLE recurring_transfers (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    origin_account_number VARCHAR(20) NOT NULL,
+    destination_account_number VARCHAR(20) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    description VARCHAR(255) NULL,
+    frequency VARCHAR(10) NOT NULL,
+    start_at DATETIME(6) NOT NULL,
+    end_at DATETIME(6) NULL,
+    occurrence INT NOT NULL,
+    next_execution_at DATETIME(6) NULL,
+    status VARCHAR(10) NOT NULL,
+    last_execution_at DATETIME(6) NULL,
+    last_error VARCHAR(255) NULL,
+    consecutive_failures INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_recurring_transfers_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- El cargador busca las ordenes activas que vencen antes del horizonte; el listado del cliente va por usuario
+CREATE INDEX idx_recurring_transfers_status_next ON recurring_transfers (status, next_execution_at);
+CREATE INDEX idx_recurring_transfers_user ON recurring_transfers (user_id);
+
+-- Arrendamientos (leases) de trabajos en segundo plano: solo el nodo dueño de un lease no vencido ejecuta el trabajo.
+-- fencing_token aumenta cada vez que el lease cambia de dueño. Los tiempos se toman del reloj de MySQL.
+CREATE TABLE job_leases (
+    name VARCHAR(64) NOT NULL,
+    owner VARCHAR(128) NULL,
+    expires_at DATETIME(6) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO sequence_blocks (sequence_name, next_value) VALUES ('recurring_transfers', 50)
+ON DUPLICATE KEY UPDATE next_value = next_value;
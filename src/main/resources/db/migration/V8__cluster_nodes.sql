@@ -0,0 +1,9 @@
+-- Nodos vivos de la aplicacion (ClusterMembership): cada instancia actualiza su latido cada pocos segundos.
+-- Los trabajos particionados reparten los rangos de IDs de cuenta entre los nodos con latido reciente.
+-- Los tiempos se toman del reloj de MySQL, igual que en job_leases.
+CREATE TABLE cluster_nodes (
+    node_id VARCHAR(128) NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    heartbeat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,30 @@
+-- Devengo diario de intereses de cuentas de ahorro (InterestAccrualJob).
+-- accrued_interest: interes devengado aun no abonado (fraccion de centavo, 10 decimales); se abona en centavos
+-- completos y el resto se conserva para el dia siguiente. last_accrual_date: ultimo dia devengado; el UPDATE de
+-- cada cuenta lo exige menor que el dia en curso, asi que reanudar o repetir un dia no devenga dos veces.
+-- No se mapean en la entidad Account: los guardados de JPA no deben sobrescribirlos con valores viejos.
+ALTER TABLE accounts
+    ADD COLUMN accrued_interest DECIMAL(19, 10) NOT NULL DEFAULT 0,
+    ADD COLUMN last_accrual_date DATE NULL;
+
+-- Una fila por dia devengado: rango de IDs fijado al iniciar (las particiones no cambian al reanudar) y
+-- totales de todos los nodos, sumados en la misma transaccion que cada bloque.
+CREATE TABLE interest_accrual_runs (
+    accrual_date DATE NOT NULL,
+    min_account_id BIGINT NOT NULL,
+    max_account_id BIGINT NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    accounts BIGINT NOT NULL,
+    posted_amount DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (accrual_date)
+) ENGINE = InnoDB;
+
+-- Puntos de control de procesos por lotes: ultimo ID confirmado por trabajo y particion.
+CREATE TABLE batch_checkpoints (
+    job_name VARCHAR(64) NOT NULL,
+    partition_no INT NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (job_name, partition_no)
+) ENGINE = InnoDB;
@@ -0,0 +1,208 @@
+package com.hyprbank.online.bancavirtual.hyprbank;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RegistrationRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.RoleRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.service.UserService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Prueba de carga: 2000 clientes concurrentes con sesion iniciada, con Tomcat en hilos de plataforma y en
+ * hilos virtuales. Cada cliente consulta sus cuentas (/api/accounts/me: JDBC bloqueante) y uno de cada
+ * REPORT_EVERY genera ademas un reporte PDF (/api/reports/clients/pdf: JDBC en el pool de reportes y
+ * JasperReports). Los reportes que el compartimento "reports" rechaza (503) se cuentan aparte; cualquier otro
+ * error hace fallar la prueba. El resultado de cada modo se escribe en el log.
+ *
+ * Necesita la base de datos MySQL configurada, por eso solo se ejecuta con:
+ *   mvn test -Dtest=VirtualThreadLoadTests -Dhyprbank.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "hyprbank.benchmark", matches = "true")
+class VirtualThreadLoadTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadTests.class);
+
+    private static final int CLIENTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int REPORT_EVERY = 20;
+    private static final String PASSWORD = "carga-123";
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads extends LoadTestUser {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void serves2000ConcurrentClients() throws Exception {
+            runLoad("hilos de plataforma", port, email);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads extends LoadTestUser {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void serves2000ConcurrentClients() throws Exception {
+            runLoad("hilos virtuales", port, email);
+        }
+    }
+
+    /*
+     * Crea un administrador para la prueba (los reportes requieren ROLE_ADMIN) y lo borra al terminar.
+     */
+    abstract static class LoadTestUser {
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private RoleRepository roleRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        String email;
+        private Long userId;
+
+        @BeforeEach
+        void createUser() {
+            email = "carga" + System.nanoTime() + "@hyprbank.local";
+            User user = userService.save(new RegistrationRequest(null, "Carga", "Prueba", email, PASSWORD,
+                    null, null, null));
+            userId = user.getId();
+            // Por JPA y no con SQL: los roles de cada usuario estan en la cache de segundo nivel
+            user.setRoles(new ArrayList<>(List.of(roleRepository.findByName("ROLE_USER").orElseThrow(),
+                    roleRepository.findByName("ROLE_ADMIN").orElseThrow())));
+            userRepository.save(user);
+        }
+
+        @AfterEach
+        void deleteUser() {
+            jdbcTemplate.update("DELETE FROM user_accesses WHERE user_id = ? OR attempted_username = ?", userId, email);
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    private static void runLoad(String mode, int port, String email) throws Exception {
+        URI accounts = URI.create("http://localhost:" + port + "/api/accounts/me");
+        URI report = URI.create("http://localhost:" + port + "/api/reports/clients/pdf");
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger reportsServed = new AtomicInteger();
+        AtomicInteger reportsRejected = new AtomicInteger();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(clients)
+                     .cookieHandler(new CookieManager()) // Sesion compartida por todos los clientes
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            login(http, port, email);
+            HttpRequest accountsRequest = HttpRequest.newBuilder(accounts).timeout(Duration.ofSeconds(60)).GET().build();
+            HttpRequest reportRequest = HttpRequest.newBuilder(report).timeout(Duration.ofSeconds(120)).GET().build();
+
+            // Calentamiento
+            for (int i = 0; i < 200; i++) {
+                http.send(accountsRequest, HttpResponse.BodyHandlers.discarding());
+            }
+
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                boolean wantsReport = c % REPORT_EVERY == 0;
+                futures.add(clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        send(http, accountsRequest, failures);
+                    }
+                    if (wantsReport) {
+                        int status = send(http, reportRequest, failures);
+                        if (status == 200) {
+                            reportsServed.incrementAndGet();
+                        } else if (status == 503) {
+                            reportsRejected.incrementAndGet();
+                            failures.decrementAndGet(); // Rechazo esperado del compartimento, no un error
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int total = CLIENTS * REQUESTS_PER_CLIENT + CLIENTS / REPORT_EVERY;
+            logger.info("{}: {} peticiones de {} clientes en {} s ({}/s); reportes {} servidos y {} rechazados (503); {} fallidas",
+                    mode, total, CLIENTS, String.format("%.1f", seconds), Math.round(total / seconds),
+                    reportsServed.get(), reportsRejected.get(), failures.get());
+        }
+        assertThat(failures.get()).isZero();
+        assertThat(reportsServed.get()).isPositive();
+    }
+
+    private static void login(HttpClient http, int port, String email) throws Exception {
+        String form = "username=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        // Con credenciales correctas redirige al panel, no a /login?error
+        assertThat(response.headers().firstValue("Location").orElse("")).doesNotContain("error");
+    }
+
+    /*
+     * Envia la peticion y devuelve el estado HTTP; todo lo que no es 200 cuenta como fallido (-1 si no hubo respuesta).
+     */
+    private static int send(HttpClient http, HttpRequest request, AtomicInteger failures) {
+        try {
+            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) {
+                failures.incrementAndGet();
+            }
+            return status;
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del enrutamiento primaria/replica con dos DataSource simulados.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Connection reportingConnection = mock(Connection.class);
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        DataSource reporting = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(reporting.getConnection()).thenReturn(reportingConnection);
+
+        routing = new ReadWriteRoutingDataSource(Duration.ofSeconds(2), clock::get);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Route.REPLICA, replica,
+                ReadWriteRoutingDataSource.Route.REPORTING, reporting));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReadWriteRoutingDataSource.clearReporting();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() throws Exception {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void userReadsOwnWritesFromThePrimaryUntilTheWindowEnds() throws Exception {
+        loginAs("ana@hyprbank.com");
+        commitWriteTransaction();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        loginAs("luis@hyprbank.com");
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+        loginAs("ana@hyprbank.com");
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void rolledBackWritesDoNotStickToThePrimary() throws Exception {
+        loginAs("ana@hyprbank.com");
+        TransactionSynchronizationManager.initSynchronization();
+        routing.getConnection();
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void reportingReadsUseTheReportingPool() throws Exception {
+        assertThat(ReadWriteRoutingDataSource.markReporting()).isTrue();
+        assertThat(ReadWriteRoutingDataSource.markReporting()).isFalse();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(reportingConnection);
+
+        ReadWriteRoutingDataSource.clearReporting();
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private void commitWriteTransaction() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void loginAs(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, "n/a", AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
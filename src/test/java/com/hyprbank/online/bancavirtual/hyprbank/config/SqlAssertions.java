@@ -0,0 +1,59 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Aserciones de cantidad de sentencias SQL para las pruebas.
+ *
+ * Ejecutan el bloque dentro de un ambito de SqlStatementTracker y comparan lo contado por
+ * SqlStatementDataSourceProxy. Si falla, el mensaje lista las sentencias agrupadas por forma,
+ * lo que normalmente muestra el N+1 directamente. Ejemplo:
+ *
+ *   List<AdminMovementDTO> movements = SqlAssertions.assertSelectCount(1, () -> service.getAllBankMovements());
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    public static <T> T assertSelectCount(long expected, Supplier<T> action) {
+        return assertCount(SqlStatementTracker.StatementKind.SELECT, expected, action);
+    }
+
+    public static void assertSelectCount(long expected, Runnable action) {
+        assertSelectCount(expected, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T assertInsertCount(long expected, Supplier<T> action) {
+        return assertCount(SqlStatementTracker.StatementKind.INSERT, expected, action);
+    }
+
+    public static <T> T assertUpdateCount(long expected, Supplier<T> action) {
+        return assertCount(SqlStatementTracker.StatementKind.UPDATE, expected, action);
+    }
+
+    public static <T> T assertStatementCount(long expected, Supplier<T> action) {
+        try (SqlStatementTracker.Scope scope = SqlStatementTracker.begin("test")) {
+            T result = action.get();
+            assertThat(scope.getStatementCount())
+                    .as("Sentencias SQL ejecutadas:%n%s", scope.describe())
+                    .isEqualTo(expected);
+            return result;
+        }
+    }
+
+    private static <T> T assertCount(SqlStatementTracker.StatementKind kind, long expected, Supplier<T> action) {
+        try (SqlStatementTracker.Scope scope = SqlStatementTracker.begin("test")) {
+            T result = action.get();
+            assertThat(scope.getCount(kind))
+                    .as("Sentencias %s ejecutadas:%n%s", kind, scope.describe())
+                    .isEqualTo(expected);
+            return result;
+        }
+    }
+}
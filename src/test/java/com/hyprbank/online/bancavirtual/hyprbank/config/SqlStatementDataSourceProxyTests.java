@@ -0,0 +1,85 @@
+package com.hyprbank.online.bancavirtual.hyprbank.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del proxy de DataSource y de SqlAssertions con un driver JDBC simulado.
+ */
+class SqlStatementDataSourceProxyTests {
+
+    @Test
+    void countsStatementsRowsAndRepeatedShapes() throws Exception {
+        DataSource dataSource = SqlStatementDataSourceProxy.wrap(mockDataSource());
+
+        try (SqlStatementTracker.Scope scope = SqlStatementTracker.begin("test")) {
+            try (Connection connection = dataSource.getConnection()) {
+                for (long id = 1; id <= 3; id++) {
+                    PreparedStatement select = connection.prepareStatement("select * from accounts where user_id = ?");
+                    select.setLong(1, id);
+                    ResultSet rows = select.executeQuery();
+                    while (rows.next()) {
+                        // Lee las dos filas simuladas
+                    }
+                }
+                Statement update = connection.createStatement();
+                update.executeUpdate("update accounts set status = 'ACTIVE' where id = 7");
+            }
+
+            assertThat(scope.getSelectCount()).isEqualTo(3);
+            assertThat(scope.getCount(SqlStatementTracker.StatementKind.UPDATE)).isEqualTo(1);
+            assertThat(scope.getRowCount()).isEqualTo(3 * 2 + 1);
+            assertThat(scope.getShapes())
+                    .containsEntry("select * from accounts where user_id = ?", 3)
+                    .containsEntry("update accounts set status = ? where id = ?", 1);
+        }
+        assertThat(SqlStatementTracker.isActive()).isFalse();
+    }
+
+    @Test
+    void assertSelectCountReportsTheStatements() throws Exception {
+        DataSource dataSource = SqlStatementDataSourceProxy.wrap(mockDataSource());
+
+        SqlAssertions.assertSelectCount(1, () -> runSelects(dataSource, 1));
+        assertThatThrownBy(() -> SqlAssertions.assertSelectCount(1, () -> runSelects(dataSource, 4)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("4x select * from accounts where user_id = ?");
+    }
+
+    private static void runSelects(DataSource dataSource, int count) {
+        try (Connection connection = dataSource.getConnection()) {
+            for (int i = 0; i < count; i++) {
+                connection.prepareStatement("select * from accounts where user_id = ?").executeQuery();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource mockDataSource() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false, true, true, false, true, true, false);
+        when(statement.executeUpdate(anyString())).thenReturn(1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,97 @@
+package com.hyprbank.online.bancavirtual.hyprbank.model;
+
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserAccessRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Benchmark de INSERTs con IDs por bloques + lotes JDBC contra un INSERT por viaje a la base de datos.
+ *
+ * "Antes" reproduce el comportamiento de IDENTITY: cada fila se envia sola (flush por fila) porque
+ * Hibernate necesita el ID generado por MySQL. "Despues" deja que Hibernate agrupe los INSERT en lotes
+ * de hibernate.jdbc.batch_size al confirmar la transaccion.
+ *
+ * Necesita la base de datos MySQL configurada, por eso solo se ejecuta con:
+ *   mvn test -Dtest=IdGenerationBenchmarkTests -Dhyprbank.benchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hyprbank.benchmark", matches = "true")
+class IdGenerationBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerationBenchmarkTests.class);
+
+    private static final int ROWS = 5_000;
+    private static final String MARKER = "benchmark@hyprbank.local";
+
+    @Autowired
+    private UserAccessRepository userAccessRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM user_accesses WHERE attempted_username = ?", MARKER);
+    }
+
+    @Test
+    void batchedInsertsAreFasterThanRowByRow() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Calentamiento (conexiones, planes de ejecucion, primer bloque de IDs)
+        tx.executeWithoutResult(status -> userAccessRepository.saveAll(newRows(500)));
+
+        long rowByRowStart = System.nanoTime();
+        tx.executeWithoutResult(status -> {
+            for (UserAccess access : newRows(ROWS)) {
+                userAccessRepository.save(access);
+                entityManager.flush();
+            }
+        });
+        double rowByRowPerSecond = ROWS / ((System.nanoTime() - rowByRowStart) / 1e9);
+
+        long batchedStart = System.nanoTime();
+        tx.executeWithoutResult(status -> userAccessRepository.saveAll(newRows(ROWS)));
+        double batchedPerSecond = ROWS / ((System.nanoTime() - batchedStart) / 1e9);
+
+        logger.info("INSERT user_accesses: fila por fila {}/s, en lotes {}/s (x{})", Math.round(rowByRowPerSecond),
+                Math.round(batchedPerSecond), String.format("%.1f", batchedPerSecond / rowByRowPerSecond));
+        assertThat(batchedPerSecond).isGreaterThan(rowByRowPerSecond);
+    }
+
+    private static List<UserAccess> newRows(int count) {
+        List<UserAccess> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(UserAccess.builder()
+                    .accessDateTime(LocalDateTime.now())
+                    .accessType("BENCHMARK")
+                    .ipAddress("127.0.0.1")
+                    .attemptedUsername(MARKER)
+                    .build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del filtro de Bloom de numeros de cuenta: sin falsos negativos para cuentas que otro nodo pudo
+ * crear, y sin perder las cuentas registradas mientras se reconstruye.
+ */
+class AccountNumberBloomFilterTests {
+
+    private static final String LEGACY = "4821930012";  // Numero antiguo (sin formato del generador)
+    private static final String GENERATED = "100000000420"; // 12 digitos con digito verificador valido
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final AccountNumberBloomFilter filter = new AccountNumberBloomFilter(accountRepository,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 0.01, 1_000);
+
+    @Test
+    void onlyNumbersNoNodeCanStillCreateAreDefiniteMisses() {
+        when(accountRepository.streamAllAccountNumbers()).thenAnswer(invocation -> Stream.of(LEGACY));
+        filter.rebuild();
+
+        assertThat(AccountNumberGenerator.hasValidCheckDigit(GENERATED)).isTrue();
+        assertThat(filter.mightContain(LEGACY)).isTrue();
+        assertThat(filter.mightContain("4821930013")).isFalse(); // Error de digitacion: no hace falta la base de datos
+        assertThat(filter.mightContain(GENERATED)).isTrue();      // Pudo crearla otro nodo: se confirma en la base de datos
+        assertThat(filter.mightContainKnown(GENERATED)).isFalse();
+    }
+
+    @Test
+    void accountsRegisteredDuringARebuildAreKept() {
+        when(accountRepository.streamAllAccountNumbers()).thenAnswer(invocation -> Stream.of(LEGACY));
+        filter.rebuild();
+        filter.put("5550001111"); // Registrada antes de la reconstruccion; el recorrido no la ve (sin COMMIT)
+
+        // La cuenta se registra mientras el recorrido esta en curso, sobre el estado que se va a reemplazar
+        when(accountRepository.streamAllAccountNumbers()).thenAnswer(invocation -> Stream.of(LEGACY)
+                .peek(number -> filter.put("5550002222")));
+        filter.rebuild();
+
+        assertThat(filter.mightContain("5550001111")).isTrue();
+        assertThat(filter.mightContain("5550002222")).isTrue();
+    }
+}
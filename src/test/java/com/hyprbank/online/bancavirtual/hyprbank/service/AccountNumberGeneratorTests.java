@@ -0,0 +1,144 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RegistrationRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Role;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.RoleRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del generador de numeros de cuenta.
+ *
+ * La fila de la secuencia se simula con un AtomicLong compartido: cada "nodo" es una instancia
+ * independiente de UserServiceImpl con su propio AccountNumberGenerator (y su bloque en memoria), igual que
+ * varias instancias de la aplicacion apuntando a la misma base de datos. Los repositorios son simulados.
+ */
+class AccountNumberGeneratorTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountNumberGeneratorTests.class);
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 8;
+    private static final int REGISTRATIONS_PER_THREAD = 500;
+    private static final int BLOCK_SIZE = 100;
+
+    @Test
+    void registrationsGetUniqueNumbersAcrossNodesWithoutProbing() throws Exception {
+        AtomicLong sequenceRow = new AtomicLong(1);
+        AtomicInteger blockReservations = new AtomicInteger();
+        SequenceBlockService sequenceBlockService = mock(SequenceBlockService.class);
+        when(sequenceBlockService.reserveBlock(eq(AccountNumberGenerator.SEQUENCE_NAME), anyInt()))
+                .thenAnswer(invocation -> {
+                    blockReservations.incrementAndGet();
+                    return sequenceRow.getAndAdd(invocation.<Integer>getArgument(1));
+                });
+
+        // "Base de datos" compartida por todos los nodos: guarda los numeros de cuenta insertados
+        Set<String> saved = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.save(any())).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            if (!saved.add(account.getAccountNumber())) {
+                duplicates.incrementAndGet();
+            }
+            return account;
+        });
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(new Role(1L, "ROLE_USER")));
+
+        List<UserServiceImpl> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            AccountNumberBloomFilter bloomFilter = mock(AccountNumberBloomFilter.class);
+            nodes.add(new UserServiceImpl(userRepository, mock(BCryptPasswordEncoder.class), accountRepository, roleRepository,
+                    new AccountNumberGenerator(sequenceBlockService, bloomFilter, BLOCK_SIZE), bloomFilter,
+                    mock(AccountLookupCache.class)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicInteger emails = new AtomicInteger();
+        for (UserServiceImpl node : nodes) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < REGISTRATIONS_PER_THREAD; n++) {
+                        int email = emails.incrementAndGet();
+                        node.save(new RegistrationRequest(null, "Cliente", "Prueba", "cliente" + email + "@hyprbank.com",
+                                "secreta", "DPI" + email, "NIT" + email, "5555" + email));
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        int expected = NODES * THREADS_PER_NODE * REGISTRATIONS_PER_THREAD;
+        assertThat(duplicates.get()).isZero();
+        assertThat(saved).hasSize(expected);
+        assertThat(saved).allSatisfy(number -> assertThat(AccountNumberGenerator.hasValidCheckDigit(number)).isTrue());
+        // Ningun registro consulta si el numero ya existe: el unico viaje a la "base de datos" por el numero
+        // es la reserva de un bloque (como maximo un bloque parcial por nodo).
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        assertThat(blockReservations.get()).isLessThanOrEqualTo(expected / BLOCK_SIZE + NODES);
+
+        logger.info("Registro: {} usuarios en {} nodos en {} ms ({} registros/s, {} reservas de bloque)",
+                expected, NODES, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(expected / (elapsedNanos / 1e9)), blockReservations.get());
+    }
+
+    @Test
+    void checkDigitDetectsTypos() {
+        SequenceBlockService sequenceBlockService = mock(SequenceBlockService.class);
+        when(sequenceBlockService.reserveBlock(eq(AccountNumberGenerator.SEQUENCE_NAME), anyInt())).thenReturn(42L);
+        String number = new AccountNumberGenerator(sequenceBlockService, mock(AccountNumberBloomFilter.class), BLOCK_SIZE).nextAccountNumber();
+
+        assertThat(number).hasSize(12).startsWith("1");
+        assertThat(AccountNumberGenerator.hasValidCheckDigit(number)).isTrue();
+
+        // Cambiar un solo digito siempre invalida el digito verificador de Luhn.
+        char last = number.charAt(10);
+        String typo = number.substring(0, 10) + (char) ('0' + ((last - '0' + 1) % 10)) + number.charAt(11);
+        assertThat(AccountNumberGenerator.hasValidCheckDigit(typo)).isFalse();
+    }
+}
@@ -0,0 +1,183 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.BalanceAsOfDTO;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * Pruebas del cierre diario de saldos y del saldo a una fecha, sobre la base de datos configurada. Cada prueba
+ * crea su propia cuenta, abierta el dia anterior a D, con:
+ *   D     +100 (09:00)   cierre 100
+ *   D + 1  -30 (10:00)   cierre  70
+ *   D + 3  +50 (11:00)   saldo actual 120
+ *
+ * Necesita la base de datos MySQL configurada, por eso solo se ejecuta con:
+ *   mvn test -Dtest=BalanceSnapshotServiceTests -Dhyprbank.database-tests=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hyprbank.database-tests", matches = "true")
+class BalanceSnapshotServiceTests {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(5);
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account account;
+
+    @BeforeEach
+    void createAccountWithHistory() {
+        Account created = new Account();
+        created.setAccountNumber("SNAP" + System.nanoTime() % 1_000_000_000_000L);
+        created.setBalance(new BigDecimal("120.00"));
+        created.setAccountType("MONETARIA");
+        created.setStatus("ACTIVE");
+        created.setCreationDate(DAY.minusDays(1).atTime(8, 0));
+        created.setUser(userRepository.getReferenceById(jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class)));
+        account = accountRepository.save(created);
+
+        movement(DAY, LocalTime.of(9, 0), MovementType.INCOME, "100.00");
+        movement(DAY.plusDays(1), LocalTime.of(10, 0), MovementType.EXPENSE, "30.00");
+        movement(DAY.plusDays(3), LocalTime.of(11, 0), MovementType.INCOME, "50.00");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("account_balance_shards", "account_balance_snapshots", "movements")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE account_id = ?", account.getId());
+        }
+        jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", account.getId());
+    }
+
+    @Test
+    void snapshotsHoldTheBalanceAtTheCloseOfTheirDay() {
+        balanceSnapshotService.snapshot(DAY);
+        balanceSnapshotService.snapshot(DAY.plusDays(1));
+
+        assertThat(snapshots()).containsExactly(
+                Map.entry(DAY, new BigDecimal("100.00")),
+                Map.entry(DAY.plusDays(1), new BigDecimal("70.00")));
+    }
+
+    @Test
+    void balanceAsOfAddsTheMovementsAfterTheLatestSnapshot() {
+        balanceSnapshotService.snapshot(DAY);
+        balanceSnapshotService.snapshot(DAY.plusDays(1));
+
+        BalanceAsOfDTO afterDeposit = balanceAsOf(DAY.plusDays(3).atTime(12, 0));
+        assertThat(afterDeposit.getBalance()).isEqualByComparingTo("120.00");
+        assertThat(afterDeposit.getSnapshotDate()).isEqualTo(DAY.plusDays(1));
+        assertThat(afterDeposit.getMovementsApplied()).isOne();
+
+        // El deposito de ese dia se registro a las 11:00
+        assertThat(balanceAsOf(DAY.plusDays(3).atTime(10, 0)).getBalance()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void aDayWithoutSnapshotStartsFromThePreviousOne() {
+        balanceSnapshotService.snapshot(DAY);
+        balanceSnapshotService.snapshot(DAY.plusDays(1));
+
+        // D + 2 no tuvo movimientos: no tiene foto propia
+        BalanceAsOfDTO quietDay = balanceAsOf(DAY.plusDays(2).atTime(18, 0));
+        assertThat(quietDay.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(quietDay.getSnapshotDate()).isEqualTo(DAY.plusDays(1));
+        assertThat(quietDay.getMovementsApplied()).isZero();
+    }
+
+    @Test
+    void withoutSnapshotsTheBalanceIsRebuiltBackwardsFromTheCurrentOne() {
+        BalanceAsOfDTO noon = balanceAsOf(DAY.atTime(12, 0));
+        assertThat(noon.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(noon.getSnapshotDate()).isNull();
+        assertThat(noon.getMovementsApplied()).isEqualTo(2);
+
+        assertThat(balanceAsOf(DAY.atTime(8, 30)).getBalance()).isEqualByComparingTo("0.00");
+        assertThatThrownBy(() -> balanceAsOf(DAY.minusDays(2).atStartOfDay()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shardedAccountsIncludeTheirShardRows() {
+        // 40 de los 120 estan en las filas repartidas (creditos aun sin compactar)
+        jdbcTemplate.update("UPDATE accounts SET balance = 80.00 WHERE id = ?", account.getId());
+        jdbcTemplate.update("INSERT INTO account_balance_shards (account_id, shard_no, balance) VALUES (?, 0, 15.00), (?, 1, 25.00)",
+                account.getId(), account.getId());
+
+        balanceSnapshotService.snapshot(DAY);
+        balanceSnapshotService.snapshot(DAY.plusDays(1));
+
+        assertThat(snapshots()).containsEntry(DAY.plusDays(1), new BigDecimal("70.00"));
+        assertThat(balanceAsOf(DAY.plusDays(3).atTime(12, 0)).getBalance()).isEqualByComparingTo("120.00");
+        assertThat(balanceAsOf(LocalDateTime.now().plusDays(1)).getBalance()).isEqualByComparingTo("120.00");
+    }
+
+    @Test
+    void repeatingAClosedDayRewritesItsSnapshots() {
+        balanceSnapshotService.snapshot(DAY);
+        jdbcTemplate.update("UPDATE account_balance_snapshots SET balance = 0 WHERE account_id = ?", account.getId());
+
+        balanceSnapshotService.snapshot(DAY);
+
+        assertThat(snapshots()).containsEntry(DAY, new BigDecimal("100.00"));
+    }
+
+    private void movement(LocalDate date, LocalTime time, MovementType type, String amount) {
+        Movement movement = new Movement();
+        movement.setAccount(account);
+        movement.setDate(date);
+        movement.setCreatedAt(date.atTime(time));
+        movement.setDescription("Prueba de cierre");
+        movement.setType(type);
+        movement.setAmount(new BigDecimal(amount));
+        movementRepository.save(movement);
+    }
+
+    private BalanceAsOfDTO balanceAsOf(LocalDateTime asOf) {
+        return balanceSnapshotService.balanceAsOf(account.getId(), account.getAccountNumber(), asOf);
+    }
+
+    private Map<LocalDate, BigDecimal> snapshots() {
+        Map<LocalDate, BigDecimal> snapshots = new TreeMap<>();
+        jdbcTemplate.query("SELECT snapshot_date, balance FROM account_balance_snapshots WHERE account_id = ?",
+                rs -> {
+                    snapshots.put(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2));
+                }, account.getId());
+        return snapshots;
+    }
+}
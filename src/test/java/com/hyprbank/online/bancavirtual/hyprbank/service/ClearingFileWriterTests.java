@@ -0,0 +1,52 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas del formato del archivo de compensacion: ancho fijo, truncado de textos y registro final con CRC32.
+ */
+class ClearingFileWriterTests {
+
+    private static final int RECORD = ClearingFileWriter.RECORD_LENGTH;
+
+    @Test
+    void writesFixedWidthRecordsWithChecksummedTrailer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Buffer de dos registros: obliga a vaciarlo en el canal varias veces
+        ClearingFileWriter writer = new ClearingFileWriter(Channels.newChannel(out), ByteBuffer.allocateDirect(2 * RECORD));
+
+        writer.writeHeader(7, "HYPRBANK", LocalDateTime.of(2025, 3, 4, 5, 6, 7));
+        writer.writeDetail(101, "1000000001", "Banco Industrial", "GT00-1234", "Maria Lopez", 12_345, "Renta");
+        writer.writeDetail(102, "1000000002", "BAM", "GT00-5678", "José Pérez", 50, null);
+        writer.writeDetail(103, "1000000003", "G&T", "GT00-9999", "x".repeat(100), 1, "Pago");
+        writer.writeTrailer();
+
+        byte[] file = out.toByteArray();
+        assertThat(file).hasSize(5 * RECORD);
+        String[] lines = new String(file, StandardCharsets.ISO_8859_1).split("\n");
+        assertThat(lines).hasSize(5).allSatisfy(line -> assertThat(line).hasSize(RECORD - 1));
+
+        assertThat(lines[0]).startsWith("H000000000000000007HYPRBANK20250304050607" + ClearingFileWriter.FORMAT_VERSION);
+        assertThat(lines[1]).startsWith("D000000000000000101" + "1000000001          " + "Banco Industrial");
+        assertThat(lines[1].substring(189, 204)).isEqualTo("000000000012345");
+        assertThat(lines[2]).contains("José Pérez"); // ISO-8859-1
+        assertThat(lines[3].substring(129, 189)).isEqualTo("x".repeat(60)); // Titular truncado a su campo
+
+        CRC32 expected = new CRC32();
+        expected.update(file, RECORD, 3 * RECORD);
+        assertThat(writer.getRecordCount()).isEqualTo(3);
+        assertThat(writer.getTotalCents()).isEqualTo(12_396);
+        assertThat(writer.getChecksum()).isEqualTo(expected.getValue());
+        assertThat(lines[4]).startsWith("T" + "0000000003" + "000000000000012396"
+                + String.format("%010d", expected.getValue()));
+    }
+}
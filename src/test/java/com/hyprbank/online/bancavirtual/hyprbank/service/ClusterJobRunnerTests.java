@@ -0,0 +1,264 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del reparto de particiones de IDs de cuenta entre nodos vivos, y de dos nodos que comparten las
+ * tablas job_leases, job_runs y job_partition_runs (en memoria, con la misma semantica que las consultas).
+ */
+class ClusterJobRunnerTests {
+
+    private static final String JOB = "prueba";
+
+    private final Tables tables = new Tables();
+    private final ClusterJobRunner nodeA = runner("nodo-a", 0);
+    private final ClusterJobRunner nodeB = runner("nodo-b", 1);
+
+    @Test
+    void partitionsCoverTheRangeWithoutGapsOrOverlaps() {
+        long expectedFrom = 7;
+        for (int partition = 0; partition < 16; partition++) {
+            ClusterJobRunner.IdRange range = ClusterJobRunner.partitionRange(7, 1_000, partition, 16);
+            assertThat(range.fromId()).isEqualTo(expectedFrom);
+            assertThat(range.toId() - range.fromId()).isBetween(62L, 63L);
+            expectedFrom = range.toId();
+        }
+        assertThat(expectedFrom).isEqualTo(1_001);
+    }
+
+    @Test
+    void everyPartitionIsAssignedToExactlyOneLiveNode() {
+        for (int nodes = 1; nodes <= 20; nodes++) {
+            List<Integer> assigned = new ArrayList<>();
+            for (int index = 0; index < nodes; index++) {
+                assigned.addAll(ClusterJobRunner.assignedPartitions(index, nodes, 16));
+            }
+            assertThat(assigned).hasSize(16).doesNotHaveDuplicates();
+        }
+        assertThat(ClusterJobRunner.assignedPartitions(1, 3, 16)).containsExactly(1, 4, 7, 10, 13);
+        assertThat(ClusterJobRunner.partitionOrder(1, 3, 6)).containsExactly(1, 4, 0, 2, 3, 5);
+    }
+
+    @Test
+    void twoNodesProcessEveryPartitionOfARunExactlyOnce() throws Exception {
+        Map<Integer, AtomicInteger> runs = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        List<Thread> nodes = new ArrayList<>();
+        for (ClusterJobRunner node : List.of(nodeA, nodeB)) {
+            nodes.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                processed.addAndGet(node.runPartitioned(JOB, "2026-10-18", 1, 1_600, 4, (lease, range) -> {
+                    runs.computeIfAbsent(range.partition(), partition -> new AtomicInteger()).incrementAndGet();
+                    sleep(5);
+                }));
+            }));
+        }
+        start.countDown();
+        for (Thread node : nodes) {
+            node.join();
+        }
+
+        assertThat(runs).hasSize(16);
+        assertThat(runs.values()).allSatisfy(count -> assertThat(count.get()).isOne());
+        assertThat(processed.get()).isEqualTo(16);
+        assertThat(nodeB.incompleteRuns(JOB)).isEmpty();
+    }
+
+    @Test
+    void aFailedPartitionIsRetriedUnderItsOwnRunKeyWithTheOriginalRange() {
+        int processed = nodeA.runPartitioned(JOB, "2026-10-18", 1, 1_600, (lease, range) -> {
+            if (range.partition() == 3) {
+                throw new IllegalStateException("Nodo caido a mitad de la particion");
+            }
+        });
+        assertThat(processed).isEqualTo(15);
+        assertThat(nodeB.incompleteRuns(JOB)).containsExactly("2026-10-18");
+
+        // El dia siguiente es otra ejecucion: no toca la particion pendiente del dia anterior
+        List<ClusterJobRunner.IdRange> retried = new ArrayList<>();
+        assertThat(nodeB.runPartitioned(JOB, "2026-10-19", 1, 2_000, (lease, range) -> { })).isEqualTo(16);
+        assertThat(nodeB.incompleteRuns(JOB)).containsExactly("2026-10-18");
+
+        // Al retomar la clave pendiente se procesa solo esa particion, con el rango fijado la primera vez
+        assertThat(nodeB.runPartitioned(JOB, "2026-10-18", 1, 2_000, (lease, range) -> retried.add(range))).isOne();
+        assertThat(retried).containsExactly(ClusterJobRunner.partitionRange(1, 1_600, 3, 16));
+        assertThat(nodeA.incompleteRuns(JOB)).isEmpty();
+    }
+
+    @Test
+    void aPartitionWhoseLeaseWasTakenOverIsNotMarkedCompleted() {
+        nodeA.runPartitioned(JOB, "2026-10-18", 1, 1_600, (lease, range) -> {
+            if (range.partition() == 5) {
+                tables.takeOver(lease.getName(), "nodo-b"); // Pausa larga: el lease vencio y lo tomo otro nodo
+            }
+        });
+        assertThat(tables.completed("2026-10-18")).hasSize(15).doesNotContain(5);
+
+        List<Integer> retried = new ArrayList<>();
+        assertThat(nodeB.runPartitioned(JOB, "2026-10-18", 1, 1_600, (lease, range) -> retried.add(range.partition()))).isOne();
+        assertThat(retried).containsExactly(5);
+        assertThat(nodeA.incompleteRuns(JOB)).isEmpty();
+    }
+
+    private ClusterJobRunner runner(String nodeId, int index) {
+        Leases leases = new Leases(tables, nodeId);
+        ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.getNodeId()).thenReturn(nodeId);
+        when(membership.assignment()).thenReturn(new ClusterMembership.Assignment(index, 2));
+        return new ClusterJobRunner(leases, new Runs(tables, leases), membership, 30_000, 16);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Lease(String owner, long token, long expiresAtNanos) {
+    }
+
+    /*
+     * Filas de job_leases, job_runs y job_partition_runs compartidas por los nodos.
+     */
+    private static final class Tables {
+        private final Map<String, Lease> leases = new HashMap<>();
+        private final Map<String, JobRunService.Run> runs = new LinkedHashMap<>();
+        private final Set<String> completedRuns = new HashSet<>();
+        private final Map<String, Set<Integer>> completedPartitions = new HashMap<>();
+
+        synchronized Set<Integer> completed(String runKey) {
+            return new HashSet<>(completedPartitions.getOrDefault(runKey, Set.of()));
+        }
+
+        synchronized void takeOver(String name, String owner) {
+            Lease lease = leases.get(name);
+            leases.put(name, new Lease(owner, lease.token() + 1, System.nanoTime() + Duration.ofMinutes(1).toNanos()));
+        }
+
+        synchronized boolean held(String name, String owner, long token) {
+            Lease lease = leases.get(name);
+            return lease != null && owner.equals(lease.owner()) && lease.token() == token && lease.expiresAtNanos() > System.nanoTime();
+        }
+    }
+
+    private static final class Leases extends JobLeaseService {
+        private final Tables tables;
+
+        Leases(Tables tables, String nodeId) {
+            super(null, nodeId);
+            this.tables = tables;
+        }
+
+        @Override
+        public OptionalLong tryAcquire(String name, Duration ttl) {
+            synchronized (tables) {
+                Lease lease = tables.leases.get(name);
+                long now = System.nanoTime();
+                boolean mine = lease != null && getNodeId().equals(lease.owner());
+                if (lease != null && !mine && lease.owner() != null && lease.expiresAtNanos() > now) {
+                    return OptionalLong.empty();
+                }
+                long token = lease == null ? 1 : mine ? lease.token() : lease.token() + 1;
+                tables.leases.put(name, new Lease(getNodeId(), token, now + ttl.toNanos()));
+                return OptionalLong.of(token);
+            }
+        }
+
+        @Override
+        public void release(String name) {
+            synchronized (tables) {
+                Lease lease = tables.leases.get(name);
+                if (lease != null && getNodeId().equals(lease.owner())) {
+                    tables.leases.put(name, new Lease(null, lease.token(), System.nanoTime() - 1));
+                }
+            }
+        }
+
+        @Override
+        public void checkHeld(String name, long fencingToken) {
+            if (!tables.held(name, getNodeId(), fencingToken)) {
+                throw new IllegalStateException("El lease " + name + " ya no pertenece al nodo " + getNodeId() + ".");
+            }
+        }
+    }
+
+    private static final class Runs extends JobRunService {
+        private final Tables tables;
+        private final String nodeId;
+
+        Runs(Tables tables, JobLeaseService leases) {
+            super(null, leases);
+            this.tables = tables;
+            this.nodeId = leases.getNodeId();
+        }
+
+        @Override
+        public Run start(String jobName, String runKey, long minId, long maxId, int partitions) {
+            synchronized (tables) {
+                return tables.runs.computeIfAbsent(runKey, key -> new Run(minId, maxId, partitions));
+            }
+        }
+
+        @Override
+        public Set<Integer> completedPartitions(String jobName, String runKey) {
+            return tables.completed(runKey);
+        }
+
+        @Override
+        public boolean isPartitionCompleted(String jobName, String runKey, int partition) {
+            return tables.completed(runKey).contains(partition);
+        }
+
+        @Override
+        public void completePartition(String jobName, String runKey, int partition, String leaseName, long fencingToken) {
+            synchronized (tables) {
+                if (!tables.held(leaseName, nodeId, fencingToken)) {
+                    throw new IllegalStateException("El lease " + leaseName + " ya no pertenece al nodo " + nodeId + ".");
+                }
+                tables.completedPartitions.computeIfAbsent(runKey, key -> new HashSet<>()).add(partition);
+            }
+        }
+
+        @Override
+        public void completeRun(String jobName, String runKey) {
+            synchronized (tables) {
+                tables.completedRuns.add(runKey);
+            }
+        }
+
+        @Override
+        public List<String> incompleteRuns(String jobName) {
+            synchronized (tables) {
+                return tables.runs.keySet().stream().filter(key -> !tables.completedRuns.contains(key)).toList();
+            }
+        }
+
+        @Override
+        public void purge(String jobName, int days) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.CustomerSearchHit;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/*
+ * Pruebas del indice de busqueda en memoria.
+ * Se alimenta con los mismos metodos que usa SearchIndexEntityListener, sin base de datos.
+ */
+class CustomerSearchIndexTests {
+
+    private CustomerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CustomerSearchIndex(mock(UserRepository.class), mock(AccountRepository.class),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 1_000);
+        index.onUserSaved(1L, "José", "López", "jose.lopez@hyprbank.com", "1234567890101", "1234-5");
+        index.onUserSaved(2L, "Ana", "Lopez", "ana@correo.com", "9876543210101", "555");
+        index.onUserSaved(3L, "Andrés", "Martínez", "andres@hyprbank.com", null, null);
+        index.onAccountSaved(2L, "100000000017");
+    }
+
+    @Test
+    void prefixMatchIgnoresCaseAndAccents() {
+        assertThat(ids(index.search("LOP", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("andres", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertThat(ids(index.search("lop jo", 10))).containsExactly(1L);
+        assertThat(ids(index.search("an mar", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void findsByEmailNitAndAccountNumber() {
+        assertThat(ids(index.search("jose.lopez@hyp", 10))).containsExactly(1L);
+        assertThat(ids(index.search("1234-", 10))).containsExactly(1L);
+        assertThat(ids(index.search("10000000", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldTerms() {
+        index.onUserSaved(1L, "José", "Pérez", "jose.perez@hyprbank.com", "1234567890101", "1234-5");
+        assertThat(ids(index.search("lopez", 10))).containsExactly(2L);
+        assertThat(ids(index.search("perez", 10))).containsExactly(1L);
+
+        index.onAccountRemoved(2L, "100000000017");
+        index.onUserRemoved(3L);
+        assertThat(index.search("100000000017", 10)).isEmpty();
+        assertThat(index.search("andres", 10)).isEmpty();
+        assertThat(index.documentCount()).isEqualTo(2);
+    }
+
+    private static List<Long> ids(List<CustomerSearchHit> hits) {
+        return hits.stream().map(CustomerSearchHit::getUserId).toList();
+    }
+}
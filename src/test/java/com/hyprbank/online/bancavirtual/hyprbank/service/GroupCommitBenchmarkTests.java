@@ -0,0 +1,213 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Benchmark de depositos pequenos desde muchos clientes a la vez, cada uno confirmando su propia transaccion
+ * (modo normal) o pasando por GroupCommitExecutor. Deja en el log operaciones por segundo, p50 y p99 de cada
+ * modo para varios numeros de clientes, comprueba que ningun deposito se pierde y que una operacion que falla
+ * no arrastra a las demas de su lote.
+ *
+ * Necesita la base de datos MySQL configurada (y al menos un usuario), por eso solo se ejecuta con:
+ *   mvn test -Dtest=GroupCommitBenchmarkTests -Dhyprbank.benchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.connection-timeout=60000",
+        "hyprbank.group-commit.enabled=true"
+})
+@EnabledIfSystemProperty(named = "hyprbank.benchmark", matches = "true")
+class GroupCommitBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitBenchmarkTests.class);
+
+    private static final int ACCOUNTS = 64;
+    private static final int OPERATIONS = 8_192; // Divisible entre cada numero de clientes
+    private static final int[] CLIENTS = {16, 64, 256};
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private GroupCommitExecutor groupCommit;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private List<Account> accounts;
+
+    @BeforeEach
+    void createAccounts() {
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long prefix = System.nanoTime() % 1_000_000_000L;
+        List<Account> created = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber("BENCH" + prefix + String.format("%02d", i));
+            account.setBalance(BigDecimal.ZERO);
+            account.setAccountType("MONETARIA");
+            account.setStatus("ACTIVE");
+            account.setCreationDate(LocalDateTime.now());
+            account.setUser(userRepository.getReferenceById(userId));
+            created.add(account);
+        }
+        accounts = accountRepository.saveAll(created);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Account account : accounts) {
+            for (String table : List.of("movement_chain_pending", "movement_outbox", "movements", "account_balance_shards",
+                    "movement_chain_checkpoints", "account_balance_snapshots")) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE account_id = ?", account.getId());
+            }
+            jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", account.getId());
+        }
+    }
+
+    @Test
+    void groupCommitAgainstOneTransactionPerRequest() throws Exception {
+        run(CLIENTS[0], OPERATIONS / 4, false); // Calentamiento (conexiones, planes de ejecucion, bloques de IDs)
+        run(CLIENTS[0], OPERATIONS / 4, true);
+
+        for (int clients : CLIENTS) {
+            for (boolean grouped : new boolean[] {false, true}) {
+                Result result = run(clients, OPERATIONS, grouped);
+                logger.info("Depositos ({}, {} clientes): {} ops/s, p50 {} ms, p99 {} ms", grouped ? "group" : "normal", clients,
+                        Math.round(result.perSecond), String.format("%.2f", result.p50Millis), String.format("%.2f", result.p99Millis));
+            }
+        }
+
+        long deposits = 2L * OPERATIONS / 4 + 2L * OPERATIONS * CLIENTS.length;
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            total = total.add(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account.getId()));
+        }
+        assertThat(total).isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(deposits)));
+    }
+
+    @Test
+    void failingOperationsDoNotPoisonTheirBatch() throws Exception {
+        int clients = 60;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                String accountNumber = accounts.get(c % ACCOUNTS).getAccountNumber();
+                Supplier<?> work = switch (c % 3) {
+                    // Deposito valido
+                    case 0 -> () -> transactionService.performAdminDeposit(new MovementRequest(accountNumber, AMOUNT, "Benchmark", null));
+                    // Cuenta inexistente
+                    case 1 -> () -> transactionService.performAdminDeposit(new MovementRequest("NOEXISTE" + client, AMOUNT, "Benchmark", null));
+                    // Saldo insuficiente
+                    default -> () -> transactionService.performWithdrawal(new MovementRequest(accountNumber, new BigDecimal("1000000"), "Benchmark", null), userId);
+                };
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return groupCommit.execute(work);
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int rejected = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+                    rejected++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(clients / 3);
+            assertThat(rejected).isEqualTo(clients - clients / 3);
+        }
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long expected = i < clients && i % 3 == 0 ? 1 : 0;
+            assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accounts.get(i).getId()))
+                    .isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(expected)));
+        }
+    }
+
+    /*
+     * 'total' depositos repartidos entre 'clients' hilos virtuales que empiezan a la vez; el cliente c deposita
+     * en la cuenta c % ACCOUNTS. Devuelve operaciones por segundo y la latencia de cada deposito.
+     */
+    private Result run(int clients, int total, boolean grouped) throws Exception {
+        int perClient = total / clients;
+        long[] latencies = new long[perClient * clients];
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                MovementRequest request = new MovementRequest(accounts.get(c % ACCOUNTS).getAccountNumber(), AMOUNT, "Benchmark", null);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perClient; i++) {
+                        long begin = System.nanoTime();
+                        if (grouped) {
+                            groupCommit.execute(() -> transactionService.performAdminDeposit(request));
+                        } else {
+                            transactionService.performAdminDeposit(request);
+                        }
+                        latencies[client * perClient + i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            Arrays.sort(latencies);
+            return new Result(latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99));
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(double perSecond, double p50Millis, double p99Millis) {
+    }
+}
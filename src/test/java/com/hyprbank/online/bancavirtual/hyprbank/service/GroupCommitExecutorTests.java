@@ -0,0 +1,218 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.RollbackException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas de un lote del group commit con el JpaTransactionManager de la aplicacion; solo el proveedor JPA es
+ * de prueba (una EntityTransaction que registra cada BEGIN, COMMIT y ROLLBACK). Cada operacion corre en un
+ * TransactionTemplate con propagacion REQUIRED, como los metodos @Transactional de TransactionService: se une a
+ * la transaccion del lote y, si falla, la marca solo para rollback. Un solo hilo confirmador y lotes de BATCH
+ * operaciones: las BATCH operaciones de cada prueba caen en el mismo lote.
+ */
+class GroupCommitExecutorTests {
+
+    private static final int BATCH = 3;
+
+    private final Transaction transaction = new Transaction();
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory());
+    private final TransactionTemplate service = new TransactionTemplate(transactionManager);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GroupCommitExecutor executor = new GroupCommitExecutor(transactionManager, entityManager, meterRegistry,
+            true, BATCH, 5_000_000, 1, 100);
+
+    @AfterEach
+    void stop() {
+        executor.stop();
+    }
+
+    @Test
+    void operationsOfABatchAreCommittedTogether() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<Object>> results = executeTogether(
+                () -> count(calls, "a"),
+                () -> count(calls, "b"),
+                () -> count(calls, "c"));
+
+        assertThat(results.get(0).get()).isEqualTo("a");
+        assertThat(results.get(1).get()).isEqualTo("b");
+        assertThat(results.get(2).get()).isEqualTo("c");
+        assertThat(calls.get()).isEqualTo(BATCH);
+        assertThat(transaction.events).containsExactly("BEGIN", "COMMIT");
+        assertThat(meterRegistry.get("hyprbank.group-commit.batch-size").summary().totalAmount()).isEqualTo(BATCH);
+        assertThat(meterRegistry.get("hyprbank.group-commit.retries").counter().count()).isZero();
+    }
+
+    @Test
+    void aFailingOperationGetsOnlyItsOwnException() throws Exception {
+        IllegalArgumentException insufficient = new IllegalArgumentException("Saldo insuficiente");
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<Object>> results = executeTogether(
+                () -> count(calls, "deposito"),
+                () -> {
+                    calls.incrementAndGet();
+                    throw insufficient;
+                },
+                () -> count(calls, "retiro"));
+
+        assertThat(results.get(0).get()).isEqualTo("deposito");
+        assertThatThrownBy(() -> results.get(1).get()).isInstanceOf(ExecutionException.class).cause().isSameAs(insufficient);
+        assertThat(results.get(2).get()).isEqualTo("retiro");
+
+        // El lote se revierte y las otras dos se confirman juntas sin ella; la fallida no se repite
+        assertThat(transaction.events).containsExactly("BEGIN", "ROLLBACK", "BEGIN", "COMMIT");
+        assertThat(calls.get()).isBetween(BATCH, 2 * BATCH - 1);
+        assertThat(meterRegistry.get("hyprbank.group-commit.retries").counter().count()).isEqualTo(BATCH - 1);
+    }
+
+    @Test
+    void anOperationThatPoisonsTheBatchMakesEveryOperationRunAlone() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger deadlocks = new AtomicInteger();
+        List<Future<Object>> results = executeTogether(
+                () -> count(calls, "a"),
+                () -> {
+                    calls.incrementAndGet();
+                    if (deadlocks.getAndIncrement() == 0) {
+                        throw new PessimisticLockingFailureException("Deadlock found when trying to get lock");
+                    }
+                    return "b";
+                },
+                () -> count(calls, "c"));
+
+        assertThat(results.get(0).get()).isEqualTo("a");
+        assertThat(results.get(1).get()).isEqualTo("b");
+        assertThat(results.get(2).get()).isEqualTo("c");
+
+        // El lote se revirtio completo y cada operacion se aplico de nuevo sola (las anteriores al error, dos veces)
+        assertThat(transaction.events).containsExactly("BEGIN", "ROLLBACK", "BEGIN", "COMMIT", "BEGIN", "COMMIT", "BEGIN", "COMMIT");
+        assertThat(deadlocks.get()).isEqualTo(2);
+        assertThat(calls.get()).isBetween(BATCH + 1, 2 * BATCH);
+        assertThat(meterRegistry.get("hyprbank.group-commit.retries").counter().count()).isEqualTo(BATCH);
+    }
+
+    @Test
+    void aFailedCommitFailsEveryOperationOfTheBatchWithoutRetrying() throws Exception {
+        PersistenceException lostConnection = new PersistenceException("Communications link failure");
+        transaction.commitFailure = lostConnection;
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<Object>> results = executeTogether(
+                () -> count(calls, "a"),
+                () -> count(calls, "b"),
+                () -> count(calls, "c"));
+
+        for (Future<Object> result : results) {
+            assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).rootCause().isSameAs(lostConnection);
+        }
+        // No se sabe si el COMMIT quedo aplicado: ninguna operacion se repite
+        assertThat(calls.get()).isEqualTo(BATCH);
+        assertThat(transaction.events).containsExactly("BEGIN", "COMMIT FAILED");
+        assertThat(meterRegistry.get("hyprbank.group-commit.retries").counter().count()).isZero();
+    }
+
+    /*
+     * Arranca el executor y envia las operaciones desde hilos virtuales; con un solo hilo confirmador y la espera
+     * maxima larga, el lote se cierra al llegar la ultima. Cada operacion corre como un metodo @Transactional.
+     */
+    @SafeVarargs
+    private List<Future<Object>> executeTogether(Supplier<Object>... operations) throws Exception {
+        executor.start();
+        List<Future<Object>> results = new ArrayList<>(operations.length);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Supplier<Object> operation : operations) {
+                results.add(clients.submit(() -> executor.execute(() -> service.execute(status -> operation.get()))));
+            }
+        }
+        return results;
+    }
+
+    private static Object count(AtomicInteger calls, String value) {
+        calls.incrementAndGet();
+        return value;
+    }
+
+    private EntityManagerFactory entityManagerFactory() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        return entityManagerFactory;
+    }
+
+    /*
+     * Transaccion JPA de prueba. Como la de Hibernate, una transaccion marcada solo para rollback no se puede
+     * confirmar ni desmarcar.
+     */
+    private static final class Transaction implements EntityTransaction {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private volatile RuntimeException commitFailure;
+        private boolean active;
+        private boolean rollbackOnly;
+
+        @Override
+        public void begin() {
+            events.add("BEGIN");
+            active = true;
+            rollbackOnly = false;
+        }
+
+        @Override
+        public void commit() {
+            active = false;
+            if (rollbackOnly) {
+                events.add("ROLLBACK");
+                throw new RollbackException("Transaction was marked for rollback only");
+            }
+            if (commitFailure != null) {
+                events.add("COMMIT FAILED");
+                throw commitFailure;
+            }
+            events.add("COMMIT");
+        }
+
+        @Override
+        public void rollback() {
+            active = false;
+            events.add("ROLLBACK");
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
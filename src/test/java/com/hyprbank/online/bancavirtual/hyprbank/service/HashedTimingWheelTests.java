@@ -0,0 +1,54 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas de la rueda de tiempos y del calculo de ocurrencias de las transferencias programadas.
+ */
+class HashedTimingWheelTests {
+
+    @Test
+    void expiresIdsInTheirTickAcrossRounds() {
+        HashedTimingWheel wheel = new HashedTimingWheel(10, 8, 0);
+        List<Long> expired = new ArrayList<>();
+        wheel.schedule(1, 5);
+        wheel.schedule(2, 10);
+        wheel.schedule(3, 95); // Misma casilla que el tick 2, una vuelta despues
+        wheel.schedule(4, 1_000);
+
+        wheel.advance(9, expired::add);
+        assertThat(expired).isEmpty();
+        wheel.advance(20, expired::add);
+        assertThat(expired).containsExactlyInAnyOrder(1L, 2L);
+        wheel.advance(100, expired::add);
+        assertThat(expired).containsExactlyInAnyOrder(1L, 2L, 3L);
+
+        // Una pausa de muchas vueltas revisa cada casilla una sola vez
+        wheel.advance(50_000, expired::add);
+        assertThat(expired).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(wheel.size()).isZero();
+
+        // Lo que ya vencio al programarse sale en el siguiente avance
+        wheel.schedule(5, 0);
+        wheel.advance(50_010, expired::add);
+        assertThat(expired).contains(5L);
+    }
+
+    @Test
+    void monthlyOccurrencesAreComputedFromTheFirstDate() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 9, 0);
+        assertThat(RecurringTransferService.occurrence(start, RecurringTransfer.Frequency.MONTHLY, 1))
+                .isEqualTo(LocalDateTime.of(2025, 2, 28, 9, 0));
+        assertThat(RecurringTransferService.occurrence(start, RecurringTransfer.Frequency.MONTHLY, 2))
+                .isEqualTo(LocalDateTime.of(2025, 3, 31, 9, 0));
+        assertThat(RecurringTransferService.occurrence(start, RecurringTransfer.Frequency.ONCE, 1)).isNull();
+    }
+}
@@ -0,0 +1,126 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.InterestAccrualResult;
+import com.hyprbank.online.bancavirtual.hyprbank.dto.RegistrationRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.User;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Devengo de un dia sobre la base de datos configurada, con una cuenta de ahorro abierta como la abre la
+ * aplicacion (UserServiceImpl.save) y otra del mismo cliente con un estado que no devenga. El dia devengado es
+ * antiguo y las cuentas se fechan el dia anterior, para no abonar intereses a otras cuentas de la base.
+ *
+ * Necesita la base de datos MySQL configurada, por eso solo se ejecuta con:
+ *   mvn test -Dtest=InterestAccrualJobDatabaseTests -Dhyprbank.database-tests=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hyprbank.database-tests", matches = "true")
+class InterestAccrualJobDatabaseTests {
+
+    private static final LocalDate DAY = LocalDate.of(2000, 1, 1);
+    private static final String RUN_KEY = DAY.toString();
+
+    @Autowired
+    private InterestAccrualJob interestAccrualJob;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long savingsId;
+    private Long blockedId;
+
+    @BeforeEach
+    void openAccounts() {
+        deleteRun(); // Restos de una ejecucion interrumpida: el dia quedaria marcado como terminado
+
+        long suffix = System.nanoTime() % 1_000_000_000L;
+        User user = userService.save(new RegistrationRequest(null, "Prueba", "Intereses", "intereses" + suffix + "@hyprbank.test",
+                "secreto", "DPI" + suffix, "NIT" + suffix, "55550000"));
+        userId = user.getId();
+        savingsId = jdbcTemplate.queryForObject("SELECT id FROM accounts WHERE user_id = ?", Long.class, userId);
+
+        Account blocked = new Account();
+        blocked.setAccountNumber("INT" + suffix);
+        blocked.setBalance(BigDecimal.ZERO);
+        blocked.setAccountType("AHORROS");
+        blocked.setStatus("BLOQUEADA");
+        blocked.setUser(user);
+        blockedId = accountRepository.save(blocked).getId();
+
+        Timestamp openedTheDayBefore = Timestamp.valueOf(DAY.minusDays(1).atTime(8, 0));
+        jdbcTemplate.update("UPDATE accounts SET balance = 1000000.00, creation_date = ? WHERE id IN (?, ?)",
+                openedTheDayBefore, savingsId, blockedId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : List.of(savingsId, blockedId)) {
+            for (String table : List.of("movement_outbox", "movements", "movement_chain_checkpoints", "account_balance_snapshots")) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE account_id = ?", id);
+            }
+            jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        deleteRun();
+    }
+
+    @Test
+    void accountsOpenedByTheApplicationAccrueInterest() {
+        // 1,000,000.00 * 0.025 / 365 = 68.4931506849...
+        InterestAccrualResult result = interestAccrualJob.accrue(DAY);
+
+        assertThat(result.getAccounts()).isOne();
+        Map<String, Object> savings = jdbcTemplate.queryForMap("SELECT status, balance, accrued_interest, last_accrual_date "
+                + "FROM accounts WHERE id = ?", savingsId);
+        assertThat(savings.get("status")).isEqualTo("ACTIVA");
+        assertThat((BigDecimal) savings.get("balance")).isEqualByComparingTo("1000068.49");
+        assertThat((BigDecimal) savings.get("accrued_interest")).isEqualByComparingTo("0.0031506849");
+        assertThat(savings.get("last_accrual_date")).isEqualTo(Date.valueOf(DAY));
+        assertThat(jdbcTemplate.queryForList("SELECT amount FROM movements WHERE account_id = ? AND date = ? AND type = 'INCOME'",
+                BigDecimal.class, savingsId, Date.valueOf(DAY)))
+                .singleElement().satisfies(amount -> assertThat(amount).isEqualByComparingTo("68.49"));
+
+        // Un estado fuera de hyprbank.interest.account-statuses no devenga
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, blockedId))
+                .isEqualByComparingTo("1000000.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movements WHERE account_id = ?", Long.class, blockedId)).isZero();
+
+        // Repetir el dia no vuelve a abonar
+        interestAccrualJob.accrue(DAY);
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, savingsId))
+                .isEqualByComparingTo("1000068.49");
+    }
+
+    private void deleteRun() {
+        jdbcTemplate.update("DELETE FROM job_partition_runs WHERE job_name = 'interest-accrual' AND run_key = ?", RUN_KEY);
+        jdbcTemplate.update("DELETE FROM job_runs WHERE job_name = 'interest-accrual' AND run_key = ?", RUN_KEY);
+        jdbcTemplate.update("DELETE FROM batch_checkpoints WHERE job_name = ?", "interest-accrual:" + RUN_KEY);
+        jdbcTemplate.update("DELETE FROM interest_accrual_runs WHERE accrual_date = ?", Date.valueOf(DAY));
+    }
+}
@@ -0,0 +1,42 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas del calculo del devengo diario: abono en centavos completos y fraccion conservada.
+ */
+class InterestAccrualJobTests {
+
+    private static final BigDecimal RATE = new BigDecimal("0.025");
+    private static final BigDecimal BASIS = BigDecimal.valueOf(365);
+
+    @Test
+    void carriesFractionsOfACentUntilTheyAddUpToOne() {
+        InterestAccrualJob.Accrual first = InterestAccrualJob.dailyAccrual(new BigDecimal("100.00"), BigDecimal.ZERO, RATE, BASIS);
+        assertThat(first.posted()).isEqualByComparingTo("0.00");
+        assertThat(first.remainder()).isEqualByComparingTo("0.0068493151");
+
+        InterestAccrualJob.Accrual second = InterestAccrualJob.dailyAccrual(new BigDecimal("100.00"), first.remainder(), RATE, BASIS);
+        assertThat(second.posted()).isEqualByComparingTo("0.01");
+        assertThat(second.remainder()).isEqualByComparingTo("0.0036986302");
+    }
+
+    @Test
+    void postsWholeCentsAndNeverMoreThanAccrued() {
+        // 1,000,000.00 * 0.025 / 365 = 68.4931506849...
+        InterestAccrualJob.Accrual accrual = InterestAccrualJob.dailyAccrual(new BigDecimal("1000000.00"), BigDecimal.ZERO, RATE, BASIS);
+        assertThat(accrual.posted()).isEqualByComparingTo("68.49");
+        assertThat(accrual.remainder()).isEqualByComparingTo("0.0031506849");
+    }
+
+    @Test
+    void nonPositiveBalancesDoNotAccrue() {
+        InterestAccrualJob.Accrual accrual = InterestAccrualJob.dailyAccrual(new BigDecimal("-50.00"), new BigDecimal("0.0040000000"), RATE, BASIS);
+        assertThat(accrual.posted()).isEqualByComparingTo("0.00");
+        assertThat(accrual.remainder()).isEqualByComparingTo("0.0040000000");
+    }
+}
@@ -0,0 +1,112 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.ReconciliationResult;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas de la conciliacion del mayor sobre la base de datos configurada: se plantan una cuenta cuadrada y
+ * una descuadrada y se revisa lo que queda registrado de la ejecucion.
+ *
+ * Necesita la base de datos MySQL configurada, por eso solo se ejecuta con:
+ *   mvn test -Dtest=LedgerReconciliationJobTests -Dhyprbank.database-tests=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hyprbank.database-tests", matches = "true")
+class LedgerReconciliationJobTests {
+
+    @Autowired
+    private LedgerReconciliationJob ledgerReconciliationJob;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> accountIds = new ArrayList<>();
+    private Long runId;
+
+    @AfterEach
+    void cleanUp() {
+        if (runId != null) {
+            jdbcTemplate.update("DELETE FROM reconciliation_discrepancies WHERE run_id = ?", runId);
+            jdbcTemplate.update("DELETE FROM reconciliation_runs WHERE id = ?", runId);
+        }
+        for (Long id : accountIds) {
+            jdbcTemplate.update("DELETE FROM movements WHERE account_id = ?", id);
+            jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void findsAndRecordsAnAccountWhoseBalanceDoesNotMatchItsMovements() {
+        Account balanced = account("75.00");
+        movement(balanced, MovementType.INCOME, "100.00");
+        movement(balanced, MovementType.EXPENSE, "25.00");
+        Account tampered = account("100.00"); // Saldo modificado sin movimiento: solo hay un deposito de 60
+        movement(tampered, MovementType.INCOME, "60.00");
+
+        ReconciliationResult result = ledgerReconciliationJob.run().orElseThrow();
+        runId = result.getRunId();
+
+        assertThat(result.getDiscrepancies()).isPositive();
+        assertThat(result.getAccounts()).isGreaterThanOrEqualTo(2);
+        List<Map<String, Object>> recorded = jdbcTemplate.queryForList("SELECT account_id, balance, movement_net, movement_count "
+                + "FROM reconciliation_discrepancies WHERE run_id = ? AND account_id IN (?, ?)", runId, balanced.getId(), tampered.getId());
+        assertThat(recorded).hasSize(1);
+        assertThat(((Number) recorded.get(0).get("account_id")).longValue()).isEqualTo(tampered.getId());
+        assertThat((BigDecimal) recorded.get(0).get("balance")).isEqualByComparingTo("100.00");
+        assertThat((BigDecimal) recorded.get(0).get("movement_net")).isEqualByComparingTo("60.00");
+        assertThat(((Number) recorded.get(0).get("movement_count")).longValue()).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT discrepancies FROM reconciliation_runs WHERE id = ?", Long.class, runId))
+                .isEqualTo(result.getDiscrepancies());
+    }
+
+    private Account account(String balance) {
+        Account account = new Account();
+        account.setAccountNumber("RECON" + System.nanoTime() % 1_000_000_000_000L);
+        account.setBalance(new BigDecimal(balance));
+        account.setAccountType("MONETARIA");
+        account.setStatus("ACTIVE");
+        account.setCreationDate(LocalDateTime.now());
+        account.setUser(userRepository.getReferenceById(jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class)));
+        Account saved = accountRepository.save(account);
+        accountIds.add(saved.getId());
+        return saved;
+    }
+
+    private void movement(Account account, MovementType type, String amount) {
+        Movement movement = new Movement();
+        movement.setAccount(account);
+        movement.setDescription("Prueba de conciliacion");
+        movement.setType(type);
+        movement.setAmount(new BigDecimal(amount));
+        movementRepository.save(movement);
+    }
+}
@@ -0,0 +1,168 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Costo del encadenamiento de hashes en la ruta real de insercion: depositos por TransactionService, con la
+ * lectura FOR UPDATE del ultimo eslabon, el hash y el UPDATE de accounts. Compara el tiempo de
+ * hyprbank.movements.chain.link (incluye la espera del bloqueo) con el de cada deposito completo, con cada
+ * cliente en su propia cuenta y con todos los clientes en una sola cuenta. Los resultados van al log.
+ *
+ * Necesita la base de datos MySQL configurada (y al menos un usuario), por eso solo se ejecuta con:
+ *   mvn test -Dtest=MovementHashChainBenchmarkTests -Dhyprbank.benchmark=true
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.connection-timeout=60000")
+@EnabledIfSystemProperty(named = "hyprbank.benchmark", matches = "true")
+class MovementHashChainBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovementHashChainBenchmarkTests.class);
+
+    private static final int CLIENTS = 32;
+    private static final int DEPOSITS_PER_CLIENT = 100;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Account> accounts;
+
+    @BeforeEach
+    void createAccounts() {
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long prefix = System.nanoTime() % 1_000_000_000L;
+        List<Account> created = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber("CHAIN" + prefix + String.format("%02d", i));
+            account.setBalance(BigDecimal.ZERO);
+            account.setAccountType("MONETARIA");
+            account.setStatus("ACTIVE");
+            account.setCreationDate(LocalDateTime.now());
+            account.setUser(userRepository.getReferenceById(userId));
+            created.add(account);
+        }
+        accounts = accountRepository.saveAll(created);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Account account : accounts) {
+            for (String table : List.of("movement_outbox", "movements", "movement_chain_checkpoints", "account_balance_snapshots")) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE account_id = ?", account.getId());
+            }
+            jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", account.getId());
+        }
+    }
+
+    @Test
+    void chainingCostOnTheDepositPath() throws Exception {
+        deposit(false); // Calentamiento (conexiones, planes de ejecucion, bloques de IDs)
+
+        Cost ownAccounts = deposit(false);
+        Cost oneAccount = deposit(true);
+        for (Cost cost : List.of(ownAccounts, oneAccount)) {
+            logger.info("Encadenamiento ({}): deposito {} us, encadenar {} us ({}% del deposito; hash {} us), {} depositos/s",
+                    cost.label(), Math.round(cost.depositMicros()), Math.round(cost.linkMicros()),
+                    Math.round(100 * cost.linkMicros() / cost.depositMicros()), String.format("%.1f", cost.hashMicros()),
+                    Math.round(cost.perSecond()));
+        }
+
+        // Cada deposito quedo encadenado: la posicion del ultimo eslabon es la cantidad de depositos de la cuenta
+        long deposits = 2L * DEPOSITS_PER_CLIENT + (long) CLIENTS * DEPOSITS_PER_CLIENT;
+        assertThat(jdbcTemplate.queryForObject("SELECT chain_seq FROM accounts WHERE id = ?", Long.class, accounts.get(0).getId()))
+                .isEqualTo(deposits);
+        assertThat(ownAccounts.linkMicros()).isLessThan(ownAccounts.depositMicros());
+    }
+
+    /*
+     * CLIENTS hilos virtuales con DEPOSITS_PER_CLIENT depositos cada uno, en su propia cuenta o todos en la
+     * primera. Devuelve la media por deposito, la de los timers del encadenamiento en ese intervalo y el ritmo.
+     */
+    private Cost deposit(boolean sameAccount) throws Exception {
+        Timer link = meterRegistry.get("hyprbank.movements.chain.link").timer();
+        Timer hash = meterRegistry.get("hyprbank.movements.chain.hash").timer();
+        long linkCount = link.count();
+        double linkNanos = link.totalTime(TimeUnit.NANOSECONDS);
+        long hashCount = hash.count();
+        double hashNanos = hash.totalTime(TimeUnit.NANOSECONDS);
+
+        long[] latencies = new long[CLIENTS * DEPOSITS_PER_CLIENT];
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                MovementRequest request = new MovementRequest(accounts.get(sameAccount ? 0 : c).getAccountNumber(), AMOUNT,
+                        "Benchmark cadena", null);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < DEPOSITS_PER_CLIENT; i++) {
+                        long depositStart = System.nanoTime();
+                        transactionService.performAdminDeposit(request);
+                        latencies[client * DEPOSITS_PER_CLIENT + i] = System.nanoTime() - depositStart;
+                    }
+                    return null;
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        long total = 0;
+        for (long latency : latencies) {
+            total += latency;
+        }
+        return new Cost(sameAccount ? "todos en una cuenta" : "una cuenta por cliente",
+                total / 1e3 / latencies.length,
+                (link.totalTime(TimeUnit.NANOSECONDS) - linkNanos) / 1e3 / (link.count() - linkCount),
+                (hash.totalTime(TimeUnit.NANOSECONDS) - hashNanos) / 1e3 / (hash.count() - hashCount),
+                latencies.length / seconds);
+    }
+
+    private record Cost(String label, double depositMicros, double linkMicros, double hashMicros, double perSecond) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement.MovementType;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas del hash de encadenamiento de movimientos: cada campo y el hash anterior cambian el resultado.
+ */
+class MovementHashChainTests {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 4);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 4, 10, 15, 30, 123_456_000);
+    private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+    @Test
+    void sameContentGivesTheSameHash() {
+        byte[] first = MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, new BigDecimal("100.00"), "Deposito", CREATED);
+        byte[] second = MovementHashChain.hash(MovementHashChain.GENESIS, 7, 1, DATE, MovementType.INCOME, new BigDecimal("100.0"), "Deposito", CREATED);
+        assertThat(first).hasSize(MovementHashChain.HASH_LENGTH).isEqualTo(second);
+    }
+
+    @Test
+    void anyEditedFieldChangesTheHash() {
+        byte[] previous = MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, new BigDecimal("100.00"), "Deposito", CREATED);
+        byte[] original = MovementHashChain.hash(previous, 7, 2, DATE, MovementType.EXPENSE, AMOUNT, "Retiro", CREATED);
+
+        assertThat(MovementHashChain.hash(previous, 7, 2, DATE, MovementType.EXPENSE, new BigDecimal("25.01"), "Retiro", CREATED)).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 7, 2, DATE, MovementType.INCOME, AMOUNT, "Retiro", CREATED)).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 7, 2, DATE.plusDays(1), MovementType.EXPENSE, AMOUNT, "Retiro", CREATED)).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 7, 2, DATE, MovementType.EXPENSE, AMOUNT, "Retiro.", CREATED)).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 7, 2, DATE, MovementType.EXPENSE, AMOUNT, "Retiro", CREATED.plusNanos(1_000))).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 8, 2, DATE, MovementType.EXPENSE, AMOUNT, "Retiro", CREATED)).isNotEqualTo(original);
+        assertThat(MovementHashChain.hash(previous, 7, 3, DATE, MovementType.EXPENSE, AMOUNT, "Retiro", CREATED)).isNotEqualTo(original);
+
+        // Editar el movimiento anterior cambia su hash y, con el, el de todos los siguientes
+        byte[] editedPrevious = MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, new BigDecimal("1000.00"), "Deposito", CREATED);
+        assertThat(MovementHashChain.hash(editedPrevious, 7, 2, DATE, MovementType.EXPENSE, AMOUNT, "Retiro", CREATED)).isNotEqualTo(original);
+    }
+
+    @Test
+    void missingValuesAreDistinguishedFromEmptyOnes() {
+        assertThat(MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, AMOUNT, null, null))
+                .isNotEqualTo(MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, AMOUNT, "", null));
+        assertThat(MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, AMOUNT, "Deposito", null))
+                .isNotEqualTo(MovementHashChain.hash(null, 7, 1, DATE, MovementType.INCOME, AMOUNT, "Deposito", CREATED));
+    }
+}
@@ -0,0 +1,61 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Pruebas del avance del horizonte del relay ante huecos en los IDs del outbox y de los huecos que se siguen revisando.
+ */
+class MovementOutboxRelayTests {
+
+    private static final long GRACE = Duration.ofSeconds(5).toNanos();
+
+    @Test
+    void publishesConsecutiveIds() {
+        MovementOutboxRelay.GapTracker tracker = new MovementOutboxRelay.GapTracker(GRACE);
+
+        MovementOutboxRelay.GapTracker.Advance advance = tracker.advance(10, new long[]{11, 12, 13}, 0);
+
+        assertThat(advance.count()).isEqualTo(3);
+        assertThat(advance.skippedIds()).isZero();
+    }
+
+    @Test
+    void waitsForAMissingIdUntilTheGracePeriodEnds() {
+        MovementOutboxRelay.GapTracker tracker = new MovementOutboxRelay.GapTracker(GRACE);
+
+        // 12 aun no confirma: solo se publica 11
+        assertThat(tracker.advance(10, new long[]{11, 13, 14}, 0).count()).isEqualTo(1);
+        assertThat(tracker.advance(11, new long[]{13, 14}, Duration.ofSeconds(2).toNanos()).count()).isZero();
+
+        // 12 llega dentro del periodo de gracia
+        assertThat(tracker.advance(11, new long[]{12, 13, 14}, Duration.ofSeconds(3).toNanos()).count()).isEqualTo(3);
+    }
+
+    @Test
+    void skipsAGapAfterTheGracePeriod() {
+        MovementOutboxRelay.GapTracker tracker = new MovementOutboxRelay.GapTracker(GRACE);
+
+        assertThat(tracker.advance(10, new long[]{14, 15}, 0).count()).isZero();
+        MovementOutboxRelay.GapTracker.Advance advance = tracker.advance(10, new long[]{14, 15, 20}, Duration.ofSeconds(6).toNanos());
+
+        // Pasa 11..13 (queda para revisarse despues); el hueco 16..19 es nuevo y empieza su propio periodo de gracia
+        assertThat(advance.count()).isEqualTo(2);
+        assertThat(advance.skippedIds()).isEqualTo(3);
+        assertThat(advance.skipped()).containsExactly(new MovementOutboxRelay.GapTracker.Gap(11, 13));
+    }
+
+    @Test
+    void lateEventsAreRemovedFromTheirGap() {
+        MovementOutboxRelay.GapTracker.Gap gap = new MovementOutboxRelay.GapTracker.Gap(11, 20);
+
+        // 11, 15 y 16 confirmaron tarde: siguen pendientes 12..14 y 17..20
+        assertThat(gap.without(new long[]{11, 15, 16})).containsExactly(
+                new MovementOutboxRelay.GapTracker.Gap(12, 14), new MovementOutboxRelay.GapTracker.Gap(17, 20));
+        assertThat(gap.without(new long[]{20})).containsExactly(new MovementOutboxRelay.GapTracker.Gap(11, 19));
+        assertThat(new MovementOutboxRelay.GapTracker.Gap(7, 7).without(new long[]{7})).isEmpty();
+    }
+}
@@ -0,0 +1,105 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/*
+ * Pruebas del cortocircuito, de la espera entre reintentos y del ultimo intento del despachador de transferencias externas.
+ */
+class OutboundTransferDispatcherTests {
+
+    private static final long OPEN = Duration.ofSeconds(10).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        OutboundTransferDispatcher.CircuitBreaker breaker = new OutboundTransferDispatcher.CircuitBreaker(3, OPEN, clock::get);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(); // Un exito reinicia el contador
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(OutboundTransferDispatcher.CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void allowsASingleTrialAfterTheOpenPeriod() {
+        OutboundTransferDispatcher.CircuitBreaker breaker = new OutboundTransferDispatcher.CircuitBreaker(1, OPEN, clock::get);
+        breaker.onFailure();
+
+        clock.set(OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        // La prueba falla: se vuelve a abrir por otro periodo completo
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(OutboundTransferDispatcher.CircuitBreaker.State.OPEN);
+        clock.set(OPEN + OPEN - 1);
+        assertThat(breaker.isCallPermitted()).isFalse();
+
+        // La siguiente prueba funciona: se cierra
+        clock.set(OPEN + OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(OutboundTransferDispatcher.CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void releasedTrialCanBeRetaken() {
+        OutboundTransferDispatcher.CircuitBreaker breaker = new OutboundTransferDispatcher.CircuitBreaker(1, OPEN, clock::get);
+        breaker.onFailure();
+        clock.set(OPEN);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.releasePermission(); // La transferencia ya no estaba PENDING: no se envio nada
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithJitterAndCap() {
+        Duration base = Duration.ofSeconds(1);
+        Duration max = Duration.ofMinutes(1);
+
+        assertThat(OutboundTransferDispatcher.backoff(1, base, max, 0.0)).isEqualTo(Duration.ofMillis(500));
+        assertThat(OutboundTransferDispatcher.backoff(1, base, max, 1.0)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(OutboundTransferDispatcher.backoff(4, base, max, 1.0)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(OutboundTransferDispatcher.backoff(30, base, max, 1.0)).isEqualTo(max);
+    }
+
+    @Test
+    void exhaustedTransientFailuresGoToManualReviewWithoutRefund() {
+        OutboundTransferService service = mock(OutboundTransferService.class);
+        OutboundTransferDispatcher dispatcher = new OutboundTransferDispatcher(service, mock(InterbankGateway.class),
+                new SimpleMeterRegistry(), 32, 8, 500, 1_000, 300_000, 120_000, 5, 10_000);
+
+        dispatcher.retryOrGiveUp(OutboundTransfer.builder().id(1L).attempts(3).build(), "Tiempo de espera agotado");
+        verify(service).retryLater(eq(1L), eq("Tiempo de espera agotado"), any(Duration.class));
+
+        // Sin respuesta definitiva el banco destino pudo ejecutarla: no se rechaza ni se devuelve el monto
+        dispatcher.retryOrGiveUp(OutboundTransfer.builder().id(2L).attempts(8).build(), "Tiempo de espera agotado");
+        verify(service).markUnknown(eq(2L), contains("8 intentos"));
+        verify(service, never()).reject(anyLong(), anyString());
+    }
+}
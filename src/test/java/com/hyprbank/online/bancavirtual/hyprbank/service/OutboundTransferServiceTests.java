@@ -0,0 +1,101 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Movement;
+import com.hyprbank.online.bancavirtual.hyprbank.model.OutboundTransfer;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.MovementRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.OutboundTransferRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas de la devolucion del monto de las transferencias externas: solo ante un rechazo definitivo
+ * y con una suma relativa sobre el saldo, sin escribir el saldo leido de la entidad.
+ */
+class OutboundTransferServiceTests {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+    private final OutboundTransferRepository outboundTransferRepository = mock(OutboundTransferRepository.class);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final MovementRepository movementRepository = mock(MovementRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final OutboundTransferService service = new OutboundTransferService(outboundTransferRepository,
+            accountRepository, movementRepository, mock(MovementOutbox.class), mock(AccountLookupCache.class),
+            mock(MovementHashChain.class), mock(ShardedBalances.class), mock(ObjectProvider.class));
+
+    private Account account;
+    private OutboundTransfer transfer;
+
+    @BeforeEach
+    void sentTransfer() {
+        account = new Account();
+        account.setId(7L);
+        account.setAccountNumber("100000000420");
+        account.setBalance(new BigDecimal("100.00")); // Saldo leido; otra transaccion pudo cambiarlo despues
+        transfer = OutboundTransfer.builder()
+                .id(1L)
+                .account(account)
+                .destinationBank("Banco Destino")
+                .destinationAccountNumber("998877")
+                .amount(AMOUNT)
+                .status(OutboundTransfer.Status.SENT)
+                .attempts(8)
+                .build();
+        when(outboundTransferRepository.findById(1L)).thenReturn(Optional.of(transfer));
+        when(movementRepository.save(any(Movement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void rejectionRefundsWithARelativeUpdate() {
+        service.reject(1L, "Cuenta destino inexistente");
+
+        assertThat(transfer.getStatus()).isEqualTo(OutboundTransfer.Status.REJECTED);
+        verify(accountRepository).addToBalance(7L, AMOUNT);
+        verify(accountRepository, never()).save(any(Account.class));
+        assertThat(account.getBalance()).isEqualByComparingTo("100.00");
+        verify(movementRepository).save(any(Movement.class));
+    }
+
+    @Test
+    void unknownOutcomeDoesNotRefund() {
+        service.markUnknown(1L, "Tiempo de espera agotado");
+
+        assertThat(transfer.getStatus()).isEqualTo(OutboundTransfer.Status.UNKNOWN);
+        verify(accountRepository, never()).addToBalance(anyLong(), any());
+        verify(movementRepository, never()).save(any(Movement.class));
+
+        // Una respuesta tardia del gateway ya no la cambia: solo la revision manual
+        service.reject(1L, "Rechazada");
+        assertThat(transfer.getStatus()).isEqualTo(OutboundTransfer.Status.UNKNOWN);
+        verify(accountRepository, never()).addToBalance(anyLong(), any());
+    }
+
+    @Test
+    void manualReviewSettlesOrRefunds() {
+        assertThatThrownBy(() -> service.resolveUnknown(1L, false, "No ejecutada"))
+                .isInstanceOf(IllegalArgumentException.class); // Aun SENT
+
+        service.markUnknown(1L, "Tiempo de espera agotado");
+        service.resolveUnknown(1L, false, "El banco destino confirma que no la ejecuto");
+
+        assertThat(transfer.getStatus()).isEqualTo(OutboundTransfer.Status.REJECTED);
+        verify(accountRepository).addToBalance(7L, AMOUNT);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.TransferRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.RecurringTransfer;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.RecurringTransferRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ * Pruebas del fencing de las ejecuciones programadas: una ocurrencia solo se confirma con el lease vigente.
+ */
+class RecurringTransferServiceTests {
+
+    private static final long TOKEN = 42;
+
+    private final RecurringTransferRepository recurringTransferRepository = mock(RecurringTransferRepository.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+
+    @SuppressWarnings("unchecked")
+    private final RecurringTransferService service = new RecurringTransferService(recurringTransferRepository,
+            mock(AccountRepository.class), mock(UserRepository.class), transactionService, jobLeaseService,
+            mock(ObjectProvider.class), 72, 3);
+
+    private RecurringTransfer transfer;
+
+    @BeforeEach
+    void dueTransfer() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        transfer = RecurringTransfer.builder()
+                .id(1L)
+                .userId(5L)
+                .originAccountNumber("100000000420")
+                .destinationAccountNumber("100000000511")
+                .amount(new BigDecimal("10.00"))
+                .frequency(RecurringTransfer.Frequency.DAILY)
+                .startAt(start)
+                .nextExecutionAt(start)
+                .status(RecurringTransfer.Status.ACTIVE)
+                .build();
+        when(recurringTransferRepository.findById(1L)).thenReturn(Optional.of(transfer));
+    }
+
+    @Test
+    void executesWithTheCurrentLease() {
+        LocalDateTime next = service.executeOccurrence(1L, TOKEN);
+
+        verify(jobLeaseService).checkHeld(RecurringTransferScheduler.LEASE_NAME, TOKEN);
+        verify(transactionService).performInternalTransferToOtherUser(any(TransferRequest.class), any());
+        assertThat(transfer.getOccurrence()).isEqualTo(1);
+        assertThat(next).isEqualTo(transfer.getStartAt().plusDays(1));
+    }
+
+    @Test
+    void aNodeThatLostTheLeaseDoesNotExecuteOrRecordFailures() {
+        doThrow(new IllegalStateException("El lease recurring-transfers (token 42) ya no pertenece al nodo."))
+                .when(jobLeaseService).checkHeld(RecurringTransferScheduler.LEASE_NAME, TOKEN);
+
+        assertThatThrownBy(() -> service.executeOccurrence(1L, TOKEN)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.recordFailure(1L, "Saldo insuficiente", TOKEN)).isInstanceOf(IllegalStateException.class);
+
+        verify(transactionService, never()).performInternalTransferToOtherUser(any(TransferRequest.class), anyLong());
+        assertThat(transfer.getOccurrence()).isZero();
+        assertThat(transfer.getConsecutiveFailures()).isZero();
+    }
+}
@@ -0,0 +1,95 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * Pruebas de la lectura mapeada del archivo de liquidacion y del indice hash de transferencias.
+ */
+class SettlementFileReaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void verifiesTrailerAndReadsRecords() throws Exception {
+        Path file = write("R000000000000000101S000000000012345SIM-101", "R000000000000000102R000000000000050"
+                + " ".repeat(30) + "Cuenta cerrada");
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            SettlementFileReader reader = new SettlementFileReader(channel);
+            SettlementFileReader.Summary summary = reader.verify();
+            assertThat(summary.batchId()).isEqualTo(7);
+            assertThat(summary.records()).isEqualTo(2);
+            assertThat(summary.totalCents()).isEqualTo(12_395);
+
+            List<String> read = new ArrayList<>();
+            reader.forEachRecord(record -> read.add(record.transferId() + ":" + (char) record.result() + ":"
+                    + record.amountCents() + ":" + record.reference() + ":" + record.reason()));
+            assertThat(read).containsExactly("101:S:12345:SIM-101:", "102:R:50::Cuenta cerrada");
+        }
+    }
+
+    @Test
+    void rejectsAFileWhoseTrailerDoesNotMatch() throws Exception {
+        Path file = write("R000000000000000101S000000000012345SIM-101");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[300 + 34] = '9'; // Se altera el monto despues de calcular el registro final
+        Files.write(file, bytes);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertThatThrownBy(() -> new SettlementFileReader(channel).verify())
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("registro final");
+        }
+    }
+
+    @Test
+    void transferIndexFindsConsecutiveIds() {
+        SettlementImportService.TransferIndex index = new SettlementImportService.TransferIndex(1000);
+        for (long id = 1; id <= 1000; id++) {
+            index.put(id, 1, id * 100);
+        }
+
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(index.find(id)).isNotNegative();
+        }
+        assertThat(index.find(1001)).isEqualTo(-1);
+        index.clear();
+        assertThat(index.find(1)).isEqualTo(-1);
+    }
+
+    /*
+     * Archivo con encabezado, los registros R indicados (completados a su ancho) y un registro final correcto.
+     */
+    private Path write(String... records) throws Exception {
+        StringBuilder details = new StringBuilder();
+        long total = 0;
+        for (String record : records) {
+            details.append(pad(record));
+            total += Long.parseLong(record.substring(20, 35));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(details.toString().getBytes(StandardCharsets.ISO_8859_1));
+        String content = pad("H000000000000000007CORRESP 2025030405060701") + details
+                + pad(String.format("T%010d%018d%010d", records.length, total, crc.getValue()));
+        Path file = tempDir.resolve("settlement.txt");
+        Files.writeString(file, content, StandardCharsets.ISO_8859_1);
+        return file;
+    }
+
+    private static String pad(String record) {
+        return record + " ".repeat(SettlementFileReader.RECORD_LENGTH - 1 - record.length()) + "\n";
+    }
+}
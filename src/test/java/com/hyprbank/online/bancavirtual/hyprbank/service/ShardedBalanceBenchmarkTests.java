@@ -0,0 +1,137 @@
+package com.hyprbank.online.bancavirtual.hyprbank.service;
+
+import com.hyprbank.online.bancavirtual.hyprbank.dto.MovementRequest;
+import com.hyprbank.online.bancavirtual.hyprbank.model.Account;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.AccountRepository;
+import com.hyprbank.online.bancavirtual.hyprbank.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Benchmark de creditos por segundo a una sola cuenta (performAdminDeposit desde muchos clientes a la vez),
+ * con el saldo en una fila y repartido en SHARDS filas. Los resultados van al log. Al final comprueba que la compactacion deja el saldo
+ * igual a la suma de los creditos y que los movimientos quedan encadenados.
+ *
+ * Necesita la base de datos MySQL configurada (y al menos un usuario), por eso solo se ejecuta con:
+ *   mvn test -Dtest=ShardedBalanceBenchmarkTests -Dhyprbank.benchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "spring.datasource.hikari.connection-timeout=60000",
+        "hyprbank.sharding.compaction-interval-ms=200"
+})
+@EnabledIfSystemProperty(named = "hyprbank.benchmark", matches = "true")
+class ShardedBalanceBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedBalanceBenchmarkTests.class);
+
+    private static final int CLIENTS = 32;
+    private static final int CREDITS_PER_CLIENT = 200;
+    private static final int SHARDS = 16;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ShardedBalances shardedBalances;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account account;
+
+    @BeforeEach
+    void createHotAccount() {
+        Account hot = new Account();
+        hot.setAccountNumber("BENCH" + System.nanoTime() % 1_000_000_000_000L);
+        hot.setBalance(BigDecimal.ZERO);
+        hot.setAccountType("MONETARIA");
+        hot.setStatus("ACTIVE");
+        hot.setCreationDate(LocalDateTime.now());
+        hot.setUser(userRepository.getReferenceById(jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class)));
+        account = accountRepository.save(hot);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        Long id = account.getId();
+        shardedBalances.configure(id, 0);
+        for (String table : List.of("movement_chain_pending", "movement_outbox", "movements", "account_balance_shards",
+                "movement_chain_checkpoints", "account_balance_snapshots")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE account_id = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM accounts WHERE id = ?", id);
+    }
+
+    @Test
+    void shardedCreditsToOneAccountAreFaster() throws Exception {
+        credit(CLIENTS); // Calentamiento (conexiones, planes de ejecucion, bloques de IDs)
+
+        double singleRowPerSecond = credit(CLIENTS * CREDITS_PER_CLIENT);
+        shardedBalances.configure(account.getId(), SHARDS);
+        double shardedPerSecond = credit(CLIENTS * CREDITS_PER_CLIENT);
+
+        logger.info("Creditos a una cuenta: en una fila {}/s, repartido en {} filas {}/s (x{})",
+                Math.round(singleRowPerSecond), SHARDS, Math.round(shardedPerSecond),
+                String.format("%.1f", shardedPerSecond / singleRowPerSecond));
+
+        shardedBalances.compact();
+        long credits = CLIENTS + 2L * CLIENTS * CREDITS_PER_CLIENT;
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account.getId()))
+                .isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(credits)));
+        assertThat(jdbcTemplate.queryForObject("SELECT chain_seq FROM accounts WHERE id = ?", Long.class, account.getId()))
+                .isEqualTo(credits);
+        assertThat(shardedPerSecond).isGreaterThan(singleRowPerSecond);
+    }
+
+    /*
+     * 'total' creditos repartidos entre CLIENTS hilos virtuales que empiezan a la vez; devuelve creditos por segundo.
+     */
+    private double credit(int total) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < total / CLIENTS; i++) {
+                        transactionService.performAdminDeposit(new MovementRequest(account.getAccountNumber(), AMOUNT, "Benchmark", null));
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return total / ((System.nanoTime() - begin) / 1e9);
+        }
+    }
+}